@@ -0,0 +1,15 @@
+package com.creditx.main.authorization;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a {@link BalanceOperation}. Approved decisions are journaled before they are
+ * returned, or as prepared just before the caller's transaction commits if there is one (sequence
+ * 0 until then); the applied deltas may differ from the requested ones when reserved was floored.
+ */
+public record AuthorizationDecision(boolean approved, Long accountId, Long transactionId,
+                                    BigDecimal availableBalance, BigDecimal reservedBalance,
+                                    BigDecimal appliedAvailableDelta,
+                                    BigDecimal appliedReservedDelta, long sequence) {
+
+}
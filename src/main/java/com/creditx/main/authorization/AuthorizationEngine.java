@@ -0,0 +1,742 @@
+package com.creditx.main.authorization;
+
+import com.creditx.main.model.Account;
+import com.creditx.main.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Optional in-memory authorization engine for issuer balances. Accounts are sharded across
+ * single-writer threads, each fed by a bounded queue, so balance checks and reservations never
+ * wait on Oracle. An approved change made inside a transaction is held in memory until that
+ * transaction is about to commit, then journaled as prepared and synced, and a marker row for it
+ * is written in the transaction itself. Once the transaction commits the change is handed to the
+ * flusher; if it rolls back the change is undone, and its marker never exists. Changes made
+ * outside a transaction are journaled before the caller sees the decision. The accounts table is brought up to date
+ * asynchronously in batches, with a per-shard checkpoint recording how far the journal has been
+ * applied. On startup any journal entries past the checkpoint, and any prepared entries whose
+ * marker committed, are applied before the engine accepts work.
+ *
+ * <p>Each shard keeps at most {@code max-resident-accounts} balances in memory; the least
+ * recently used ones are dropped once all their changes are in the database, and reloaded on
+ * demand.
+ *
+ * <p>While enabled the engine must be the only writer of issuer balances, which also means only
+ * one application instance may run it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorizationEngine {
+
+  private final AccountRepository accountRepository;
+  private final AuthorizationJournalFlusher flusher;
+
+  @Value("${app.authorization.engine.enabled:false}")
+  private boolean enabled;
+
+  @Value("${app.authorization.engine.shards:4}")
+  private int shardCount;
+
+  @Value("${app.authorization.engine.queue-capacity:4096}")
+  private int queueCapacity;
+
+  @Value("${app.authorization.engine.journal-dir:data/authorization-journal}")
+  private String journalDir;
+
+  @Value("${app.authorization.engine.flush-batch-size:1000}")
+  private int flushBatchSize;
+
+  @Value("${app.authorization.engine.timeout-ms:2000}")
+  private long timeoutMs;
+
+  @Value("${app.authorization.engine.max-resident-accounts:100000}")
+  private int maxResidentAccounts;
+
+  // Opens a shard's journal, replaceable in tests
+  private Function<Path, AuthorizationJournal> journals = AuthorizationJournal::new;
+  private Shard[] shards;
+  private volatile boolean running;
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(i, journals.apply(Path.of(journalDir, "shard-" + i + ".log")));
+      shards[i].recover();
+      shards[i].thread.start();
+    }
+    log.info("Authorization engine started with {} shards, journal in {}", shardCount,
+        journalDir);
+  }
+
+  @PreDestroy
+  public void stop() throws Exception {
+    if (shards == null) {
+      return;
+    }
+    // Not interrupted: an interrupt during journal I/O would close the file channel
+    running = false;
+    for (Shard shard : shards) {
+      shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+      flushShard(shard);
+      shard.journal.close();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Current in-memory available balance of the account.
+   */
+  public BigDecimal availableBalance(Long accountId) {
+    return await(submit(accountId, null, Kind.QUERY)).availableBalance();
+  }
+
+  /**
+   * Apply the operation and wait for its decision. When called inside a transaction, an approved
+   * change is journaled as prepared just before that transaction commits, with a marker written
+   * in the transaction, and undone if it does not commit. The balances follow the outcome of the
+   * business operation it belongs to: a crash on either side of the commit replays the change
+   * exactly when its transaction committed.
+   */
+  public AuthorizationDecision apply(BalanceOperation operation) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return await(submit(operation.accountId(), operation, Kind.APPLY));
+    }
+    AuthorizationDecision decision = await(
+        submit(operation.accountId(), operation, Kind.TENTATIVE));
+    if (decision.approved()) {
+      transactionChanges().add(decision);
+    }
+    return decision;
+  }
+
+  private TransactionChanges transactionChanges() {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof TransactionChanges changes && changes.engine() == this) {
+        return changes;
+      }
+    }
+    TransactionChanges changes = new TransactionChanges();
+    TransactionSynchronizationManager.registerSynchronization(changes);
+    return changes;
+  }
+
+  @Scheduled(fixedDelayString = "${app.authorization.engine.flush-interval-ms:200}")
+  public void flushJournals() {
+    if (shards == null) {
+      return;
+    }
+    for (Shard shard : shards) {
+      try {
+        flushShard(shard);
+      } catch (Exception e) {
+        log.error("Failed to flush authorization journal of shard {}: {}", shard.id,
+            e.getMessage(), e);
+      }
+    }
+  }
+
+  private void flushShard(Shard shard) {
+    // The scheduled flush and shutdown both flush; a batch must be applied only once
+    shard.flushLock.lock();
+    try {
+      List<JournalEntry> batch;
+      while (!(batch = shard.pendingBatch(flushBatchSize)).isEmpty()) {
+        flusher.flush(shard.id, batch);
+        shard.markFlushed(batch.size());
+      }
+    } finally {
+      shard.flushLock.unlock();
+    }
+  }
+
+  private CompletableFuture<AuthorizationDecision> submit(Long accountId,
+      BalanceOperation operation, Kind kind) {
+    Shard shard = shardOf(accountId);
+    Command command = new Command(kind, accountId, operation, null, new CompletableFuture<>());
+    if (!shard.queue.offer(command)) {
+      throw new IllegalStateException("Authorization engine is saturated, please retry");
+    }
+    return command.result;
+  }
+
+  /**
+   * Queue the prepare, commit or rollback of one transaction's tentative decisions on a shard.
+   * Never rejected: dropping a commit or rollback would leave the in-memory balance wrong for
+   * good, so this waits for room in the shard's queue instead.
+   */
+  private CompletableFuture<AuthorizationDecision> resolve(Shard shard, Kind kind,
+      List<AuthorizationDecision> group) {
+    Command command = new Command(kind, null, null, group, new CompletableFuture<>());
+    boolean interrupted = false;
+    while (true) {
+      try {
+        shard.queue.put(command);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return command.result;
+  }
+
+  private Shard shardOf(Long accountId) {
+    if (shards == null) {
+      throw new IllegalStateException("Authorization engine is not enabled");
+    }
+    if (accountId == null) {
+      throw new IllegalArgumentException("Account not found: null");
+    }
+    return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+  }
+
+  private AuthorizationDecision await(CompletableFuture<AuthorizationDecision> future) {
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      if (abandon(future, e)) {
+        throw new IllegalStateException("Interrupted while waiting for authorization", e);
+      }
+      return await(future);
+    } catch (TimeoutException e) {
+      if (abandon(future, e)) {
+        throw new IllegalStateException("Timed out waiting for authorization", e);
+      }
+      return await(future);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw new IllegalStateException("Authorization failed", e.getCause());
+    }
+  }
+
+  /**
+   * Tell the shard nobody is waiting for the decision any more, so it undoes the change once it
+   * has been made. Returns false if the decision arrived in the meantime.
+   */
+  private boolean abandon(CompletableFuture<AuthorizationDecision> future, Exception reason) {
+    return future.completeExceptionally(reason);
+  }
+
+  private enum Kind {
+    /** Read the balance. */
+    QUERY,
+    /** Apply and journal at once. */
+    APPLY,
+    /** Apply in memory only, until the caller's transaction completes. */
+    TENTATIVE,
+    /**
+     * Journal a transaction's tentative changes as prepared, answering with the group's prepare
+     * id as the decision's sequence.
+     */
+    PREPARE,
+    /** Hand prepared changes whose transaction committed to the flusher. */
+    CONFIRM,
+    /** Undo tentative changes whose transaction did not commit. */
+    COMPENSATE
+  }
+
+  /**
+   * A request to a shard: an operation on one account, or the tentative decisions one
+   * transaction made on the shard's accounts.
+   */
+  private record Command(Kind kind, Long accountId, BalanceOperation operation,
+                         List<AuthorizationDecision> group,
+                         CompletableFuture<AuthorizationDecision> result) {
+
+  }
+
+  /**
+   * The tentative decisions of one database transaction, grouped by shard. Before the transaction
+   * commits each group is journaled as prepared and its marker written in the transaction; a
+   * failure there rolls the transaction back. Once the outcome is known the groups are confirmed
+   * or compensated.
+   */
+  private final class TransactionChanges implements TransactionSynchronization {
+
+    private final Map<Shard, List<AuthorizationDecision>> groups = new LinkedHashMap<>();
+    private final Map<Shard, Long> prepareIds = new HashMap<>();
+
+    private AuthorizationEngine engine() {
+      return AuthorizationEngine.this;
+    }
+
+    private void add(AuthorizationDecision decision) {
+      groups.computeIfAbsent(shardOf(decision.accountId()), shard -> new ArrayList<>())
+          .add(decision);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      // Queued on every shard first, so the shards sync in parallel
+      Map<Shard, CompletableFuture<AuthorizationDecision>> prepared = new LinkedHashMap<>();
+      groups.forEach((shard, group) -> prepared.put(shard, resolve(shard, Kind.PREPARE, group)));
+      prepared.forEach((shard, result) -> prepareIds.put(shard, await(result).sequence()));
+      prepareIds.forEach((shard, prepareId) -> flusher.markPrepared(shard.id, prepareId));
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      groups.forEach((shard, group) -> {
+        boolean committed = status == STATUS_COMMITTED;
+        Long prepareId = prepareIds.get(shard);
+        if (status == STATUS_UNKNOWN && prepareId != null) {
+          // The marker tells; if it cannot be read, the group stays in doubt until replay
+          try {
+            committed = flusher.isPrepared(shard.id, prepareId);
+          } catch (RuntimeException e) {
+            log.error("Outcome of prepared authorizations {} on shard {} unknown, leaving them "
+                + "to be resolved on restart", prepareId, shard.id, e);
+            return;
+          }
+        }
+        if (committed) {
+          // Already durable as prepared, so nothing to wait for
+          resolve(shard, Kind.CONFIRM, group);
+        } else {
+          log.info("Compensating {} authorizations on shard {} after rollback", group.size(),
+              shard.id);
+          resolve(shard, Kind.COMPENSATE, group);
+        }
+      });
+    }
+  }
+
+  private static final class Balance {
+
+    private BigDecimal available;
+    private BigDecimal reserved;
+    // Tentative changes awaiting their transaction's outcome
+    private int tentative;
+    // Shard's publish count at the latest change, to tell whether the database has caught up
+    private long lastPublished;
+
+    private Balance(BigDecimal available, BigDecimal reserved) {
+      this.available = available;
+      this.reserved = reserved;
+    }
+  }
+
+  private final class Shard implements Runnable {
+
+    private final int id;
+    private final AuthorizationJournal journal;
+    private final BlockingQueue<Command> queue = new ArrayBlockingQueue<>(queueCapacity);
+    private final Thread thread;
+    // Owned by the shard thread, least recently used first
+    private final Map<Long, Balance> balances = new LinkedHashMap<>(16, 0.75f, true);
+    // Appended to the journal by the current batch, handed to the flusher once synced
+    private final List<JournalEntry> unsynced = new ArrayList<>();
+    // Prepared entries per transaction group, until the transaction's outcome is known
+    private final Map<List<AuthorizationDecision>, List<JournalEntry>> inDoubt =
+        new IdentityHashMap<>();
+    // Journaled but not yet applied to the database, shared with the flusher
+    private final List<JournalEntry> pending = new ArrayList<>();
+    private long lastSequence;
+    // Entries ever handed to the flusher, and ever applied by it
+    private long published;
+    private long flushed;
+    private volatile boolean truncateRequested;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Shard(int id, AuthorizationJournal journal) {
+      this.id = id;
+      this.journal = journal;
+      this.thread = Thread.ofPlatform().name("authorization-shard-" + id).daemon().unstarted(this);
+    }
+
+    /**
+     * Apply journal entries past the checkpoint, and prepared entries whose transaction
+     * committed, before accepting work, so every account loaded afterwards already reflects them.
+     */
+    private void recover() {
+      long checkpoint = flusher.lastFlushedSequence(id);
+      List<JournalEntry> journaled = journal.readAll();
+      // Prepared entries may be older than the checkpoint; the flusher settles them by marker
+      List<JournalEntry> unflushed = journaled.stream()
+          .filter(entry -> entry.prepared() || entry.sequence() > checkpoint).toList();
+      if (!unflushed.isEmpty()) {
+        log.info("Replaying {} authorization journal entries of shard {} after sequence {}",
+            unflushed.size(), id, checkpoint);
+        flusher.flush(id, unflushed);
+      }
+      lastSequence = journaled.isEmpty() ? checkpoint
+          : Math.max(checkpoint, journaled.getLast().sequence());
+      journal.truncate();
+    }
+
+    @Override
+    public void run() {
+      List<Command> batch = new ArrayList<>();
+      List<AuthorizationDecision> decisions = new ArrayList<>();
+      while (running) {
+        try {
+          Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        queue.drainTo(batch, 255);
+        process(batch, decisions);
+        batch.clear();
+        decisions.clear();
+      }
+      // Commits and rollbacks still queued must not be lost; new work is refused
+      List<Command> remaining = new ArrayList<>();
+      queue.drainTo(remaining);
+      remaining.removeIf(command -> {
+        if (command.kind() == Kind.CONFIRM || command.kind() == Kind.COMPENSATE) {
+          return false;
+        }
+        command.result.completeExceptionally(
+            new IllegalStateException("Authorization engine is shutting down"));
+        return true;
+      });
+      if (!remaining.isEmpty()) {
+        process(remaining, decisions);
+      }
+    }
+
+    private void process(List<Command> batch, List<AuthorizationDecision> decisions) {
+      long sequenceBefore = lastSequence;
+      for (Command command : batch) {
+        try {
+          decisions.add(decide(command));
+        } catch (RuntimeException e) {
+          decisions.add(null);
+          command.result.completeExceptionally(e);
+        }
+      }
+      if (lastSequence != sequenceBefore) {
+        // Group commit: one sync for the whole drained batch, before any caller is answered
+        try {
+          journal.sync();
+          publish(unsynced);
+          unsynced.clear();
+        } catch (RuntimeException e) {
+          log.error("Authorization journal sync failed on shard {}", id, e);
+          discardUnsynced(batch, decisions, sequenceBefore, e);
+        }
+      }
+      boolean reversed = false;
+      for (int i = 0; i < batch.size(); i++) {
+        AuthorizationDecision decision = decisions.get(i);
+        if (decision != null && !batch.get(i).result.complete(decision)) {
+          // The caller timed out and will treat the operation as failed
+          reversed |= undoAbandoned(batch.get(i), decision);
+        }
+      }
+      if (reversed) {
+        try {
+          journal.sync();
+        } catch (RuntimeException e) {
+          log.error("Authorization journal sync failed on shard {}", id, e);
+        }
+        // Handed on even if unsynced: the callers were told their changes failed, so the
+        // database must not keep them
+        publish(unsynced);
+        unsynced.clear();
+      }
+      if (truncateRequested) {
+        truncateIfFlushed();
+      }
+      evictIdleAccounts();
+    }
+
+    /**
+     * Hand durable changes to the flusher.
+     */
+    private void publish(List<JournalEntry> entries) {
+      synchronized (pending) {
+        pending.addAll(entries);
+      }
+      for (JournalEntry entry : entries) {
+        published++;
+        Balance balance = balances.get(entry.accountId());
+        if (balance != null) {
+          balance.lastPublished = published;
+        }
+      }
+    }
+
+    /**
+     * Back out every change the batch journaled without making it durable and fail its caller:
+     * a direct change is undone in memory and kept from the flusher, and a prepared group is
+     * dropped, leaving its transaction to roll back and compensate it. The journal has dropped
+     * the unsynced records, so their sequence numbers are reused.
+     */
+    private void discardUnsynced(List<Command> batch, List<AuthorizationDecision> decisions,
+        long sequenceBefore, RuntimeException failure) {
+      for (int i = 0; i < batch.size(); i++) {
+        Command command = batch.get(i);
+        AuthorizationDecision decision = decisions.get(i);
+        if (decision == null) {
+          continue;
+        }
+        if (command.kind() == Kind.APPLY && decision.sequence() > 0) {
+          undo(balances.get(decision.accountId()), decision);
+        } else if (command.kind() == Kind.PREPARE) {
+          inDoubt.remove(command.group());
+        } else {
+          continue;
+        }
+        command.result.completeExceptionally(failure);
+        decisions.set(i, null);
+      }
+      unsynced.clear();
+      lastSequence = sequenceBefore;
+    }
+
+    private AuthorizationDecision decide(Command command) {
+      if (command.group() != null) {
+        return switch (command.kind()) {
+          case PREPARE -> prepare(command.group());
+          case CONFIRM -> confirm(command.group());
+          default -> compensate(command.group());
+        };
+      }
+      Balance balance = balances.computeIfAbsent(command.accountId(), this::load);
+      if (command.kind() == Kind.QUERY) {
+        return new AuthorizationDecision(true, command.accountId(), null, balance.available,
+            balance.reserved, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+      }
+      return decide(command, balance);
+    }
+
+    private AuthorizationDecision decide(Command command, Balance balance) {
+      BalanceOperation operation = command.operation();
+      BigDecimal available = balance.available.add(operation.availableDelta());
+      if (operation.requireFunds() && available.signum() < 0) {
+        return new AuthorizationDecision(false, command.accountId(), operation.transactionId(),
+            balance.available, balance.reserved, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+      }
+      BigDecimal reserved = balance.reserved.add(operation.reservedDelta());
+      if (operation.floorReserved() && reserved.signum() < 0) {
+        log.warn("Reserved balance would go negative for account {}, setting to zero",
+            command.accountId());
+        reserved = BigDecimal.ZERO;
+      }
+      BigDecimal appliedAvailable = available.subtract(balance.available);
+      BigDecimal appliedReserved = reserved.subtract(balance.reserved);
+
+      long sequence = 0;
+      if (command.kind() == Kind.APPLY) {
+        sequence = append(command.accountId(), operation.transactionId(), appliedAvailable,
+            appliedReserved);
+      } else {
+        balance.tentative++;
+      }
+      balance.available = available;
+      balance.reserved = reserved;
+      return new AuthorizationDecision(true, command.accountId(), operation.transactionId(),
+          available, reserved, appliedAvailable, appliedReserved, sequence);
+    }
+
+    /**
+     * Journal a transaction's tentative changes on this shard as one prepared group, identified
+     * by the sequence of its first record, and hold them in doubt until the outcome is known.
+     */
+    private AuthorizationDecision prepare(List<AuthorizationDecision> group) {
+      long prepareId = lastSequence + 1;
+      List<JournalEntry> entries = new ArrayList<>(group.size());
+      for (AuthorizationDecision decision : group) {
+        entries.add(record(decision.accountId(), decision.transactionId(),
+            decision.appliedAvailableDelta(), decision.appliedReservedDelta(), prepareId));
+      }
+      inDoubt.put(group, entries);
+      AuthorizationDecision first = group.getFirst();
+      return new AuthorizationDecision(true, first.accountId(), first.transactionId(),
+          first.availableBalance(), first.reservedBalance(), BigDecimal.ZERO, BigDecimal.ZERO,
+          prepareId);
+    }
+
+    private AuthorizationDecision confirm(List<AuthorizationDecision> group) {
+      List<JournalEntry> prepared = inDoubt.remove(group);
+      if (prepared != null) {
+        publish(prepared);
+      } else {
+        // A commit without a prepare should not happen; journal the changes so they are kept
+        log.error("Confirming {} unprepared authorizations on shard {}", group.size(), id);
+        for (AuthorizationDecision decision : group) {
+          append(decision.accountId(), decision.transactionId(),
+              decision.appliedAvailableDelta(), decision.appliedReservedDelta());
+        }
+      }
+      for (AuthorizationDecision decision : group) {
+        balances.get(decision.accountId()).tentative--;
+      }
+      return group.getFirst();
+    }
+
+    private AuthorizationDecision compensate(List<AuthorizationDecision> group) {
+      // A prepared group stays in the journal, but without a committed marker it is never applied
+      inDoubt.remove(group);
+      for (AuthorizationDecision decision : group) {
+        Balance balance = balances.get(decision.accountId());
+        undo(balance, decision);
+        balance.tentative--;
+      }
+      return group.getFirst();
+    }
+
+    private AuthorizationDecision reverse(Balance balance, AuthorizationDecision decision) {
+      undo(balance, decision);
+      long sequence = append(decision.accountId(), decision.transactionId(),
+          decision.appliedAvailableDelta().negate(), decision.appliedReservedDelta().negate());
+      return new AuthorizationDecision(true, decision.accountId(), decision.transactionId(),
+          balance.available, balance.reserved, decision.appliedAvailableDelta().negate(),
+          decision.appliedReservedDelta().negate(), sequence);
+    }
+
+    private void undo(Balance balance, AuthorizationDecision decision) {
+      balance.available = balance.available.subtract(decision.appliedAvailableDelta());
+      balance.reserved = balance.reserved.subtract(decision.appliedReservedDelta());
+    }
+
+    /**
+     * Undo an approved change whose caller stopped waiting, returning whether a reversal was
+     * journaled. A prepare needs nothing here: its transaction rolls back and compensates.
+     */
+    private boolean undoAbandoned(Command command, AuthorizationDecision decision) {
+      if (!decision.approved()) {
+        return false;
+      }
+      return switch (command.kind()) {
+        case TENTATIVE -> {
+          Balance balance = balances.get(command.accountId());
+          undo(balance, decision);
+          balance.tentative--;
+          yield false;
+        }
+        case APPLY -> {
+          reverse(balances.get(command.accountId()), decision);
+          yield true;
+        }
+        default -> false;
+      };
+    }
+
+    private long append(Long accountId, Long transactionId, BigDecimal availableDelta,
+        BigDecimal reservedDelta) {
+      JournalEntry entry = record(accountId, transactionId, availableDelta, reservedDelta, 0);
+      unsynced.add(entry);
+      return entry.sequence();
+    }
+
+    private JournalEntry record(Long accountId, Long transactionId, BigDecimal availableDelta,
+        BigDecimal reservedDelta, long prepareId) {
+      JournalEntry entry = new JournalEntry(++lastSequence, accountId,
+          transactionId != null ? transactionId : -1L, availableDelta, reservedDelta, prepareId);
+      journal.append(entry);
+      return entry;
+    }
+
+    /**
+     * Drop least recently used balances beyond the bound. Only accounts without tentative
+     * changes and whose journaled changes are all in the database can be reloaded from it.
+     */
+    private void evictIdleAccounts() {
+      if (balances.size() <= maxResidentAccounts) {
+        return;
+      }
+      long applied;
+      synchronized (pending) {
+        applied = flushed;
+      }
+      Iterator<Balance> lru = balances.values().iterator();
+      while (balances.size() > maxResidentAccounts && lru.hasNext()) {
+        Balance balance = lru.next();
+        if (balance.tentative == 0 && balance.lastPublished <= applied) {
+          lru.remove();
+        }
+      }
+    }
+
+    private Balance load(Long accountId) {
+      Account account = accountRepository.findById(accountId)
+          .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
+      return new Balance(account.getAvailableBalance().toBigDecimal(),
+          account.getReserved().toBigDecimal());
+    }
+
+    private List<JournalEntry> pendingBatch(int limit) {
+      synchronized (pending) {
+        int end = Math.min(limit, pending.size());
+        // A prepared group is flushed whole, since flushing it deletes its marker
+        while (end > 0 && end < pending.size() && pending.get(end).prepared()
+            && pending.get(end).prepareId() == pending.get(end - 1).prepareId()) {
+          end++;
+        }
+        return List.copyOf(pending.subList(0, end));
+      }
+    }
+
+    private void markFlushed(int count) {
+      synchronized (pending) {
+        pending.subList(0, count).clear();
+        flushed += count;
+      }
+      // The journal file belongs to the shard thread, so it compacts it on its next batch
+      truncateRequested = true;
+    }
+
+    /**
+     * Empty the journal once everything in it is in the database or settled, keeping it while
+     * a prepared group still awaits its transaction's outcome.
+     */
+    private void truncateIfFlushed() {
+      synchronized (pending) {
+        if (!pending.isEmpty()) {
+          return;
+        }
+      }
+      if (!inDoubt.isEmpty()) {
+        return;
+      }
+      journal.truncate();
+      truncateRequested = false;
+    }
+  }
+}
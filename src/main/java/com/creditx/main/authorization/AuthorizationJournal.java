@@ -0,0 +1,168 @@
+package com.creditx.main.authorization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only file of fixed-size, checksummed journal records for one engine shard. Amounts are
+ * stored as unscaled longs at the accounts' scale of 2. A torn record at the tail (crash during
+ * a write) fails its checksum and is cut off when the journal is opened. A failed sync cuts the
+ * file back to its last synced length, so records the caller was told failed are never replayed.
+ */
+@Slf4j
+class AuthorizationJournal implements AutoCloseable {
+
+  static final int SCALE = 2;
+  private static final int PAYLOAD_BYTES = 6 * Long.BYTES;
+  private static final int RECORD_BYTES = PAYLOAD_BYTES + Integer.BYTES;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 256);
+  // Length of the file up to the last successful sync, and records appended since
+  private long syncedLength;
+  private int unsyncedRecords;
+
+  AuthorizationJournal(Path path) {
+    this.path = path;
+    try {
+      Files.createDirectories(path.getParent());
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open authorization journal " + path, e);
+    }
+  }
+
+  /**
+   * Read all intact records and position the journal after the last one.
+   */
+  List<JournalEntry> readAll() {
+    List<JournalEntry> entries = new ArrayList<>();
+    ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    try {
+      long position = 0;
+      while (channel.read(record.clear(), position) == RECORD_BYTES) {
+        record.flip();
+        ByteBuffer payload = record.slice(0, PAYLOAD_BYTES);
+        if (checksum(payload) != record.getInt(PAYLOAD_BYTES)) {
+          break;
+        }
+        entries.add(new JournalEntry(record.getLong(), record.getLong(), record.getLong(),
+            BigDecimal.valueOf(record.getLong(), SCALE), BigDecimal.valueOf(record.getLong(),
+            SCALE), record.getLong()));
+        position += RECORD_BYTES;
+      }
+      if (position < channel.size()) {
+        log.warn("Discarding {} trailing bytes of incomplete records in {}",
+            channel.size() - position, path);
+        channel.truncate(position);
+      }
+      channel.position(position);
+      syncedLength = position;
+      unsyncedRecords = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read authorization journal " + path, e);
+    }
+    return entries;
+  }
+
+  /**
+   * Buffer a record; it is durable only after {@link #sync()}.
+   */
+  void append(JournalEntry entry) {
+    if (buffer.remaining() < RECORD_BYTES) {
+      writeBuffer();
+    }
+    int start = buffer.position();
+    buffer.putLong(entry.sequence()).putLong(entry.accountId()).putLong(entry.transactionId())
+        .putLong(unscaled(entry.availableDelta())).putLong(unscaled(entry.reservedDelta()))
+        .putLong(entry.prepareId());
+    buffer.putInt(checksum(buffer.slice(start, PAYLOAD_BYTES)));
+    unsyncedRecords++;
+  }
+
+  /**
+   * Write buffered records and force them to disk.
+   */
+  void sync() {
+    try {
+      writeBuffer();
+      // A failed write while appending loses the records buffered before it
+      if (channel.position() != syncedLength + (long) unsyncedRecords * RECORD_BYTES) {
+        throw new IOException("Records appended since the last sync were not written");
+      }
+      channel.force(false);
+      syncedLength = channel.position();
+      unsyncedRecords = 0;
+    } catch (IOException e) {
+      discardUnsynced();
+      throw new UncheckedIOException("Failed to sync authorization journal " + path, e);
+    } catch (RuntimeException e) {
+      discardUnsynced();
+      throw e;
+    }
+  }
+
+  void truncate() {
+    try {
+      buffer.clear();
+      channel.truncate(0);
+      channel.position(0);
+      channel.force(true);
+      syncedLength = 0;
+      unsyncedRecords = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to truncate authorization journal " + path, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void discardUnsynced() {
+    buffer.clear();
+    unsyncedRecords = 0;
+    try {
+      channel.truncate(syncedLength);
+      channel.position(syncedLength);
+    } catch (IOException e) {
+      log.error("Failed to discard unsynced records of {}", path, e);
+    }
+  }
+
+  private void writeBuffer() {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to authorization journal " + path, e);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  private static long unscaled(BigDecimal amount) {
+    return amount.setScale(SCALE).unscaledValue().longValueExact();
+  }
+
+  private static int checksum(ByteBuffer payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload.duplicate());
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,99 @@
+package com.creditx.main.authorization;
+
+import com.creditx.main.model.AuthorizationCheckpoint;
+import com.creditx.main.repository.AccountRepository;
+import com.creditx.main.repository.AuthorizationCheckpointRepository;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Applies journaled balance changes to CMS_ACCOUNTS, one net UPDATE per account, together with
+ * the shard's checkpoint in a single transaction. Entries at or below the checkpoint have already
+ * been applied and are skipped. Prepared entries are applied only while the marker row their
+ * transaction committed still exists, and the marker is deleted with them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorizationJournalFlusher {
+
+  private final AccountRepository accountRepository;
+  private final AuthorizationCheckpointRepository checkpointRepository;
+
+  public long lastFlushedSequence(int shardId) {
+    return checkpointRepository.findById(shardId).map(AuthorizationCheckpoint::getLastSequence)
+        .orElse(0L);
+  }
+
+  /**
+   * Write the marker of a prepared group in the caller's transaction.
+   */
+  @Transactional(TxType.MANDATORY)
+  public void markPrepared(int shardId, long prepareId) {
+    checkpointRepository.insertPrepared(shardId, prepareId);
+  }
+
+  /**
+   * Whether the transaction that prepared the group committed, for when its outcome was not
+   * reported.
+   */
+  @Transactional(TxType.REQUIRES_NEW)
+  public boolean isPrepared(int shardId, long prepareId) {
+    return !checkpointRepository.findPrepared(shardId, List.of(prepareId)).isEmpty();
+  }
+
+  @Transactional
+  public void flush(int shardId, List<JournalEntry> journaled) {
+    long checkpoint = lastFlushedSequence(shardId);
+    List<Long> prepareIds = journaled.stream().filter(JournalEntry::prepared)
+        .map(JournalEntry::prepareId).distinct().toList();
+    Set<Long> committed = prepareIds.isEmpty() ? Set.of()
+        : checkpointRepository.findPrepared(shardId, prepareIds).stream()
+            .map(Number::longValue).collect(Collectors.toSet());
+    if (!committed.isEmpty()) {
+      checkpointRepository.deletePrepared(shardId, committed);
+    }
+    List<JournalEntry> entries = journaled.stream()
+        .filter(entry -> entry.prepared() ? committed.contains(entry.prepareId())
+            : entry.sequence() > checkpoint)
+        .toList();
+    if (entries.isEmpty()) {
+      return;
+    }
+    // Sorted by account id so concurrent flushes lock rows in the same order
+    Map<Long, BigDecimal[]> deltas = new TreeMap<>();
+    for (JournalEntry entry : entries) {
+      BigDecimal[] delta = deltas.computeIfAbsent(entry.accountId(),
+          id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+      delta[0] = delta[0].add(entry.availableDelta());
+      delta[1] = delta[1].add(entry.reservedDelta());
+    }
+    deltas.forEach((accountId, delta) -> {
+      // Already validated by the engine, so applied as-is
+      if (accountRepository.addToBalances(accountId, delta[0], delta[1]) == 0) {
+        throw new IllegalStateException(
+            "Journaled balance change for missing account " + accountId);
+      }
+    });
+
+    // Prepared entries are settled by their markers and may be older than the checkpoint
+    long lastSequence = entries.stream().filter(entry -> !entry.prepared())
+        .mapToLong(JournalEntry::sequence).max().orElse(checkpoint);
+    if (lastSequence > checkpoint) {
+      checkpointRepository.save(AuthorizationCheckpoint.builder().shardId(shardId)
+          .lastSequence(lastSequence).updatedAt(Instant.now()).build());
+    }
+    log.debug("Flushed {} journal entries of shard {} up to sequence {} ({} accounts)",
+        entries.size(), shardId, lastSequence, deltas.size());
+  }
+}
@@ -0,0 +1,52 @@
+package com.creditx.main.authorization;
+
+import java.math.BigDecimal;
+
+/**
+ * A change to an issuer account's available and reserved balances.
+ *
+ * @param requireFunds  reject the operation if it would make the available balance negative
+ * @param floorReserved clamp the reserved balance at zero instead of letting it go negative
+ */
+public record BalanceOperation(Long accountId, Long transactionId, BigDecimal availableDelta,
+                               BigDecimal reservedDelta, boolean requireFunds,
+                               boolean floorReserved) {
+
+  /**
+   * Hold placed: available_balance -= amount, reserved += amount.
+   */
+  public static BalanceOperation reserve(Long accountId, Long transactionId, BigDecimal amount) {
+    return new BalanceOperation(accountId, transactionId, amount.negate(), amount, true, false);
+  }
+
+  /**
+   * Hold expired or voided: available_balance += amount, reserved -= amount (floored at zero).
+   */
+  public static BalanceOperation release(Long accountId, Long transactionId, BigDecimal amount) {
+    return new BalanceOperation(accountId, transactionId, amount, amount.negate(), false, true);
+  }
+
+  /**
+   * Held transaction posted: available_balance -= amount, reserved -= amount.
+   */
+  public static BalanceOperation settle(Long accountId, Long transactionId, BigDecimal amount) {
+    return new BalanceOperation(accountId, transactionId, amount.negate(), amount.negate(), false,
+        false);
+  }
+
+  /**
+   * Direct credit: available_balance += amount.
+   */
+  public static BalanceOperation credit(Long accountId, Long transactionId, BigDecimal amount) {
+    return new BalanceOperation(accountId, transactionId, amount, BigDecimal.ZERO, false, false);
+  }
+
+  /**
+   * Arbitrary net change, e.g. the coalesced deltas of a hold-event batch.
+   */
+  public static BalanceOperation delta(Long accountId, BigDecimal availableDelta,
+      BigDecimal reservedDelta) {
+    return new BalanceOperation(accountId, null, availableDelta, reservedDelta,
+        availableDelta.signum() < 0, true);
+  }
+}
@@ -0,0 +1,22 @@
+package com.creditx.main.authorization;
+
+import java.math.BigDecimal;
+
+/**
+ * One applied balance change as recorded in a shard's journal. A change made inside a database
+ * transaction is recorded as prepared before that transaction commits: its prepare id is the
+ * sequence of the first record its transaction prepared on the shard, and 0 for changes applied
+ * directly.
+ */
+record JournalEntry(long sequence, long accountId, long transactionId, BigDecimal availableDelta,
+                    BigDecimal reservedDelta, long prepareId) {
+
+  JournalEntry(long sequence, long accountId, long transactionId, BigDecimal availableDelta,
+      BigDecimal reservedDelta) {
+    this(sequence, accountId, transactionId, availableDelta, reservedDelta, 0);
+  }
+
+  boolean prepared() {
+    return prepareId != 0;
+  }
+}
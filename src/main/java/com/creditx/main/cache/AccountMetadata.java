@@ -0,0 +1,22 @@
+package com.creditx.main.cache;
+
+import com.creditx.main.model.Account;
+import com.creditx.main.model.AccountStatus;
+import com.creditx.main.model.AccountType;
+import java.math.BigDecimal;
+
+/**
+ * The slowly changing part of an account, as used for request validation.
+ */
+public record AccountMetadata(Long accountId, AccountType type, AccountStatus status,
+                              BigDecimal creditLimit) {
+
+  public static AccountMetadata of(Account account) {
+    return new AccountMetadata(account.getAccountId(), account.getType(), account.getStatus(),
+        account.getCreditLimit());
+  }
+
+  public boolean isActive() {
+    return AccountStatus.ACTIVE.equals(status);
+  }
+}
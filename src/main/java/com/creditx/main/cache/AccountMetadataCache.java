@@ -0,0 +1,116 @@
+package com.creditx.main.cache;
+
+import com.creditx.main.model.AccountType;
+import com.creditx.main.repository.AccountRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded near-cache of account type, status and credit limit, so requests naming unknown,
+ * BLOCKED or CLOSED accounts are rejected without touching the database. Active accounts are
+ * kept for the regular TTL; unknown and inactive accounts are cached negatively for a shorter
+ * TTL so that newly created or reactivated accounts become usable quickly. Status changes made
+ * through JPA evict the entry (see {@link AccountMetadataInvalidationListener}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountMetadataCache {
+
+  private final AccountRepository accountRepository;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.accounts.metadata-cache.maximum-size:10000}")
+  private long maximumSize;
+
+  @Value("${app.accounts.metadata-cache.ttl-seconds:300}")
+  private long ttlSeconds;
+
+  @Value("${app.accounts.metadata-cache.negative-ttl-seconds:30}")
+  private long negativeTtlSeconds;
+
+  private Cache<Long, Optional<AccountMetadata>> cache;
+
+  @PostConstruct
+  public void init() {
+    long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+    cache = Caffeine.newBuilder().maximumSize(maximumSize).recordStats()
+        .expireAfter(new Expiry<Long, Optional<AccountMetadata>>() {
+          @Override
+          public long expireAfterCreate(Long key, Optional<AccountMetadata> value,
+              long currentTime) {
+            return value.map(AccountMetadata::isActive).orElse(false) ? ttlNanos
+                : negativeTtlNanos;
+          }
+
+          @Override
+          public long expireAfterUpdate(Long key, Optional<AccountMetadata> value,
+              long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(Long key, Optional<AccountMetadata> value,
+              long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        }).build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "accountMetadata");
+  }
+
+  /**
+   * Metadata of the account, loading it on a miss; empty if the account does not exist.
+   */
+  public Optional<AccountMetadata> get(Long accountId) {
+    return cache.get(accountId,
+        id -> accountRepository.findById(id).map(AccountMetadata::of));
+  }
+
+  /**
+   * Reject the pair before any row is loaded, with the same messages as the full validation.
+   *
+   * @param requireTypes whether the issuer/merchant account types must also match
+   */
+  public void checkParties(Long issuerAccountId, Long merchantAccountId, boolean requireTypes) {
+    AccountMetadata issuer = get(issuerAccountId)
+        .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
+    AccountMetadata merchant = get(merchantAccountId)
+        .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+
+    if (requireTypes && !AccountType.ISSUER.equals(issuer.type())) {
+      throw new IllegalArgumentException("Issuer account type invalid");
+    }
+    if (requireTypes && !AccountType.MERCHANT.equals(merchant.type())) {
+      throw new IllegalArgumentException("Merchant account type invalid");
+    }
+    if (!issuer.isActive() || !merchant.isActive()) {
+      throw new IllegalArgumentException("Accounts must be ACTIVE");
+    }
+  }
+
+  /**
+   * Evict the entry if the cached status differs from the one just written.
+   */
+  public void onAccountChanged(AccountMetadata current) {
+    Optional<AccountMetadata> cached = cache.getIfPresent(current.accountId());
+    if (cached != null && !cached.equals(Optional.of(current))) {
+      log.debug("Evicting account metadata for {} after change", current.accountId());
+      cache.invalidate(current.accountId());
+    }
+  }
+
+  public void evict(Long accountId) {
+    cache.invalidate(accountId);
+  }
+}
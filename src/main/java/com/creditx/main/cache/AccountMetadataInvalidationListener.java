@@ -0,0 +1,38 @@
+package com.creditx.main.cache;
+
+import com.creditx.main.model.Account;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener keeping {@link AccountMetadataCache} in step with account writes. Balance
+ * updates leave the cached entry alone; only type, status or credit limit changes evict it. The
+ * cache is looked up lazily because Hibernate creates this listener while the repositories the
+ * cache depends on are still being built.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountMetadataInvalidationListener {
+
+  private final ObjectProvider<AccountMetadataCache> accountMetadataCache;
+
+  @PostPersist
+  public void onPersist(Account account) {
+    // Drops a negative entry cached before the account existed
+    accountMetadataCache.getObject().evict(account.getAccountId());
+  }
+
+  @PostUpdate
+  public void onUpdate(Account account) {
+    accountMetadataCache.getObject().onAccountChanged(AccountMetadata.of(account));
+  }
+
+  @PostRemove
+  public void onRemove(Account account) {
+    accountMetadataCache.getObject().evict(account.getAccountId());
+  }
+}
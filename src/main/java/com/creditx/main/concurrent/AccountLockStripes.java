@@ -0,0 +1,105 @@
+package com.creditx.main.concurrent;
+
+import com.creditx.main.deadline.Deadline;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed set of fair locks striped by account id. Requests that will lock the same account rows
+ * queue here, in arrival order, before they open a database transaction, so waiting requests do
+ * not hold pooled connections. Stripes are always taken in ascending index order, so callers
+ * locking several accounts cannot deadlock each other.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountLockStripes {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.accounts.lock-stripes:64}")
+  private int stripeCount;
+
+  @Value("${app.accounts.lock-timeout-ms:5000}")
+  private long lockTimeoutMs;
+
+  private ReentrantLock[] stripes;
+  private Timer[] waitTimers;
+
+  @PostConstruct
+  public void init() {
+    stripes = new ReentrantLock[stripeCount];
+    waitTimers = new Timer[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      ReentrantLock lock = new ReentrantLock(true);
+      stripes[i] = lock;
+      String stripe = String.valueOf(i);
+      Gauge.builder("creditx.account.lock.queue", lock, ReentrantLock::getQueueLength)
+          .description("Requests waiting for the account lock stripe").tag("stripe", stripe)
+          .register(meterRegistry);
+      waitTimers[i] = Timer.builder("creditx.account.lock.wait")
+          .description("Time spent waiting for the account lock stripe").tag("stripe", stripe)
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Run the action while holding the stripes of all given accounts.
+   *
+   * @throws IllegalStateException if a stripe cannot be acquired within the lock timeout
+   */
+  public <T> T withLocks(Collection<Long> accountIds, Supplier<T> action) {
+    int[] indexes = accountIds.stream().filter(Objects::nonNull).mapToInt(this::stripeOf)
+        .distinct().sorted().toArray();
+    int acquired = 0;
+    try {
+      for (int index : indexes) {
+        lock(index);
+        acquired++;
+      }
+      return action.get();
+    } finally {
+      for (int i = acquired - 1; i >= 0; i--) {
+        stripes[indexes[i]].unlock();
+      }
+    }
+  }
+
+  int stripeOf(Long accountId) {
+    return Math.floorMod(accountId.hashCode(), stripeCount);
+  }
+
+  private void lock(int index) {
+    long start = System.nanoTime();
+    // Never wait past the request deadline for a lock
+    Deadline deadline = Deadline.current();
+    long waitMs = deadline != null
+        ? Math.min(lockTimeoutMs, deadline.remainingMillis())
+        : lockTimeoutMs;
+    boolean locked;
+    try {
+      locked = stripes[index].tryLock(waitMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for account lock", e);
+    } finally {
+      waitTimers[index].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!locked) {
+      Deadline.checkCurrent("acquiring account lock");
+      log.warn("Timed out after {} ms waiting for account lock stripe {}", lockTimeoutMs, index);
+      throw new IllegalStateException("Account is busy, please retry");
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.creditx.main.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to measured latency, after the gradient algorithm: a fast moving
+ * average of request latency is compared with a slow one, and the limit shrinks when the fast one
+ * rises above the slow baseline (requests are queueing somewhere downstream) and grows by a
+ * small queue allowance while latency holds steady. Samples taken while far below the limit say
+ * nothing about capacity and are ignored.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  // Latency may rise this much over the baseline before the limit shrinks
+  private static final double TOLERANCE = 1.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double SHORT_WINDOW = 10;
+  private static final double LONG_WINDOW = 600;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+
+  // Guarded by this
+  private double shortRttNanos;
+  private double longRttNanos;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit < 1 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  /**
+   * Take a slot if the current limit allows; every successful call must be paired with
+   * {@link #release(long)}.
+   */
+  public boolean tryAcquire() {
+    int current = inFlight.incrementAndGet();
+    if (current > (int) limit) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Give the slot back and feed the request's latency into the limit.
+   */
+  public void release(long latencyNanos) {
+    int current = inFlight.getAndDecrement();
+    onSample(latencyNanos, current);
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void onSample(long latencyNanos, int inFlightAtSample) {
+    if (shortRttNanos == 0) {
+      shortRttNanos = latencyNanos;
+      longRttNanos = latencyNanos;
+    }
+    shortRttNanos += (latencyNanos - shortRttNanos) / SHORT_WINDOW;
+    longRttNanos += (latencyNanos - longRttNanos) / LONG_WINDOW;
+    // After a slow period the baseline lags behind; pull it down so the limit can recover
+    if (longRttNanos > 2 * shortRttNanos) {
+      longRttNanos *= 0.95;
+    }
+
+    double current = limit;
+    if (inFlightAtSample < current / 2) {
+      return;
+    }
+    double gradient = Math.clamp(TOLERANCE * longRttNanos / shortRttNanos, 0.5, 1.0);
+    double target = current * gradient + Math.sqrt(current);
+    limit = Math.clamp(current * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+  }
+}
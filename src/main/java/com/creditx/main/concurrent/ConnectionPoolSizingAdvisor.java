@@ -0,0 +1,118 @@
+package com.creditx.main.concurrent;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes connection-pool sizing guidance. With platform threads the Tomcat pool caps how many
+ * requests can want a connection at once; with virtual threads nothing does, and the Hikari pool
+ * becomes the effective concurrency bound. Demand is sampled as connections in use plus threads
+ * waiting for one, smoothed and tracked as a slowly decaying peak, and the suggested size is that
+ * demand with some headroom. When the database core count is known the suggestion is capped at
+ * twice that plus one, beyond which a bigger pool only adds contention inside the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionPoolSizingAdvisor {
+
+  // Weight of the newest sample in the demand average
+  private static final double DEMAND_EWMA_ALPHA = 0.2;
+  // Per-sample decay of the demand peak; about a minute to halve at the default interval
+  private static final double PEAK_DECAY = 0.99;
+
+  private final DataSource dataSource;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.db.pool-sizing.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.db.pool-sizing.headroom:1.2}")
+  private double headroom;
+
+  @Value("${app.db.pool-sizing.database-cores:0}")
+  private int databaseCores;
+
+  private volatile double demandAverage;
+  private volatile double demandPeak;
+  private volatile int suggestedSize;
+  private volatile boolean undersized;
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    Gauge.builder("creditx.db.pool.demand", this, advisor -> advisor.demandAverage)
+        .description("Smoothed connections in use plus threads waiting for a connection")
+        .register(meterRegistry);
+    Gauge.builder("creditx.db.pool.demand.peak", this, advisor -> advisor.demandPeak)
+        .description("Recent peak of connections in use plus threads waiting for one")
+        .register(meterRegistry);
+    Gauge.builder("creditx.db.pool.suggested-size", this, advisor -> advisor.suggestedSize)
+        .description("Connection pool size suggested by the observed demand")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${app.db.pool-sizing.sample-interval-ms:1000}")
+  public void sample() {
+    if (!enabled) {
+      return;
+    }
+    HikariDataSource hikari = hikari();
+    HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+    if (pool == null) {
+      return;
+    }
+    int waiting = pool.getThreadsAwaitingConnection();
+    int demand = pool.getActiveConnections() + waiting;
+    double average = demandAverage == 0
+        ? demand
+        : DEMAND_EWMA_ALPHA * demand + (1 - DEMAND_EWMA_ALPHA) * demandAverage;
+    double peak = Math.max(demand, demandPeak * PEAK_DECAY);
+    demandAverage = average;
+    demandPeak = peak;
+    suggestedSize = suggest(average, peak);
+
+    int maximumPoolSize = hikari.getMaximumPoolSize();
+    boolean starved = waiting > 0 && suggestedSize > maximumPoolSize;
+    if (starved && !undersized) {
+      log.warn("Connection pool {} looks undersized: {} threads waiting, suggested size {}, "
+          + "maximum {}", hikari.getPoolName(), waiting, suggestedSize, maximumPoolSize);
+    } else if (!starved && undersized) {
+      log.info("Connection pool {} demand back within its maximum of {}", hikari.getPoolName(),
+          maximumPoolSize);
+    }
+    undersized = starved;
+  }
+
+  int getSuggestedSize() {
+    return suggestedSize;
+  }
+
+  int suggest(double average, double peak) {
+    int suggested = Math.max(1, (int) Math.ceil(Math.max(average, peak) * headroom));
+    return databaseCores > 0 ? Math.min(suggested, databaseCores * 2 + 1) : suggested;
+  }
+
+  private HikariDataSource hikari() {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class)
+          ? dataSource.unwrap(HikariDataSource.class)
+          : null;
+    } catch (SQLException e) {
+      log.debug("Unable to read connection pool state: {}", e.getMessage());
+      return null;
+    }
+  }
+}
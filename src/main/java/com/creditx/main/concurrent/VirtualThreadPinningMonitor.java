@@ -0,0 +1,111 @@
+package com.creditx.main.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, which blocks the carrier for
+ * every other virtual thread scheduled on it. Pinned intervals longer than the threshold are
+ * streamed from JFR and timed per site, the first frame outside the JDK, so a driver section that
+ * pins (a native call, or synchronized on runtimes before JDK 24) shows up as its own series.
+ * The stack of each new site is logged once. Only active in virtual-thread mode.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 12;
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  @Value("${app.threads.virtual.pinning-threshold-ms:20}")
+  private long thresholdMs;
+
+  private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+  private RecordingStream stream;
+
+  @PostConstruct
+  public void start() {
+    if (!virtualThreads) {
+      return;
+    }
+    try {
+      stream = new RecordingStream();
+      stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+      stream.onEvent(PINNED_EVENT, this::onPinned);
+      stream.startAsync();
+      log.info("Recording virtual thread pinning longer than {} ms", thresholdMs);
+    } catch (RuntimeException e) {
+      // JFR may be unavailable or restricted; pinning diagnostics are best effort
+      log.warn("Unable to start virtual thread pinning diagnostics: {}", e.getMessage());
+      stream = null;
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+
+  void onPinned(RecordedEvent event) {
+    List<RecordedFrame> frames = event.getStackTrace() == null ? List.of()
+        : event.getStackTrace().getFrames();
+    String site = site(frames);
+    Timer.builder("creditx.threads.virtual.pinned")
+        .description("Time virtual threads stayed pinned to their carrier, by pinning site")
+        .tag("site", site).register(meterRegistry).record(event.getDuration());
+    if (loggedSites.add(site)) {
+      log.warn("Virtual thread pinned for {} ms at {}{}", event.getDuration().toMillis(), site,
+          describe(event.getStackTrace()));
+    }
+  }
+
+  /**
+   * Class of the first frame outside the JDK; the frames above it are the JDK's own locking and
+   * I/O, which say nothing about which caller is responsible.
+   */
+  static String site(List<RecordedFrame> frames) {
+    for (RecordedFrame frame : frames) {
+      if (frame.getMethod() == null || frame.getMethod().getType() == null) {
+        continue;
+      }
+      String type = frame.getMethod().getType().getName();
+      if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+        return type;
+      }
+    }
+    return "unknown";
+  }
+
+  private static String describe(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return "";
+    }
+    return stackTrace.getFrames().stream().limit(LOGGED_FRAMES)
+        .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "."
+            + frame.getMethod().getName() + ":" + frame.getLineNumber())
+        .collect(Collectors.joining());
+  }
+}
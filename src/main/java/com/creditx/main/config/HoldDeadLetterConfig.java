@@ -0,0 +1,51 @@
+package com.creditx.main.config;
+
+import java.util.Collection;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.stream.binder.Binding;
+import org.springframework.cloud.stream.binder.PollableMessageSource;
+import org.springframework.cloud.stream.binding.Bindable;
+import org.springframework.cloud.stream.binding.BindingService;
+import org.springframework.cloud.stream.binding.MessageSourceBindingTargetFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the hold-event dead-letter topic as a pollable source for the replay endpoint. Declared
+ * here instead of through {@code spring.cloud.stream.pollable-source}, whose initializer registers
+ * the binding in every context, including test slices that have no binder.
+ */
+@Configuration
+public class HoldDeadLetterConfig {
+
+  public static final String DEAD_LETTER_BINDING = "holdsDlt-in-0";
+
+  @Bean(DEAD_LETTER_BINDING)
+  public PollableMessageSource holdsDeadLetterSource(
+      MessageSourceBindingTargetFactory bindingTargetFactory) {
+    return bindingTargetFactory.createInput(DEAD_LETTER_BINDING);
+  }
+
+  @Bean
+  public Bindable holdsDeadLetterBindable(
+      @Qualifier(DEAD_LETTER_BINDING) PollableMessageSource deadLetterSource) {
+    // Picked up by the input binding lifecycle, so it binds and unbinds with the other consumers
+    return new Bindable() {
+      @Override
+      public Collection<Binding<Object>> createAndBindInputs(BindingService bindingService) {
+        return bindingService.bindConsumer((Object) deadLetterSource, DEAD_LETTER_BINDING);
+      }
+
+      @Override
+      public void unbindInputs(BindingService bindingService) {
+        bindingService.unbindConsumers(DEAD_LETTER_BINDING);
+      }
+
+      @Override
+      public Set<String> getInputs() {
+        return Set.of(DEAD_LETTER_BINDING);
+      }
+    };
+  }
+}
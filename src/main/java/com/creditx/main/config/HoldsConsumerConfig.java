@@ -0,0 +1,107 @@
+package com.creditx.main.config;
+
+import com.creditx.main.messaging.HoldEventRetryRouter;
+import com.creditx.main.messaging.KeyOrderedHoldEventDispatcher;
+import java.util.Collection;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class HoldsConsumerConfig {
+
+  @Value("${app.holds.destination:holds}")
+  private String holdsDestination;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  // How soon an idle container gets to seek back to a failed record
+  @Value("${app.holds.parallel.idle-event-interval-ms:1000}")
+  private long idleEventInterval;
+
+  @Bean
+  public ListenerContainerCustomizer<AbstractMessageListenerContainer<?, ?>>
+      holdsContainerCustomizer(KeyOrderedHoldEventDispatcher dispatcher,
+      HoldEventRetryRouter retryRouter) {
+    return (container, destinationName, group) -> {
+      if (virtualThreads) {
+        // The binder builds its own containers, so Boot's virtual-thread switch does not reach them
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(destinationName + "-C-");
+        executor.setVirtualThreads(true);
+        container.getContainerProperties().setListenerTaskExecutor(executor);
+      }
+      if (retryRouter.isRetryTopic(destinationName)) {
+        // Retry consumers nack records that are not due yet, which pauses instead of sleeping
+        container.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return;
+      }
+      if (!holdsDestination.equals(destinationName)) {
+        return;
+      }
+      if (dispatcher.isEnabled()) {
+        // Lanes acknowledge contiguous completed ranges themselves
+        ContainerProperties properties = container.getContainerProperties();
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setIdleEventInterval(idleEventInterval);
+        properties.setConsumerRebalanceListener(
+            new RevokingRebalanceListener(dispatcher, properties.getConsumerRebalanceListener()));
+      }
+    };
+  }
+
+  /**
+   * Clears the dispatcher's in-flight state of revoked partitions, then hands the callback on to
+   * whatever listener the binder had already installed.
+   */
+  private record RevokingRebalanceListener(KeyOrderedHoldEventDispatcher dispatcher,
+      ConsumerRebalanceListener delegate) implements ConsumerAwareRebalanceListener {
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer,
+        Collection<TopicPartition> partitions) {
+      if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+        aware.onPartitionsRevokedBeforeCommit(consumer, partitions);
+      } else if (delegate != null) {
+        delegate.onPartitionsRevoked(partitions);
+      }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer,
+        Collection<TopicPartition> partitions) {
+      dispatcher.partitionsRevoked(partitions);
+      if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+        aware.onPartitionsRevokedAfterCommit(consumer, partitions);
+      }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+      dispatcher.partitionsRevoked(partitions);
+      if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+        aware.onPartitionsLost(consumer, partitions);
+      } else if (delegate != null) {
+        delegate.onPartitionsLost(partitions);
+      }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer,
+        Collection<TopicPartition> partitions) {
+      if (delegate instanceof ConsumerAwareRebalanceListener aware) {
+        aware.onPartitionsAssigned(consumer, partitions);
+      } else if (delegate != null) {
+        delegate.onPartitionsAssigned(partitions);
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.creditx.main.config;
 
+import com.creditx.main.deadline.DeadlineAwareRequestFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,6 @@ public class HttpClientConfig {
 
   @Bean
   public RestTemplate restTemplate(RestTemplateBuilder builder) {
-    return builder.build();
+    return builder.requestFactory(DeadlineAwareRequestFactory::new).build();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.creditx.main.constants;
+
+import org.springframework.util.MimeType;
+
+/**
+ * Content types of event payloads, carried in the standard {@code contentType} message header.
+ * Messages without the header are JSON.
+ */
+public final class EventContentTypes {
+
+  public static final MimeType JSON = new MimeType("application", "json");
+
+  // Compact binary layout defined by EventSchemas; the "v" parameter is the schema version
+  public static final MimeType BINARY = new MimeType("application", "vnd.creditx.event+binary");
+  public static final String VERSION_PARAMETER = "v";
+
+  private EventContentTypes() {
+    // Utility class - prevent instantiation
+  }
+}
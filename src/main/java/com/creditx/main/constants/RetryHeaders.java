@@ -0,0 +1,20 @@
+package com.creditx.main.constants;
+
+/**
+ * Message headers attached when a failed hold event is forwarded to a retry tier or the dead-letter
+ * topic. Values are written as strings so they survive any header mapper unchanged.
+ */
+public final class RetryHeaders {
+
+  public static final String RETRY_ATTEMPT = "retryAttempt";
+  public static final String RETRY_DUE_AT = "retryDueAt";
+  public static final String ORIGINAL_TOPIC = "originalTopic";
+  public static final String ORIGINAL_PARTITION = "originalPartition";
+  public static final String ORIGINAL_OFFSET = "originalOffset";
+  public static final String EXCEPTION_FQCN = "exceptionFqcn";
+  public static final String EXCEPTION_MESSAGE = "exceptionMessage";
+
+  private RetryHeaders() {
+    // Utility class - prevent instantiation
+  }
+}
@@ -0,0 +1,34 @@
+package com.creditx.main.controller;
+
+import com.creditx.main.dto.DeadLetterReplayResponse;
+import com.creditx.main.messaging.HoldDeadLetterReplayer;
+import com.creditx.main.messaging.HoldEventRetryRouter;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/holds/dead-letters")
+@RequiredArgsConstructor
+@Slf4j
+public class HoldDeadLetterController {
+
+  private final HoldDeadLetterReplayer replayer;
+  private final HoldEventRetryRouter retryRouter;
+
+  @PostMapping("/replay")
+  @Operation(summary = "Replay dead-lettered hold events", description = "Moves up to limit records from the hold-event dead-letter topic back to the holds topic", tags = {
+      "internal"})
+  public ResponseEntity<DeadLetterReplayResponse> replay(
+      @RequestParam(defaultValue = "100") int limit) {
+    log.info("=== CONTROLLER: Replaying up to {} dead-lettered hold events", limit);
+    int replayed = replayer.replay(limit);
+    return ResponseEntity.ok(DeadLetterReplayResponse.builder().replayed(replayed)
+        .source(retryRouter.deadLetterTopic()).destination(replayer.getHoldsDestination()).build());
+  }
+}
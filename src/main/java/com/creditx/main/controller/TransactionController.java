@@ -1,14 +1,21 @@
 package com.creditx.main.controller;
 
+import com.creditx.main.dto.CommitTransactionBatchRequest;
+import com.creditx.main.dto.CommitTransactionBatchResponse;
 import com.creditx.main.dto.CommitTransactionRequest;
 import com.creditx.main.dto.CommitTransactionResponse;
 import com.creditx.main.dto.CreateCashbackTransactionRequest;
+import com.creditx.main.dto.CreateTransactionBatchRequest;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
 import com.creditx.main.dto.CreateTransactionRequest;
 import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.deadline.DeadlineExceededException;
+import com.creditx.main.idempotency.IdempotencyGuard;
 import com.creditx.main.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +23,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -27,28 +35,51 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 public class TransactionController {
 
   private final TransactionService transactionService;
+  private final IdempotencyGuard idempotencyGuard;
 
   @PostMapping
   @Operation(summary = "Create a transaction", description = "Creates a new inbound transaction", tags = {
       "public"})
   public ResponseEntity<CreateTransactionResponse> createTransaction(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
       @Validated @RequestBody CreateTransactionRequest request) {
     log.info("=== CONTROLLER: Creating transaction for issuer: {}, merchant: {}, amount: {}",
         request.getIssuerAccountId(), request.getMerchantAccountId(), request.getAmount());
-    var response = transactionService.createInboundTransaction(request);
+    var response = idempotencyGuard.execute(idempotencyKey, "transaction.create", request,
+        CreateTransactionResponse.class,
+        () -> transactionService.createInboundTransaction(request));
     log.info("=== CONTROLLER: Transaction created with ID: {}, status: {}",
         response.getTransactionId(), response.getStatus());
     return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
   }
 
+  @PostMapping("/batch")
+  @Operation(summary = "Create a batch of transactions", description = "Creates several inbound transactions in one call and reports a result per item", tags = {
+      "public"})
+  public ResponseEntity<CreateTransactionBatchResponse> createTransactions(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+      @Validated @RequestBody CreateTransactionBatchRequest request) {
+    log.info("=== CONTROLLER: Creating batch of {} transactions",
+        request.getTransactions().size());
+    var response = idempotencyGuard.execute(idempotencyKey, "transaction.create-batch", request,
+        CreateTransactionBatchResponse.class,
+        () -> transactionService.createInboundTransactions(request.getTransactions()));
+    log.info("=== CONTROLLER: Transaction batch created with {} results",
+        response.getResults().size());
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+  }
+
   @PostMapping("/cashback")
   @Operation(summary = "Create a cashback transaction", description = "Internal endpoint to record a cashback credit", tags = {
       "internal"})
   public ResponseEntity<CreateTransactionResponse> createCashback(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
       @Validated @RequestBody CreateCashbackTransactionRequest request) {
     log.info("=== CONTROLLER: Creating cashback transaction issuer={}, merchant={}, amount={}",
         request.getIssuerAccountId(), request.getMerchantAccountId(), request.getAmount());
-    var response = transactionService.createCashbackTransaction(request);
+    var response = idempotencyGuard.execute(idempotencyKey, "transaction.cashback", request,
+        CreateTransactionResponse.class,
+        () -> transactionService.createCashbackTransaction(request));
     log.info("=== CONTROLLER: Cashback transaction created id={}, status={}",
         response.getTransactionId(), response.getStatus());
     return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -59,13 +90,31 @@ public class TransactionController {
       "internal"})
   public ResponseEntity<CommitTransactionResponse> commitTransaction(
       @PathVariable Long id,
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
       @Validated @RequestBody CommitTransactionRequest request) {
     log.info("=== CONTROLLER: Committing transaction: {}", id);
-    var response = transactionService.commitTransaction(id, request);
+    request.setTransactionId(id);
+    var response = idempotencyGuard.execute(idempotencyKey, "transaction.commit", request,
+        CommitTransactionResponse.class, () -> transactionService.commitTransaction(id, request));
     log.info("=== CONTROLLER: Transaction committed with status: {}", response.getStatus());
     return ResponseEntity.ok(response);
   }
 
+  @PostMapping("/commit/batch")
+  @Operation(summary = "Commit a batch of transactions", description = "Commits several previously created transactions and reports a result per item", tags = {
+      "internal"})
+  public ResponseEntity<CommitTransactionBatchResponse> commitTransactions(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+      @Validated @RequestBody CommitTransactionBatchRequest request) {
+    log.info("=== CONTROLLER: Committing batch of {} transactions", request.getCommits().size());
+    var response = idempotencyGuard.execute(idempotencyKey, "transaction.commit-batch", request,
+        CommitTransactionBatchResponse.class,
+        () -> transactionService.commitTransactions(request.getCommits()));
+    log.info("=== CONTROLLER: Transaction batch committed with {} results",
+        response.getResults().size());
+    return ResponseEntity.ok(response);
+  }
+
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException e) {
     log.error("Invalid request: {}", e.getMessage());
@@ -78,6 +127,12 @@ public class TransactionController {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
   }
 
+  @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+  public ResponseEntity<String> handleDeadlineExceeded(RuntimeException e) {
+    log.warn("Request abandoned: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body("Request deadline exceeded");
+  }
+
   @ExceptionHandler(MethodArgumentTypeMismatchException.class)
   public ResponseEntity<String> handleMethodArgumentTypeMismatchException(
       MethodArgumentTypeMismatchException e) {
@@ -0,0 +1,103 @@
+package com.creditx.main.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which the work for the current request must be done. The deadline is bound to
+ * the handling thread for the duration of the request; work handed to another thread carries it
+ * over by binding the same deadline there. Blocking calls size their timeouts from the remaining
+ * budget, and work stops as soon as the budget runs out instead of finishing for a client that
+ * has already given up.
+ */
+public final class Deadline {
+
+  /**
+   * Request header carrying the client's remaining budget in milliseconds.
+   */
+  public static final String HEADER = "X-Request-Timeout-Ms";
+
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+  private static final Scope NO_OP = () -> {
+  };
+
+  private final long budgetMillis;
+  private final long expiresAtNanos;
+
+  private Deadline(long budgetMillis) {
+    this.budgetMillis = budgetMillis;
+    this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+  }
+
+  public static Deadline afterMillis(long budgetMillis) {
+    return new Deadline(Math.max(0L, budgetMillis));
+  }
+
+  /**
+   * Deadline bound to the calling thread, or null when the work is not on behalf of a request.
+   */
+  public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Bind the deadline to the calling thread until the returned scope is closed, which restores
+   * whatever was bound before. A null deadline leaves the thread as it is.
+   */
+  public static Scope bind(Deadline deadline) {
+    if (deadline == null) {
+      return NO_OP;
+    }
+    Deadline previous = CURRENT.get();
+    CURRENT.set(deadline);
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Abandon the work if the current deadline has passed.
+   *
+   * @throws DeadlineExceededException if a deadline is bound and has passed
+   */
+  public static void checkCurrent(String stage) {
+    Deadline deadline = CURRENT.get();
+    if (deadline != null) {
+      deadline.check(stage);
+    }
+  }
+
+  /**
+   * @throws DeadlineExceededException if the deadline has passed
+   */
+  public void check(String stage) {
+    if (isExpired()) {
+      throw new DeadlineExceededException(
+          "Request deadline of " + budgetMillis + " ms exceeded before " + stage);
+    }
+  }
+
+  public boolean isExpired() {
+    return System.nanoTime() - expiresAtNanos >= 0;
+  }
+
+  public long remainingMillis() {
+    return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(expiresAtNanos - System.nanoTime()));
+  }
+
+  public long getBudgetMillis() {
+    return budgetMillis;
+  }
+
+  /**
+   * Binding of a deadline to a thread.
+   */
+  public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+}
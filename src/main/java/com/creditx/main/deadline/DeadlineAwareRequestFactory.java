@@ -0,0 +1,30 @@
+package com.creditx.main.deadline;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+/**
+ * Request factory that sizes the connect and read timeouts of each outgoing call from the request
+ * deadline bound to the calling thread and forwards the remaining budget downstream in
+ * {@link Deadline#HEADER}. The read timeout bounds each wait for data rather than the whole
+ * exchange, which for the small JSON bodies exchanged with CreditHoldServ amounts to the same.
+ * Calls made without a deadline keep the configured timeouts.
+ */
+public class DeadlineAwareRequestFactory extends SimpleClientHttpRequestFactory {
+
+  @Override
+  protected void prepareConnection(HttpURLConnection connection, String httpMethod)
+      throws IOException {
+    super.prepareConnection(connection, httpMethod);
+    Deadline deadline = Deadline.current();
+    if (deadline == null) {
+      return;
+    }
+    // A timeout of zero would mean no timeout at all
+    int remainingMillis = (int) Math.clamp(deadline.remainingMillis(), 1L, Integer.MAX_VALUE);
+    connection.setConnectTimeout(remainingMillis);
+    connection.setReadTimeout(remainingMillis);
+    connection.setRequestProperty(Deadline.HEADER, String.valueOf(remainingMillis));
+  }
+}
@@ -0,0 +1,15 @@
+package com.creditx.main.deadline;
+
+/**
+ * The request's deadline passed before its work was done; the work is abandoned and rolled back.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  public DeadlineExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
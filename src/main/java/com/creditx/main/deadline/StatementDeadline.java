@@ -0,0 +1,37 @@
+package com.creditx.main.deadline;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the request deadline into the database. Hibernate gives every statement of the current
+ * transaction a query timeout of whatever is left of the budget it was given, so a slow query or a
+ * row lock wait is cancelled by the driver instead of running on after the client has gone.
+ * Hibernate counts the budget in whole seconds, so sub-second remainders round up.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementDeadline {
+
+  private final EntityManager entityManager;
+
+  /**
+   * Abandon the work if the current deadline has passed, otherwise bound the statements of the
+   * current transaction by it. Must be called inside the transaction; a no-op when no deadline is
+   * bound.
+   *
+   * @throws DeadlineExceededException if the deadline has passed
+   */
+  public void apply(String stage) {
+    Deadline deadline = Deadline.current();
+    if (deadline == null) {
+      return;
+    }
+    deadline.check(stage);
+    int seconds = (int) Math.max(1L, Math.ceilDiv(deadline.remainingMillis(), 1000L));
+    entityManager.unwrap(SharedSessionContractImplementor.class).getJdbcCoordinator()
+        .setTransactionTimeOut(seconds);
+  }
+}
@@ -33,8 +33,9 @@ public class AccountDTO {
       return null;
     }
     return AccountDTO.builder().accountId(a.getAccountId()).customerId(a.getCustomerId())
-        .type(a.getType()).status(a.getStatus()).availableBalance(a.getAvailableBalance())
-        .reserved(a.getReserved()).creditLimit(a.getCreditLimit()).createdAt(a.getCreatedAt())
-        .updatedAt(a.getUpdatedAt()).build();
+        .type(a.getType()).status(a.getStatus())
+        .availableBalance(a.getAvailableBalance().toBigDecimal())
+        .reserved(a.getReserved().toBigDecimal()).creditLimit(a.getCreditLimit())
+        .createdAt(a.getCreatedAt()).updatedAt(a.getUpdatedAt()).build();
   }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.creditx.main.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class CommitTransactionBatchResponse {
+
+  // One result per commit, in request order; rejected commits have no status and carry the reason
+  List<CommitTransactionResponse> results;
+}
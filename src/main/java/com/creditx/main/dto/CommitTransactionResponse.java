@@ -3,9 +3,11 @@ package com.creditx.main.dto;
 import com.creditx.main.model.TransactionStatus;
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 
 @Data
 @Builder
+@Jacksonized
 public class CommitTransactionResponse {
 
   private Long transactionId;
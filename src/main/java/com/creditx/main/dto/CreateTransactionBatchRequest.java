@@ -0,0 +1,13 @@
+package com.creditx.main.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class CreateTransactionBatchRequest {
+
+  @NotEmpty
+  private List<@Valid CreateTransactionRequest> transactions;
+}
@@ -0,0 +1,30 @@
+package com.creditx.main.dto;
+
+import com.creditx.main.model.TransactionStatus;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Builder
+@Jacksonized
+public class CreateTransactionBatchResponse {
+
+  List<Item> results;
+
+  /**
+   * Outcome of one request of the batch, in request order. Rejected requests have no transaction
+   * and carry the validation error instead.
+   */
+  @Value
+  @Builder
+  @Jacksonized
+  public static class Item {
+
+    int index;
+    Long transactionId;
+    TransactionStatus status;
+    String error;
+  }
+}
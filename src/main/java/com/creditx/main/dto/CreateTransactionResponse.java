@@ -3,9 +3,11 @@ package com.creditx.main.dto;
 import com.creditx.main.model.TransactionStatus;
 import lombok.Builder;
 import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 @Value
 @Builder
+@Jacksonized
 public class CreateTransactionResponse {
 
   Long transactionId;
@@ -0,0 +1,13 @@
+package com.creditx.main.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class DeadLetterReplayResponse {
+
+  int replayed;
+  String source;
+  String destination;
+}
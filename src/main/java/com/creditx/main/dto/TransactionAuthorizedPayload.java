@@ -0,0 +1,15 @@
+package com.creditx.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * Outbox payload of transaction.authorized.
+ */
+public record TransactionAuthorizedPayload(@NotNull Long transactionId, @NotNull Long holdId,
+                                           @NotNull Long issuerAccountId,
+                                           @NotNull Long merchantAccountId,
+                                           @NotNull BigDecimal amount, @NotNull String currency,
+                                           @NotNull String status) {
+
+}
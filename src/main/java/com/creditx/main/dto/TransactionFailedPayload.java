@@ -0,0 +1,12 @@
+package com.creditx.main.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outbox payload of transaction.failed.
+ */
+public record TransactionFailedPayload(Long transactionId, Long holdId, Long accountId,
+                                       BigDecimal amount, String currency, String status,
+                                       String reason) {
+
+}
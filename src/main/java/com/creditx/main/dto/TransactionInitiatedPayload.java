@@ -0,0 +1,12 @@
+package com.creditx.main.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outbox payload of transaction.initiated.
+ */
+public record TransactionInitiatedPayload(Long transactionId, Long issuerAccountId,
+                                          Long merchantAccountId, BigDecimal amount,
+                                          String currency) {
+
+}
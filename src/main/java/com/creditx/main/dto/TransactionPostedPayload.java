@@ -0,0 +1,14 @@
+package com.creditx.main.dto;
+
+import com.creditx.main.model.TransactionType;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Outbox payload of transaction.posted.
+ */
+public record TransactionPostedPayload(Long transactionId, TransactionType type,
+                                       Long issuerAccountId, Long merchantAccountId,
+                                       BigDecimal amount, String currency, Instant createdAt) {
+
+}
@@ -0,0 +1,279 @@
+package com.creditx.main.idempotency;
+
+import com.creditx.main.deadline.Deadline;
+import com.creditx.main.model.IdempotencyRecord;
+import com.creditx.main.model.IdempotencyStatus;
+import com.creditx.main.repository.IdempotencyRecordRepository;
+import com.creditx.main.util.EventIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs a request at most once per client-supplied Idempotency-Key. Completed responses are kept in
+ * CMS_IDEMPOTENCY_KEYS and in a bounded in-memory LRU, so a retry is answered without running the
+ * request again. A duplicate arriving while the first request is still running on this instance
+ * waits for its result; one running on another instance is rejected as a conflict. Failed
+ * requests release their key, so the client may retry them with the same key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyGuard {
+
+  public static final String HEADER = "Idempotency-Key";
+
+  static final int MAX_KEY_LENGTH = 100;
+
+  private static final int COMPLETE_ATTEMPTS = 2;
+
+  private final IdempotencyRecordRepository repository;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.idempotency.cache-size:10000}")
+  private long cacheSize;
+
+  @Value("${app.idempotency.retention-hours:24}")
+  private long retentionHours;
+
+  @Value("${app.idempotency.in-progress-timeout-ms:30000}")
+  private long inProgressTimeoutMs;
+
+  private Cache<String, StoredResponse> recent;
+  private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    recent = Caffeine.newBuilder().maximumSize(cacheSize)
+        .expireAfterWrite(Duration.ofHours(retentionHours)).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, recent, "idempotencyKeys");
+  }
+
+  /**
+   * Run the action unless a request with the same key and operation already ran, in which case
+   * its response is returned instead. Without a key the action simply runs.
+   *
+   * @throws IllegalArgumentException if the key is too long
+   * @throws IllegalStateException    if the key was used for a different request, or the first
+   *                                  request with the key is still running
+   */
+  public <T> T execute(String key, String operation, Object request, Class<T> responseType,
+      Supplier<T> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException(
+          HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+    }
+    String scopedKey = operation + ":" + key;
+    String requestHash = hash(request);
+
+    StoredResponse stored = recent.getIfPresent(scopedKey);
+    if (stored != null) {
+      return replay(scopedKey, stored, requestHash, responseType);
+    }
+
+    InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+    InFlight leader = inFlight.putIfAbsent(scopedKey, mine);
+    if (leader != null) {
+      return awaitLeader(scopedKey, leader, requestHash, responseType);
+    }
+    try {
+      T response = executeOnce(scopedKey, requestHash, responseType, action);
+      mine.result().complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      mine.result().completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(scopedKey, mine);
+    }
+  }
+
+  /**
+   * Delete keys older than the retention period.
+   *
+   * @return number of keys deleted
+   */
+  public int purgeExpired() {
+    return repository.deleteCreatedBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+  }
+
+  private <T> T executeOnce(String scopedKey, String requestHash, Class<T> responseType,
+      Supplier<T> action) {
+    Optional<IdempotencyRecord> existing = claim(scopedKey, requestHash);
+    if (existing.isPresent()) {
+      IdempotencyRecord record = existing.get();
+      if (record.getStatus() != IdempotencyStatus.COMPLETED) {
+        throw inProgress();
+      }
+      StoredResponse stored = new StoredResponse(record.getRequestHash(),
+          record.getResponseBody());
+      recent.put(scopedKey, stored);
+      return replay(scopedKey, stored, requestHash, responseType);
+    }
+
+    T response;
+    try {
+      response = action.get();
+    } catch (RuntimeException e) {
+      repository.release(scopedKey);
+      throw e;
+    }
+    String body;
+    try {
+      body = write(response);
+    } catch (RuntimeException e) {
+      repository.release(scopedKey);
+      throw e;
+    }
+    recent.put(scopedKey, new StoredResponse(requestHash, body));
+    completeOrRelease(scopedKey, body);
+    return response;
+  }
+
+  /**
+   * Store the response of a request that already ran. The action's effects are done by now, so a
+   * failure here is not reported to the client: completion is retried, and if it still fails the
+   * key is released rather than left IN_PROGRESS. Retries reaching this instance are still
+   * answered from memory.
+   */
+  private void completeOrRelease(String scopedKey, String body) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        repository.complete(scopedKey, body);
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= COMPLETE_ATTEMPTS) {
+          log.error("Could not store the response for idempotency key {}, releasing it: {}",
+              scopedKey, e.getMessage());
+          break;
+        }
+        log.warn("Storing the response for idempotency key {} failed, retrying: {}", scopedKey,
+            e.getMessage());
+      }
+    }
+    try {
+      repository.release(scopedKey);
+    } catch (RuntimeException e) {
+      log.error("Could not release idempotency key {}, it stays claimed until abandoned: {}",
+          scopedKey, e.getMessage());
+    }
+  }
+
+  /**
+   * Claim the key in the database; if another request already holds it, return that record.
+   */
+  private Optional<IdempotencyRecord> claim(String scopedKey, String requestHash) {
+    try {
+      repository.claim(scopedKey, requestHash);
+      return Optional.empty();
+    } catch (DataIntegrityViolationException e) {
+      Instant cutoff = Instant.now().minusMillis(inProgressTimeoutMs);
+      if (repository.releaseAbandoned(scopedKey, cutoff) > 0) {
+        log.warn("Taking over abandoned idempotency key {}", scopedKey);
+        try {
+          repository.claim(scopedKey, requestHash);
+          return Optional.empty();
+        } catch (DataIntegrityViolationException retry) {
+          log.debug("Lost the race for abandoned idempotency key {}", scopedKey);
+        }
+      }
+    }
+    // Released in the meantime by a failed request: report a conflict, the client retries
+    return Optional.of(repository.findById(scopedKey).orElseThrow(this::inProgress));
+  }
+
+  private <T> T awaitLeader(String scopedKey, InFlight leader, String requestHash,
+      Class<T> responseType) {
+    if (!leader.requestHash().equals(requestHash)) {
+      throw keyReused();
+    }
+    log.info("Waiting for in-flight request with idempotency key {}", scopedKey);
+    Deadline deadline = Deadline.current();
+    long waitMs = deadline != null
+        ? Math.min(inProgressTimeoutMs, deadline.remainingMillis())
+        : inProgressTimeoutMs;
+    try {
+      return responseType.cast(leader.result().get(waitMs, TimeUnit.MILLISECONDS));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Request with the same " + HEADER + " failed", e);
+    } catch (TimeoutException e) {
+      Deadline.checkCurrent("the in-flight request with the same " + HEADER + " completed");
+      throw inProgress();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for in-flight request", e);
+    }
+  }
+
+  private <T> T replay(String scopedKey, StoredResponse stored, String requestHash,
+      Class<T> responseType) {
+    if (!stored.requestHash().equals(requestHash)) {
+      throw keyReused();
+    }
+    log.info("Replaying stored response for idempotency key {}", scopedKey);
+    try {
+      return objectMapper.readValue(stored.body(), responseType);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to read stored response for " + scopedKey, e);
+    }
+  }
+
+  private String hash(Object request) {
+    try {
+      return EventIdGenerator.generatePayloadHash(objectMapper.writeValueAsBytes(request));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Failed to serialize request", e);
+    }
+  }
+
+  private String write(Object response) {
+    try {
+      return objectMapper.writeValueAsString(response);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize response", e);
+    }
+  }
+
+  private IllegalStateException inProgress() {
+    return new IllegalStateException(
+        "A request with the same " + HEADER + " is still being processed, please retry");
+  }
+
+  private IllegalStateException keyReused() {
+    return new IllegalStateException(HEADER + " was already used for a different request");
+  }
+
+  private record StoredResponse(String requestHash, String body) {
+
+  }
+
+  private record InFlight(String requestHash, CompletableFuture<Object> result) {
+
+  }
+}
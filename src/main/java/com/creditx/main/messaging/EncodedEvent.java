@@ -0,0 +1,22 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.constants.EventContentTypes;
+import org.springframework.util.MimeType;
+
+/**
+ * An event payload ready for the outbox: either JSON text or bytes in the binary event layout.
+ */
+public record EncodedEvent(MimeType contentType, String json, byte[] binary) {
+
+  public static EncodedEvent json(String json) {
+    return new EncodedEvent(EventContentTypes.JSON, json, null);
+  }
+
+  public static EncodedEvent binary(MimeType contentType, byte[] binary) {
+    return new EncodedEvent(contentType, null, binary);
+  }
+
+  public boolean isBinary() {
+    return binary != null;
+  }
+}
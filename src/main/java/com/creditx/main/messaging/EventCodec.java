@@ -0,0 +1,158 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.constants.EventContentTypes;
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.dto.HoldExpiredEvent;
+import com.creditx.main.dto.HoldVoidedEvent;
+import com.creditx.main.dto.TransactionAuthorizedPayload;
+import com.creditx.main.dto.TransactionFailedPayload;
+import com.creditx.main.dto.TransactionInitiatedPayload;
+import com.creditx.main.dto.TransactionPostedPayload;
+import com.creditx.main.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Single codec for inbound hold events and outbound outbox payloads. Readers and writers are
+ * built once per payload type so the per-event cost is only the (de)serialization itself.
+ *
+ * <p>The mapper deliberately keeps Jackson's defaults rather than Spring's web configuration:
+ * instants stay numeric timestamps and unknown properties fail, which is the wire format
+ * consumers and the stored payload hashes depend on.
+ *
+ * <p>Besides JSON, payloads can use the compact binary layout of {@link EventSchemas}. The
+ * {@code contentType} header selects the decoder per message; outbox events are written in the
+ * binary layout only once {@code app.outbox.binary-encoding.enabled} is switched on, after every
+ * consumer of the transactions topic understands it.
+ */
+@Component
+@Slf4j
+public class EventCodec {
+
+  private static final List<Class<?>> PAYLOAD_TYPES = List.of(HoldCreatedEvent.class,
+      HoldExpiredEvent.class, HoldVoidedEvent.class, TransactionInitiatedPayload.class,
+      TransactionPostedPayload.class, TransactionAuthorizedPayload.class,
+      TransactionFailedPayload.class);
+
+  private final ObjectMapper mapper;
+  private final Map<Class<?>, MimeType> binaryContentTypes = EventSchemas.all().stream()
+      .collect(Collectors.toMap(EventSchema::type, schema -> new MimeType(
+          EventContentTypes.BINARY, Map.of(EventContentTypes.VERSION_PARAMETER,
+              String.valueOf(schema.version())))));
+  private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  @Value("${app.outbox.binary-encoding.enabled:false}")
+  private boolean binaryOutbound;
+
+  public EventCodec(@Value("${app.events.codec.blackbird.enabled:false}") boolean blackbird) {
+    JsonMapper.Builder builder = JsonMapper.builder().addModule(new Jdk8Module())
+        .addModule(new JavaTimeModule()).addModule(new ParameterNamesModule());
+    if (blackbird) {
+      // Replaces reflective accessors with generated lambdas; output is byte-for-byte identical
+      builder.addModule(new BlackbirdModule());
+    }
+    this.mapper = builder.build();
+    readers.putAll(PAYLOAD_TYPES.stream()
+        .collect(Collectors.toMap(Function.identity(), mapper::readerFor)));
+    writers.putAll(PAYLOAD_TYPES.stream()
+        .collect(Collectors.toMap(Function.identity(), mapper::writerFor)));
+    log.info("Event codec initialised for {} payload types (blackbird: {})", PAYLOAD_TYPES.size(),
+        blackbird);
+  }
+
+  public <T> T read(String payload, Class<T> type) throws JsonProcessingException {
+    return reader(type).readValue(payload);
+  }
+
+  public String write(Object payload) throws JsonProcessingException {
+    return writer(payload.getClass()).writeValueAsString(payload);
+  }
+
+  /**
+   * Serialize straight to UTF-8 bytes through Jackson's recycled buffers, skipping the
+   * intermediate String, e.g. for hashing.
+   */
+  public byte[] writeBytes(Object payload) throws JsonProcessingException {
+    return writer(payload.getClass()).writeValueAsBytes(payload);
+  }
+
+  /**
+   * Decode an inbound payload according to its {@code contentType} header; JSON when absent.
+   */
+  public <T> T decode(byte[] body, Object contentType, Class<T> type) throws IOException {
+    if (isBinary(contentType)) {
+      EventSchema<T> schema = EventSchemas.forType(type);
+      if (schema == null) {
+        throw new IllegalArgumentException(
+            "No binary schema for " + type.getSimpleName() + " payloads");
+      }
+      return schema.decode(body);
+    }
+    return reader(type).readValue(body);
+  }
+
+  /**
+   * Encode an outbox payload, falling back to JSON for types without a binary schema and for
+   * payloads too large for the outbox's binary column.
+   */
+  public EncodedEvent encode(Object payload) throws JsonProcessingException {
+    if (binaryOutbound) {
+      EventSchema<?> schema = EventSchemas.forType(payload.getClass());
+      if (schema != null) {
+        byte[] binary = schema.encodeObject(payload);
+        if (binary.length <= OutboxEvent.MAX_BINARY_PAYLOAD_BYTES) {
+          return EncodedEvent.binary(binaryContentTypes.get(payload.getClass()), binary);
+        }
+      }
+    }
+    return EncodedEvent.json(write(payload));
+  }
+
+  /**
+   * Loggable form of a raw payload: the text for JSON, the size for binary.
+   */
+  public String describe(byte[] body, Object contentType) {
+    if (body == null) {
+      return "null";
+    }
+    return isBinary(contentType) ? "<" + body.length + " bytes binary>"
+        : new String(body, StandardCharsets.UTF_8);
+  }
+
+  public static boolean isBinary(Object contentType) {
+    if (contentType == null) {
+      return false;
+    }
+    MimeType mimeType = contentType instanceof MimeType mime ? mime
+        : MimeTypeUtils.parseMimeType(contentType.toString());
+    return EventContentTypes.BINARY.equalsTypeAndSubtype(mimeType);
+  }
+
+  private ObjectReader reader(Class<?> type) {
+    return readers.computeIfAbsent(type, mapper::readerFor);
+  }
+
+  private ObjectWriter writer(Class<?> type) {
+    return writers.computeIfAbsent(type, mapper::writerFor);
+  }
+}
@@ -0,0 +1,313 @@
+package com.creditx.main.messaging;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binary layout of one event payload type. Field names live only here, so a message carries just
+ * the values:
+ *
+ * <pre>
+ *   version     u8      schema version of the writer
+ *   fieldCount  varint  number of fields the writer knew about
+ *   presence    varint  bit i set when field i is non-null
+ *   values      the present fields in declaration order
+ * </pre>
+ *
+ * Integers are zig-zag varints, decimals a scale plus the two's-complement unscaled value,
+ * strings length-prefixed UTF-8 and timestamps epoch seconds plus nanos. See {@link EventSchemas}
+ * for the evolution rules that keep readers and writers of different versions compatible.
+ */
+public final class EventSchema<T> {
+
+  private static final int MAX_FIELDS = 63;
+
+  private final Class<T> type;
+  private final int version;
+  private final List<Field<T>> fields;
+  private final Map<String, Integer> indexByName;
+  private final Function<Values, T> factory;
+
+  private EventSchema(Class<T> type, int version, List<Field<T>> fields,
+      Function<Values, T> factory) {
+    this.type = type;
+    this.version = version;
+    this.fields = List.copyOf(fields);
+    this.indexByName = new HashMap<>();
+    for (int i = 0; i < fields.size(); i++) {
+      indexByName.put(fields.get(i).name(), i);
+    }
+    this.factory = factory;
+  }
+
+  public static <T> Builder<T> builder(Class<T> type, int version) {
+    return new Builder<>(type, version);
+  }
+
+  public Class<T> type() {
+    return type;
+  }
+
+  public int version() {
+    return version;
+  }
+
+  public List<String> fieldNames() {
+    return fields.stream().map(Field::name).toList();
+  }
+
+  public byte[] encode(T payload) {
+    Object[] values = new Object[fields.size()];
+    long presence = 0L;
+    for (int i = 0; i < values.length; i++) {
+      values[i] = fields.get(i).getter().apply(payload);
+      if (values[i] != null) {
+        presence |= 1L << i;
+      }
+    }
+
+    Output out = new Output();
+    out.writeByte(version);
+    out.writeVarint(values.length);
+    out.writeVarint(presence);
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != null) {
+        out.write(fields.get(i).type(), values[i]);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  byte[] encodeObject(Object payload) {
+    return encode(type.cast(payload));
+  }
+
+  /**
+   * Decode a payload written with any version of this schema. Fields appended by a newer writer
+   * are ignored; fields an older writer did not know about are null.
+   */
+  public T decode(byte[] body) {
+    try {
+      ByteBuffer in = ByteBuffer.wrap(body);
+      in.get(); // writer version, informational: the field count drives decoding
+      int fieldCount = (int) readVarint(in);
+      long presence = readVarint(in);
+      Object[] values = new Object[fields.size()];
+      int known = Math.min(fieldCount, fields.size());
+      for (int i = 0; i < known; i++) {
+        if ((presence & (1L << i)) != 0) {
+          values[i] = read(fields.get(i).type(), in);
+        }
+      }
+      return factory.apply(new Values(indexByName, values));
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(
+          "Truncated binary " + type.getSimpleName() + " payload of " + body.length + " bytes", e);
+    }
+  }
+
+  private static Object read(FieldType fieldType, ByteBuffer in) {
+    return switch (fieldType) {
+      case INT64 -> unzigzag(readVarint(in));
+      case DECIMAL -> {
+        int scale = (int) unzigzag(readVarint(in));
+        byte[] unscaled = new byte[readLength(in)];
+        in.get(unscaled);
+        yield new BigDecimal(new BigInteger(unscaled), scale);
+      }
+      case STRING -> {
+        int length = readLength(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        yield value;
+      }
+      case TIMESTAMP -> Instant.ofEpochSecond(unzigzag(readVarint(in)), readVarint(in));
+    };
+  }
+
+  private static int readLength(ByteBuffer in) {
+    long length = readVarint(in);
+    if (length > in.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return (int) length;
+  }
+
+  private static long readVarint(ByteBuffer in) {
+    long result = 0L;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.get();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint in binary event payload");
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  public enum FieldType {
+    INT64, DECIMAL, STRING, TIMESTAMP
+  }
+
+  private record Field<T>(String name, FieldType type, Function<T, ?> getter) {
+
+  }
+
+  /**
+   * Decoded field values, looked up by field name.
+   */
+  public static final class Values {
+
+    private final Map<String, Integer> indexByName;
+    private final Object[] values;
+
+    private Values(Map<String, Integer> indexByName, Object[] values) {
+      this.indexByName = indexByName;
+      this.values = values;
+    }
+
+    public Long int64(String name) {
+      return (Long) get(name);
+    }
+
+    public BigDecimal decimal(String name) {
+      return (BigDecimal) get(name);
+    }
+
+    public String string(String name) {
+      return (String) get(name);
+    }
+
+    public Instant timestamp(String name) {
+      return (Instant) get(name);
+    }
+
+    private Object get(String name) {
+      Integer index = indexByName.get(name);
+      if (index == null) {
+        throw new IllegalArgumentException("Unknown event field: " + name);
+      }
+      return values[index];
+    }
+  }
+
+  public static final class Builder<T> {
+
+    private final Class<T> type;
+    private final int version;
+    private final List<Field<T>> fields = new ArrayList<>();
+
+    private Builder(Class<T> type, int version) {
+      if (version < 1 || version > 255) {
+        throw new IllegalArgumentException("Schema version must be between 1 and 255");
+      }
+      this.type = type;
+      this.version = version;
+    }
+
+    public Builder<T> int64(String name, Function<T, Long> getter) {
+      return field(name, FieldType.INT64, getter);
+    }
+
+    public Builder<T> decimal(String name, Function<T, BigDecimal> getter) {
+      return field(name, FieldType.DECIMAL, getter);
+    }
+
+    public Builder<T> string(String name, Function<T, String> getter) {
+      return field(name, FieldType.STRING, getter);
+    }
+
+    public Builder<T> timestamp(String name, Function<T, Instant> getter) {
+      return field(name, FieldType.TIMESTAMP, getter);
+    }
+
+    public EventSchema<T> build(Function<Values, T> factory) {
+      return new EventSchema<>(type, version, fields, factory);
+    }
+
+    private Builder<T> field(String name, FieldType fieldType, Function<T, ?> getter) {
+      if (fields.size() == MAX_FIELDS) {
+        throw new IllegalStateException("Binary event schemas support at most " + MAX_FIELDS
+            + " fields");
+      }
+      if (fields.stream().anyMatch(field -> field.name().equals(name))) {
+        throw new IllegalArgumentException("Duplicate event field: " + name);
+      }
+      fields.add(new Field<>(name, fieldType, getter));
+      return this;
+    }
+  }
+
+  // Growable buffer; payloads are small, so the initial capacity rarely needs to grow
+  private static final class Output {
+
+    private byte[] buffer = new byte[64];
+    private int size;
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeVarint(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+      writeVarint(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, size, bytes.length);
+      size += bytes.length;
+    }
+
+    private void write(FieldType fieldType, Object value) {
+      switch (fieldType) {
+        case INT64 -> writeVarint(zigzag((Long) value));
+        case DECIMAL -> {
+          BigDecimal decimal = (BigDecimal) value;
+          writeVarint(zigzag(decimal.scale()));
+          writeBytes(decimal.unscaledValue().toByteArray());
+        }
+        case STRING -> writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        case TIMESTAMP -> {
+          Instant instant = (Instant) value;
+          writeVarint(zigzag(instant.getEpochSecond()));
+          writeVarint(instant.getNano());
+        }
+      }
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+}
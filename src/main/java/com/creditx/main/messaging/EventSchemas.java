@@ -0,0 +1,146 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.dto.HoldExpiredEvent;
+import com.creditx.main.dto.HoldVoidedEvent;
+import com.creditx.main.dto.TransactionAuthorizedPayload;
+import com.creditx.main.dto.TransactionFailedPayload;
+import com.creditx.main.dto.TransactionInitiatedPayload;
+import com.creditx.main.dto.TransactionPostedPayload;
+import com.creditx.main.model.TransactionType;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Binary schemas of every event this service produces or consumes. Evolution rules:
+ *
+ * <ul>
+ *   <li>Fields are only ever appended. Never reorder, rename on the wire, retype or remove a
+ *   field; a retired field keeps its slot and is written as absent.</li>
+ *   <li>Every append bumps the schema's version, which travels in the payload and in the
+ *   {@code v} parameter of the content type.</li>
+ *   <li>Older readers ignore trailing fields they do not know (forward compatible); newer readers
+ *   see fields an older writer did not send as null (backward compatible). Every field is
+ *   therefore optional.</li>
+ * </ul>
+ *
+ * Field order mirrors the JSON property order of the same payload.
+ */
+public final class EventSchemas {
+
+  public static final EventSchema<HoldCreatedEvent> HOLD_CREATED = EventSchema
+      .builder(HoldCreatedEvent.class, 1)
+      .int64("holdId", HoldCreatedEvent::getHoldId)
+      .int64("transactionId", HoldCreatedEvent::getTransactionId)
+      .int64("issuerAccountId", HoldCreatedEvent::getIssuerAccountId)
+      .int64("merchantAccountId", HoldCreatedEvent::getMerchantAccountId)
+      .decimal("amount", HoldCreatedEvent::getAmount)
+      .string("currency", HoldCreatedEvent::getCurrency)
+      .string("status", HoldCreatedEvent::getStatus)
+      .timestamp("expiresAt", HoldCreatedEvent::getExpiresAt)
+      .build(v -> HoldCreatedEvent.builder().holdId(v.int64("holdId"))
+          .transactionId(v.int64("transactionId")).issuerAccountId(v.int64("issuerAccountId"))
+          .merchantAccountId(v.int64("merchantAccountId")).amount(v.decimal("amount"))
+          .currency(v.string("currency")).status(v.string("status"))
+          .expiresAt(v.timestamp("expiresAt")).build());
+
+  public static final EventSchema<HoldExpiredEvent> HOLD_EXPIRED = EventSchema
+      .builder(HoldExpiredEvent.class, 1)
+      .int64("holdId", HoldExpiredEvent::getHoldId)
+      .int64("transactionId", HoldExpiredEvent::getTransactionId)
+      .int64("accountId", HoldExpiredEvent::getAccountId)
+      .decimal("amount", HoldExpiredEvent::getAmount)
+      .string("status", HoldExpiredEvent::getStatus)
+      .timestamp("expiresAt", HoldExpiredEvent::getExpiresAt)
+      .build(v -> HoldExpiredEvent.builder().holdId(v.int64("holdId"))
+          .transactionId(v.int64("transactionId")).accountId(v.int64("accountId"))
+          .amount(v.decimal("amount")).status(v.string("status"))
+          .expiresAt(v.timestamp("expiresAt")).build());
+
+  public static final EventSchema<HoldVoidedEvent> HOLD_VOIDED = EventSchema
+      .builder(HoldVoidedEvent.class, 1)
+      .int64("holdId", HoldVoidedEvent::getHoldId)
+      .int64("transactionId", HoldVoidedEvent::getTransactionId)
+      .int64("accountId", HoldVoidedEvent::getAccountId)
+      .decimal("amount", HoldVoidedEvent::getAmount)
+      .string("status", HoldVoidedEvent::getStatus)
+      .string("reason", HoldVoidedEvent::getReason)
+      .timestamp("voidedAt", HoldVoidedEvent::getVoidedAt)
+      .build(v -> HoldVoidedEvent.builder().holdId(v.int64("holdId"))
+          .transactionId(v.int64("transactionId")).accountId(v.int64("accountId"))
+          .amount(v.decimal("amount")).status(v.string("status")).reason(v.string("reason"))
+          .voidedAt(v.timestamp("voidedAt")).build());
+
+  public static final EventSchema<TransactionInitiatedPayload> TRANSACTION_INITIATED = EventSchema
+      .builder(TransactionInitiatedPayload.class, 1)
+      .int64("transactionId", TransactionInitiatedPayload::transactionId)
+      .int64("issuerAccountId", TransactionInitiatedPayload::issuerAccountId)
+      .int64("merchantAccountId", TransactionInitiatedPayload::merchantAccountId)
+      .decimal("amount", TransactionInitiatedPayload::amount)
+      .string("currency", TransactionInitiatedPayload::currency)
+      .build(v -> new TransactionInitiatedPayload(v.int64("transactionId"),
+          v.int64("issuerAccountId"), v.int64("merchantAccountId"), v.decimal("amount"),
+          v.string("currency")));
+
+  public static final EventSchema<TransactionPostedPayload> TRANSACTION_POSTED = EventSchema
+      .builder(TransactionPostedPayload.class, 1)
+      .int64("transactionId", TransactionPostedPayload::transactionId)
+      .string("type", p -> p.type() != null ? p.type().name() : null)
+      .int64("issuerAccountId", TransactionPostedPayload::issuerAccountId)
+      .int64("merchantAccountId", TransactionPostedPayload::merchantAccountId)
+      .decimal("amount", TransactionPostedPayload::amount)
+      .string("currency", TransactionPostedPayload::currency)
+      .timestamp("createdAt", TransactionPostedPayload::createdAt)
+      .build(v -> new TransactionPostedPayload(v.int64("transactionId"),
+          v.string("type") != null ? TransactionType.valueOf(v.string("type")) : null,
+          v.int64("issuerAccountId"), v.int64("merchantAccountId"), v.decimal("amount"),
+          v.string("currency"), v.timestamp("createdAt")));
+
+  public static final EventSchema<TransactionAuthorizedPayload> TRANSACTION_AUTHORIZED =
+      EventSchema.builder(TransactionAuthorizedPayload.class, 1)
+          .int64("transactionId", TransactionAuthorizedPayload::transactionId)
+          .int64("holdId", TransactionAuthorizedPayload::holdId)
+          .int64("issuerAccountId", TransactionAuthorizedPayload::issuerAccountId)
+          .int64("merchantAccountId", TransactionAuthorizedPayload::merchantAccountId)
+          .decimal("amount", TransactionAuthorizedPayload::amount)
+          .string("currency", TransactionAuthorizedPayload::currency)
+          .string("status", TransactionAuthorizedPayload::status)
+          .build(v -> new TransactionAuthorizedPayload(v.int64("transactionId"),
+              v.int64("holdId"), v.int64("issuerAccountId"), v.int64("merchantAccountId"),
+              v.decimal("amount"), v.string("currency"), v.string("status")));
+
+  public static final EventSchema<TransactionFailedPayload> TRANSACTION_FAILED = EventSchema
+      .builder(TransactionFailedPayload.class, 1)
+      .int64("transactionId", TransactionFailedPayload::transactionId)
+      .int64("holdId", TransactionFailedPayload::holdId)
+      .int64("accountId", TransactionFailedPayload::accountId)
+      .decimal("amount", TransactionFailedPayload::amount)
+      .string("currency", TransactionFailedPayload::currency)
+      .string("status", TransactionFailedPayload::status)
+      .string("reason", TransactionFailedPayload::reason)
+      .build(v -> new TransactionFailedPayload(v.int64("transactionId"), v.int64("holdId"),
+          v.int64("accountId"), v.decimal("amount"), v.string("currency"), v.string("status"),
+          v.string("reason")));
+
+  private static final Map<Class<?>, EventSchema<?>> BY_TYPE = all().stream()
+      .collect(Collectors.toMap(EventSchema::type, Function.identity()));
+
+  private EventSchemas() {
+    // Utility class - prevent instantiation
+  }
+
+  public static List<EventSchema<?>> all() {
+    return List.of(HOLD_CREATED, HOLD_EXPIRED, HOLD_VOIDED, TRANSACTION_INITIATED,
+        TRANSACTION_POSTED, TRANSACTION_AUTHORIZED, TRANSACTION_FAILED);
+  }
+
+  /**
+   * Schema of a payload type, or null if the type has no binary encoding.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> EventSchema<T> forType(Class<T> type) {
+    return (EventSchema<T>) BY_TYPE.get(type);
+  }
+}
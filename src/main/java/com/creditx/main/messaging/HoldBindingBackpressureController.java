@@ -0,0 +1,155 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.service.OutboxEventService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.binding.BindingsLifecycleController;
+import org.springframework.cloud.stream.binding.BindingsLifecycleController.State;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pauses the hold-event bindings when the database is saturated so that the synchronous API path
+ * keeps its connections. Pressure is judged from threads waiting on the Hikari pool, a moving
+ * average of hold-event processing latency and the PENDING outbox backlog. Each signal has a
+ * separate pause and resume threshold, and a paused binding stays paused for a minimum time, so
+ * the consumers do not flap around a single threshold.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HoldBindingBackpressureController {
+
+  // Weight of the newest sample in the latency moving average
+  private static final double LATENCY_EWMA_ALPHA = 0.2;
+
+  private final DataSource dataSource;
+  private final OutboxEventService outboxEventService;
+  private final BindingsLifecycleController bindingsLifecycleController;
+
+  @Value("${app.holds.backpressure.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.holds.backpressure.bindings:holdCreated-in-0,holdExpired-in-0}")
+  private List<String> bindings;
+
+  @Value("${app.holds.backpressure.pending-connections.pause:5}")
+  private int pendingConnectionsPause;
+
+  @Value("${app.holds.backpressure.pending-connections.resume:0}")
+  private int pendingConnectionsResume;
+
+  @Value("${app.holds.backpressure.latency-ms.pause:2000}")
+  private long latencyPauseMs;
+
+  @Value("${app.holds.backpressure.latency-ms.resume:500}")
+  private long latencyResumeMs;
+
+  @Value("${app.holds.backpressure.outbox-backlog.pause:5000}")
+  private long outboxBacklogPause;
+
+  @Value("${app.holds.backpressure.outbox-backlog.resume:1000}")
+  private long outboxBacklogResume;
+
+  @Value("${app.holds.backpressure.min-pause-ms:5000}")
+  private long minPauseMs;
+
+  private volatile double latencyEwmaMs;
+  private volatile boolean paused;
+  private volatile long pausedAt;
+
+  /**
+   * Feed one hold-event processing duration into the latency average.
+   */
+  public void recordProcessingLatency(long nanos) {
+    double sampleMs = TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0;
+    synchronized (this) {
+      latencyEwmaMs = latencyEwmaMs == 0
+          ? sampleMs
+          : LATENCY_EWMA_ALPHA * sampleMs + (1 - LATENCY_EWMA_ALPHA) * latencyEwmaMs;
+    }
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  @Scheduled(fixedDelayString = "${app.holds.backpressure.check-interval:1000}")
+  public void evaluate() {
+    if (!enabled) {
+      return;
+    }
+    int pendingConnections = pendingConnections();
+    long backlog = outboxEventService.countPendingEvents();
+    double latencyMs = latencyEwmaMs;
+
+    if (!paused) {
+      String reason = pauseReason(pendingConnections, latencyMs, backlog);
+      if (reason != null) {
+        log.warn("Pausing hold-event bindings {}: {}", bindings, reason);
+        changeState(State.PAUSED);
+        paused = true;
+        pausedAt = System.currentTimeMillis();
+      }
+      return;
+    }
+
+    // No events are consumed while paused, so the latency average only reflects the period
+    // before the pause; the minimum pause time gives the database room to recover instead
+    boolean pausedLongEnough = System.currentTimeMillis() - pausedAt >= minPauseMs;
+    if (pausedLongEnough && pendingConnections <= pendingConnectionsResume
+        && backlog <= outboxBacklogResume) {
+      log.info("Resuming hold-event bindings {} (pending connections {}, outbox backlog {})",
+          bindings, pendingConnections, backlog);
+      changeState(State.RESUMED);
+      paused = false;
+      synchronized (this) {
+        latencyEwmaMs = Math.min(latencyEwmaMs, latencyResumeMs);
+      }
+    }
+  }
+
+  private String pauseReason(int pendingConnections, double latencyMs, long backlog) {
+    if (pendingConnections >= pendingConnectionsPause) {
+      return pendingConnections + " threads waiting for a database connection";
+    }
+    if (latencyMs >= latencyPauseMs) {
+      return String.format("hold-event processing latency %.0f ms", latencyMs);
+    }
+    if (backlog >= outboxBacklogPause) {
+      return backlog + " pending outbox events";
+    }
+    return null;
+  }
+
+  private void changeState(State state) {
+    for (String binding : bindings) {
+      try {
+        bindingsLifecycleController.changeState(binding, state);
+      } catch (Exception e) {
+        log.error("Failed to change state of binding {} to {}: {}", binding, state,
+            e.getMessage(), e);
+      }
+    }
+  }
+
+  private int pendingConnections() {
+    try {
+      if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+        return 0;
+      }
+      HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+      return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    } catch (SQLException e) {
+      log.debug("Unable to read connection pool state: {}", e.getMessage());
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.config.HoldDeadLetterConfig;
+import com.creditx.main.constants.EventTypes;
+import com.creditx.main.constants.RetryHeaders;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.binder.PollableMessageSource;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.MessagingException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moves records from the hold-event dead-letter topic back onto the main holds topic, stripping the
+ * retry headers so they get a fresh set of retry tiers.
+ */
+@Service
+@Slf4j
+public class HoldDeadLetterReplayer {
+
+  private final PollableMessageSource deadLetterSource;
+  private final StreamBridge streamBridge;
+
+  @Value("${app.holds.destination:holds}")
+  private String holdsDestination;
+
+  public HoldDeadLetterReplayer(@Qualifier(HoldDeadLetterConfig.DEAD_LETTER_BINDING)
+      PollableMessageSource deadLetterSource,
+      StreamBridge streamBridge) {
+    this.deadLetterSource = deadLetterSource;
+    this.streamBridge = streamBridge;
+  }
+
+  public int replay(int limit) {
+    int replayed = 0;
+    while (replayed < limit) {
+      boolean received = deadLetterSource.poll(this::republish,
+          new ParameterizedTypeReference<byte[]>() {
+          });
+      if (!received) {
+        break;
+      }
+      replayed++;
+    }
+    log.info("Replayed {} dead-lettered hold events to {}", replayed, holdsDestination);
+    return replayed;
+  }
+
+  public String getHoldsDestination() {
+    return holdsDestination;
+  }
+
+  private void republish(Message<?> message) {
+    MessageBuilder<Object> replay = MessageBuilder.withPayload((Object) message.getPayload());
+    Object eventType = message.getHeaders().get(EventTypes.EVENT_TYPE_HEADER);
+    if (eventType != null) {
+      replay.setHeader(EventTypes.EVENT_TYPE_HEADER, eventType);
+    }
+    Object contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+    if (contentType != null) {
+      replay.setHeader(MessageHeaders.CONTENT_TYPE, contentType);
+    }
+    Object key = message.getHeaders().get(KafkaHeaders.RECEIVED_KEY);
+    if (key != null) {
+      replay.setHeader(KafkaHeaders.KEY, key);
+    }
+    log.debug("Replaying dead-lettered event originally from {}-{}@{} after {}",
+        message.getHeaders().get(RetryHeaders.ORIGINAL_TOPIC),
+        message.getHeaders().get(RetryHeaders.ORIGINAL_PARTITION),
+        message.getHeaders().get(RetryHeaders.ORIGINAL_OFFSET),
+        message.getHeaders().get(RetryHeaders.EXCEPTION_FQCN));
+    // Throwing leaves the record un-acknowledged on the dead-letter topic
+    if (!streamBridge.send(holdsDestination, replay.build())) {
+      throw new MessagingException(message, "Failed to replay dead-lettered hold event");
+    }
+  }
+}
@@ -7,12 +7,20 @@ import com.creditx.main.dto.HoldVoidedEvent;
 import com.creditx.main.service.HoldEventService;
 import com.creditx.main.tracing.TransactionSpanTagger;
 import com.creditx.main.util.EventValidationUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
 
 @Configuration
 @Slf4j
@@ -20,91 +28,239 @@ public class HoldEventListener {
 
   private final HoldEventService holdEventService;
   private final TransactionSpanTagger transactionSpanTagger;
-  private final ObjectMapper objectMapper;
+  private final KeyOrderedHoldEventDispatcher dispatcher;
+  private final HoldEventRetryRouter retryRouter;
+  private final HoldBindingBackpressureController backpressureController;
+  private final EventCodec eventCodec;
 
   public HoldEventListener(HoldEventService holdEventService,
-      TransactionSpanTagger transactionSpanTagger) {
+      TransactionSpanTagger transactionSpanTagger, KeyOrderedHoldEventDispatcher dispatcher,
+      HoldEventRetryRouter retryRouter,
+      HoldBindingBackpressureController backpressureController, EventCodec eventCodec) {
     this.holdEventService = holdEventService;
     this.transactionSpanTagger = transactionSpanTagger;
-    this.objectMapper = new ObjectMapper();
-    this.objectMapper.findAndRegisterModules(); // Enable JSR310 module for Instant serialization
+    this.dispatcher = dispatcher;
+    this.retryRouter = retryRouter;
+    this.backpressureController = backpressureController;
+    this.eventCodec = eventCodec;
   }
 
   @Bean
-  public Consumer<Message<String>> holdCreated() {
-    return message -> {
-      String payload = message.getPayload();
-
-      // Validate event type before processing
-      if (!EventValidationUtils.validateEventType(message, EventTypes.HOLD_CREATED)) {
-        log.warn("Skipping message with invalid event type. Expected: {}, Headers: {}, Payload: {}",
-            EventTypes.HOLD_CREATED, message.getHeaders(), payload);
-        return;
+  public Consumer<Message<byte[]>> holdCreated() {
+    return message -> consumeHoldCreated(message, dispatcher.isEnabled());
+  }
+
+  @Bean
+  public Consumer<Message<byte[]>> holdExpired() {
+    return message -> consumeHoldExpired(message, dispatcher.isEnabled());
+  }
+
+  @Bean
+  public Consumer<Message<byte[]>> holdVoided() {
+    return message -> consumeHoldVoided(message, dispatcher.isEnabled());
+  }
+
+  /**
+   * Batch consumer for the holds topic. Balance changes of the whole batch are coalesced into one
+   * UPDATE per account; if the batch fails it is replayed record by record so a single bad event
+   * goes through the retry tiers without holding back the rest. Opt-in via the function
+   * definition, replacing holdCreated/holdExpired.
+   */
+  @Bean
+  public Consumer<Message<List<byte[]>>> holdEventBatch() {
+    return this::consumeBatch;
+  }
+
+  @Bean
+  public Consumer<Message<byte[]>> holdRetry1() {
+    return this::consumeRetry;
+  }
+
+  @Bean
+  public Consumer<Message<byte[]>> holdRetry2() {
+    return this::consumeRetry;
+  }
+
+  @Bean
+  public Consumer<Message<byte[]>> holdRetry3() {
+    return this::consumeRetry;
+  }
+
+  private void consumeHoldCreated(Message<byte[]> message, boolean parallel) {
+    consume(message, parallel, EventTypes.HOLD_CREATED, HoldCreatedEvent.class,
+        HoldCreatedEvent::getTransactionId, holdEventService::processHoldCreated);
+  }
+
+  private void consumeHoldExpired(Message<byte[]> message, boolean parallel) {
+    consume(message, parallel, EventTypes.HOLD_EXPIRED, HoldExpiredEvent.class,
+        HoldExpiredEvent::getTransactionId, holdEventService::processHoldExpired);
+  }
+
+  private void consumeHoldVoided(Message<byte[]> message, boolean parallel) {
+    consume(message, parallel, EventTypes.HOLD_VOIDED, HoldVoidedEvent.class,
+        HoldVoidedEvent::getTransactionId, holdEventService::processHoldVoided);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void consumeBatch(Message<List<byte[]>> batch) {
+    List<byte[]> payloads = batch.getPayload();
+    List<Map<String, Object>> recordHeaders = (List<Map<String, Object>>) batch.getHeaders()
+        .get(KafkaHeaders.BATCH_CONVERTED_HEADERS);
+
+    List<Message<byte[]>> records = new ArrayList<>(payloads.size());
+    for (int i = 0; i < payloads.size(); i++) {
+      MessageBuilder<byte[]> builder = MessageBuilder.withPayload(payloads.get(i));
+      if (recordHeaders != null && i < recordHeaders.size()) {
+        builder.copyHeaders(recordHeaders.get(i));
       }
+      records.add(builder.build());
+    }
 
-      try {
-        log.info("Received hold.created event: {}", payload);
-        HoldCreatedEvent event = objectMapper.readValue(payload, HoldCreatedEvent.class);
-        transactionSpanTagger.tagTransactionId(event.getTransactionId());
-        holdEventService.processHoldCreated(event);
-        log.info("Successfully processed hold.created for transaction: {}",
-            event.getTransactionId());
-      } catch (Exception e) {
-        log.error("Failed to process hold.created event: {}", payload, e);
-        throw new RuntimeException("Failed to process hold.created event", e);
+    List<Object> events = new ArrayList<>(records.size());
+    for (Message<byte[]> message : records) {
+      Object event = readBatchEvent(message);
+      if (event == null) {
+        // Unknown or unreadable records need the per-record skip/dead-letter handling
+        consumeIndividually(records);
+        return;
       }
+      events.add(event);
+    }
+    if (events.isEmpty()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      holdEventService.processHoldEventBatch(events);
+      backpressureController.recordProcessingLatency(System.nanoTime() - start);
+      log.info("Successfully processed batch of {} hold events", events.size());
+    } catch (Exception e) {
+      log.warn("Hold event batch of {} failed, falling back to per-record processing: {}",
+          events.size(), e.getMessage());
+      consumeIndividually(records);
+    }
+  }
+
+  private Object readBatchEvent(Message<byte[]> message) {
+    Class<?> eventClass = switch (String.valueOf(EventValidationUtils.getEventType(message))) {
+      case EventTypes.HOLD_CREATED -> HoldCreatedEvent.class;
+      case EventTypes.HOLD_EXPIRED -> HoldExpiredEvent.class;
+      case EventTypes.HOLD_VOIDED -> HoldVoidedEvent.class;
+      default -> null;
     };
+    if (eventClass == null) {
+      return null;
+    }
+    try {
+      return eventCodec.decode(message.getPayload(), contentType(message), eventClass);
+    } catch (Exception e) {
+      return null;
+    }
   }
 
-  @Bean
-  public Consumer<Message<String>> holdExpired() {
-    return message -> {
-      String payload = message.getPayload();
-
-      // Validate event type before processing
-      if (!EventValidationUtils.validateEventType(message, EventTypes.HOLD_EXPIRED)) {
-        log.warn("Skipping message with invalid event type. Expected: {}, Headers: {}, Payload: {}",
-            EventTypes.HOLD_EXPIRED, message.getHeaders(), payload);
-        return;
+  private void consumeIndividually(List<Message<byte[]>> records) {
+    for (Message<byte[]> message : records) {
+      String eventType = EventValidationUtils.getEventType(message);
+      if (EventTypes.HOLD_CREATED.equals(eventType)) {
+        consumeHoldCreated(message, false);
+      } else if (EventTypes.HOLD_EXPIRED.equals(eventType)) {
+        consumeHoldExpired(message, false);
+      } else if (EventTypes.HOLD_VOIDED.equals(eventType)) {
+        consumeHoldVoided(message, false);
+      } else {
+        log.warn("Skipping batched message with unexpected event type {}: {}", eventType,
+            describe(message));
       }
+    }
+  }
 
-      try {
-        log.info("Received hold.expired event: {}", payload);
-        HoldExpiredEvent event = objectMapper.readValue(payload, HoldExpiredEvent.class);
-        transactionSpanTagger.tagTransactionId(event.getTransactionId());
-        holdEventService.processHoldExpired(event);
-        log.info("Successfully processed hold.expired for transaction: {}",
-            event.getTransactionId());
-      } catch (Exception e) {
-        log.error("Failed to process hold.expired event: {}", payload, e);
-        throw new RuntimeException("Failed to process hold.expired event", e);
+  private void consumeRetry(Message<byte[]> message) {
+    Acknowledgment ack = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT,
+        Acknowledgment.class);
+    long remainingDelay = retryRouter.remainingDelay(message);
+    if (remainingDelay > 0 && ack != null) {
+      // The container pauses the partition and redelivers the record once it is due, rather than
+      // blocking the consumer thread past max.poll.interval.ms
+      ack.nack(Duration.ofMillis(remainingDelay));
+      return;
+    }
+    String eventType = EventValidationUtils.getEventType(message);
+    if (eventType == null) {
+      log.warn("Dropping retried hold event without {} header: {}", EventTypes.EVENT_TYPE_HEADER,
+          describe(message));
+    } else {
+      switch (eventType) {
+        case EventTypes.HOLD_CREATED -> consumeHoldCreated(message, false);
+        case EventTypes.HOLD_EXPIRED -> consumeHoldExpired(message, false);
+        case EventTypes.HOLD_VOIDED -> consumeHoldVoided(message, false);
+        default -> log.warn("Dropping retried event of unexpected type {}", eventType);
       }
-    };
+    }
+    if (ack != null) {
+      ack.acknowledge();
+    }
   }
 
-  @Bean
-  public Consumer<Message<String>> holdVoided() {
-    return message -> {
-      String payload = message.getPayload();
-
-      // Validate event type before processing
-      if (!EventValidationUtils.validateEventType(message, EventTypes.HOLD_VOIDED)) {
-        log.warn("Skipping message with invalid event type. Expected: {}, Headers: {}, Payload: {}",
-            EventTypes.HOLD_VOIDED, message.getHeaders(), payload);
-        return;
+  private <T> void consume(Message<byte[]> message, boolean parallel, String eventType,
+      Class<T> eventClass, Function<T, Long> transactionIdOf, Consumer<T> handler) {
+    String payload = describe(message);
+
+    // Validate event type before processing
+    if (!EventValidationUtils.validateEventType(message, eventType)) {
+      log.warn("Skipping message with invalid event type. Expected: {}, Headers: {}, Payload: {}",
+          eventType, message.getHeaders(), payload);
+      if (parallel) {
+        dispatcher.skip(message);
       }
+      return;
+    }
 
-      try {
-        log.info("Received hold.voided event: {}", payload);
-        HoldVoidedEvent event = objectMapper.readValue(payload, HoldVoidedEvent.class);
-        transactionSpanTagger.tagTransactionId(event.getTransactionId());
-        holdEventService.processHoldVoided(event);
-        log.info("Successfully processed hold.voided for transaction: {}",
-            event.getTransactionId());
-      } catch (Exception e) {
-        log.error("Failed to process hold.voided event: {}", payload, e);
-        throw new RuntimeException("Failed to process hold.voided event", e);
+    T event;
+    try {
+      log.info("Received {} event: {}", eventType, payload);
+      event = eventCodec.decode(message.getPayload(), contentType(message), eventClass);
+    } catch (Exception e) {
+      // A payload that cannot be parsed will never succeed, so skip the retry tiers
+      log.error("Failed to deserialize {} event: {}", eventType, payload, e);
+      retryRouter.routeFailure(message, e, true);
+      if (parallel) {
+        dispatcher.skip(message);
       }
-    };
+      return;
+    }
+
+    Long transactionId = transactionIdOf.apply(event);
+    if (parallel) {
+      // Ordering is only required per transaction, so unrelated transactions run in parallel
+      dispatcher.dispatch(transactionId, message,
+          () -> process(message, eventType, transactionId, event, handler));
+      return;
+    }
+    process(message, eventType, transactionId, event, handler);
+  }
+
+  private <T> void process(Message<byte[]> message, String eventType, Long transactionId, T event,
+      Consumer<T> handler) {
+    long start = System.nanoTime();
+    try {
+      transactionSpanTagger.tagTransactionId(transactionId);
+      handler.accept(event);
+      backpressureController.recordProcessingLatency(System.nanoTime() - start);
+      log.info("Successfully processed {} for transaction: {}", eventType, transactionId);
+    } catch (Exception e) {
+      log.error("Failed to process {} event: {}", eventType, describe(message), e);
+      // Forward to the retry tiers so the main partition keeps flowing; if forwarding itself
+      // fails the exception propagates and the binder redelivers the record
+      retryRouter.routeFailure(message, e, false);
+    }
+  }
+
+  private Object contentType(Message<?> message) {
+    return message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+  }
+
+  private String describe(Message<byte[]> message) {
+    return eventCodec.describe(message.getPayload(), contentType(message));
   }
 }
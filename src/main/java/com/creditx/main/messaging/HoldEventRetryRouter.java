@@ -0,0 +1,131 @@
+package com.creditx.main.messaging;
+
+import com.creditx.main.constants.EventTypes;
+import com.creditx.main.constants.RetryHeaders;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves failed hold events off the main partition: each failure goes to the next retry tier
+ * ({@code holds.retry-1}, {@code holds.retry-2}, ...) with an increasing delay, and once the tiers
+ * are exhausted to {@code holds.dlt} with the failure details in its headers.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HoldEventRetryRouter {
+
+  // One holdRetryN consumer is bound per tier
+  private static final int MAX_RETRY_TIERS = 3;
+
+  private final StreamBridge streamBridge;
+
+  @Value("${app.holds.destination:holds}")
+  private String holdsDestination;
+
+  @Value("${app.holds.retry.delays:1000,10000,60000}")
+  private long[] retryDelays;
+
+  /**
+   * Forward a failed hold event to its next retry tier, or to the dead-letter topic when the tiers
+   * are exhausted or the failure is terminal (e.g. an unparseable payload).
+   */
+  public void routeFailure(Message<?> message, Exception failure, boolean terminal) {
+    int attempt = retryAttempt(message);
+    Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+
+    MessageBuilder<Object> forward = MessageBuilder.withPayload((Object) message.getPayload())
+        .setHeader(RetryHeaders.EXCEPTION_FQCN, cause.getClass().getName())
+        .setHeader(RetryHeaders.EXCEPTION_MESSAGE, String.valueOf(cause.getMessage()));
+    copyHeader(message, forward, EventTypes.EVENT_TYPE_HEADER);
+    copyHeader(message, forward, "key");
+    // Binary payloads must keep their content type, or the binder would label them JSON
+    copyHeader(message, forward, MessageHeaders.CONTENT_TYPE);
+    copyOriginHeaders(message, forward);
+    Object key = message.getHeaders().get(KafkaHeaders.RECEIVED_KEY);
+    if (key != null) {
+      forward.setHeader(KafkaHeaders.KEY, key);
+    }
+
+    String destination;
+    if (!terminal && attempt < Math.min(retryDelays.length, MAX_RETRY_TIERS)) {
+      long dueAt = Instant.now().toEpochMilli() + retryDelays[attempt];
+      destination = retryTopic(attempt + 1);
+      forward.setHeader(RetryHeaders.RETRY_ATTEMPT, String.valueOf(attempt + 1))
+          .setHeader(RetryHeaders.RETRY_DUE_AT, String.valueOf(dueAt));
+    } else {
+      destination = deadLetterTopic();
+      forward.setHeader(RetryHeaders.RETRY_ATTEMPT, String.valueOf(attempt));
+    }
+
+    if (!streamBridge.send(destination, forward.build())) {
+      throw new IllegalStateException("Failed to forward hold event to " + destination);
+    }
+    log.warn("Forwarded failed hold event (attempt {}) to {}: {}", attempt, destination,
+        cause.getMessage());
+  }
+
+  /**
+   * Milliseconds until the message's retry tier delay has elapsed, or zero if it is due. Records
+   * within a tier share the same delay, so they become due in offset order and only the head of
+   * the partition ever has to wait.
+   */
+  public long remainingDelay(Message<?> message) {
+    Object dueAt = message.getHeaders().get(RetryHeaders.RETRY_DUE_AT);
+    if (dueAt == null) {
+      return 0;
+    }
+    return Math.max(0, Long.parseLong(dueAt.toString()) - Instant.now().toEpochMilli());
+  }
+
+  public boolean isRetryTopic(String destination) {
+    return destination.startsWith(holdsDestination + ".retry-");
+  }
+
+  public String retryTopic(int tier) {
+    return holdsDestination + ".retry-" + tier;
+  }
+
+  public String deadLetterTopic() {
+    return holdsDestination + ".dlt";
+  }
+
+  private int retryAttempt(Message<?> message) {
+    Object attempt = message.getHeaders().get(RetryHeaders.RETRY_ATTEMPT);
+    return attempt != null ? Integer.parseInt(attempt.toString()) : 0;
+  }
+
+  private void copyOriginHeaders(Message<?> message, MessageBuilder<Object> forward) {
+    // Keep the first failure's origin across tiers
+    if (message.getHeaders().containsKey(RetryHeaders.ORIGINAL_TOPIC)) {
+      copyHeader(message, forward, RetryHeaders.ORIGINAL_TOPIC);
+      copyHeader(message, forward, RetryHeaders.ORIGINAL_PARTITION);
+      copyHeader(message, forward, RetryHeaders.ORIGINAL_OFFSET);
+      return;
+    }
+    var headers = message.getHeaders();
+    if (headers.get(KafkaHeaders.RECEIVED_TOPIC) != null) {
+      forward.setHeader(RetryHeaders.ORIGINAL_TOPIC,
+          String.valueOf(headers.get(KafkaHeaders.RECEIVED_TOPIC)));
+      forward.setHeader(RetryHeaders.ORIGINAL_PARTITION,
+          String.valueOf(headers.get(KafkaHeaders.RECEIVED_PARTITION)));
+      forward.setHeader(RetryHeaders.ORIGINAL_OFFSET,
+          String.valueOf(headers.get(KafkaHeaders.OFFSET)));
+    }
+  }
+
+  private void copyHeader(Message<?> message, MessageBuilder<Object> forward, String name) {
+    Object value = message.getHeaders().get(name);
+    if (value != null) {
+      forward.setHeader(name, value);
+    }
+  }
+}
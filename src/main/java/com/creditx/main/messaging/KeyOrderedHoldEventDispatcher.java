@@ -0,0 +1,321 @@
+package com.creditx.main.messaging;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans hold events out to a bounded set of single-threaded lanes keyed by transactionId, so
+ * unrelated transactions are processed in parallel while events for the same transaction keep
+ * their order. Offsets are acknowledged only once every record up to them has completed, so a
+ * restart never skips an in-flight record. A record whose lane fails (i.e. it was neither processed
+ * nor handed to the retry tiers) is never completed: its partition stops committing and the
+ * consumer seeks back to it the next time the consumer thread comes by.
+ */
+@Component
+@Slf4j
+public class KeyOrderedHoldEventDispatcher {
+
+  @Value("${app.holds.parallel.enabled:false}")
+  private boolean enabled;
+
+  @Value("${app.holds.parallel.workers:16}")
+  private int workers;
+
+  @Value("${app.holds.parallel.queue-capacity:256}")
+  private int queueCapacity;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  private ThreadPoolExecutor[] lanes;
+  private final Map<String, PartitionOffsets> offsets = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    lanes = new ThreadPoolExecutor[workers];
+    for (int i = 0; i < workers; i++) {
+      lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueCapacity),
+          laneThreadFactory("hold-lane-" + i + "-"), (task, executor) -> {
+        // Block the consumer thread while the lane is full so backpressure reaches the poll loop
+        try {
+          executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RejectedExecutionException("Interrupted while queueing hold event", e);
+        }
+      });
+    }
+    log.info("Parallel hold-event processing enabled with {} lanes (queue capacity {})", workers,
+        queueCapacity);
+  }
+
+  private ThreadFactory laneThreadFactory(String prefix) {
+    return virtualThreads ? Thread.ofVirtual().name(prefix, 1).factory()
+        : new CustomizableThreadFactory(prefix);
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    if (lanes == null) {
+      return;
+    }
+    for (ThreadPoolExecutor lane : lanes) {
+      lane.shutdown();
+    }
+    for (ThreadPoolExecutor lane : lanes) {
+      if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+        lane.shutdownNow();
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queue the task on the lane owning the key. The record's offset is tracked so that it is
+   * acknowledged only after it and all earlier records of its partition have completed. Records
+   * that are redelivered anyway because their partition is being rewound are dropped.
+   */
+  public void dispatch(Long key, Message<?> message, Runnable task) {
+    if (rewound(message)) {
+      return;
+    }
+    PendingRecord pending = track(message);
+    int laneIndex = Math.floorMod(key != null ? key.hashCode() : 0, lanes.length);
+    ThreadPoolExecutor lane = lanes[laneIndex];
+    lane.execute(() -> {
+      try {
+        task.run();
+        if (pending != null) {
+          pending.partition().complete(pending.record());
+        }
+      } catch (Exception e) {
+        log.error("Unhandled failure in hold-event lane for key {}: {}", key, e.getMessage(), e);
+        if (pending != null) {
+          pending.partition().fail(pending.record());
+        }
+      }
+    });
+  }
+
+  /**
+   * Mark a record that needs no processing as completed, keeping the partition's commit point
+   * contiguous.
+   */
+  public void skip(Message<?> message) {
+    if (rewound(message)) {
+      return;
+    }
+    PendingRecord pending = track(message);
+    if (pending != null) {
+      pending.partition().complete(pending.record());
+    }
+  }
+
+  /**
+   * Rewind failed partitions of an idle container, whose consumer thread would otherwise not come
+   * by until new records arrive. Published on the consumer thread, so seeking is safe here.
+   */
+  @EventListener
+  public void onIdle(ListenerContainerIdleEvent event) {
+    if (event.getConsumer() == null || event.getTopicPartitions() == null) {
+      return;
+    }
+    for (TopicPartition topicPartition : event.getTopicPartitions()) {
+      PartitionOffsets partition = offsets.get(
+          partitionKey(topicPartition.topic(), topicPartition.partition()));
+      if (partition != null) {
+        seekToFailure(event.getConsumer(), topicPartition, partition);
+      }
+    }
+  }
+
+  /**
+   * Forget the in-flight state of partitions this consumer no longer owns, so their gaps do not
+   * hold back commits if they are assigned again. Their new owner resumes from the last commit.
+   */
+  public void partitionsRevoked(Collection<TopicPartition> partitions) {
+    for (TopicPartition topicPartition : partitions) {
+      PartitionOffsets partition = offsets.remove(
+          partitionKey(topicPartition.topic(), topicPartition.partition()));
+      if (partition != null) {
+        partition.clear();
+      }
+    }
+  }
+
+  /**
+   * Called on the consumer thread for every record: seeks a failed partition back to its first
+   * failed offset and reports whether the record belongs to the stale tail of that rewind.
+   */
+  private boolean rewound(Message<?> message) {
+    var headers = message.getHeaders();
+    Object topic = headers.get(KafkaHeaders.RECEIVED_TOPIC);
+    Object partitionId = headers.get(KafkaHeaders.RECEIVED_PARTITION);
+    Object offset = headers.get(KafkaHeaders.OFFSET);
+    if (topic == null || !(partitionId instanceof Integer) || !(offset instanceof Long)) {
+      return false;
+    }
+    PartitionOffsets partition = offsets.get(partitionKey(topic, partitionId));
+    if (partition == null) {
+      return false;
+    }
+    Consumer<?, ?> consumer = headers.get(KafkaHeaders.CONSUMER, Consumer.class);
+    if (consumer != null) {
+      seekToFailure(consumer, new TopicPartition(topic.toString(), (Integer) partitionId),
+          partition);
+    }
+    return !partition.accept((Long) offset);
+  }
+
+  private void seekToFailure(Consumer<?, ?> consumer, TopicPartition topicPartition,
+      PartitionOffsets partition) {
+    Long failedOffset = partition.rewind();
+    if (failedOffset != null) {
+      log.warn("Rewinding {} to failed hold event at offset {}", topicPartition, failedOffset);
+      consumer.seek(topicPartition, failedOffset);
+    }
+  }
+
+  private PendingRecord track(Message<?> message) {
+    var headers = message.getHeaders();
+    Acknowledgment ack = headers.get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+    Object topic = headers.get(KafkaHeaders.RECEIVED_TOPIC);
+    Object partition = headers.get(KafkaHeaders.RECEIVED_PARTITION);
+    Object offset = headers.get(KafkaHeaders.OFFSET);
+    if (ack == null || topic == null || partition == null || !(offset instanceof Long)) {
+      return null;
+    }
+    PartitionOffsets partitionOffsets = offsets.computeIfAbsent(partitionKey(topic, partition),
+        k -> new PartitionOffsets());
+    return new PendingRecord(partitionOffsets, partitionOffsets.register((Long) offset, ack));
+  }
+
+  private static String partitionKey(Object topic, Object partition) {
+    return topic + "-" + partition;
+  }
+
+  private record PendingRecord(PartitionOffsets partition, InFlight record) {
+
+  }
+
+  /**
+   * In-flight offsets of one partition. Completing an offset acknowledges the highest record of
+   * the contiguous completed prefix; gaps hold back the commit until they are filled. A failed
+   * record is never completed, so nothing at or after it is committed until the partition has been
+   * rewound and the record redelivered.
+   */
+  static final class PartitionOffsets {
+
+    private final TreeMap<Long, InFlight> inFlight = new TreeMap<>();
+    private Long failedOffset;
+    private Long resumeOffset;
+
+    synchronized InFlight register(long offset, Acknowledgment ack) {
+      InFlight record = new InFlight(offset, ack);
+      inFlight.put(offset, record);
+      return record;
+    }
+
+    void complete(InFlight record) {
+      Acknowledgment toAck = null;
+      synchronized (this) {
+        // A record dropped by a rewind or revoke may still finish on its lane
+        if (inFlight.get(record.offset) != record) {
+          return;
+        }
+        record.done = true;
+        while (!inFlight.isEmpty() && inFlight.firstEntry().getValue().done) {
+          toAck = inFlight.pollFirstEntry().getValue().ack;
+        }
+      }
+      if (toAck != null) {
+        toAck.acknowledge();
+      }
+    }
+
+    synchronized void fail(InFlight record) {
+      if (inFlight.get(record.offset) != record) {
+        return;
+      }
+      if (failedOffset == null || record.offset < failedOffset) {
+        failedOffset = record.offset;
+      }
+    }
+
+    /**
+     * Drop the failed record and everything after it, returning the offset to seek back to, or
+     * null if nothing failed. Records already fetched past that offset are rejected by
+     * {@link #accept(long)} until the failed record comes round again.
+     */
+    synchronized Long rewind() {
+      if (failedOffset == null) {
+        return null;
+      }
+      long rewindTo = failedOffset;
+      inFlight.tailMap(rewindTo, true).clear();
+      failedOffset = null;
+      resumeOffset = rewindTo;
+      return rewindTo;
+    }
+
+    synchronized boolean accept(long offset) {
+      if (resumeOffset == null) {
+        return true;
+      }
+      if (offset > resumeOffset) {
+        return false;
+      }
+      resumeOffset = null;
+      return true;
+    }
+
+    synchronized void clear() {
+      inFlight.clear();
+      failedOffset = null;
+      resumeOffset = null;
+    }
+
+    synchronized int size() {
+      return inFlight.size();
+    }
+  }
+
+  static final class InFlight {
+
+    private final long offset;
+    private final Acknowledgment ack;
+    private boolean done;
+
+    private InFlight(long offset, Acknowledgment ack) {
+      this.offset = offset;
+      this.ack = ack;
+    }
+  }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -33,7 +34,32 @@ public class OutboxStreamPublisher {
 
     Message<String> message = MessageBuilder.withPayload(payload).setHeader("key", key)
         .setHeader("eventType", eventType).build();
+    send(key, message);
+  }
+
+  /**
+   * Publish a payload in the binary event layout. The content type header tells consumers which
+   * decoder and schema version to use; byte payloads pass through the binder unconverted.
+   */
+  public void publish(String key, byte[] payload, String eventType, String contentType) {
+    if (key == null || payload == null || payload.length == 0) {
+      log.debug("Skipping publish - invalid key or binary payload. Key: {}", key);
+      return;
+    }
+    if (eventType == null || eventType.trim().isEmpty()) {
+      log.debug("Skipping publish - invalid eventType: {}", eventType);
+      return;
+    }
+
+    log.debug("Publishing {} message to binding '{}' with key: {}", contentType, bindingName, key);
+
+    Message<byte[]> message = MessageBuilder.withPayload(payload).setHeader("key", key)
+        .setHeader("eventType", eventType).setHeader(MessageHeaders.CONTENT_TYPE, contentType)
+        .build();
+    send(key, message);
+  }
 
+  private void send(String key, Message<?> message) {
     try {
       streamBridge.send(bindingName, message);
       log.debug("Successfully published message with key: {}", key);
@@ -1,7 +1,10 @@
 package com.creditx.main.model;
 
+import com.creditx.main.cache.AccountMetadataInvalidationListener;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -18,6 +21,7 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Table(name = "CMS_ACCOUNTS")
+@EntityListeners(AccountMetadataInvalidationListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,7 +30,7 @@ public class Account {
 
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq_gen")
-  @SequenceGenerator(name = "account_seq_gen", sequenceName = "CMS_ACCT_SEQ", allocationSize = 1)
+  @SequenceGenerator(name = "account_seq_gen", sequenceName = "CMS_ACCT_SEQ", allocationSize = 50)
   @Column(name = "ACCOUNT_ID")
   private Long accountId;
 
@@ -42,12 +46,14 @@ public class Account {
   private AccountStatus status;
 
   @Column(name = "AVAILABLE_BALANCE", nullable = false, precision = 20, scale = 2)
+  @Convert(converter = MoneyConverter.class)
   @Builder.Default
-  private BigDecimal availableBalance = BigDecimal.ZERO;
+  private Money availableBalance = Money.ZERO;
 
   @Column(name = "RESERVED", nullable = false, precision = 20, scale = 2)
+  @Convert(converter = MoneyConverter.class)
   @Builder.Default
-  private BigDecimal reserved = BigDecimal.ZERO;
+  private Money reserved = Money.ZERO;
 
   @Column(name = "CREDIT_LIMIT", nullable = false, precision = 20, scale = 2)
   private BigDecimal creditLimit;
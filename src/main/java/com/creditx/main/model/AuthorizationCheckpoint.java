@@ -0,0 +1,30 @@
+package com.creditx.main.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "CMS_AUTH_JOURNAL_CHECKPOINTS")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorizationCheckpoint {
+
+  @Id
+  @Column(name = "SHARD_ID")
+  private Integer shardId;
+
+  @Column(name = "LAST_SEQUENCE", nullable = false)
+  private Long lastSequence;
+
+  @Column(name = "UPDATED_AT", nullable = false)
+  private Instant updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.creditx.main.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "CMS_IDEMPOTENCY_KEYS")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+  @Id
+  @Column(name = "IDEMPOTENCY_KEY", length = 200)
+  private String idempotencyKey;
+
+  @Column(name = "REQUEST_HASH", nullable = false, length = 128)
+  private String requestHash;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "STATUS", nullable = false, length = 20)
+  private IdempotencyStatus status;
+
+  @Lob
+  @Column(name = "RESPONSE_BODY")
+  private String responseBody;
+
+  @Column(name = "CREATED_AT", insertable = false, updatable = false)
+  private Instant createdAt;
+}
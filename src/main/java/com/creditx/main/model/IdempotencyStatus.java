@@ -0,0 +1,5 @@
+package com.creditx.main.model;
+
+public enum IdempotencyStatus {
+  IN_PROGRESS, COMPLETED
+}
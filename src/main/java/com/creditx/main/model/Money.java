@@ -0,0 +1,88 @@
+package com.creditx.main.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount held as a {@code long} of minor units at the accounts' scale of 2, so balance arithmetic
+ * on the posting path does not allocate a {@link BigDecimal} per step. Overflow throws
+ * {@link ArithmeticException} instead of wrapping. Convert with {@link #of(BigDecimal)} and
+ * {@link #toBigDecimal()} only where amounts enter or leave the service (API, JSON); account
+ * balances are mapped by {@link MoneyConverter}.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+  public static final Money ZERO = new Money(0L);
+
+  /**
+   * Convert an amount to minor units. Amounts with more than two decimal places are rejected
+   * rather than rounded, so no fraction of a minor unit is silently dropped.
+   *
+   * @throws IllegalArgumentException if the amount has more than two decimal places
+   * @throws ArithmeticException if the amount does not fit in a long of minor units
+   */
+  public static Money of(BigDecimal amount) {
+    if (amount == null) {
+      throw new IllegalArgumentException("Amount must not be null");
+    }
+    BigDecimal scaled;
+    try {
+      scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(
+          "Amount must not have more than " + SCALE + " decimal places: " + amount);
+    }
+    return new Money(scaled.unscaledValue().longValueExact());
+  }
+
+  public static Money ofMinor(long minorUnits) {
+    return minorUnits == 0L ? ZERO : new Money(minorUnits);
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  public Money plus(Money other) {
+    return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public Money negate() {
+    return ofMinor(Math.negateExact(minorUnits));
+  }
+
+  public int signum() {
+    return Long.signum(minorUnits);
+  }
+
+  public boolean isNegative() {
+    return minorUnits < 0L;
+  }
+
+  public boolean isPositive() {
+    return minorUnits > 0L;
+  }
+
+  public boolean isLessThan(Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  public Money max(Money other) {
+    return minorUnits >= other.minorUnits ? this : other;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,27 @@
+package com.creditx.main.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
+
+/**
+ * Maps a NUMBER(20,2) balance column to {@link Money}, so an account's balances are converted
+ * once when it is loaded and once when it is flushed. {@link Money} is a value, so Hibernate
+ * compares snapshots with {@code equals} instead of deep-copying them through this converter.
+ */
+@Converter
+@Mutability(Immutability.class)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
+  @Override
+  public Money convertToEntityAttribute(BigDecimal amount) {
+    return amount == null ? null : Money.of(amount);
+  }
+}
@@ -24,9 +24,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class OutboxEvent {
 
+  // Size of the PAYLOAD_BINARY column; larger payloads are stored as JSON
+  public static final int MAX_BINARY_PAYLOAD_BYTES = 2000;
+
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq_gen")
-  @SequenceGenerator(name = "outbox_seq_gen", sequenceName = "CMS_OUTBOX_SEQ", allocationSize = 1)
+  @SequenceGenerator(name = "outbox_seq_gen", sequenceName = "CMS_OUTBOX_SEQ", allocationSize = 50)
   @Column(name = "EVENT_ID")
   private Long eventId;
 
@@ -36,10 +39,18 @@ public class OutboxEvent {
   @Column(name = "AGGREGATE_ID")
   private Long aggregateId;
 
+  // JSON payload; null when the event is stored in the binary layout
   @Lob
-  @Column(name = "PAYLOAD", nullable = false)
+  @Column(name = "PAYLOAD")
   private String payload;
 
+  @Column(name = "PAYLOAD_BINARY", length = MAX_BINARY_PAYLOAD_BYTES)
+  private byte[] payloadBinary;
+
+  // Null for JSON rows, including those written before binary encoding existed
+  @Column(name = "CONTENT_TYPE", length = 100)
+  private String contentType;
+
   @Enumerated(EnumType.STRING)
   @Column(name = "STATUS", nullable = false, length = 20)
   private OutboxEventStatus status;
@@ -26,7 +26,7 @@ public class Transaction {
 
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq_gen")
-  @SequenceGenerator(name = "transaction_seq_gen", sequenceName = "CMS_TXN_SEQ", allocationSize = 1)
+  @SequenceGenerator(name = "transaction_seq_gen", sequenceName = "CMS_TXN_SEQ", allocationSize = 50)
   @Column(name = "TRANSACTION_ID")
   private Long transactionId;
 
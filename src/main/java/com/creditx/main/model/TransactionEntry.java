@@ -25,7 +25,7 @@ public class TransactionEntry {
 
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "txn_entry_seq_gen")
-  @SequenceGenerator(name = "txn_entry_seq_gen", sequenceName = "CMS_ENTRY_SEQ", allocationSize = 1)
+  @SequenceGenerator(name = "txn_entry_seq_gen", sequenceName = "CMS_ENTRY_SEQ", allocationSize = 50)
   @Column(name = "ENTRY_ID")
   private Long entryId;
 
@@ -0,0 +1,59 @@
+package com.creditx.main.model;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The status changes a transaction may go through once it exists, each applied as one
+ * conditional update that only matches rows in one of the source statuses. Creation is not
+ * listed: a transaction is inserted as PENDING, and its creator then moves it on by AUTHORIZE or
+ * DECLINE like everyone else, so a hold event or the sweeper may get there first.
+ */
+public enum TransactionTransition {
+
+  /**
+   * hold.created reserved the funds. AUTHORIZED is a source too, because the create path usually
+   * authorizes from the hold response before the event arrives.
+   */
+  AUTHORIZE(EnumSet.of(TransactionStatus.PENDING, TransactionStatus.AUTHORIZED),
+      TransactionStatus.AUTHORIZED),
+
+  /** No usable hold was ever placed. */
+  DECLINE(EnumSet.of(TransactionStatus.PENDING), TransactionStatus.FAILED),
+
+  /** The transaction was posted. */
+  SETTLE(EnumSet.of(TransactionStatus.AUTHORIZED), TransactionStatus.SUCCESS),
+
+  /** The hold expired or was voided before the transaction was posted. */
+  RELEASE(EnumSet.of(TransactionStatus.AUTHORIZED), TransactionStatus.FAILED);
+
+  private final Set<TransactionStatus> from;
+  private final TransactionStatus to;
+  private final List<String> fromNames;
+
+  TransactionTransition(Set<TransactionStatus> from, TransactionStatus to) {
+    this.from = Set.copyOf(from);
+    this.to = to;
+    this.fromNames = from.stream().map(TransactionStatus::name).toList();
+  }
+
+  public Set<TransactionStatus> from() {
+    return from;
+  }
+
+  public TransactionStatus to() {
+    return to;
+  }
+
+  public boolean allowsFrom(TransactionStatus status) {
+    return from.contains(status);
+  }
+
+  /**
+   * Source statuses as stored in CMS_TRANSACTIONS.STATUS.
+   */
+  public List<String> fromNames() {
+    return fromNames;
+  }
+}
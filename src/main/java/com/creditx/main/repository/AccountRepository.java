@@ -2,15 +2,52 @@ package com.creditx.main.repository;
 
 import com.creditx.main.model.Account;
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
   @Lock(LockModeType.PESSIMISTIC_WRITE)
-  @Query("select a from Account a where a.accountId in :ids")
+  @Query("select a from Account a where a.accountId in :ids order by a.accountId")
   List<Account> findAllForUpdate(@Param("ids") List<Long> ids);
+
+  /**
+   * Apply a net balance change in a single statement. Reserved is floored at zero, mirroring the
+   * per-event release logic, and the update is refused (0 rows) if it would make the available
+   * balance negative.
+   *
+   * @return number of rows updated (0 if the account is missing or the balance is insufficient)
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = """
+      UPDATE CMS_ACCOUNTS
+         SET AVAILABLE_BALANCE = AVAILABLE_BALANCE + :availableDelta,
+             RESERVED = GREATEST(RESERVED + :reservedDelta, 0)
+       WHERE ACCOUNT_ID = :accountId
+         AND AVAILABLE_BALANCE + :availableDelta >= 0
+      """, nativeQuery = true)
+  int applyBalanceDelta(@Param("accountId") Long accountId,
+      @Param("availableDelta") BigDecimal availableDelta,
+      @Param("reservedDelta") BigDecimal reservedDelta);
+
+  /**
+   * Add already-validated deltas to both balances, without any guard or flooring.
+   *
+   * @return number of rows updated (0 if the account is missing)
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(value = """
+      UPDATE CMS_ACCOUNTS
+         SET AVAILABLE_BALANCE = AVAILABLE_BALANCE + :availableDelta,
+             RESERVED = RESERVED + :reservedDelta
+       WHERE ACCOUNT_ID = :accountId
+      """, nativeQuery = true)
+  int addToBalances(@Param("accountId") Long accountId,
+      @Param("availableDelta") BigDecimal availableDelta,
+      @Param("reservedDelta") BigDecimal reservedDelta);
 }
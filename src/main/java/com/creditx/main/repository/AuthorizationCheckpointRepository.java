@@ -0,0 +1,42 @@
+package com.creditx.main.repository;
+
+import com.creditx.main.model.AuthorizationCheckpoint;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuthorizationCheckpointRepository extends
+    JpaRepository<AuthorizationCheckpoint, Integer> {
+
+  /**
+   * Record that a group of prepared journal entries belongs to the current transaction, so they
+   * count as committed exactly when it does.
+   */
+  @Modifying
+  @Query(value = """
+      INSERT INTO CMS_AUTH_JOURNAL_PREPARED (SHARD_ID, PREPARE_ID)
+      VALUES (:shardId, :prepareId)
+      """, nativeQuery = true)
+  int insertPrepared(@Param("shardId") int shardId, @Param("prepareId") long prepareId);
+
+  /**
+   * The given prepare ids whose transaction committed and whose entries are not yet applied.
+   */
+  @Query(value = """
+      SELECT PREPARE_ID FROM CMS_AUTH_JOURNAL_PREPARED
+       WHERE SHARD_ID = :shardId AND PREPARE_ID IN (:prepareIds)
+      """, nativeQuery = true)
+  List<Number> findPrepared(@Param("shardId") int shardId,
+      @Param("prepareIds") Collection<Long> prepareIds);
+
+  @Modifying
+  @Query(value = """
+      DELETE FROM CMS_AUTH_JOURNAL_PREPARED
+       WHERE SHARD_ID = :shardId AND PREPARE_ID IN (:prepareIds)
+      """, nativeQuery = true)
+  int deletePrepared(@Param("shardId") int shardId,
+      @Param("prepareIds") Collection<Long> prepareIds);
+}
@@ -0,0 +1,62 @@
+package com.creditx.main.repository;
+
+import com.creditx.main.model.IdempotencyRecord;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+  /**
+   * Claim a key for a request about to run. A plain insert rather than {@code save}, so a key
+   * that is already taken fails on the primary key instead of being merged over.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      INSERT INTO CMS_IDEMPOTENCY_KEYS (IDEMPOTENCY_KEY, REQUEST_HASH, STATUS)
+      VALUES (:key, :requestHash, 'IN_PROGRESS')
+      """, nativeQuery = true)
+  int claim(@Param("key") String key, @Param("requestHash") String requestHash);
+
+  @Transactional
+  @Modifying
+  @Query(value = """
+      UPDATE CMS_IDEMPOTENCY_KEYS
+         SET STATUS = 'COMPLETED', RESPONSE_BODY = :responseBody, UPDATED_AT = SYSTIMESTAMP
+       WHERE IDEMPOTENCY_KEY = :key
+      """, nativeQuery = true)
+  int complete(@Param("key") String key, @Param("responseBody") String responseBody);
+
+  /**
+   * Release the claim of a request that failed, so the client can retry it with the same key.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      DELETE FROM CMS_IDEMPOTENCY_KEYS
+       WHERE IDEMPOTENCY_KEY = :key AND STATUS = 'IN_PROGRESS'
+      """, nativeQuery = true)
+  int release(@Param("key") String key);
+
+  /**
+   * Drop a claim left behind by an instance that died while running the request.
+   */
+  @Transactional
+  @Modifying
+  @Query(value = """
+      DELETE FROM CMS_IDEMPOTENCY_KEYS
+       WHERE IDEMPOTENCY_KEY = :key AND STATUS = 'IN_PROGRESS' AND CREATED_AT < :cutoff
+      """, nativeQuery = true)
+  int releaseAbandoned(@Param("key") String key, @Param("cutoff") Instant cutoff);
+
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM CMS_IDEMPOTENCY_KEYS WHERE CREATED_AT < :cutoff", nativeQuery = true)
+  int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
@@ -1,8 +1,10 @@
 package com.creditx.main.repository;
 
 import com.creditx.main.model.OutboxEvent;
+import com.creditx.main.model.OutboxEventStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
 
+  long countByStatus(OutboxEventStatus status);
 }
@@ -2,6 +2,8 @@ package com.creditx.main.repository;
 
 import com.creditx.main.model.ProcessedEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -9,5 +11,15 @@ public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent,
 
   boolean existsByEventId(String eventId);
 
+  boolean existsByEventIdAndStatusNot(String eventId, String status);
+
   boolean existsByPayloadHash(String payloadHash);
+
+  /**
+   * Drops the daily partitions of CMS_PROCESSED_EVENTS that are older than the dedup horizon.
+   *
+   * @return number of partitions dropped
+   */
+  @Procedure(procedureName = "CMS_PURGE_PROCESSED_EVENTS", outputParameterName = "p_dropped")
+  Integer purgeExpiredPartitions(@Param("p_horizon_days") Integer horizonDays);
 }
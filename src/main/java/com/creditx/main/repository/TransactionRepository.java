@@ -1,13 +1,140 @@
 package com.creditx.main.repository;
 
 import com.creditx.main.model.Transaction;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
+import com.creditx.main.model.TransactionType;
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
   List<Transaction> findByAccountId(Long accountId);
 
   Optional<Transaction> findByHoldId(Long holdId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from Transaction t where t.transactionId = :id")
+  Optional<Transaction> findByIdForUpdate(@Param("id") Long id);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select t from Transaction t where t.transactionId in :ids order by t.transactionId")
+  List<Transaction> findAllForUpdate(@Param("ids") List<Long> ids);
+
+  /**
+   * Apply a status transition in a single statement. The status check is part of the update, so
+   * of two concurrent transitions out of the same status only one matches the row.
+   *
+   * @return true if applied, false if the transaction is missing or in another status
+   */
+  default boolean transition(Long transactionId, TransactionTransition transition) {
+    return updateStatus(transactionId, transition.fromNames(), transition.to().name()) == 1;
+  }
+
+  /**
+   * Apply a status transition and record the hold it was decided by, in a single statement.
+   *
+   * @return true if applied, false if the transaction is missing or in another status
+   */
+  default boolean transition(Long transactionId, TransactionTransition transition, Long holdId) {
+    return updateStatusAndHold(transactionId, transition.fromNames(), transition.to().name(),
+        holdId) == 1;
+  }
+
+  /**
+   * Apply a status transition to several transactions in a single statement. Unlike the
+   * single-row transitions it leaves the persistence context alone, so entities the caller has
+   * loaded and locked stay managed; their status field is not refreshed.
+   *
+   * @return number of transactions the transition was applied to
+   */
+  default int transitionAll(Collection<Long> transactionIds, TransactionTransition transition) {
+    return updateStatusIn(transactionIds, transition.fromNames(), transition.to().name());
+  }
+
+  /**
+   * Set the status if the current one is among the given ones. Callers go through
+   * {@link #transition(Long, TransactionTransition)}, which supplies them from the transition
+   * table.
+   *
+   * @return number of rows updated (0 if the transaction is missing or in another status)
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = """
+      UPDATE CMS_TRANSACTIONS
+         SET STATUS = :to
+       WHERE TRANSACTION_ID = :id
+         AND STATUS IN (:from)
+      """, nativeQuery = true)
+  int updateStatus(@Param("id") Long transactionId, @Param("from") Collection<String> from,
+      @Param("to") String to);
+
+  @Modifying(flushAutomatically = true)
+  @Query(value = """
+      UPDATE CMS_TRANSACTIONS
+         SET STATUS = :to
+       WHERE TRANSACTION_ID IN (:ids)
+         AND STATUS IN (:from)
+      """, nativeQuery = true)
+  int updateStatusIn(@Param("ids") Collection<Long> transactionIds,
+      @Param("from") Collection<String> from, @Param("to") String to);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = """
+      UPDATE CMS_TRANSACTIONS
+         SET STATUS = :to, HOLD_ID = :holdId
+       WHERE TRANSACTION_ID = :id
+         AND STATUS IN (:from)
+      """, nativeQuery = true)
+  int updateStatusAndHold(@Param("id") Long transactionId,
+      @Param("from") Collection<String> from, @Param("to") String to,
+      @Param("holdId") Long holdId);
+
+  /**
+   * Ids of transactions in the given status created before the given instant, oldest first. Runs
+   * as a range scan of IDX_CMS_TXN_STATUS_CREATED that stops after one page.
+   */
+  @Query("select t.transactionId from Transaction t where t.status = :status"
+      + " and t.createdAt < :before order by t.createdAt")
+  List<Long> findIdsByStatusCreatedBefore(@Param("status") TransactionStatus status,
+      @Param("before") Instant before, Pageable pageable);
+
+  long countByStatusAndCreatedAtBefore(TransactionStatus status, Instant before);
+
+  /**
+   * Issuer, amount and creation time of transactions created since the given instant, for
+   * rebuilding in-memory velocity counters.
+   */
+  List<IssuerSpend> findByTypeAndStatusNotAndCreatedAtGreaterThanEqual(TransactionType type,
+      TransactionStatus status, Instant since);
+
+  /**
+   * Posts an AUTHORIZED transaction in one database call: balances, ledger entries, status and
+   * the transaction.posted outbox event.
+   *
+   * @return 0 when posted, otherwise the CMS_POST_TRANSACTION rejection code
+   */
+  @Procedure(procedureName = "CMS_POST_TRANSACTION", outputParameterName = "p_result")
+  Integer postTransaction(@Param("p_transaction_id") Long transactionId,
+      @Param("p_hold_id") Long holdId);
+
+  interface IssuerSpend {
+
+    Long getAccountId();
+
+    BigDecimal getAmount();
+
+    Instant getCreatedAt();
+  }
 }
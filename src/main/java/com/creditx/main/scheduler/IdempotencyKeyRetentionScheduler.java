@@ -0,0 +1,27 @@
+package com.creditx.main.scheduler;
+
+import com.creditx.main.idempotency.IdempotencyGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyRetentionScheduler {
+
+  private final IdempotencyGuard idempotencyGuard;
+
+  @Scheduled(cron = "${app.idempotency.purge-cron:0 45 * * * *}")
+  public void purgeExpiredKeys() {
+    try {
+      int deleted = idempotencyGuard.purgeExpired();
+      if (deleted > 0) {
+        log.info("Deleted {} idempotency keys past their retention", deleted);
+      }
+    } catch (Exception e) {
+      log.error("Failed to purge expired idempotency keys: {}", e.getMessage(), e);
+    }
+  }
+}
@@ -38,8 +38,13 @@ public class OutboxEventPublishingScheduler {
     for (OutboxEvent event : events) {
       try {
         log.debug("Publishing event {} of type {}", event.getEventId(), event.getEventType());
-        outboxStreamPublisher.publish(event.getAggregateId().toString(), event.getPayload(),
-            event.getEventType());
+        if (event.getPayloadBinary() != null) {
+          outboxStreamPublisher.publish(event.getAggregateId().toString(),
+              event.getPayloadBinary(), event.getEventType(), event.getContentType());
+        } else {
+          outboxStreamPublisher.publish(event.getAggregateId().toString(), event.getPayload(),
+              event.getEventType());
+        }
         outboxEventService.markAsPublished(event);
         successCount++;
         log.debug("Successfully published event {}", event.getEventId());
@@ -0,0 +1,154 @@
+package com.creditx.main.scheduler;
+
+import com.creditx.main.deadline.Deadline;
+import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.service.HoldLookupService;
+import com.creditx.main.service.PendingTransactionRecoveryService;
+import com.creditx.main.service.PendingTransactionRecoveryService.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recovers transactions left PENDING. Inbound transactions are committed as PENDING before their
+ * hold is requested, so one stays PENDING when the process dies, the hold call fails or times out,
+ * or its outcome cannot be written. Each sweep takes the oldest PENDING transactions past the
+ * threshold from the (STATUS, CREATED_AT) index, splits them into chunks reconciled in parallel
+ * against CreditHoldServ, and resolves each in its own transaction. A transaction whose hold
+ * lookup fails stays PENDING for the next sweep.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PendingTransactionSweeper {
+
+  private final TransactionRepository transactionRepository;
+  private final HoldLookupService holdLookupService;
+  private final PendingTransactionRecoveryService recoveryService;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.transactions.pending-sweep.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.transactions.pending-sweep.stuck-after-ms:120000}")
+  private long stuckAfterMs;
+
+  @Value("${app.transactions.pending-sweep.batch-size:500}")
+  private int batchSize;
+
+  @Value("${app.transactions.pending-sweep.chunk-size:50}")
+  private int chunkSize;
+
+  @Value("${app.transactions.pending-sweep.parallelism:4}")
+  private int parallelism;
+
+  @Value("${app.transactions.pending-sweep.lookup-timeout-ms:5000}")
+  private long lookupTimeoutMs;
+
+  private ExecutorService executor;
+  private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+  private Counter errors;
+  private Timer sweepTimer;
+  private volatile long backlog;
+
+  @PostConstruct
+  public void init() {
+    executor = Executors.newFixedThreadPool(parallelism,
+        new CustomizableThreadFactory("pending-sweep-"));
+    for (Outcome outcome : Outcome.values()) {
+      outcomes.put(outcome, Counter.builder("creditx.transactions.pending-sweep.recovered")
+          .description("PENDING transactions handled by the sweeper, by outcome")
+          .tag("outcome", outcome.name().toLowerCase(Locale.ROOT)).register(meterRegistry));
+    }
+    errors = Counter.builder("creditx.transactions.pending-sweep.errors")
+        .description("PENDING transactions the sweeper could not reconcile and will retry")
+        .register(meterRegistry);
+    sweepTimer = Timer.builder("creditx.transactions.pending-sweep.duration")
+        .description("Duration of one sweep over stuck PENDING transactions")
+        .register(meterRegistry);
+    Gauge.builder("creditx.transactions.pending-sweep.backlog", this, s -> s.backlog)
+        .description("PENDING transactions older than the sweep threshold")
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void stop() {
+    executor.shutdown();
+  }
+
+  @Scheduled(fixedDelayString = "${app.transactions.pending-sweep.interval-ms:60000}")
+  public void sweep() {
+    if (!enabled) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      int swept = sweepOnce();
+      if (swept > 0) {
+        log.info("Swept {} stuck PENDING transactions in {} ms, {} left past the threshold",
+            swept, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), backlog);
+      }
+    } catch (Exception e) {
+      log.error("Failed to sweep stuck PENDING transactions: {}", e.getMessage(), e);
+    } finally {
+      sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  int sweepOnce() {
+    Instant cutoff = Instant.now().minusMillis(stuckAfterMs);
+    List<Long> ids = transactionRepository.findIdsByStatusCreatedBefore(
+        TransactionStatus.PENDING, cutoff, PageRequest.of(0, batchSize));
+    if (!ids.isEmpty()) {
+      List<CompletableFuture<Void>> chunks = new ArrayList<>();
+      for (int from = 0; from < ids.size(); from += chunkSize) {
+        List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+        chunks.add(CompletableFuture.runAsync(() -> recover(chunk), executor));
+      }
+      CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+    }
+    backlog = transactionRepository.countByStatusAndCreatedAtBefore(TransactionStatus.PENDING,
+        cutoff);
+    return ids.size();
+  }
+
+  private void recover(List<Long> transactionIds) {
+    for (Long transactionId : transactionIds) {
+      try {
+        Optional<CreateHoldResponse> hold;
+        // Bounds the call like a request deadline, so a hanging CreditHoldServ cannot stall a chunk
+        try (Deadline.Scope scope = Deadline.bind(Deadline.afterMillis(lookupTimeoutMs))) {
+          hold = holdLookupService.findHoldByTransactionId(transactionId);
+        }
+        outcomes.get(recoveryService.resolve(transactionId, hold)).increment();
+      } catch (RuntimeException e) {
+        errors.increment();
+        log.warn("Could not recover PENDING transaction {}, retrying next sweep: {}",
+            transactionId, e.getMessage());
+      }
+    }
+  }
+}
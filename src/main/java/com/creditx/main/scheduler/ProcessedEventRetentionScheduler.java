@@ -0,0 +1,33 @@
+package com.creditx.main.scheduler;
+
+import com.creditx.main.service.ProcessedEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessedEventRetentionScheduler {
+
+  private final ProcessedEventService processedEventService;
+
+  @Value("${app.processed-events.retention-days:7}")
+  private int retentionDays;
+
+  @Scheduled(cron = "${app.processed-events.purge-cron:0 15 * * * *}")
+  public void purgeExpiredPartitions() {
+    log.debug("Starting processed-event retention cycle with horizon of {} days", retentionDays);
+    try {
+      int dropped = processedEventService.purgeExpiredEvents(retentionDays);
+      if (dropped > 0) {
+        log.info("Dropped {} processed-event partitions outside the {} day dedup horizon", dropped,
+            retentionDays);
+      }
+    } catch (Exception e) {
+      log.error("Failed to purge expired processed-event partitions: {}", e.getMessage(), e);
+    }
+  }
+}
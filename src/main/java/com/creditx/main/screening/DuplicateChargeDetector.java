@@ -0,0 +1,207 @@
+package com.creditx.main.screening;
+
+import com.creditx.main.model.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Catches accidental double-submits: charges with the same issuer, merchant, amount and currency
+ * within a short window. Fingerprints are kept in a ring of time buckets covering the window; a
+ * bucket is replaced wholesale once it falls out of the window, so expiry costs nothing per entry.
+ * Each bucket holds at most its share of the configured maximum, keeping memory bounded under
+ * bursts; fingerprints beyond that are not tracked.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DuplicateChargeDetector {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.transactions.duplicate-detection.policy:flag}")
+  private String policyName;
+
+  @Value("${app.transactions.duplicate-detection.window-ms:10000}")
+  private long windowMs;
+
+  @Value("${app.transactions.duplicate-detection.buckets:10}")
+  private int bucketCount;
+
+  @Value("${app.transactions.duplicate-detection.max-entries:100000}")
+  private int maxEntries;
+
+  // Millisecond time source, replaceable in tests
+  private LongSupplier clock = System::currentTimeMillis;
+  private DuplicatePolicy policy;
+  private long bucketWidthMs;
+  private int maxEntriesPerBucket;
+  private AtomicReferenceArray<Bucket> buckets;
+  private Counter rejected;
+  private Counter flagged;
+  private Counter allowed;
+  private Counter untracked;
+
+  @PostConstruct
+  public void init() {
+    policy = DuplicatePolicy.valueOf(policyName.trim().toUpperCase(Locale.ROOT));
+    bucketWidthMs = Math.max(1L, windowMs / bucketCount);
+    maxEntriesPerBucket = Math.max(1, maxEntries / bucketCount);
+    buckets = new AtomicReferenceArray<>(bucketCount);
+    rejected = detections("rejected");
+    flagged = detections("flagged");
+    allowed = detections("allowed");
+    untracked = Counter.builder("creditx.transactions.duplicates.untracked")
+        .description("Charges not tracked because the duplicate window was full")
+        .register(meterRegistry);
+    Gauge.builder("creditx.transactions.duplicates.tracked", this, DuplicateChargeDetector::size)
+        .description("Charge fingerprints currently held in the duplicate window")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Record the charge and apply the policy if the same charge was seen within the window.
+   *
+   * @return true if the charge repeats one seen within the window
+   * @throws IllegalStateException if it is a duplicate and the policy is to reject
+   */
+  public boolean check(Long issuerAccountId, Long merchantAccountId, BigDecimal amount,
+      String currency) {
+    if (policy == DuplicatePolicy.OFF || amount == null) {
+      return false;
+    }
+    Fingerprint fingerprint = new Fingerprint(issuerAccountId, merchantAccountId,
+        Money.of(amount), currency);
+    if (!seenBefore(fingerprint)) {
+      return false;
+    }
+
+    switch (policy) {
+      case REJECT -> {
+        rejected.increment();
+        log.warn("Rejecting duplicate charge issuer={}, merchant={}, amount={} {} within {} ms",
+            issuerAccountId, merchantAccountId, amount, currency, windowMs);
+        throw new IllegalStateException(
+            "Duplicate charge: the same charge was submitted within the last " + windowMs + " ms");
+      }
+      case FLAG -> {
+        flagged.increment();
+        log.warn("Possible duplicate charge issuer={}, merchant={}, amount={} {} within {} ms",
+            issuerAccountId, merchantAccountId, amount, currency, windowMs);
+      }
+      default -> allowed.increment();
+    }
+    return true;
+  }
+
+  /**
+   * Forget a charge recorded by {@link #check}, so that a retry of a charge that did not go ahead
+   * is not taken for a duplicate. Only for charges whose check returned false: a repeat records
+   * nothing of its own, and forgetting it would clear the fingerprint of the charge it repeated.
+   */
+  public void forget(Long issuerAccountId, Long merchantAccountId, BigDecimal amount,
+      String currency) {
+    if (policy == DuplicatePolicy.OFF || amount == null) {
+      return;
+    }
+    Fingerprint fingerprint = new Fingerprint(issuerAccountId, merchantAccountId,
+        Money.of(amount), currency);
+    for (int i = 0; i < bucketCount; i++) {
+      Bucket bucket = buckets.get(i);
+      if (bucket != null) {
+        bucket.fingerprints.remove(fingerprint);
+      }
+    }
+  }
+
+  /**
+   * Look the fingerprint up in every bucket of the window and record it in the current one. The
+   * current bucket is checked and written with a single putIfAbsent, so two concurrent submits of
+   * the same charge cannot both pass as first.
+   */
+  private boolean seenBefore(Fingerprint fingerprint) {
+    long epoch = clock.getAsLong() / bucketWidthMs;
+    for (int age = 1; age < bucketCount; age++) {
+      Bucket bucket = buckets.get(indexOf(epoch - age));
+      if (bucket != null && bucket.epoch == epoch - age
+          && bucket.fingerprints.containsKey(fingerprint)) {
+        return true;
+      }
+    }
+
+    Bucket current = current(epoch);
+    if (current.fingerprints.containsKey(fingerprint)) {
+      return true;
+    }
+    if (current.fingerprints.size() >= maxEntriesPerBucket) {
+      untracked.increment();
+      return false;
+    }
+    return current.fingerprints.putIfAbsent(fingerprint, Boolean.TRUE) != null;
+  }
+
+  private Bucket current(long epoch) {
+    int index = indexOf(epoch);
+    while (true) {
+      Bucket bucket = buckets.get(index);
+      if (bucket != null && bucket.epoch >= epoch) {
+        return bucket;
+      }
+      Bucket fresh = new Bucket(epoch);
+      if (buckets.compareAndSet(index, bucket, fresh)) {
+        return fresh;
+      }
+    }
+  }
+
+  private int indexOf(long epoch) {
+    return (int) Math.floorMod(epoch, (long) bucketCount);
+  }
+
+  private double size() {
+    long epoch = clock.getAsLong() / bucketWidthMs;
+    long size = 0;
+    for (int i = 0; i < bucketCount; i++) {
+      Bucket bucket = buckets.get(i);
+      if (bucket != null && bucket.epoch > epoch - bucketCount) {
+        size += bucket.fingerprints.size();
+      }
+    }
+    return size;
+  }
+
+  private Counter detections(String action) {
+    return Counter.builder("creditx.transactions.duplicates")
+        .description("Charges repeating one seen within the duplicate window")
+        .tag("action", action).register(meterRegistry);
+  }
+
+  public enum DuplicatePolicy {
+    REJECT, FLAG, ALLOW, OFF
+  }
+
+  private record Fingerprint(Long issuerAccountId, Long merchantAccountId, Money amount,
+      String currency) {
+
+  }
+
+  private static final class Bucket {
+
+    private final long epoch;
+    private final ConcurrentHashMap<Fingerprint, Boolean> fingerprints = new ConcurrentHashMap<>();
+
+    private Bucket(long epoch) {
+      this.epoch = epoch;
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.creditx.main.screening;
+
+import com.creditx.main.model.Money;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionType;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.repository.TransactionRepository.IssuerSpend;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-issuer velocity rules, such as at most 20 transactions per minute or 5000.00 per hour,
+ * enforced from in-memory sliding-window counters instead of COUNT/SUM queries. Each rule keeps a
+ * ring of time slots per issuer, so a check sums a fixed number of slots regardless of traffic.
+ * A request is counted first and checked afterwards, and backed out if a rule is exceeded: under
+ * concurrency this can only reject too eagerly near the limit, never admit past it. Counters are
+ * rebuilt from recent transactions at startup.
+ *
+ * <p>Rules are configured as a comma-separated list of {@code count:<limit>/<window>} and
+ * {@code amount:<limit>/<window>}, e.g. {@code count:20/1m,amount:5000.00/1h}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityLimiter {
+
+  private final TransactionRepository transactionRepository;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.transactions.velocity.rules:}")
+  private String ruleSpec;
+
+  @Value("${app.transactions.velocity.slots:60}")
+  private int slotCount;
+
+  @Value("${app.transactions.velocity.max-issuers:100000}")
+  private long maxIssuers;
+
+  // Millisecond time source, replaceable in tests
+  private LongSupplier clock = System::currentTimeMillis;
+  private List<Rule> rules = List.of();
+  private Cache<Long, WindowCounter[]> issuers;
+
+  @PostConstruct
+  public void init() {
+    rules = parseRules(ruleSpec);
+    if (rules.isEmpty()) {
+      return;
+    }
+    Duration longest = rules.stream().map(Rule::window).max(Duration::compareTo).orElseThrow();
+    // An issuer idle for the longest window has nothing left to count
+    issuers = Caffeine.newBuilder().maximumSize(maxIssuers).expireAfterAccess(longest).build();
+    rebuild(longest);
+  }
+
+  /**
+   * Count a transaction of the issuer against every rule.
+   *
+   * @return reservation to release if the transaction does not go ahead
+   * @throws IllegalArgumentException if the transaction would exceed a rule
+   */
+  public Reservation reserve(Long issuerAccountId, BigDecimal amount) {
+    if (rules.isEmpty()) {
+      return Reservation.NONE;
+    }
+    long now = clock.getAsLong();
+    long minorUnits = Money.of(amount).minorUnits();
+    WindowCounter[] counters = issuers.get(issuerAccountId, id -> newCounters());
+
+    Slot[] slots = new Slot[rules.size()];
+    long[] deltas = new long[rules.size()];
+    for (int i = 0; i < slots.length; i++) {
+      deltas[i] = rules.get(i).kind() == Kind.COUNT ? 1L : minorUnits;
+      slots[i] = counters[i].add(now, deltas[i]);
+    }
+    Reservation reservation = new Reservation(slots, deltas);
+
+    for (int i = 0; i < slots.length; i++) {
+      Rule rule = rules.get(i);
+      if (counters[i].sum(now) > rule.limit()) {
+        reservation.release();
+        rule.rejections().increment();
+        log.warn("Issuer {} exceeded velocity rule {}", issuerAccountId, rule.spec());
+        throw new IllegalArgumentException("Velocity limit exceeded: " + rule.spec());
+      }
+    }
+    return reservation;
+  }
+
+  private void rebuild(Duration longest) {
+    Instant since = Instant.ofEpochMilli(clock.getAsLong()).minus(longest);
+    List<IssuerSpend> recent = transactionRepository
+        .findByTypeAndStatusNotAndCreatedAtGreaterThanEqual(TransactionType.INBOUND,
+            TransactionStatus.FAILED, since);
+    for (IssuerSpend spend : recent) {
+      if (spend.getAccountId() == null || spend.getCreatedAt() == null) {
+        continue;
+      }
+      WindowCounter[] counters = issuers.get(spend.getAccountId(), id -> newCounters());
+      long at = spend.getCreatedAt().toEpochMilli();
+      long minorUnits = Money.of(spend.getAmount()).minorUnits();
+      for (int i = 0; i < counters.length; i++) {
+        counters[i].add(at, rules.get(i).kind() == Kind.COUNT ? 1L : minorUnits);
+      }
+    }
+    log.info("Rebuilt velocity counters from {} transactions since {}", recent.size(), since);
+  }
+
+  private WindowCounter[] newCounters() {
+    WindowCounter[] counters = new WindowCounter[rules.size()];
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = new WindowCounter(rules.get(i).window().toMillis(), slotCount);
+    }
+    return counters;
+  }
+
+  private List<Rule> parseRules(String spec) {
+    if (spec == null || spec.isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(spec.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+        .map(this::parseRule).toList();
+  }
+
+  private Rule parseRule(String spec) {
+    int colon = spec.indexOf(':');
+    int slash = spec.indexOf('/');
+    if (colon < 0 || slash < colon) {
+      throw new IllegalArgumentException("Invalid velocity rule '" + spec
+          + "', expected count:<limit>/<window> or amount:<limit>/<window>");
+    }
+    Kind kind = Kind.valueOf(spec.substring(0, colon).trim().toUpperCase(Locale.ROOT));
+    String limit = spec.substring(colon + 1, slash).trim();
+    Duration window = DurationStyle.detectAndParse(spec.substring(slash + 1).trim());
+    long limitValue = kind == Kind.COUNT ? Long.parseLong(limit)
+        : Money.of(new BigDecimal(limit)).minorUnits();
+    Counter rejections = Counter.builder("creditx.transactions.velocity.rejected")
+        .description("Transactions rejected by a per-issuer velocity rule").tag("rule", spec)
+        .register(meterRegistry);
+    return new Rule(spec, kind, limitValue, window, rejections);
+  }
+
+  enum Kind {
+    COUNT, AMOUNT
+  }
+
+  private record Rule(String spec, Kind kind, long limit, Duration window, Counter rejections) {
+
+  }
+
+  private record Slot(long epoch, LongAdder total) {
+
+  }
+
+  /**
+   * Counts of one issuer for one rule over a ring of time slots. Slots are replaced by CAS once
+   * they fall out of the window, so adding and summing never block.
+   */
+  private static final class WindowCounter {
+
+    private final long slotWidthMs;
+    private final int slots;
+    private final AtomicReferenceArray<Slot> ring;
+
+    private WindowCounter(long windowMs, int slots) {
+      this.slotWidthMs = Math.max(1L, windowMs / slots);
+      this.slots = slots;
+      this.ring = new AtomicReferenceArray<>(slots);
+    }
+
+    private Slot add(long atMs, long delta) {
+      long epoch = atMs / slotWidthMs;
+      int index = (int) Math.floorMod(epoch, (long) slots);
+      while (true) {
+        Slot slot = ring.get(index);
+        if (slot != null && slot.epoch() == epoch) {
+          slot.total().add(delta);
+          return slot;
+        }
+        if (slot != null && slot.epoch() > epoch) {
+          // The slot has already moved on, so the count would be outside the window anyway
+          return null;
+        }
+        Slot fresh = new Slot(epoch, new LongAdder());
+        if (ring.compareAndSet(index, slot, fresh)) {
+          fresh.total().add(delta);
+          return fresh;
+        }
+      }
+    }
+
+    private long sum(long nowMs) {
+      long epoch = nowMs / slotWidthMs;
+      long sum = 0L;
+      for (int i = 0; i < slots; i++) {
+        Slot slot = ring.get(i);
+        if (slot != null && slot.epoch() > epoch - slots && slot.epoch() <= epoch) {
+          sum += slot.total().sum();
+        }
+      }
+      return sum;
+    }
+  }
+
+  /**
+   * A transaction counted against the rules. Releasing it backs the counts out again; counts in
+   * slots that have since left the window are simply dropped.
+   */
+  public static final class Reservation {
+
+    public static final Reservation NONE = new Reservation(new Slot[0], new long[0]);
+
+    private final Slot[] slots;
+    private final long[] deltas;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Reservation(Slot[] slots, long[] deltas) {
+      this.slots = slots;
+      this.deltas = deltas;
+    }
+
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        for (int i = 0; i < slots.length; i++) {
+          if (slots[i] != null) {
+            slots[i].total().add(-deltas[i]);
+          }
+        }
+      }
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.creditx.main.service;
 import com.creditx.main.dto.HoldCreatedEvent;
 import com.creditx.main.dto.HoldExpiredEvent;
 import com.creditx.main.dto.HoldVoidedEvent;
+import java.util.List;
 
 public interface HoldEventService {
 
@@ -11,4 +12,14 @@ public interface HoldEventService {
   void processHoldExpired(HoldExpiredEvent event);
 
   void processHoldVoided(HoldVoidedEvent event);
+
+  /**
+   * Process a batch of hold events in one transaction. Status changes, outbox events and dedup
+   * records are written per event, but balance changes are summed per account and applied as one
+   * UPDATE per account. Any failure rolls back the whole batch.
+   *
+   * @param events {@link HoldCreatedEvent}, {@link HoldExpiredEvent} or {@link HoldVoidedEvent}
+   *               instances in consumption order
+   */
+  void processHoldEventBatch(List<?> events);
 }
@@ -0,0 +1,15 @@
+package com.creditx.main.service;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import java.util.Optional;
+
+public interface HoldLookupService {
+
+  /**
+   * Look up the hold CreditHoldServ holds for a transaction
+   *
+   * @param transactionId transaction the hold was requested for
+   * @return the hold with its current status, or empty if CreditHoldServ has none
+   */
+  Optional<CreateHoldResponse> findHoldByTransactionId(Long transactionId);
+}
@@ -1,5 +1,6 @@
 package com.creditx.main.service;
 
+import com.creditx.main.messaging.EncodedEvent;
 import com.creditx.main.model.OutboxEvent;
 import java.util.List;
 
@@ -7,9 +8,13 @@ public interface OutboxEventService {
 
   OutboxEvent saveEvent(String eventType, Long aggregateId, String payload);
 
+  OutboxEvent saveEvent(String eventType, Long aggregateId, EncodedEvent event);
+
   List<OutboxEvent> fetchPendingEvents(int limit);
 
   void markAsPublished(OutboxEvent event);
 
   void markAsFailed(OutboxEvent event);
+
+  long countPendingEvents();
 }
\ No newline at end of file
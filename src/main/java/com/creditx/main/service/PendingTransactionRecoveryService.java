@@ -0,0 +1,22 @@
+package com.creditx.main.service;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import java.util.Optional;
+
+public interface PendingTransactionRecoveryService {
+
+  /**
+   * Resolve a transaction stuck in PENDING from the state of its hold in CreditHoldServ. An
+   * authorized hold authorizes the transaction as its hold.created event would; no hold, or one
+   * that has expired or been voided, fails it with a transaction.failed event.
+   *
+   * @param transactionId transaction found PENDING by the sweeper
+   * @param hold          hold CreditHoldServ holds for the transaction, if any
+   * @return what happened to the transaction
+   */
+  Outcome resolve(Long transactionId, Optional<CreateHoldResponse> hold);
+
+  enum Outcome {
+    AUTHORIZED, FAILED, SKIPPED
+  }
+}
@@ -3,7 +3,8 @@ package com.creditx.main.service;
 public interface ProcessedEventService {
 
   /**
-   * Check if an event has already been processed
+   * Check if an event has already been processed. Failed attempts do not count, so the event can
+   * be retried.
    *
    * @param eventId unique identifier for the event
    * @return true if event was already processed, false otherwise
@@ -19,6 +20,15 @@ public interface ProcessedEventService {
    */
   void markEventAsProcessed(String eventId, String payloadHash, String status);
 
+  /**
+   * Record a failed processing attempt. Runs in its own transaction so the record survives the
+   * rollback of the caller's transaction. Repeated failures update the same record, and a later
+   * successful attempt replaces it.
+   *
+   * @param eventId unique identifier for the event
+   */
+  void markEventAsFailed(String eventId);
+
   /**
    * Check if an event with the same payload hash has been processed
    *
@@ -26,4 +36,12 @@ public interface ProcessedEventService {
    * @return true if payload was already processed, false otherwise
    */
   boolean isPayloadProcessed(String payloadHash);
+
+  /**
+   * Drop processed-event records that fall outside the dedup horizon
+   *
+   * @param horizonDays number of days processed events are retained for deduplication
+   * @return number of partitions dropped
+   */
+  int purgeExpiredEvents(int horizonDays);
 }
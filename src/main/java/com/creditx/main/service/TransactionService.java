@@ -1,16 +1,39 @@
 package com.creditx.main.service;
 
+import com.creditx.main.dto.CommitTransactionBatchResponse;
 import com.creditx.main.dto.CommitTransactionRequest;
 import com.creditx.main.dto.CommitTransactionResponse;
 import com.creditx.main.dto.CreateCashbackTransactionRequest;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
 import com.creditx.main.dto.CreateTransactionRequest;
 import com.creditx.main.dto.CreateTransactionResponse;
+import java.util.List;
 
 public interface TransactionService {
 
+  /**
+   * Create an inbound transaction. It is committed as PENDING before its hold is requested, and
+   * the outcome of the hold is written in a second database transaction. If the hold call or that
+   * write fails, the transaction is returned as PENDING and left to the sweeper.
+   */
   CreateTransactionResponse createInboundTransaction(CreateTransactionRequest request);
 
+  /**
+   * Create a batch of inbound transactions. The accepted requests are committed as PENDING in one
+   * database transaction before their holds are requested, and their outcomes are written in a
+   * second one; an item whose outcome could not be recorded stays PENDING for the sweeper. Requests that
+   * fail screening or validation are reported per item and do not affect the rest of the batch.
+   */
+  CreateTransactionBatchResponse createInboundTransactions(List<CreateTransactionRequest> requests);
+
   CommitTransactionResponse commitTransaction(Long transactionId, CommitTransactionRequest request);
 
+  /**
+   * Commit a batch of authorized transactions in one database transaction, locking each involved
+   * account once. Commits that cannot be posted are reported per item and do not affect the rest
+   * of the batch.
+   */
+  CommitTransactionBatchResponse commitTransactions(List<CommitTransactionRequest> requests);
+
   CreateTransactionResponse createCashbackTransaction(CreateCashbackTransactionRequest request);
 }
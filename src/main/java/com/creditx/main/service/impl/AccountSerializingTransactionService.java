@@ -0,0 +1,89 @@
+package com.creditx.main.service.impl;
+
+import com.creditx.main.concurrent.AccountLockStripes;
+import com.creditx.main.dto.CommitTransactionBatchResponse;
+import com.creditx.main.dto.CommitTransactionRequest;
+import com.creditx.main.dto.CommitTransactionResponse;
+import com.creditx.main.dto.CreateCashbackTransactionRequest;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
+import com.creditx.main.dto.CreateTransactionRequest;
+import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.model.Transaction;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.service.TransactionService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * Queues balance-changing requests on in-JVM account lock stripes before delegating to the
+ * transactional service, so that requests contending for the same account rows wait in memory
+ * rather than on a database row lock while holding a connection. Deliberately not transactional
+ * itself: the database transaction starts only once the request is at the front of the queue.
+ */
+@Service
+@Primary
+public class AccountSerializingTransactionService implements TransactionService {
+
+  private final TransactionServiceImpl delegate;
+  private final TransactionRepository transactionRepository;
+  private final AccountLockStripes accountLockStripes;
+
+  public AccountSerializingTransactionService(
+      @Qualifier("transactionServiceImpl") TransactionServiceImpl delegate,
+      TransactionRepository transactionRepository, AccountLockStripes accountLockStripes) {
+    this.delegate = delegate;
+    this.transactionRepository = transactionRepository;
+    this.accountLockStripes = accountLockStripes;
+  }
+
+  @Override
+  public CreateTransactionResponse createInboundTransaction(CreateTransactionRequest request) {
+    // Only reads the accounts, so there is no row lock to queue for
+    return delegate.createInboundTransaction(request);
+  }
+
+  @Override
+  public CreateTransactionBatchResponse createInboundTransactions(
+      List<CreateTransactionRequest> requests) {
+    return delegate.createInboundTransactions(requests);
+  }
+
+  @Override
+  public CommitTransactionResponse commitTransaction(Long transactionId,
+      CommitTransactionRequest request) {
+    // Short read outside any transaction to learn which accounts the commit will lock, handed on
+    // so the commit does not read the row again
+    Optional<Transaction> transaction = transactionRepository.findById(transactionId);
+    if (transaction.isEmpty()) {
+      return delegate.commitTransaction(transactionId, request);
+    }
+    return accountLockStripes.withLocks(
+        Arrays.asList(transaction.get().getAccountId(), transaction.get().getMerchantId()),
+        () -> delegate.commitTransaction(transaction.get(), request));
+  }
+
+  @Override
+  public CommitTransactionBatchResponse commitTransactions(
+      List<CommitTransactionRequest> requests) {
+    List<Long> transactionIds = requests.stream().map(CommitTransactionRequest::getTransactionId)
+        .filter(Objects::nonNull).distinct().toList();
+    List<Long> accountIds = transactionRepository.findAllById(transactionIds).stream()
+        .flatMap(t -> Stream.of(t.getAccountId(), t.getMerchantId())).toList();
+    return accountLockStripes.withLocks(accountIds,
+        () -> delegate.commitTransactions(requests));
+  }
+
+  @Override
+  public CreateTransactionResponse createCashbackTransaction(
+      CreateCashbackTransactionRequest request) {
+    return accountLockStripes.withLocks(
+        Arrays.asList(request.getIssuerAccountId(), request.getMerchantAccountId()),
+        () -> delegate.createCashbackTransaction(request));
+  }
+}
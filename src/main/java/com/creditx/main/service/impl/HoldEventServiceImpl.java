@@ -1,11 +1,17 @@
 package com.creditx.main.service.impl;
 
+import com.creditx.main.authorization.AuthorizationEngine;
+import com.creditx.main.authorization.BalanceOperation;
 import com.creditx.main.dto.HoldCreatedEvent;
 import com.creditx.main.dto.HoldExpiredEvent;
 import com.creditx.main.dto.HoldVoidedEvent;
+import com.creditx.main.dto.TransactionAuthorizedPayload;
+import com.creditx.main.dto.TransactionFailedPayload;
+import com.creditx.main.messaging.EventCodec;
 import com.creditx.main.model.Account;
+import com.creditx.main.model.Money;
 import com.creditx.main.model.Transaction;
-import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
 import com.creditx.main.repository.AccountRepository;
 import com.creditx.main.repository.TransactionRepository;
 import com.creditx.main.service.HoldEventService;
@@ -13,10 +19,14 @@ import com.creditx.main.service.OutboxEventService;
 import com.creditx.main.service.ProcessedEventService;
 import com.creditx.main.util.EventIdGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
-import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -28,17 +38,19 @@ public class HoldEventServiceImpl implements HoldEventService {
   private final TransactionRepository transactionRepository;
   private final OutboxEventService outboxEventService;
   private final ProcessedEventService processedEventService;
-  private final ObjectMapper objectMapper;
+  private final AuthorizationEngine authorizationEngine;
+  private final EventCodec eventCodec;
 
   public HoldEventServiceImpl(AccountRepository accountRepository,
       TransactionRepository transactionRepository, OutboxEventService outboxEventService,
-      ProcessedEventService processedEventService) {
+      ProcessedEventService processedEventService, AuthorizationEngine authorizationEngine,
+      EventCodec eventCodec) {
     this.accountRepository = accountRepository;
     this.transactionRepository = transactionRepository;
     this.outboxEventService = outboxEventService;
     this.processedEventService = processedEventService;
-    this.objectMapper = new ObjectMapper();
-    this.objectMapper.findAndRegisterModules(); // This enables JSR310 module for Instant serialization
+    this.authorizationEngine = authorizationEngine;
+    this.eventCodec = eventCodec;
   }
 
   @Override
@@ -55,8 +67,7 @@ public class HoldEventServiceImpl implements HoldEventService {
 
     try {
       // Generate payload hash for additional deduplication
-      String payload = objectMapper.writeValueAsString(event);
-      String payloadHash = EventIdGenerator.generatePayloadHash(payload);
+      String payloadHash = EventIdGenerator.generatePayloadHash(eventCodec.writeBytes(event));
 
       // Check if payload has already been processed
       if (processedEventService.isPayloadProcessed(payloadHash)) {
@@ -64,20 +75,17 @@ public class HoldEventServiceImpl implements HoldEventService {
         return;
       }
 
-      // Update account balances (atomic with optimistic locking)
-      Account account = accountRepository.findById(event.getIssuerAccountId()).orElseThrow(
-          () -> new IllegalArgumentException("Account not found: " + event.getIssuerAccountId()));
-
-      updateAccountBalances(account, event.getAmount());
-      accountRepository.save(account);
-
-      // Update transaction state
-      Transaction transaction = transactionRepository.findById(event.getTransactionId())
-          .orElseThrow(() -> new IllegalArgumentException(
-              "Transaction not found: " + event.getTransactionId()));
+      // Update transaction state, unless it has already failed or been posted
+      if (!transactionRepository.transition(event.getTransactionId(),
+          TransactionTransition.AUTHORIZE)) {
+        skipTransition(event.getTransactionId(), TransactionTransition.AUTHORIZE, "hold.created",
+            eventId, payloadHash);
+        return;
+      }
 
-      transaction.setStatus(TransactionStatus.AUTHORIZED);
-      transactionRepository.save(transaction);
+      // Update account balances (atomic with optimistic locking)
+      reserveFunds(event.getIssuerAccountId(), event.getTransactionId(), event.getAmount());
+      Transaction transaction = loadTransaction(event.getTransactionId());
 
       // Publish transaction.authorized event
       publishTransactionAuthorized(transaction, event);
@@ -90,13 +98,13 @@ public class HoldEventServiceImpl implements HoldEventService {
     } catch (JsonProcessingException e) {
       log.error("Failed to serialize event payload for transaction: {}", event.getTransactionId(),
           e);
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      processedEventService.markEventAsFailed(eventId);
       throw new RuntimeException("Failed to serialize event payload", e);
     } catch (Exception e) {
       log.error("Failed to process hold.created event for transaction: {}",
           event.getTransactionId(), e);
-      // Mark event as processed with failed status
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      // Recorded in its own transaction so it survives the rollback of this one
+      processedEventService.markEventAsFailed(eventId);
       throw e;
     }
   }
@@ -115,8 +123,7 @@ public class HoldEventServiceImpl implements HoldEventService {
 
     try {
       // Generate payload hash for additional deduplication
-      String payload = objectMapper.writeValueAsString(event);
-      String payloadHash = EventIdGenerator.generatePayloadHash(payload);
+      String payloadHash = EventIdGenerator.generatePayloadHash(eventCodec.writeBytes(event));
 
       // Check if payload has already been processed
       if (processedEventService.isPayloadProcessed(payloadHash)) {
@@ -124,30 +131,17 @@ public class HoldEventServiceImpl implements HoldEventService {
         return;
       }
 
-      // Find transaction by ID first
-      Transaction transaction = transactionRepository.findById(event.getTransactionId())
-          .orElseThrow(() -> new IllegalArgumentException(
-              "Transaction not found: " + event.getTransactionId()));
-
-      // Check if transaction is in a state that allows expiry
-      if (!isTransactionExpirable(transaction)) {
-        log.info("Transaction {} is in status {} and cannot be expired, skipping",
-            transaction.getTransactionId(), transaction.getStatus());
-        processedEventService.markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+      // Move the transaction to FAILED, which only matches while it is still AUTHORIZED
+      if (!transactionRepository.transition(event.getTransactionId(),
+          TransactionTransition.RELEASE)) {
+        skipTransition(event.getTransactionId(), TransactionTransition.RELEASE, "hold.expired",
+            eventId, payloadHash);
         return;
       }
 
-      // Find account by accountId from the hold expired event
-      Account account = accountRepository.findById(event.getAccountId()).orElseThrow(
-          () -> new IllegalArgumentException("Account not found: " + event.getAccountId()));
-
       // Release funds: available_balance += amount, reserved -= amount
-      releaseFunds(account, event.getAmount());
-      accountRepository.save(account);
-
-      // Update transaction status to FAILED
-      transaction.setStatus(TransactionStatus.FAILED);
-      transactionRepository.save(transaction);
+      releaseFunds(event.getAccountId(), event.getTransactionId(), event.getAmount());
+      Transaction transaction = loadTransaction(event.getTransactionId());
 
       // Publish transaction.failed event
       publishTransactionFailed(transaction, event);
@@ -160,13 +154,13 @@ public class HoldEventServiceImpl implements HoldEventService {
     } catch (JsonProcessingException e) {
       log.error("Failed to serialize event payload for transaction: {}", event.getTransactionId(),
           e);
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      processedEventService.markEventAsFailed(eventId);
       throw new RuntimeException("Failed to serialize event payload", e);
     } catch (Exception e) {
       log.error("Failed to process hold.expired event for transaction: {}",
           event.getTransactionId(), e);
-      // Mark event as processed with failed status
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      // Recorded in its own transaction so it survives the rollback of this one
+      processedEventService.markEventAsFailed(eventId);
       throw e;
     }
   }
@@ -185,8 +179,7 @@ public class HoldEventServiceImpl implements HoldEventService {
 
     try {
       // Generate payload hash for additional deduplication
-      String payload = objectMapper.writeValueAsString(event);
-      String payloadHash = EventIdGenerator.generatePayloadHash(payload);
+      String payloadHash = EventIdGenerator.generatePayloadHash(eventCodec.writeBytes(event));
 
       // Check if payload has already been processed
       if (processedEventService.isPayloadProcessed(payloadHash)) {
@@ -194,30 +187,17 @@ public class HoldEventServiceImpl implements HoldEventService {
         return;
       }
 
-      // Find transaction by ID first
-      Transaction transaction = transactionRepository.findById(event.getTransactionId())
-          .orElseThrow(() -> new IllegalArgumentException(
-              "Transaction not found: " + event.getTransactionId()));
-
-      // Check if transaction is in a state that allows voiding (similar to expiry logic)
-      if (!isTransactionVoidable(transaction)) {
-        log.info("Transaction {} is in status {} and cannot be voided, skipping",
-            transaction.getTransactionId(), transaction.getStatus());
-        processedEventService.markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+      // Move the transaction to FAILED, which only matches while it is still AUTHORIZED
+      if (!transactionRepository.transition(event.getTransactionId(),
+          TransactionTransition.RELEASE)) {
+        skipTransition(event.getTransactionId(), TransactionTransition.RELEASE, "hold.voided",
+            eventId, payloadHash);
         return;
       }
 
-      // Find account by accountId from the hold voided event
-      Account account = accountRepository.findById(event.getAccountId()).orElseThrow(
-          () -> new IllegalArgumentException("Account not found: " + event.getAccountId()));
-
       // Release funds: available_balance += amount, reserved -= amount
-      releaseFunds(account, event.getAmount());
-      accountRepository.save(account);
-
-      // Update transaction status to FAILED
-      transaction.setStatus(TransactionStatus.FAILED);
-      transactionRepository.save(transaction);
+      releaseFunds(event.getAccountId(), event.getTransactionId(), event.getAmount());
+      Transaction transaction = loadTransaction(event.getTransactionId());
 
       // Publish transaction.failed event
       publishTransactionFailedFromVoid(transaction, event);
@@ -230,24 +210,202 @@ public class HoldEventServiceImpl implements HoldEventService {
     } catch (JsonProcessingException e) {
       log.error("Failed to serialize event payload for transaction: {}", event.getTransactionId(),
           e);
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      processedEventService.markEventAsFailed(eventId);
       throw new RuntimeException("Failed to serialize event payload", e);
     } catch (Exception e) {
       log.error("Failed to process hold.voided event for transaction: {}", event.getTransactionId(),
           e);
-      // Mark event as processed with failed status
-      processedEventService.markEventAsProcessed(eventId, "", "FAILED");
+      // Recorded in its own transaction so it survives the rollback of this one
+      processedEventService.markEventAsFailed(eventId);
       throw e;
     }
   }
 
+  @Override
+  @Transactional
+  public void processHoldEventBatch(List<?> events) {
+    // Loaded for the event payloads; statuses are checked and changed by conditional updates
+    Map<Long, Transaction> transactions = transactionRepository.findAllById(
+            events.stream().map(this::transactionIdOf).distinct().toList()).stream()
+        .collect(Collectors.toMap(Transaction::getTransactionId, Function.identity()));
+    // Sorted by account id so concurrent batches lock rows in the same order
+    Map<Long, BalanceDelta> deltas = new TreeMap<>();
+
+    for (Object event : events) {
+      switch (event) {
+        case HoldCreatedEvent created -> collectHoldCreated(created, transactions, deltas);
+        case HoldExpiredEvent expired ->
+            collectHoldReleased("hold.expired", expired, expired.getTransactionId(),
+                expired.getAccountId(), expired.getAmount(), transactions, deltas,
+                transaction -> publishTransactionFailed(transaction, expired));
+        case HoldVoidedEvent voided ->
+            collectHoldReleased("hold.voided", voided, voided.getTransactionId(),
+                voided.getAccountId(), voided.getAmount(), transactions, deltas,
+                transaction -> publishTransactionFailedFromVoid(transaction, voided));
+        default -> throw new IllegalArgumentException(
+            "Unsupported hold event type: " + event.getClass().getSimpleName());
+      }
+    }
+
+    deltas.forEach((accountId, delta) -> {
+      BigDecimal available = delta.available.toBigDecimal();
+      BigDecimal reserved = delta.reserved.toBigDecimal();
+      if (authorizationEngine.isEnabled()) {
+        if (!authorizationEngine.apply(
+            BalanceOperation.delta(accountId, available, reserved)).approved()) {
+          throw new IllegalStateException(
+              "Net balance update rejected for account " + accountId + " (insufficient)");
+        }
+        return;
+      }
+      int updated = accountRepository.applyBalanceDelta(accountId, available, reserved);
+      if (updated == 0) {
+        throw new IllegalStateException(
+            "Net balance update rejected for account " + accountId + " (missing or insufficient)");
+      }
+    });
+    log.info("Processed batch of {} hold events with {} coalesced account updates",
+        events.size(), deltas.size());
+  }
+
+  private void collectHoldCreated(HoldCreatedEvent event, Map<Long, Transaction> transactions,
+      Map<Long, BalanceDelta> deltas) {
+    String eventId = EventIdGenerator.generateEventId("hold.created", event.getTransactionId());
+    String payloadHash = claim(eventId, event);
+    if (payloadHash == null) {
+      return;
+    }
+    Transaction transaction = requireTransaction(transactions, event.getTransactionId());
+    if (!transactionRepository.transition(transaction.getTransactionId(),
+        TransactionTransition.AUTHORIZE)) {
+      log.info("Transaction {} is not in {} and cannot be authorized by hold.created, skipping",
+          transaction.getTransactionId(), TransactionTransition.AUTHORIZE.from());
+      processedEventService.markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+      return;
+    }
+
+    // available_balance -= amount, reserved += amount
+    Money amount = Money.of(event.getAmount());
+    deltas.computeIfAbsent(event.getIssuerAccountId(), id -> new BalanceDelta())
+        .add(amount.negate(), amount);
+    publishTransactionAuthorized(transaction, event);
+    processedEventService.markEventAsProcessed(eventId, payloadHash, "SUCCESS");
+  }
+
+  private void collectHoldReleased(String eventType, Object event, Long transactionId,
+      Long accountId, BigDecimal amount, Map<Long, Transaction> transactions,
+      Map<Long, BalanceDelta> deltas, Consumer<Transaction> publishFailed) {
+    String eventId = EventIdGenerator.generateEventId(eventType, transactionId);
+    String payloadHash = claim(eventId, event);
+    if (payloadHash == null) {
+      return;
+    }
+    Transaction transaction = requireTransaction(transactions, transactionId);
+    if (!transactionRepository.transition(transactionId, TransactionTransition.RELEASE)) {
+      log.info("Transaction {} is not in {} and cannot be released by {}, skipping",
+          transactionId, TransactionTransition.RELEASE.from(), eventType);
+      processedEventService.markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+      return;
+    }
+
+    // available_balance += amount, reserved -= amount
+    Money released = Money.of(amount);
+    deltas.computeIfAbsent(accountId, id -> new BalanceDelta()).add(released, released.negate());
+    publishFailed.accept(transaction);
+    processedEventService.markEventAsProcessed(eventId, payloadHash, "SUCCESS");
+  }
+
+  /**
+   * Run the dedup checks for one event of a batch.
+   *
+   * @return the payload hash to record, or null if the event was already processed
+   */
+  private String claim(String eventId, Object event) {
+    if (processedEventService.isEventProcessed(eventId)) {
+      log.info("Event {} has already been processed, skipping", eventId);
+      return null;
+    }
+    String payloadHash;
+    try {
+      payloadHash = EventIdGenerator.generatePayloadHash(eventCodec.writeBytes(event));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize event payload", e);
+    }
+    if (processedEventService.isPayloadProcessed(payloadHash)) {
+      log.info("Payload with hash {} has already been processed, skipping", payloadHash);
+      return null;
+    }
+    return payloadHash;
+  }
+
+  /**
+   * Record an event whose transition did not apply as skipped. A missing transaction is an error,
+   * as before the transition, so the event is retried once the transaction is visible.
+   */
+  private void skipTransition(Long transactionId, TransactionTransition transition,
+      String eventType, String eventId, String payloadHash) {
+    Transaction transaction = loadTransaction(transactionId);
+    log.info("Transaction {} is in status {} and cannot be moved to {} by {}, skipping",
+        transactionId, transaction.getStatus(), transition.to(), eventType);
+    processedEventService.markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+  }
+
+  private Transaction loadTransaction(Long transactionId) {
+    return transactionRepository.findById(transactionId)
+        .orElseThrow(() -> new IllegalArgumentException("Transaction not found: " + transactionId));
+  }
+
+  private Transaction requireTransaction(Map<Long, Transaction> transactions, Long transactionId) {
+    Transaction transaction = transactions.get(transactionId);
+    if (transaction == null) {
+      throw new IllegalArgumentException("Transaction not found: " + transactionId);
+    }
+    return transaction;
+  }
+
+  private Long transactionIdOf(Object event) {
+    return switch (event) {
+      case HoldCreatedEvent created -> created.getTransactionId();
+      case HoldExpiredEvent expired -> expired.getTransactionId();
+      case HoldVoidedEvent voided -> voided.getTransactionId();
+      default -> throw new IllegalArgumentException(
+          "Unsupported hold event type: " + event.getClass().getSimpleName());
+    };
+  }
+
+  private void reserveFunds(Long accountId, Long transactionId, BigDecimal amount) {
+    if (authorizationEngine.isEnabled()) {
+      if (!authorizationEngine.apply(BalanceOperation.reserve(accountId, transactionId, amount))
+          .approved()) {
+        throw new IllegalStateException("Insufficient available balance for hold");
+      }
+      return;
+    }
+    Account account = accountRepository.findById(accountId)
+        .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
+    updateAccountBalances(account, amount);
+    accountRepository.save(account);
+  }
+
+  private void releaseFunds(Long accountId, Long transactionId, BigDecimal amount) {
+    if (authorizationEngine.isEnabled()) {
+      authorizationEngine.apply(BalanceOperation.release(accountId, transactionId, amount));
+      return;
+    }
+    Account account = accountRepository.findById(accountId)
+        .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
+    releaseFunds(account, amount);
+    accountRepository.save(account);
+  }
+
   private void updateAccountBalances(Account account, BigDecimal amount) {
     // Atomic balance update: available_balance -= amount, reserved += amount
-    BigDecimal newAvailableBalance = account.getAvailableBalance().subtract(amount);
-    BigDecimal newReservedBalance = account.getReserved().add(amount);
+    Money hold = Money.of(amount);
+    Money newAvailableBalance = account.getAvailableBalance().minus(hold);
+    Money newReservedBalance = account.getReserved().plus(hold);
 
     // Validate sufficient balance (should already be checked, but defensive)
-    if (newAvailableBalance.compareTo(BigDecimal.ZERO) < 0) {
+    if (newAvailableBalance.isNegative()) {
       throw new IllegalStateException("Insufficient available balance for hold");
     }
 
@@ -264,13 +422,15 @@ public class HoldEventServiceImpl implements HoldEventService {
           "HoldId cannot be null when publishing transaction.authorized event");
     }
 
-    var payload = new AuthorizedPayload(transaction.getTransactionId(), holdEvent.getHoldId(),
-        holdEvent.getIssuerAccountId(), holdEvent.getMerchantAccountId(), transaction.getAmount(),
-        transaction.getCurrency(), transaction.getStatus().toString());
+    // Status as set by the transition, which a copy loaded earlier in the transaction predates
+    var payload = new TransactionAuthorizedPayload(transaction.getTransactionId(),
+        holdEvent.getHoldId(), holdEvent.getIssuerAccountId(), holdEvent.getMerchantAccountId(),
+        transaction.getAmount(), transaction.getCurrency(),
+        TransactionTransition.AUTHORIZE.to().toString());
 
     try {
       outboxEventService.saveEvent("transaction.authorized", transaction.getTransactionId(),
-          objectMapper.writeValueAsString(payload));
+          eventCodec.encode(payload));
       log.debug("Published transaction.authorized event for transaction: {} with holdId: {}",
           transaction.getTransactionId(), holdEvent.getHoldId());
     } catch (JsonProcessingException e) {
@@ -279,43 +439,33 @@ public class HoldEventServiceImpl implements HoldEventService {
   }
 
 
-  private boolean isTransactionVoidable(Transaction transaction) {
-    // Only AUTHORIZED transactions can be voided (same logic as expiry)
-    return TransactionStatus.AUTHORIZED.equals(transaction.getStatus());
-  }
-
   private void publishTransactionFailedFromVoid(Transaction transaction,
       HoldVoidedEvent holdEvent) {
-    var payload = new FailedPayload(transaction.getTransactionId(), holdEvent.getHoldId(),
-        holdEvent.getAccountId(), transaction.getAmount(), transaction.getCurrency(),
-        transaction.getStatus().toString(),
+    var payload = new TransactionFailedPayload(transaction.getTransactionId(),
+        holdEvent.getHoldId(), holdEvent.getAccountId(), transaction.getAmount(),
+        transaction.getCurrency(), TransactionTransition.RELEASE.to().toString(),
         holdEvent.getReason() != null ? holdEvent.getReason() : "Hold voided");
 
     try {
       outboxEventService.saveEvent("transaction.failed", transaction.getTransactionId(),
-          objectMapper.writeValueAsString(payload));
+          eventCodec.encode(payload));
     } catch (JsonProcessingException e) {
       throw new RuntimeException("Failed to serialize transaction failed event payload", e);
     }
   }
 
-  private boolean isTransactionExpirable(Transaction transaction) {
-    // Only AUTHORIZED transactions can be expired
-    // PENDING, SUCCESS, and FAILED transactions should not be expired
-    return TransactionStatus.AUTHORIZED.equals(transaction.getStatus());
-  }
-
   private void releaseFunds(Account account, BigDecimal amount) {
     // Release funds: available_balance += amount, reserved -= amount
-    BigDecimal newAvailableBalance = account.getAvailableBalance().add(amount);
-    BigDecimal newReservedBalance = account.getReserved().subtract(amount);
+    Money released = Money.of(amount);
+    Money newAvailableBalance = account.getAvailableBalance().plus(released);
+    Money newReservedBalance = account.getReserved().minus(released);
 
     // Validate reserved balance doesn't go negative (defensive check)
-    if (newReservedBalance.compareTo(BigDecimal.ZERO) < 0) {
+    if (newReservedBalance.isNegative()) {
       log.warn(
           "Reserved balance would go negative for account {}, setting to zero. Reserved: {}, Amount: {}",
           account.getAccountId(), account.getReserved(), amount);
-      newReservedBalance = BigDecimal.ZERO;
+      newReservedBalance = Money.ZERO;
     }
 
     account.setAvailableBalance(newAvailableBalance);
@@ -323,29 +473,28 @@ public class HoldEventServiceImpl implements HoldEventService {
   }
 
   private void publishTransactionFailed(Transaction transaction, HoldExpiredEvent holdEvent) {
-    var payload = new FailedPayload(transaction.getTransactionId(), holdEvent.getHoldId(),
-        holdEvent.getAccountId(), transaction.getAmount(), transaction.getCurrency(),
-        transaction.getStatus().toString(), "Hold expired");
+    var payload = new TransactionFailedPayload(transaction.getTransactionId(),
+        holdEvent.getHoldId(), holdEvent.getAccountId(), transaction.getAmount(),
+        transaction.getCurrency(), TransactionTransition.RELEASE.to().toString(),
+        "Hold expired");
 
     try {
       outboxEventService.saveEvent("transaction.failed", transaction.getTransactionId(),
-          objectMapper.writeValueAsString(payload));
+          eventCodec.encode(payload));
     } catch (JsonProcessingException e) {
       throw new RuntimeException("Failed to serialize transaction failed event payload", e);
     }
   }
 
-  // Simple record for JSON serialization
-  private record AuthorizedPayload(@NotNull Long transactionId, @NotNull Long holdId,
-                                   @NotNull Long issuerAccountId, @NotNull Long merchantAccountId,
-                                   @NotNull BigDecimal amount, @NotNull String currency,
-                                   @NotNull String status) {
-
-  }
+  // Net balance change for one account within a batch
+  private static final class BalanceDelta {
 
-  // Simple record for JSON serialization
-  private record FailedPayload(Long transactionId, Long holdId, Long accountId, BigDecimal amount,
-                               String currency, String status, String reason) {
+    private Money available = Money.ZERO;
+    private Money reserved = Money.ZERO;
 
+    private void add(Money availableChange, Money reservedChange) {
+      available = available.plus(availableChange);
+      reserved = reserved.plus(reservedChange);
+    }
   }
 }
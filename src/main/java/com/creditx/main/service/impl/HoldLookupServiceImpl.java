@@ -0,0 +1,36 @@
+package com.creditx.main.service.impl;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.service.HoldLookupService;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldLookupServiceImpl implements HoldLookupService {
+
+  private final RestTemplate restTemplate;
+
+  @Value("${app.credithold.url:http://localhost:8081}")
+  private String creditHoldServiceUrl;
+
+  @Override
+  public Optional<CreateHoldResponse> findHoldByTransactionId(Long transactionId) {
+    String url = creditHoldServiceUrl + "/api/holds/transaction/{transactionId}";
+    try {
+      CreateHoldResponse hold = restTemplate.getForObject(url, CreateHoldResponse.class,
+          transactionId);
+      log.debug("Hold lookup for transaction {} returned {}", transactionId, hold);
+      return Optional.ofNullable(hold).filter(h -> h.getHoldId() != null);
+    } catch (HttpClientErrorException.NotFound e) {
+      log.debug("CreditHoldServ has no hold for transaction {}", transactionId);
+      return Optional.empty();
+    }
+  }
+}
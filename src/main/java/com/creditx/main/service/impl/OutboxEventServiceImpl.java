@@ -1,5 +1,6 @@
 package com.creditx.main.service.impl;
 
+import com.creditx.main.messaging.EncodedEvent;
 import com.creditx.main.model.OutboxEvent;
 import com.creditx.main.model.OutboxEventStatus;
 import com.creditx.main.repository.OutboxEventRepository;
@@ -29,6 +30,22 @@ public class OutboxEventServiceImpl implements OutboxEventService {
     return savedEvent;
   }
 
+  @Override
+  @Transactional
+  public OutboxEvent saveEvent(String eventType, Long aggregateId, EncodedEvent event) {
+    if (!event.isBinary()) {
+      return saveEvent(eventType, aggregateId, event.json());
+    }
+    log.debug("Saving binary outbox event: type={}, aggregateId={}, size={}", eventType,
+        aggregateId, event.binary().length);
+    OutboxEvent outboxEvent = OutboxEvent.builder().eventType(eventType).aggregateId(aggregateId)
+        .payloadBinary(event.binary()).contentType(event.contentType().toString())
+        .status(OutboxEventStatus.PENDING).build();
+    OutboxEvent savedEvent = repository.save(outboxEvent);
+    log.info("Outbox event saved with ID: {}", savedEvent.getEventId());
+    return savedEvent;
+  }
+
   @Override
   public List<OutboxEvent> fetchPendingEvents(int limit) {
     log.debug("Fetching pending outbox events with limit: {}", limit);
@@ -56,4 +73,9 @@ public class OutboxEventServiceImpl implements OutboxEventService {
     repository.save(event);
     log.debug("Outbox event {} marked as failed", event.getEventId());
   }
+
+  @Override
+  public long countPendingEvents() {
+    return repository.countByStatus(OutboxEventStatus.PENDING);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.creditx.main.service.impl;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.dto.TransactionFailedPayload;
+import com.creditx.main.messaging.EventCodec;
+import com.creditx.main.model.HoldStatus;
+import com.creditx.main.model.Transaction;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.service.HoldEventService;
+import com.creditx.main.service.OutboxEventService;
+import com.creditx.main.service.PendingTransactionRecoveryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.transaction.Transactional;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PendingTransactionRecoveryServiceImpl implements PendingTransactionRecoveryService {
+
+  private final TransactionRepository transactionRepository;
+  private final HoldEventService holdEventService;
+  private final OutboxEventService outboxEventService;
+  private final EventCodec eventCodec;
+
+  @Override
+  @Transactional
+  public Outcome resolve(Long transactionId, Optional<CreateHoldResponse> hold) {
+    // Locked, so a sweep on another instance or a late hold event waits and then sees the outcome.
+    // Statuses are still changed by conditional updates only; this copy is never saved back.
+    Transaction transaction = transactionRepository.findByIdForUpdate(transactionId)
+        .orElse(null);
+    if (transaction == null || !TransactionStatus.PENDING.equals(transaction.getStatus())) {
+      log.info("Transaction {} is no longer PENDING, nothing to recover", transactionId);
+      return Outcome.SKIPPED;
+    }
+
+    HoldStatus holdStatus = hold.map(CreateHoldResponse::getStatus).orElse(null);
+    if (HoldStatus.AUTHORIZED.equals(holdStatus)) {
+      authorize(transaction, hold.get());
+      return Outcome.AUTHORIZED;
+    }
+    if (HoldStatus.CAPTURED.equals(holdStatus)) {
+      log.warn("Hold {} of PENDING transaction {} is already captured, leaving it for manual "
+          + "reconciliation", hold.get().getHoldId(), transactionId);
+      return Outcome.SKIPPED;
+    }
+
+    String reason = holdStatus == null
+        ? "No hold found in CreditHoldServ"
+        : "Hold " + holdStatus.name().toLowerCase(Locale.ROOT);
+    Long holdId = hold.map(CreateHoldResponse::getHoldId).orElse(null);
+    boolean declined = holdId == null
+        ? transactionRepository.transition(transactionId, TransactionTransition.DECLINE)
+        : transactionRepository.transition(transactionId, TransactionTransition.DECLINE, holdId);
+    if (!declined) {
+      log.info("Transaction {} changed status while being recovered, skipping", transactionId);
+      return Outcome.SKIPPED;
+    }
+    publishTransactionFailed(transaction, holdId, reason);
+    log.info("Recovered PENDING transaction {} as FAILED: {}", transactionId, reason);
+    return Outcome.FAILED;
+  }
+
+  /**
+   * Authorize through the hold.created path so the funds are reserved and transaction.authorized
+   * is published exactly as if the event had arrived; its dedup record keeps the real event, if
+   * it is still on its way, from applying a second time.
+   */
+  private void authorize(Transaction transaction, CreateHoldResponse hold) {
+    holdEventService.processHoldCreated(HoldCreatedEvent.builder().holdId(hold.getHoldId())
+        .transactionId(transaction.getTransactionId())
+        .issuerAccountId(transaction.getAccountId())
+        .merchantAccountId(transaction.getMerchantId()).amount(transaction.getAmount())
+        .currency(transaction.getCurrency()).status(HoldStatus.AUTHORIZED.name()).build());
+    // Records the hold id, and moves the status too if hold.created was already processed, funds
+    // included, while the status was not
+    transactionRepository.transition(transaction.getTransactionId(),
+        TransactionTransition.AUTHORIZE, hold.getHoldId());
+    log.info("Recovered PENDING transaction {} as AUTHORIZED with hold {}",
+        transaction.getTransactionId(), hold.getHoldId());
+  }
+
+  private void publishTransactionFailed(Transaction transaction, Long holdId, String reason) {
+    var payload = new TransactionFailedPayload(transaction.getTransactionId(), holdId,
+        transaction.getAccountId(), transaction.getAmount(), transaction.getCurrency(),
+        TransactionTransition.DECLINE.to().toString(), reason);
+    try {
+      outboxEventService.saveEvent("transaction.failed", transaction.getTransactionId(),
+          eventCodec.encode(payload));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize transaction failed event payload", e);
+    }
+  }
+}
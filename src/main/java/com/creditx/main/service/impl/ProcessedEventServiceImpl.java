@@ -4,6 +4,7 @@ import com.creditx.main.model.ProcessedEvent;
 import com.creditx.main.repository.ProcessedEventRepository;
 import com.creditx.main.service.ProcessedEventService;
 import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,11 +14,14 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class ProcessedEventServiceImpl implements ProcessedEventService {
 
+  private static final String FAILED = "FAILED";
+
   private final ProcessedEventRepository processedEventRepository;
 
   @Override
   public boolean isEventProcessed(String eventId) {
-    boolean exists = processedEventRepository.existsByEventId(eventId);
+    // A failed attempt must not stop the retry tiers or a DLT replay from reprocessing the event
+    boolean exists = processedEventRepository.existsByEventIdAndStatusNot(eventId, FAILED);
     if (exists) {
       log.debug("Event {} has already been processed", eventId);
     }
@@ -34,6 +38,20 @@ public class ProcessedEventServiceImpl implements ProcessedEventService {
     log.debug("Marked event {} as processed with status {}", eventId, status);
   }
 
+  @Override
+  @Transactional(TxType.REQUIRES_NEW)
+  public void markEventAsFailed(String eventId) {
+    ProcessedEvent failed = processedEventRepository.findById(eventId)
+        .orElseGet(() -> ProcessedEvent.builder().eventId(eventId).build());
+    if (failed.getStatus() != null && !FAILED.equals(failed.getStatus())) {
+      // Another delivery of the event got through in the meantime
+      return;
+    }
+    failed.setStatus(FAILED);
+    processedEventRepository.save(failed);
+    log.debug("Recorded failed processing of event {}", eventId);
+  }
+
   @Override
   public boolean isPayloadProcessed(String payloadHash) {
     boolean exists = processedEventRepository.existsByPayloadHash(payloadHash);
@@ -42,4 +60,12 @@ public class ProcessedEventServiceImpl implements ProcessedEventService {
     }
     return exists;
   }
+
+  @Override
+  @Transactional
+  public int purgeExpiredEvents(int horizonDays) {
+    Integer dropped = processedEventRepository.purgeExpiredPartitions(horizonDays);
+    log.debug("Dropped {} processed-event partitions older than {} days", dropped, horizonDays);
+    return dropped != null ? dropped : 0;
+  }
 }
@@ -1,39 +1,72 @@
 package com.creditx.main.service.impl;
 
+import com.creditx.main.authorization.AuthorizationEngine;
+import com.creditx.main.authorization.BalanceOperation;
+import com.creditx.main.cache.AccountMetadataCache;
+import com.creditx.main.deadline.Deadline;
+import com.creditx.main.deadline.DeadlineExceededException;
+import com.creditx.main.deadline.StatementDeadline;
+import com.creditx.main.dto.CommitTransactionBatchResponse;
 import com.creditx.main.dto.CommitTransactionRequest;
 import com.creditx.main.dto.CommitTransactionResponse;
 import com.creditx.main.dto.CreateCashbackTransactionRequest;
 import com.creditx.main.dto.CreateHoldRequest;
 import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
 import com.creditx.main.dto.CreateTransactionRequest;
 import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.dto.TransactionInitiatedPayload;
+import com.creditx.main.dto.TransactionPostedPayload;
+import com.creditx.main.messaging.EventCodec;
 import com.creditx.main.model.Account;
 import com.creditx.main.model.AccountStatus;
 import com.creditx.main.model.AccountType;
+import com.creditx.main.model.HoldStatus;
+import com.creditx.main.model.Money;
 import com.creditx.main.model.Transaction;
 import com.creditx.main.model.TransactionEntry;
 import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
 import com.creditx.main.model.TransactionType;
 import com.creditx.main.repository.AccountRepository;
 import com.creditx.main.repository.TransactionEntryRepository;
 import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.screening.DuplicateChargeDetector;
+import com.creditx.main.screening.VelocityLimiter;
 import com.creditx.main.service.OutboxEventService;
 import com.creditx.main.service.TransactionService;
 import com.creditx.main.tracing.TransactionSpanTagger;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 @Service
@@ -45,28 +78,133 @@ public class TransactionServiceImpl implements TransactionService {
   private final TransactionRepository transactionRepository;
   private final OutboxEventService outboxEventService;
   private final RestTemplate restTemplate;
-  private final ObjectMapper objectMapper = new ObjectMapper();
   private final TransactionEntryRepository transactionEntryRepository;
   private final TransactionSpanTagger transactionSpanTagger;
+  private final AccountMetadataCache accountMetadataCache;
+  private final AuthorizationEngine authorizationEngine;
+  private final EventCodec eventCodec;
+  private final DuplicateChargeDetector duplicateChargeDetector;
+  private final VelocityLimiter velocityLimiter;
+  private final StatementDeadline statementDeadline;
+  private final TransactionTemplate transactionTemplate;
   @Value("${app.credithold.url:http://localhost:8081}")
   private String creditHoldServiceUrl;
+  @Value("${app.posting.database-routine.enabled:false}")
+  private boolean databasePostingEnabled;
+  @Value("${app.transactions.batch.max-size:100}")
+  private int maxBatchSize;
+  @Value("${app.transactions.batch.hold-concurrency:8}")
+  private int holdRequestConcurrency;
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+  private ExecutorService holdRequestExecutor;
 
   @PostConstruct
-  public void configureObjectMapper() {
-    objectMapper.registerModule(new JavaTimeModule());
+  void startHoldRequestExecutor() {
+    // The pool size still bounds concurrent calls to the hold service per batch
+    ThreadFactory threadFactory = virtualThreads
+        ? Thread.ofVirtual().name("hold-request-", 1).factory()
+        : new CustomizableThreadFactory("hold-request-");
+    holdRequestExecutor = Executors.newFixedThreadPool(holdRequestConcurrency, threadFactory);
+  }
+
+  @PreDestroy
+  void stopHoldRequestExecutor() {
+    holdRequestExecutor.shutdown();
   }
 
   @Override
-  @Transactional
   public CreateTransactionResponse createInboundTransaction(CreateTransactionRequest request) {
     log.info("Creating inbound transaction for issuer: {}, merchant: {}, amount: {}",
         request.getIssuerAccountId(), request.getMerchantAccountId(), request.getAmount());
+    // Statements are bounded by the deadline inside each of the transactions below
+    Deadline.checkCurrent("creating transaction");
+
+    // Catch double-submits of the same charge before any database or HTTP work
+    boolean repeat = duplicateChargeDetector.check(request.getIssuerAccountId(),
+        request.getMerchantAccountId(), request.getAmount(), request.getCurrency());
+
+    // Count against the issuer's velocity rules. Both the count and the charge fingerprint are
+    // backed out if the transaction does not go ahead, so a retry is judged afresh; a transaction
+    // left PENDING keeps them, since the sweeper may still authorize it.
+    VelocityLimiter.Reservation velocity = VelocityLimiter.Reservation.NONE;
+    try {
+      velocity = velocityLimiter.reserve(request.getIssuerAccountId(), request.getAmount());
+      CreateTransactionResponse response = createInbound(request);
+      if (TransactionStatus.FAILED.equals(response.getStatus())) {
+        velocity.release();
+        forgetCharge(request, repeat);
+      }
+      return response;
+    } catch (RuntimeException e) {
+      velocity.release();
+      forgetCharge(request, repeat);
+      throw e;
+    }
+  }
+
+  /**
+   * Forget the fingerprint of a charge that did not go ahead, unless the charge repeated an
+   * earlier one and so recorded none of its own.
+   */
+  private void forgetCharge(CreateTransactionRequest request, boolean repeat) {
+    if (!repeat) {
+      duplicateChargeDetector.forget(request.getIssuerAccountId(),
+          request.getMerchantAccountId(), request.getAmount(), request.getCurrency());
+    }
+  }
+
+  private CreateTransactionResponse createInbound(CreateTransactionRequest request) {
+    // Reject unknown, mistyped or inactive accounts from the near-cache before loading rows
+    accountMetadataCache.checkParties(request.getIssuerAccountId(),
+        request.getMerchantAccountId(), true);
+
+    // Committed before the hold call, so no connection is held while it runs
+    PendingTransaction pending = transactionTemplate.execute(status -> {
+      statementDeadline.apply("creating transaction");
+      return insertPending(request);
+    });
+    Transaction txn = pending.transaction();
+
+    // From here on the transaction exists. If its outcome cannot be settled now it is reported
+    // as PENDING, not as an error, and reconciled later by PendingTransactionSweeper; an error
+    // would invite the client to retry and create a second transaction and hold.
+    TransactionStatus status;
+    try {
+      // Send hold request to CreditHoldServ
+      CreateHoldResponse holdResponse = sendHoldRequest(txn, pending.issuer(), pending.merchant(),
+          request.getAmount(), request.getCurrency());
+
+      // Update transaction with hold_id and status
+      log.info("=== TRANSACTION STATUS UPDATE START ===");
+      log.info("Hold response status: {}", holdResponse.getStatus());
+      status = transactionTemplate.execute(tx -> {
+        statementDeadline.apply("recording hold outcome");
+        return applyHoldOutcome(txn.getTransactionId(), holdResponse);
+      });
+      log.info("Transaction status after update: {}", status);
+      log.info("=== TRANSACTION STATUS UPDATE END ===");
+    } catch (RuntimeException e) {
+      log.warn("Outcome of transaction {} not settled, leaving it PENDING for the sweeper: {}",
+          txn.getTransactionId(), e.getMessage());
+      status = TransactionStatus.PENDING;
+    }
+
+    // Response
+    return CreateTransactionResponse.builder().transactionId(txn.getTransactionId())
+        .status(status).build();
+  }
 
+  /**
+   * Validate the parties of an inbound transaction and insert it as PENDING together with its
+   * initiated event.
+   */
+  private PendingTransaction insertPending(CreateTransactionRequest request) {
     // Fetch accounts
-    Account issuer = accountRepository.findById(request.getIssuerAccountId())
-        .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
-    Account merchant = accountRepository.findById(request.getMerchantAccountId())
-        .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+    Parties parties = loadParties(request.getIssuerAccountId(), request.getMerchantAccountId(),
+        false);
+    Account issuer = parties.issuer();
+    Account merchant = parties.merchant();
 
     log.info("Found accounts - Issuer: {}, Merchant: {}", issuer.getAccountId(),
         merchant.getAccountId());
@@ -83,50 +221,233 @@ public class TransactionServiceImpl implements TransactionService {
 
     // Outbox event payload
     recordInitiatedEvent(txn, issuer, merchant, request.getAmount(), request.getCurrency());
+    return new PendingTransaction(txn, issuer, merchant);
+  }
 
-    // Send hold request to CreditHoldServ
-    CreateHoldResponse holdResponse = sendHoldRequest(txn, issuer, merchant, request.getAmount(),
-        request.getCurrency());
+  @Override
+  public CreateTransactionBatchResponse createInboundTransactions(
+      List<CreateTransactionRequest> requests) {
+    if (requests.size() > maxBatchSize) {
+      throw new IllegalArgumentException(
+          "Batch of " + requests.size() + " transactions exceeds the maximum of " + maxBatchSize);
+    }
+    // Statements are bounded by the deadline inside each of the transactions below
+    Deadline.checkCurrent("creating transaction batch");
+    log.info("Creating batch of {} inbound transactions", requests.size());
+
+    CreateTransactionBatchResponse.Item[] results =
+        new CreateTransactionBatchResponse.Item[requests.size()];
+    // Same screening as a single transaction, before any database or HTTP work
+    List<Integer> screened = new ArrayList<>(requests.size());
+    boolean[] repeats = new boolean[requests.size()];
+    for (int i = 0; i < requests.size(); i++) {
+      CreateTransactionRequest request = requests.get(i);
+      try {
+        repeats[i] = duplicateChargeDetector.check(request.getIssuerAccountId(),
+            request.getMerchantAccountId(), request.getAmount(), request.getCurrency());
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        results[i] = CreateTransactionBatchResponse.Item.builder().index(i)
+            .error(e.getMessage()).build();
+        continue;
+      }
+      try {
+        accountMetadataCache.checkParties(request.getIssuerAccountId(),
+            request.getMerchantAccountId(), true);
+        screened.add(i);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        forgetCharge(request, repeats[i]);
+        results[i] = CreateTransactionBatchResponse.Item.builder().index(i)
+            .error(e.getMessage()).build();
+      }
+    }
 
-    // Update transaction with hold_id and status
-    txn.setHoldId(holdResponse.getHoldId());
-    log.info("=== TRANSACTION STATUS UPDATE START ===");
-    log.info("Hold response status: {}", holdResponse.getStatus());
-    log.info("Current transaction status before update: {}", txn.getStatus());
+    // PENDING rows are committed first, so no connection is held while the hold calls run
+    List<BatchEntry> entries = insertPendingTransactions(requests, screened, repeats, results);
+    if (!entries.isEmpty()) {
+      List<CreateHoldResponse> holds = requestHolds(entries);
+      TransactionStatus[] statuses;
+      try {
+        statuses = transactionTemplate.execute(status -> {
+          statementDeadline.apply("recording hold outcomes");
+          TransactionStatus[] applied = new TransactionStatus[entries.size()];
+          for (int i = 0; i < entries.size(); i++) {
+            // A failed hold request leaves its transaction PENDING for the sweeper
+            applied[i] = holds.get(i) == null ? TransactionStatus.PENDING
+                : applyHoldOutcome(entries.get(i).transaction().getTransactionId(),
+                    holds.get(i));
+          }
+          return applied;
+        });
+      } catch (RuntimeException e) {
+        // The transactions exist; report them PENDING rather than invite a retry of the batch
+        log.warn("Outcomes of {} batch transactions not recorded, leaving them PENDING for the "
+            + "sweeper: {}", entries.size(), e.getMessage());
+        statuses = new TransactionStatus[entries.size()];
+        Arrays.fill(statuses, TransactionStatus.PENDING);
+      }
 
-    // Update transaction status based on hold response
-    if ("AUTHORIZED".equals(holdResponse.getStatus().toString())) {
-      log.info("Hold status is AUTHORIZED, updating transaction status to AUTHORIZED");
-      txn.setStatus(TransactionStatus.AUTHORIZED);
-    } else {
-      log.info("Hold status is NOT AUTHORIZED: {}", holdResponse.getStatus());
-      txn.setStatus(TransactionStatus.FAILED);
+      for (int i = 0; i < entries.size(); i++) {
+        BatchEntry entry = entries.get(i);
+        // PENDING keeps its velocity count and fingerprint, since the sweeper may still
+        // authorize it
+        if (TransactionStatus.FAILED.equals(statuses[i])) {
+          entry.velocity().release();
+          forgetCharge(entry.request(), repeats[entry.index()]);
+        }
+        results[entry.index()] = CreateTransactionBatchResponse.Item.builder()
+            .index(entry.index()).transactionId(entry.transaction().getTransactionId())
+            .status(statuses[i]).error(entry.error()).build();
+      }
     }
-    log.info("Transaction status after update: {}", txn.getStatus());
-    transactionRepository.save(txn);
-    log.info("=== TRANSACTION STATUS UPDATE END ===");
 
-    // Response
-    return CreateTransactionResponse.builder().transactionId(txn.getTransactionId())
-        .status(txn.getStatus()).build();
+    log.info("Batch of {} inbound transactions done, {} accepted", requests.size(),
+        entries.size());
+    return CreateTransactionBatchResponse.builder().results(List.of(results)).build();
+  }
+
+  /**
+   * Validate the screened requests of a batch against their accounts and insert the accepted ones
+   * as PENDING, with their initiated events, in one database transaction. The charge fingerprints
+   * of rejected requests are forgotten, and if the transaction does not commit, so are those of
+   * the accepted ones along with their velocity reservations.
+   */
+  private List<BatchEntry> insertPendingTransactions(List<CreateTransactionRequest> requests,
+      List<Integer> screened, boolean[] repeats, CreateTransactionBatchResponse.Item[] results) {
+    List<BatchEntry> entries = new ArrayList<>(screened.size());
+    if (screened.isEmpty()) {
+      return entries;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        statementDeadline.apply("creating transaction batch");
+        // Every account the batch touches, in one query
+        List<Long> accountIds = screened.stream().map(requests::get)
+            .flatMap(r -> Stream.of(r.getIssuerAccountId(), r.getMerchantAccountId()))
+            .filter(Objects::nonNull).distinct().toList();
+        Map<Long, Account> accounts = accountRepository.findAllById(accountIds).stream()
+            .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+        // Issuer balance still unclaimed by earlier requests of this batch
+        Map<Long, Money> remaining = new HashMap<>();
+        for (int i : screened) {
+          CreateTransactionRequest request = requests.get(i);
+          try {
+            Account issuer = Optional.ofNullable(accounts.get(request.getIssuerAccountId()))
+                .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
+            Account merchant = Optional.ofNullable(accounts.get(request.getMerchantAccountId()))
+                .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+            validateParties(issuer, merchant);
+
+            Money amount = Money.of(request.getAmount());
+            Money available = remaining.computeIfAbsent(issuer.getAccountId(),
+                id -> availableBalance(issuer));
+            if (available.isLessThan(amount)) {
+              throw new IllegalArgumentException("Insufficient available balance");
+            }
+            VelocityLimiter.Reservation velocity = velocityLimiter.reserve(
+                issuer.getAccountId(), request.getAmount());
+            remaining.put(issuer.getAccountId(), available.minus(amount));
+
+            Transaction txn = Transaction.builder().type(TransactionType.INBOUND)
+                .status(TransactionStatus.PENDING).accountId(issuer.getAccountId())
+                .merchantId(merchant.getAccountId()).amount(request.getAmount())
+                .currency(request.getCurrency()).build();
+            entries.add(new BatchEntry(i, request, issuer, merchant, txn, velocity));
+          } catch (IllegalArgumentException e) {
+            forgetCharge(request, repeats[i]);
+            results[i] = CreateTransactionBatchResponse.Item.builder().index(i)
+                .error(e.getMessage()).build();
+          }
+        }
+
+        if (!entries.isEmpty()) {
+          // Pooled sequence ids and JDBC batching turn these into a few multi-row inserts
+          List<Transaction> saved = transactionRepository.saveAll(
+              entries.stream().map(BatchEntry::transaction).toList());
+          for (int i = 0; i < entries.size(); i++) {
+            BatchEntry entry = entries.get(i).withTransaction(saved.get(i));
+            entries.set(i, entry);
+            recordInitiatedEvent(entry.transaction(), entry.issuer(), entry.merchant(),
+                entry.request().getAmount(), entry.request().getCurrency());
+          }
+        }
+      });
+    } catch (RuntimeException e) {
+      entries.forEach(entry -> {
+        entry.velocity().release();
+        forgetCharge(entry.request(), repeats[entry.index()]);
+      });
+      throw e;
+    }
+    return entries;
+  }
+
+  /**
+   * Send the hold requests of a batch concurrently, outside any database transaction. A failed
+   * hold request fails only its own entry: its response is null and the entry carries the error.
+   */
+  private List<CreateHoldResponse> requestHolds(List<BatchEntry> entries) {
+    Deadline deadline = Deadline.current();
+    List<CompletableFuture<CreateHoldResponse>> holds = entries.stream()
+        .map(entry -> CompletableFuture.supplyAsync(() -> {
+          try (Deadline.Scope scope = Deadline.bind(deadline)) {
+            return sendHoldRequest(entry.transaction(), entry.issuer(), entry.merchant(),
+                entry.request().getAmount(), entry.request().getCurrency());
+          }
+        }, holdRequestExecutor))
+        .toList();
+
+    List<CreateHoldResponse> responses = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      try {
+        responses.add(holds.get(i).join());
+      } catch (CompletionException e) {
+        responses.add(null);
+        entries.set(i, entries.get(i).withError(e.getCause().getMessage()));
+      }
+    }
+    return responses;
+  }
+
+  /**
+   * Move a PENDING transaction on by the response to its hold request. If a hold event or the
+   * sweeper got there first, the status they left is returned instead.
+   */
+  private TransactionStatus applyHoldOutcome(Long transactionId, CreateHoldResponse holdResponse) {
+    TransactionTransition transition = HoldStatus.AUTHORIZED.equals(holdResponse.getStatus())
+        ? TransactionTransition.AUTHORIZE : TransactionTransition.DECLINE;
+    if (transactionRepository.transition(transactionId, transition, holdResponse.getHoldId())) {
+      return transition.to();
+    }
+    TransactionStatus current = transactionRepository.findById(transactionId)
+        .map(Transaction::getStatus)
+        .orElseThrow(() -> new IllegalStateException("Transaction not found: " + transactionId));
+    log.info("Transaction {} was already {} when its hold response arrived", transactionId,
+        current);
+    return current;
   }
 
   @Override
   @Transactional
   public CreateTransactionResponse createCashbackTransaction(
       CreateCashbackTransactionRequest request) {
-    // Fetch accounts (issuer credited, merchant debited)
-    Account issuer = accountRepository.findById(request.getIssuerAccountId())
-        .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
-    Account merchant = accountRepository.findById(request.getMerchantAccountId())
-        .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+    statementDeadline.apply("creating cashback transaction");
+    accountMetadataCache.checkParties(request.getIssuerAccountId(),
+        request.getMerchantAccountId(), false);
+
+    // Fetch and lock accounts (issuer credited, merchant debited)
+    Parties parties = loadParties(request.getIssuerAccountId(), request.getMerchantAccountId(),
+        true);
+    Account issuer = parties.issuer();
+    Account merchant = parties.merchant();
 
     // Basic validation (skip hold flow for cashback)
     if (!AccountStatus.ACTIVE.equals(issuer.getStatus()) || !AccountStatus.ACTIVE.equals(
         merchant.getStatus())) {
       throw new IllegalArgumentException("Accounts must be ACTIVE");
     }
-    if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+    Money amount = Money.of(request.getAmount());
+    if (!amount.isPositive()) {
       throw new IllegalArgumentException("Amount must be positive");
     }
 
@@ -138,16 +459,22 @@ public class TransactionServiceImpl implements TransactionService {
     transactionSpanTagger.tagTransactionId(txn.getTransactionId());
 
     // Post double-entry (credit issuer, debit merchant)
-    issuer.setAvailableBalance(issuer.getAvailableBalance().add(request.getAmount()));
-    merchant.setAvailableBalance(merchant.getAvailableBalance().subtract(request.getAmount()));
+    if (authorizationEngine.isEnabled()) {
+      authorizationEngine.apply(
+          BalanceOperation.credit(issuer.getAccountId(), txn.getTransactionId(),
+              request.getAmount()));
+    } else {
+      issuer.setAvailableBalance(issuer.getAvailableBalance().plus(amount));
+    }
+    merchant.setAvailableBalance(merchant.getAvailableBalance().minus(amount));
     accountRepository.save(issuer);
     accountRepository.save(merchant);
 
     // Entries
     TransactionEntry merchantEntry = TransactionEntry.builder().transaction(txn)
-        .accountId(merchant.getAccountId()).amount(request.getAmount().negate()).build();
+        .accountId(merchant.getAccountId()).amount(amount.negate().toBigDecimal()).build();
     TransactionEntry issuerEntry = TransactionEntry.builder().transaction(txn)
-        .accountId(issuer.getAccountId()).amount(request.getAmount()).build();
+        .accountId(issuer.getAccountId()).amount(amount.toBigDecimal()).build();
     transactionEntryRepository.save(merchantEntry);
     transactionEntryRepository.save(issuerEntry);
 
@@ -162,37 +489,58 @@ public class TransactionServiceImpl implements TransactionService {
   @Transactional
   public CommitTransactionResponse commitTransaction(Long transactionId,
       CommitTransactionRequest request) {
+    statementDeadline.apply("committing transaction");
+    // The database routine writes issuer balances itself, so it cannot be combined with the engine
+    if (databasePostingEnabled && !authorizationEngine.isEnabled()) {
+      return commitViaDatabaseRoutine(transactionId, request);
+    }
+
     // Find transaction by ID and holdId for idempotency
     Transaction transaction = transactionRepository.findById(transactionId)
         .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
-    // Ensure span (if present) is tagged even on follow-up operations
-    transactionSpanTagger.tagTransactionId(transaction.getTransactionId());
+    return commitLoaded(transaction, request);
+  }
 
-    // Validate transaction is in AUTHORIZED state
-    if (!TransactionStatus.AUTHORIZED.equals(transaction.getStatus())) {
-      throw new IllegalArgumentException("Transaction must be in AUTHORIZED state to commit");
+  /**
+   * Commit a transaction the caller has already read, sparing a second lookup. The row may have
+   * been read outside this database transaction: its status is re-checked by the SETTLE
+   * transition, and its parties and hold id no longer change once it is AUTHORIZED.
+   */
+  @Transactional
+  public CommitTransactionResponse commitTransaction(Transaction transaction,
+      CommitTransactionRequest request) {
+    statementDeadline.apply("committing transaction");
+    if (databasePostingEnabled && !authorizationEngine.isEnabled()) {
+      return commitViaDatabaseRoutine(transaction.getTransactionId(), request);
     }
+    return commitLoaded(transaction, request);
+  }
+
+  private CommitTransactionResponse commitLoaded(Transaction transaction,
+      CommitTransactionRequest request) {
+    Long transactionId = transaction.getTransactionId();
+    // Ensure span (if present) is tagged even on follow-up operations
+    transactionSpanTagger.tagTransactionId(transaction.getTransactionId());
 
     // Validate holdId matches
     if (!request.getHoldId().equals(transaction.getHoldId())) {
       throw new IllegalArgumentException("Hold ID mismatch");
     }
 
-    // Find accounts
-    Account issuer = accountRepository.findById(transaction.getAccountId())
-        .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
+    // Move AUTHORIZED to SUCCESS before posting: of two concurrent commits only one matches the
+    // row, and any failure below rolls the status back with the posting
+    if (!transactionRepository.transition(transactionId, TransactionTransition.SETTLE)) {
+      throw new IllegalArgumentException("Transaction must be in AUTHORIZED state to commit");
+    }
 
-    // Find merchant account from transaction or use the merchantId field
-    Account merchant = accountRepository.findById(transaction.getMerchantId())
-        .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+    // Find and lock both accounts in one query
+    Parties parties = loadParties(transaction.getAccountId(), transaction.getMerchantId(), true);
+    Account issuer = parties.issuer();
+    Account merchant = parties.merchant();
 
     // Perform double-entry posting
     performDoubleEntryPosting(transaction, issuer, merchant);
 
-    // Update transaction status to SUCCESS
-    transaction.setStatus(TransactionStatus.SUCCESS);
-    transactionRepository.save(transaction);
-
     // Record outbox event for transaction.posted
     recordPostedEvent(transaction, issuer, merchant);
 
@@ -200,7 +548,197 @@ public class TransactionServiceImpl implements TransactionService {
         .status(TransactionStatus.SUCCESS).message("Transaction committed successfully").build();
   }
 
+  @Override
+  @Transactional
+  public CommitTransactionBatchResponse commitTransactions(
+      List<CommitTransactionRequest> requests) {
+    if (requests.size() > maxBatchSize) {
+      throw new IllegalArgumentException(
+          "Batch of " + requests.size() + " commits exceeds the maximum of " + maxBatchSize);
+    }
+    statementDeadline.apply("committing transaction batch");
+    log.info("Committing batch of {} transactions", requests.size());
+
+    // Locked in id order, so the statuses checked below hold until this transaction ends
+    List<Long> transactionIds = requests.stream().map(CommitTransactionRequest::getTransactionId)
+        .filter(Objects::nonNull).distinct().sorted().toList();
+    Map<Long, Transaction> transactions = transactionIds.isEmpty() ? Map.of()
+        : transactionRepository.findAllForUpdate(transactionIds).stream()
+            .collect(Collectors.toMap(Transaction::getTransactionId, Function.identity()));
+
+    CommitTransactionResponse[] results = new CommitTransactionResponse[requests.size()];
+    List<CommitEntry> entries = new ArrayList<>(requests.size());
+    Set<Long> seen = new HashSet<>();
+    for (int i = 0; i < requests.size(); i++) {
+      CommitTransactionRequest request = requests.get(i);
+      try {
+        Transaction transaction = Optional.ofNullable(request.getTransactionId())
+            .map(transactions::get)
+            .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
+        if (!seen.add(transaction.getTransactionId())) {
+          throw new IllegalArgumentException("Transaction appears more than once in the batch");
+        }
+        if (!TransactionStatus.AUTHORIZED.equals(transaction.getStatus())) {
+          throw new IllegalArgumentException("Transaction must be in AUTHORIZED state to commit");
+        }
+        if (!request.getHoldId().equals(transaction.getHoldId())) {
+          throw new IllegalArgumentException("Hold ID mismatch");
+        }
+        Money amount = Money.of(transaction.getAmount());
+        if (!amount.isPositive()) {
+          throw new IllegalStateException("Transaction amount must be positive: " + amount);
+        }
+        entries.add(new CommitEntry(i, transaction, amount));
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        results[i] = rejectedCommit(request.getTransactionId(), e);
+      }
+    }
+
+    // Lock every involved account once, in account-id order
+    List<Long> accountIds = entries.stream()
+        .flatMap(e -> Stream.of(e.transaction().getAccountId(), e.transaction().getMerchantId()))
+        .filter(Objects::nonNull).distinct().sorted().toList();
+    Map<Long, Account> accounts = accountIds.isEmpty() ? Map.of()
+        : accountRepository.findAllForUpdate(accountIds).stream()
+            .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+    // Net balance change per account over the whole batch, written once per account
+    Map<Long, Money> availableDeltas = new HashMap<>();
+    Map<Long, Money> reservedDeltas = new HashMap<>();
+    List<Transaction> committed = new ArrayList<>(entries.size());
+    List<TransactionEntry> postings = new ArrayList<>(entries.size() * 2);
+    List<Parties> committedParties = new ArrayList<>(entries.size());
+    for (CommitEntry entry : entries) {
+      Transaction transaction = entry.transaction();
+      Account issuer;
+      Account merchant;
+      try {
+        issuer = Optional.ofNullable(accounts.get(transaction.getAccountId()))
+            .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
+        merchant = Optional.ofNullable(accounts.get(transaction.getMerchantId()))
+            .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+        if (authorizationEngine.isEnabled()) {
+          // Issuer balances are owned by the authorization engine. Settled before the statuses
+          // move, so a refused settlement leaves nothing to undo.
+          authorizationEngine.apply(BalanceOperation.settle(issuer.getAccountId(),
+              transaction.getTransactionId(), transaction.getAmount()));
+        }
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        results[entry.index()] = rejectedCommit(transaction.getTransactionId(), e);
+        continue;
+      }
+
+      Money amount = entry.amount();
+      if (!authorizationEngine.isEnabled()) {
+        availableDeltas.merge(issuer.getAccountId(), amount.negate(), Money::plus);
+        reservedDeltas.merge(issuer.getAccountId(), amount.negate(), Money::plus);
+      }
+      availableDeltas.merge(merchant.getAccountId(), amount, Money::plus);
+
+      committed.add(transaction);
+      committedParties.add(new Parties(issuer, merchant));
+      postings.add(TransactionEntry.builder().transaction(transaction)
+          .accountId(issuer.getAccountId()).amount(amount.negate().toBigDecimal()).build());
+      postings.add(TransactionEntry.builder().transaction(transaction)
+          .accountId(merchant.getAccountId()).amount(amount.toBigDecimal()).build());
+      results[entry.index()] = CommitTransactionResponse.builder()
+          .transactionId(transaction.getTransactionId()).status(TransactionStatus.SUCCESS)
+          .message("Transaction committed successfully").build();
+    }
+
+    if (!committed.isEmpty()) {
+      // One statement for every status, leaving the locked accounts managed for the write below.
+      // Cannot miss a row while they are all locked; if it does, the whole batch rolls back.
+      int settled = transactionRepository.transitionAll(
+          committed.stream().map(Transaction::getTransactionId).toList(),
+          TransactionTransition.SETTLE);
+      if (settled != committed.size()) {
+        throw new IllegalStateException("Only " + settled + " of " + committed.size()
+            + " transactions were still AUTHORIZED while locked");
+      }
+
+      List<Account> changed = new ArrayList<>();
+      for (Long accountId : accountIds) {
+        Account account = accounts.get(accountId);
+        Money available = availableDeltas.getOrDefault(accountId, Money.ZERO);
+        Money reserved = reservedDeltas.getOrDefault(accountId, Money.ZERO);
+        if (account != null && (available.signum() != 0 || reserved.signum() != 0)) {
+          account.setAvailableBalance(account.getAvailableBalance().plus(available));
+          account.setReserved(account.getReserved().plus(reserved));
+          changed.add(account);
+        }
+      }
+      accountRepository.saveAll(changed);
+      transactionEntryRepository.saveAll(postings);
+      for (int i = 0; i < committed.size(); i++) {
+        Parties parties = committedParties.get(i);
+        recordPostedEvent(committed.get(i), parties.issuer(), parties.merchant());
+      }
+    }
+
+    log.info("Batch of {} commits done, {} posted", requests.size(), committed.size());
+    return CommitTransactionBatchResponse.builder().results(List.of(results)).build();
+  }
+
+  private CommitTransactionResponse rejectedCommit(Long transactionId, RuntimeException e) {
+    log.warn("Rejected commit of transaction {} in batch: {}", transactionId, e.getMessage());
+    return CommitTransactionResponse.builder().transactionId(transactionId)
+        .message(e.getMessage()).build();
+  }
+
+  private CommitTransactionResponse commitViaDatabaseRoutine(Long transactionId,
+      CommitTransactionRequest request) {
+    transactionSpanTagger.tagTransactionId(transactionId);
+    Integer result = transactionRepository.postTransaction(transactionId, request.getHoldId());
+
+    if (result != null && result == 0) {
+      return CommitTransactionResponse.builder().transactionId(transactionId)
+          .status(TransactionStatus.SUCCESS).message("Transaction committed successfully").build();
+    }
+
+    // Same exceptions and messages as the application-side posting path
+    throw switch (result == null ? -1 : result) {
+      case 1 -> new IllegalArgumentException("Transaction not found");
+      case 2 -> new IllegalArgumentException("Transaction must be in AUTHORIZED state to commit");
+      case 3 -> new IllegalArgumentException("Hold ID mismatch");
+      case 4 -> new IllegalArgumentException("Issuer account not found");
+      case 5 -> new IllegalArgumentException("Merchant account not found");
+      case 6 -> new IllegalStateException("Transaction amount must be positive");
+      default -> new IllegalStateException(
+          "Unexpected result from posting routine for transaction " + transactionId + ": "
+              + result);
+    };
+  }
+
+  /**
+   * Load issuer and merchant with a single query. Locked loads take the row locks in account-id
+   * order, so concurrent postings over the same pair of accounts cannot deadlock.
+   */
+  private Parties loadParties(Long issuerAccountId, Long merchantAccountId, boolean lock) {
+    List<Long> ids = Stream.of(issuerAccountId, merchantAccountId).filter(Objects::nonNull)
+        .distinct().toList();
+    List<Account> accounts = ids.isEmpty() ? List.of()
+        : lock ? accountRepository.findAllForUpdate(ids) : accountRepository.findAllById(ids);
+    Map<Long, Account> byId = accounts.stream()
+        .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+    Account issuer = Optional.ofNullable(issuerAccountId).map(byId::get)
+        .orElseThrow(() -> new IllegalArgumentException("Issuer account not found"));
+    Account merchant = Optional.ofNullable(merchantAccountId).map(byId::get)
+        .orElseThrow(() -> new IllegalArgumentException("Merchant account not found"));
+    return new Parties(issuer, merchant);
+  }
+
   private void validateAccounts(Account issuer, Account merchant, BigDecimal amount) {
+    validateParties(issuer, merchant);
+
+    // Validate sufficient available balance
+    if (availableBalance(issuer).isLessThan(Money.of(amount))) {
+      throw new IllegalArgumentException("Insufficient available balance");
+    }
+  }
+
+  private void validateParties(Account issuer, Account merchant) {
     if (!AccountType.ISSUER.equals(issuer.getType())) {
       throw new IllegalArgumentException("Issuer account type invalid");
     }
@@ -211,20 +749,21 @@ public class TransactionServiceImpl implements TransactionService {
         merchant.getStatus())) {
       throw new IllegalArgumentException("Accounts must be ACTIVE");
     }
+  }
 
-    // Validate sufficient available balance
-    if (issuer.getAvailableBalance().compareTo(amount) < 0) {
-      throw new IllegalArgumentException("Insufficient available balance");
-    }
+  private Money availableBalance(Account issuer) {
+    return authorizationEngine.isEnabled()
+        ? Money.of(authorizationEngine.availableBalance(issuer.getAccountId()))
+        : issuer.getAvailableBalance();
   }
 
   private void recordInitiatedEvent(Transaction txn, Account issuer, Account merchant,
       BigDecimal amount, String currency) {
-    var payload = new InitiatedPayload(txn.getTransactionId(), issuer.getAccountId(),
+    var payload = new TransactionInitiatedPayload(txn.getTransactionId(), issuer.getAccountId(),
         merchant.getAccountId(), amount, currency);
     try {
       outboxEventService.saveEvent("transaction.initiated", txn.getTransactionId(),
-          objectMapper.writeValueAsString(payload));
+          eventCodec.encode(payload));
     } catch (JsonProcessingException e) {
       throw new RuntimeException("Failed to serialize event payload", e);
     }
@@ -233,6 +772,8 @@ public class TransactionServiceImpl implements TransactionService {
   private CreateHoldResponse sendHoldRequest(Transaction txn, Account issuer, Account merchant,
       BigDecimal amount, String currency) {
     log.info("=== SEND HOLD REQUEST START ===");
+    // The request factory turns the remaining budget into the read timeout of this call
+    Deadline.checkCurrent("hold request");
     log.info("CreditHoldServiceUrl configured as: {}", creditHoldServiceUrl);
     log.info("Sending hold request for transaction {}", txn.getTransactionId());
 
@@ -265,6 +806,13 @@ public class TransactionServiceImpl implements TransactionService {
       log.error("Invalid hold response from CreditHoldServ: {}", holdResponse);
       throw new RuntimeException("Invalid hold response from CreditHoldServ");
     } catch (Exception e) {
+      Deadline deadline = Deadline.current();
+      if (deadline != null && deadline.isExpired()) {
+        log.warn("Hold request for transaction {} abandoned, request deadline of {} ms exceeded",
+            txn.getTransactionId(), deadline.getBudgetMillis());
+        throw new DeadlineExceededException(
+            "Request deadline exceeded waiting for CreditHoldServ", e);
+      }
       log.error("Exception during hold request: {}", e.getMessage());
       log.error("Exception type: {}", e.getClass().getSimpleName());
       log.error("=== SEND HOLD REQUEST FAILED ===", e);
@@ -274,21 +822,28 @@ public class TransactionServiceImpl implements TransactionService {
 
   private void performDoubleEntryPosting(Transaction transaction, Account issuer,
       Account merchant) {
-    BigDecimal amount = transaction.getAmount();
+    Money amount = Money.of(transaction.getAmount());
 
     // Validate transaction amount is positive
-    if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    if (!amount.isPositive()) {
       throw new IllegalStateException("Transaction amount must be positive: " + amount);
     }
 
-    // Debit issuer account (decrease available balance)
-    issuer.setAvailableBalance(issuer.getAvailableBalance().subtract(amount));
+    if (authorizationEngine.isEnabled()) {
+      // Issuer balances are owned by the authorization engine
+      authorizationEngine.apply(
+          BalanceOperation.settle(issuer.getAccountId(), transaction.getTransactionId(),
+              transaction.getAmount()));
+    } else {
+      // Debit issuer account (decrease available balance)
+      issuer.setAvailableBalance(issuer.getAvailableBalance().minus(amount));
 
-    // Credit merchant account (increase available balance)
-    merchant.setAvailableBalance(merchant.getAvailableBalance().add(amount));
+      // Release the hold (decrease reserved amount)
+      issuer.setReserved(issuer.getReserved().minus(amount));
+    }
 
-    // Release the hold (decrease reserved amount)
-    issuer.setReserved(issuer.getReserved().subtract(amount));
+    // Credit merchant account (increase available balance)
+    merchant.setAvailableBalance(merchant.getAvailableBalance().plus(amount));
 
     // Save account changes
     accountRepository.save(issuer);
@@ -299,15 +854,17 @@ public class TransactionServiceImpl implements TransactionService {
   }
 
   private void createTransactionEntries(Transaction transaction, Account issuer, Account merchant,
-      BigDecimal amount) {
+      Money amount) {
     // Debit entry for issuer
     TransactionEntry issuerEntry = TransactionEntry.builder().transaction(transaction)
-        .accountId(issuer.getAccountId()).amount(amount.negate()) // Negative for debit
+        .accountId(issuer.getAccountId())
+        .amount(amount.negate().toBigDecimal()) // Negative for debit
         .build();
 
     // Credit entry for merchant
     TransactionEntry merchantEntry = TransactionEntry.builder().transaction(transaction)
-        .accountId(merchant.getAccountId()).amount(amount) // Positive for credit
+        .accountId(merchant.getAccountId())
+        .amount(amount.toBigDecimal()) // Positive for credit
         .build();
 
     // Save entries
@@ -316,26 +873,44 @@ public class TransactionServiceImpl implements TransactionService {
   }
 
   private void recordPostedEvent(Transaction transaction, Account issuer, Account merchant) {
-    var payload = new PostedPayload(transaction.getTransactionId(), transaction.getType(),
-        issuer.getAccountId(), merchant.getAccountId(), transaction.getAmount(),
-        transaction.getCurrency(), transaction.getCreatedAt());
+    var payload = new TransactionPostedPayload(transaction.getTransactionId(),
+        transaction.getType(), issuer.getAccountId(), merchant.getAccountId(),
+        transaction.getAmount(), transaction.getCurrency(), transaction.getCreatedAt());
     try {
       outboxEventService.saveEvent("transaction.posted", transaction.getTransactionId(),
-          objectMapper.writeValueAsString(payload));
+          eventCodec.encode(payload));
     } catch (JsonProcessingException e) {
       throw new RuntimeException("Failed to serialize event payload", e);
     }
   }
 
-  // Simple record for JSON serialization
-  private record InitiatedPayload(Long transactionId, Long issuerAccountId, Long merchantAccountId,
-                                  BigDecimal amount, String currency) {
+  private record Parties(Account issuer, Account merchant) {
 
   }
 
-  private record PostedPayload(Long transactionId, TransactionType type, Long issuerAccountId,
-                               Long merchantAccountId, BigDecimal amount, String currency,
-                               Instant createdAt) {
+  private record CommitEntry(int index, Transaction transaction, Money amount) {
 
   }
+
+  private record PendingTransaction(Transaction transaction, Account issuer, Account merchant) {
+
+  }
+
+  private record BatchEntry(int index, CreateTransactionRequest request, Account issuer,
+      Account merchant, Transaction transaction, VelocityLimiter.Reservation velocity,
+      String error) {
+
+    BatchEntry(int index, CreateTransactionRequest request, Account issuer, Account merchant,
+        Transaction transaction, VelocityLimiter.Reservation velocity) {
+      this(index, request, issuer, merchant, transaction, velocity, null);
+    }
+
+    BatchEntry withTransaction(Transaction saved) {
+      return new BatchEntry(index, request, issuer, merchant, saved, velocity, error);
+    }
+
+    BatchEntry withError(String message) {
+      return new BatchEntry(index, request, issuer, merchant, transaction, velocity, message);
+    }
+  }
 }
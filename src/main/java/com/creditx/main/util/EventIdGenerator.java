@@ -3,6 +3,7 @@ package com.creditx.main.util;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.UUID;
 
 import lombok.extern.slf4j.Slf4j;
@@ -26,9 +27,18 @@ public class EventIdGenerator {
      * @return SHA-256 hash of the payload
      */
     public static String generatePayloadHash(String payload) {
+        return generatePayloadHash(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generate a hash of the UTF-8 encoded event payload for deduplication
+     * @param payload the event payload as UTF-8 bytes
+     * @return SHA-256 hash of the payload
+     */
+    public static String generatePayloadHash(byte[] payload) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(payload.getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(payload);
             StringBuilder hexString = new StringBuilder();
             for (byte b : hash) {
                 String hex = Integer.toHexString(0xff & b);
@@ -41,7 +51,7 @@ public class EventIdGenerator {
         } catch (NoSuchAlgorithmException e) {
             log.error("SHA-256 algorithm not available", e);
             // Fallback to simple hash
-            return String.valueOf(payload.hashCode());
+            return String.valueOf(Arrays.hashCode(payload));
         }
     }
 }
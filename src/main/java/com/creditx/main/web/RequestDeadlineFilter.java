@@ -0,0 +1,76 @@
+package com.creditx.main.web;
+
+import com.creditx.main.deadline.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts the clock on a transaction API request. The budget is the client's
+ * {@link Deadline#HEADER}, capped at the configured maximum, or else the default of the endpoint:
+ * batches get longer than single creates, commits and cashbacks. The deadline is bound to the
+ * request thread for the service to size its hold-service and JDBC timeouts from.
+ */
+@Component
+// Ahead of the concurrency filter, so the budget covers everything the request goes through
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+  @Value("${app.api.deadline.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.api.deadline.default-ms:10000}")
+  private long defaultMs;
+
+  @Value("${app.api.deadline.batch-ms:30000}")
+  private long batchMs;
+
+  @Value("${app.api.deadline.max-ms:60000}")
+  private long maxMs;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || !path(request).startsWith(TransactionApiConcurrencyFilter.API_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    long budgetMs;
+    try {
+      budgetMs = budgetMillis(request.getHeader(Deadline.HEADER), path(request));
+    } catch (NumberFormatException e) {
+      response.setStatus(HttpStatus.BAD_REQUEST.value());
+      response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+      response.getWriter().write("Invalid " + Deadline.HEADER + " header");
+      return;
+    }
+    try (Deadline.Scope scope = Deadline.bind(Deadline.afterMillis(budgetMs))) {
+      filterChain.doFilter(request, response);
+    }
+  }
+
+  long budgetMillis(String header, String path) {
+    if (header == null || header.isBlank()) {
+      return path.endsWith("/batch") ? batchMs : defaultMs;
+    }
+    long requested = Long.parseLong(header.trim());
+    if (requested < 0) {
+      throw new NumberFormatException("Negative timeout " + requested);
+    }
+    return Math.min(requested, maxMs);
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+}
@@ -0,0 +1,133 @@
+package com.creditx.main.web;
+
+import com.creditx.main.concurrent.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load on the transaction API before a request takes a database connection or calls the
+ * hold service. Each lane has its own {@link AdaptiveConcurrencyLimiter}; requests beyond the
+ * current limit get 503 with Retry-After straight away instead of queueing until everything times
+ * out. Internal cashback and commit calls run in their own lane, so a surge of public creates
+ * cannot starve the captures that free up issuer holds.
+ */
+@Component
+@Slf4j
+public class TransactionApiConcurrencyFilter extends OncePerRequestFilter {
+
+  static final String API_PREFIX = "/api/transactions";
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  @Value("${app.api.concurrency-limit.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.api.concurrency-limit.min-limit:4}")
+  private int minLimit;
+
+  @Value("${app.api.concurrency-limit.public.initial-limit:50}")
+  private int publicInitialLimit;
+
+  @Value("${app.api.concurrency-limit.public.max-limit:200}")
+  private int publicMaxLimit;
+
+  @Value("${app.api.concurrency-limit.internal.initial-limit:20}")
+  private int internalInitialLimit;
+
+  @Value("${app.api.concurrency-limit.internal.max-limit:100}")
+  private int internalMaxLimit;
+
+  @Value("${app.api.concurrency-limit.retry-after-seconds:1}")
+  private int retryAfterSeconds;
+
+  private Lane publicLane;
+  private Lane internalLane;
+
+  public TransactionApiConcurrencyFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @PostConstruct
+  public void init() {
+    publicLane = lane("public",
+        new AdaptiveConcurrencyLimiter(publicInitialLimit, minLimit, publicMaxLimit));
+    internalLane = lane("internal",
+        new AdaptiveConcurrencyLimiter(internalInitialLimit, minLimit, internalMaxLimit));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || !path(request).startsWith(API_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    Lane lane = isInternal(path(request)) ? internalLane : publicLane;
+    AdaptiveConcurrencyLimiter limiter = lane.limiter();
+    if (!limiter.tryAcquire()) {
+      if (lane.rejected() != null) {
+        lane.rejected().increment();
+      }
+      log.warn("Shedding {} {} in {} lane, concurrency limit {} reached", request.getMethod(),
+          request.getRequestURI(), lane.name(), limiter.getLimit());
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+      response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+      response.getWriter().write("Server is busy, please retry");
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      limiter.release(System.nanoTime() - start);
+    }
+  }
+
+  static boolean isInternal(String path) {
+    return path.equals(API_PREFIX + "/cashback") || path.endsWith("/commit")
+        || path.equals(API_PREFIX + "/commit/batch");
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+
+  private Lane lane(String name, AdaptiveConcurrencyLimiter limiter) {
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    if (registry == null) {
+      return new Lane(name, limiter, null);
+    }
+    Gauge.builder("creditx.api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current adaptive concurrency limit of the transaction API lane")
+        .tag("lane", name).register(registry);
+    Gauge.builder("creditx.api.concurrency.in-flight", limiter,
+            AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Requests in flight in the transaction API lane").tag("lane", name)
+        .register(registry);
+    Counter rejected = Counter.builder("creditx.api.concurrency.rejected")
+        .description("Requests shed with 503 by the transaction API lane").tag("lane", name)
+        .register(registry);
+    return new Lane(name, limiter, rejected);
+  }
+
+  private record Lane(String name, AdaptiveConcurrencyLimiter limiter, Counter rejected) {
+
+  }
+}
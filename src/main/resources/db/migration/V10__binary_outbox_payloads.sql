@@ -0,0 +1,9 @@
+-- Outbox events in the compact binary layout. The payload is small enough to live in-row as RAW,
+-- avoiding the LOB locator and separate segment a CLOB needs. JSON rows keep using PAYLOAD with a
+-- NULL CONTENT_TYPE, which is also what CMS_POST_TRANSACTION writes.
+ALTER TABLE CMS_OUTBOX_EVENTS ADD (
+    CONTENT_TYPE   VARCHAR2(100),
+    PAYLOAD_BINARY RAW(2000)
+);
+
+ALTER TABLE CMS_OUTBOX_EVENTS MODIFY (PAYLOAD NULL);
@@ -0,0 +1,14 @@
+-- Client-supplied Idempotency-Key of create and commit requests, scoped by operation. A row is
+-- claimed as IN_PROGRESS before the request runs and holds the JSON response once it completed,
+-- so a retried request replays the response instead of running again.
+CREATE TABLE CMS_IDEMPOTENCY_KEYS (
+    IDEMPOTENCY_KEY VARCHAR2(200) PRIMARY KEY,
+    REQUEST_HASH    VARCHAR2(128) NOT NULL,
+    STATUS          VARCHAR2(20) NOT NULL,
+    RESPONSE_BODY   CLOB,
+    CREATED_AT      TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL,
+    UPDATED_AT      TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+-- Retention purge deletes by age
+CREATE INDEX IDX_CMS_IDEMPOTENCY_CREATED ON CMS_IDEMPOTENCY_KEYS(CREATED_AT);
@@ -0,0 +1,4 @@
+-- Access path for the stuck-PENDING sweeper: a range scan over one status, oldest first, that
+-- stops after a batch instead of scanning CMS_TRANSACTIONS. Few rows are PENDING at any time, so
+-- the scan stays short however large the table grows.
+CREATE INDEX IDX_CMS_TXN_STATUS_CREATED ON CMS_TRANSACTIONS(STATUS, CREATED_AT);
@@ -0,0 +1,104 @@
+-- CMS_POST_TRANSACTION, revised:
+--  * a null p_hold_id is a hold ID mismatch (3); comparing against NULL used to let it through.
+--  * the issuer and merchant rows are locked in ascending ACCOUNT_ID order before either is
+--    updated, the same order as the application-side commit path, so postings in opposite
+--    directions between two accounts cannot deadlock. Each row is locked by its own statement
+--    because the order in which a single SELECT ... FOR UPDATE locks rows is not defined.
+-- Result codes are unchanged:
+-- p_result: 0 posted, 1 transaction not found, 2 not AUTHORIZED, 3 hold ID mismatch,
+--           4 issuer not found, 5 merchant not found, 6 non-positive amount.
+-- Nothing is changed unless the result is 0.
+CREATE OR REPLACE PROCEDURE CMS_POST_TRANSACTION (
+    p_transaction_id IN  NUMBER,
+    p_hold_id        IN  NUMBER,
+    p_result         OUT NUMBER
+) AS
+    l_txn        CMS_TRANSACTIONS%ROWTYPE;
+    l_created    INTERVAL DAY(9) TO SECOND(6);
+    l_created_s  NUMBER;
+    l_found      NUMBER;
+
+    FUNCTION lock_account(p_account_id IN NUMBER) RETURN BOOLEAN IS
+        l_id NUMBER;
+    BEGIN
+        SELECT ACCOUNT_ID INTO l_id FROM CMS_ACCOUNTS
+         WHERE ACCOUNT_ID = p_account_id
+           FOR UPDATE;
+        RETURN TRUE;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            RETURN FALSE;
+    END;
+BEGIN
+    BEGIN
+        SELECT * INTO l_txn FROM CMS_TRANSACTIONS
+         WHERE TRANSACTION_ID = p_transaction_id
+           FOR UPDATE;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            p_result := 1;
+            RETURN;
+    END;
+
+    IF l_txn.STATUS <> 'AUTHORIZED' THEN
+        p_result := 2;
+        RETURN;
+    END IF;
+    IF l_txn.HOLD_ID IS NULL OR p_hold_id IS NULL OR l_txn.HOLD_ID <> p_hold_id THEN
+        p_result := 3;
+        RETURN;
+    END IF;
+    IF l_txn.AMOUNT <= 0 THEN
+        p_result := 6;
+        RETURN;
+    END IF;
+
+    -- Lock both accounts, lowest ACCOUNT_ID first, before changing either
+    IF NOT lock_account(LEAST(l_txn.ACCOUNT_ID, l_txn.MERCHANT_ID))
+        OR NOT lock_account(GREATEST(l_txn.ACCOUNT_ID, l_txn.MERCHANT_ID)) THEN
+        SELECT COUNT(*) INTO l_found FROM CMS_ACCOUNTS WHERE ACCOUNT_ID = l_txn.ACCOUNT_ID;
+        p_result := CASE WHEN l_found = 0 THEN 4 ELSE 5 END;
+        RETURN;
+    END IF;
+
+    -- Debit issuer and release the hold
+    UPDATE CMS_ACCOUNTS
+       SET AVAILABLE_BALANCE = AVAILABLE_BALANCE - l_txn.AMOUNT,
+           RESERVED = RESERVED - l_txn.AMOUNT
+     WHERE ACCOUNT_ID = l_txn.ACCOUNT_ID;
+
+    -- Credit merchant
+    UPDATE CMS_ACCOUNTS
+       SET AVAILABLE_BALANCE = AVAILABLE_BALANCE + l_txn.AMOUNT
+     WHERE ACCOUNT_ID = l_txn.MERCHANT_ID;
+
+    INSERT INTO CMS_TRANSACTION_ENTRIES (ENTRY_ID, TRANSACTION_ID, ACCOUNT_ID, AMOUNT)
+    VALUES (CMS_ENTRY_SEQ.NEXTVAL, l_txn.TRANSACTION_ID, l_txn.ACCOUNT_ID, -l_txn.AMOUNT);
+    INSERT INTO CMS_TRANSACTION_ENTRIES (ENTRY_ID, TRANSACTION_ID, ACCOUNT_ID, AMOUNT)
+    VALUES (CMS_ENTRY_SEQ.NEXTVAL, l_txn.TRANSACTION_ID, l_txn.MERCHANT_ID, l_txn.AMOUNT);
+
+    UPDATE CMS_TRANSACTIONS
+       SET STATUS = 'SUCCESS'
+     WHERE TRANSACTION_ID = l_txn.TRANSACTION_ID;
+
+    -- createdAt as epoch seconds, matching the application's Instant serialization
+    l_created := SYS_EXTRACT_UTC(l_txn.CREATED_AT) - TIMESTAMP '1970-01-01 00:00:00';
+    l_created_s := EXTRACT(DAY FROM l_created) * 86400 + EXTRACT(HOUR FROM l_created) * 3600
+        + EXTRACT(MINUTE FROM l_created) * 60 + EXTRACT(SECOND FROM l_created);
+
+    INSERT INTO CMS_OUTBOX_EVENTS (EVENT_TYPE, AGGREGATE_ID, PAYLOAD, STATUS)
+    VALUES ('transaction.posted', l_txn.TRANSACTION_ID,
+            JSON_OBJECT(
+                'transactionId'     VALUE l_txn.TRANSACTION_ID,
+                'type'              VALUE l_txn.TYPE,
+                'issuerAccountId'   VALUE l_txn.ACCOUNT_ID,
+                'merchantAccountId' VALUE l_txn.MERCHANT_ID,
+                'amount'            VALUE l_txn.AMOUNT,
+                'currency'          VALUE l_txn.CURRENCY,
+                'createdAt'         VALUE l_created_s
+                NULL ON NULL RETURNING CLOB),
+            'PENDING');
+
+    p_result := 0;
+END;
+/
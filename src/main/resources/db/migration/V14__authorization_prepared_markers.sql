@@ -0,0 +1,10 @@
+-- One row per group of authorization-engine changes journaled as prepared by a business
+-- transaction, written in that transaction itself. A prepared group is applied to CMS_ACCOUNTS
+-- only while its row exists, and the row is deleted in the same transaction that applies it, so
+-- after a crash the journal replays exactly the groups whose transaction committed.
+CREATE TABLE CMS_AUTH_JOURNAL_PREPARED (
+    SHARD_ID   NUMBER(10) NOT NULL,
+    PREPARE_ID NUMBER(19) NOT NULL,
+    CREATED_AT TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT PK_CMS_AUTH_JOURNAL_PREPARED PRIMARY KEY (SHARD_ID, PREPARE_ID)
+);
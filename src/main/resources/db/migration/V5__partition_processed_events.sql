@@ -0,0 +1,43 @@
+-- Partition CMS_PROCESSED_EVENTS by day so the dedup horizon can be enforced by dropping
+-- whole partitions instead of deleting rows.
+-- TIMESTAMP WITH TIME ZONE cannot be used as a partitioning key, so partition on a UTC virtual column.
+ALTER TABLE CMS_PROCESSED_EVENTS ADD (
+    PROCESSED_DAY DATE GENERATED ALWAYS AS (CAST(SYS_EXTRACT_UTC(PROCESSED_AT) AS DATE)) VIRTUAL
+);
+
+ALTER TABLE CMS_PROCESSED_EVENTS MODIFY
+    PARTITION BY RANGE (PROCESSED_DAY) INTERVAL (NUMTODSINTERVAL(1, 'DAY'))
+    (PARTITION P_PROC_INITIAL VALUES LESS THAN (DATE '2025-01-01'))
+    ONLINE
+    UPDATE INDEXES (IDX_CMS_PROC_STATUS LOCAL);
+
+-- Dedup lookups by payload hash; global so a lookup is a single index probe regardless of
+-- how many daily partitions are retained.
+CREATE INDEX IDX_CMS_PROC_PAYLOAD_HASH ON CMS_PROCESSED_EVENTS(PAYLOAD_HASH);
+
+-- Drops daily partitions that lie entirely outside the dedup horizon.
+-- The initial range partition anchors interval partitioning and is never dropped.
+CREATE OR REPLACE PROCEDURE CMS_PURGE_PROCESSED_EVENTS (
+    p_horizon_days IN  NUMBER,
+    p_dropped      OUT NUMBER
+) AS
+    l_high_value_text VARCHAR2(4000);
+    l_high_value      DATE;
+    l_cutoff          DATE := CAST(SYS_EXTRACT_UTC(SYSTIMESTAMP) AS DATE) - p_horizon_days;
+BEGIN
+    p_dropped := 0;
+    FOR p IN (SELECT PARTITION_NAME, HIGH_VALUE, PARTITION_POSITION
+                FROM USER_TAB_PARTITIONS
+               WHERE TABLE_NAME = 'CMS_PROCESSED_EVENTS'
+               ORDER BY PARTITION_POSITION) LOOP
+        IF p.PARTITION_POSITION > 1 THEN
+            l_high_value_text := p.HIGH_VALUE;
+            EXECUTE IMMEDIATE 'SELECT ' || l_high_value_text || ' FROM DUAL' INTO l_high_value;
+            EXIT WHEN l_high_value > l_cutoff;
+            EXECUTE IMMEDIATE 'ALTER TABLE CMS_PROCESSED_EVENTS DROP PARTITION '
+                || p.PARTITION_NAME || ' UPDATE GLOBAL INDEXES';
+            p_dropped := p_dropped + 1;
+        END IF;
+    END LOOP;
+END;
+/
@@ -0,0 +1,7 @@
+-- Hibernate allocates IDs in blocks of 50 (pooled optimizer), so each NEXTVAL must advance the
+-- sequence by the same amount. The value returned is the top of the caller's block, which keeps
+-- the BEFORE INSERT triggers (plain NEXTVAL) from colliding with IDs handed out by the application.
+ALTER SEQUENCE CMS_ACCT_SEQ   INCREMENT BY 50;
+ALTER SEQUENCE CMS_TXN_SEQ    INCREMENT BY 50;
+ALTER SEQUENCE CMS_OUTBOX_SEQ INCREMENT BY 50;
+ALTER SEQUENCE CMS_ENTRY_SEQ  INCREMENT BY 50;
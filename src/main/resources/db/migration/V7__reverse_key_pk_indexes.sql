@@ -0,0 +1,14 @@
+-- Sequence-generated keys always land in the right-most leaf block of their PK index, so
+-- concurrent inserts queue on that block. Rebuilding the PK indexes as reverse-key spreads
+-- consecutive IDs across the whole index. Only equality lookups are made on these keys, which
+-- reverse-key indexes still serve.
+-- The PK constraints were declared inline, so their index names are system-generated.
+BEGIN
+    FOR pk IN (SELECT INDEX_NAME
+                 FROM USER_CONSTRAINTS
+                WHERE CONSTRAINT_TYPE = 'P'
+                  AND TABLE_NAME IN ('CMS_TRANSACTIONS', 'CMS_TRANSACTION_ENTRIES', 'CMS_OUTBOX_EVENTS')) LOOP
+        EXECUTE IMMEDIATE 'ALTER INDEX "' || pk.INDEX_NAME || '" REBUILD REVERSE';
+    END LOOP;
+END;
+/
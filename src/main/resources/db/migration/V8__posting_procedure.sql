@@ -0,0 +1,90 @@
+-- Single-call posting for an AUTHORIZED transaction: validates it, moves the held amount from the
+-- issuer to the merchant, writes both ledger entries, marks the transaction SUCCESS and records
+-- the transaction.posted outbox event.
+-- p_result: 0 posted, 1 transaction not found, 2 not AUTHORIZED, 3 hold ID mismatch,
+--           4 issuer not found, 5 merchant not found, 6 non-positive amount.
+-- Nothing is changed unless the result is 0.
+CREATE OR REPLACE PROCEDURE CMS_POST_TRANSACTION (
+    p_transaction_id IN  NUMBER,
+    p_hold_id        IN  NUMBER,
+    p_result         OUT NUMBER
+) AS
+    l_txn        CMS_TRANSACTIONS%ROWTYPE;
+    l_created    INTERVAL DAY(9) TO SECOND(6);
+    l_created_s  NUMBER;
+BEGIN
+    BEGIN
+        SELECT * INTO l_txn FROM CMS_TRANSACTIONS
+         WHERE TRANSACTION_ID = p_transaction_id
+           FOR UPDATE;
+    EXCEPTION
+        WHEN NO_DATA_FOUND THEN
+            p_result := 1;
+            RETURN;
+    END;
+
+    IF l_txn.STATUS <> 'AUTHORIZED' THEN
+        p_result := 2;
+        RETURN;
+    END IF;
+    IF l_txn.HOLD_ID IS NULL OR l_txn.HOLD_ID <> p_hold_id THEN
+        p_result := 3;
+        RETURN;
+    END IF;
+    IF l_txn.AMOUNT <= 0 THEN
+        p_result := 6;
+        RETURN;
+    END IF;
+
+    SAVEPOINT cms_post_transaction;
+
+    -- Debit issuer and release the hold
+    UPDATE CMS_ACCOUNTS
+       SET AVAILABLE_BALANCE = AVAILABLE_BALANCE - l_txn.AMOUNT,
+           RESERVED = RESERVED - l_txn.AMOUNT
+     WHERE ACCOUNT_ID = l_txn.ACCOUNT_ID;
+    IF SQL%ROWCOUNT = 0 THEN
+        p_result := 4;
+        RETURN;
+    END IF;
+
+    -- Credit merchant
+    UPDATE CMS_ACCOUNTS
+       SET AVAILABLE_BALANCE = AVAILABLE_BALANCE + l_txn.AMOUNT
+     WHERE ACCOUNT_ID = l_txn.MERCHANT_ID;
+    IF SQL%ROWCOUNT = 0 THEN
+        ROLLBACK TO SAVEPOINT cms_post_transaction;
+        p_result := 5;
+        RETURN;
+    END IF;
+
+    INSERT INTO CMS_TRANSACTION_ENTRIES (ENTRY_ID, TRANSACTION_ID, ACCOUNT_ID, AMOUNT)
+    VALUES (CMS_ENTRY_SEQ.NEXTVAL, l_txn.TRANSACTION_ID, l_txn.ACCOUNT_ID, -l_txn.AMOUNT);
+    INSERT INTO CMS_TRANSACTION_ENTRIES (ENTRY_ID, TRANSACTION_ID, ACCOUNT_ID, AMOUNT)
+    VALUES (CMS_ENTRY_SEQ.NEXTVAL, l_txn.TRANSACTION_ID, l_txn.MERCHANT_ID, l_txn.AMOUNT);
+
+    UPDATE CMS_TRANSACTIONS
+       SET STATUS = 'SUCCESS'
+     WHERE TRANSACTION_ID = l_txn.TRANSACTION_ID;
+
+    -- createdAt as epoch seconds, matching the application's Instant serialization
+    l_created := SYS_EXTRACT_UTC(l_txn.CREATED_AT) - TIMESTAMP '1970-01-01 00:00:00';
+    l_created_s := EXTRACT(DAY FROM l_created) * 86400 + EXTRACT(HOUR FROM l_created) * 3600
+        + EXTRACT(MINUTE FROM l_created) * 60 + EXTRACT(SECOND FROM l_created);
+
+    INSERT INTO CMS_OUTBOX_EVENTS (EVENT_TYPE, AGGREGATE_ID, PAYLOAD, STATUS)
+    VALUES ('transaction.posted', l_txn.TRANSACTION_ID,
+            JSON_OBJECT(
+                'transactionId'     VALUE l_txn.TRANSACTION_ID,
+                'type'              VALUE l_txn.TYPE,
+                'issuerAccountId'   VALUE l_txn.ACCOUNT_ID,
+                'merchantAccountId' VALUE l_txn.MERCHANT_ID,
+                'amount'            VALUE l_txn.AMOUNT,
+                'currency'          VALUE l_txn.CURRENCY,
+                'createdAt'         VALUE l_created_s
+                NULL ON NULL RETURNING CLOB),
+            'PENDING');
+
+    p_result := 0;
+END;
+/
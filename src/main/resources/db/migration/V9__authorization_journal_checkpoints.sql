@@ -0,0 +1,8 @@
+-- Highest authorization-journal sequence per engine shard whose balance changes have been
+-- applied to CMS_ACCOUNTS. Written in the same transaction as the balance updates, so journal
+-- entries at or below it are never replayed twice.
+CREATE TABLE CMS_AUTH_JOURNAL_CHECKPOINTS (
+    SHARD_ID      NUMBER(10) PRIMARY KEY,
+    LAST_SEQUENCE NUMBER(19) NOT NULL,
+    UPDATED_AT    TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL
+);
@@ -56,6 +56,20 @@ class SchemaIntegrationTest {
         "SELECT COUNT(*) FROM user_tables WHERE table_name = 'CMS_OUTBOX_EVENTS'", Integer.class);
     assertThat(outboxEventsTableCount).isEqualTo(1);
 
+    // Test that CMS_PROCESSED_EVENTS is partitioned for retention
+    Integer partitionedCount = jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM user_part_tables WHERE table_name = 'CMS_PROCESSED_EVENTS'",
+        Integer.class);
+    assertThat(partitionedCount).isEqualTo(1);
+
+    // Test that sequences advance by the entity allocation size
+    Integer pooledSequenceCount = jdbcTemplate.queryForObject("""
+            SELECT COUNT(*) FROM user_sequences
+             WHERE sequence_name IN ('CMS_ACCT_SEQ', 'CMS_TXN_SEQ', 'CMS_OUTBOX_SEQ', 'CMS_ENTRY_SEQ')
+               AND increment_by = 50
+        """, Integer.class);
+    assertThat(pooledSequenceCount).isEqualTo(4);
+
     // Test inserting into CMS_PROCESSED_EVENTS
     jdbcTemplate.update("""
             INSERT INTO CMS_PROCESSED_EVENTS (EVENT_ID, PAYLOAD_HASH, STATUS, PROCESSED_AT)
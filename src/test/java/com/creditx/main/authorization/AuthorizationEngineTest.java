@@ -0,0 +1,348 @@
+package com.creditx.main.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.model.Account;
+import com.creditx.main.model.Money;
+import com.creditx.main.repository.AccountRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationEngineTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AuthorizationJournalFlusher flusher;
+
+  @InjectMocks
+  private AuthorizationEngine authorizationEngine;
+
+  @TempDir
+  Path journalDir;
+
+  @BeforeEach
+  void setup() {
+    ReflectionTestUtils.setField(authorizationEngine, "enabled", true);
+    ReflectionTestUtils.setField(authorizationEngine, "shardCount", 2);
+    ReflectionTestUtils.setField(authorizationEngine, "queueCapacity", 64);
+    ReflectionTestUtils.setField(authorizationEngine, "journalDir", journalDir.toString());
+    ReflectionTestUtils.setField(authorizationEngine, "flushBatchSize", 100);
+    ReflectionTestUtils.setField(authorizationEngine, "timeoutMs", 2000L);
+    ReflectionTestUtils.setField(authorizationEngine, "maxResidentAccounts", 100);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    authorizationEngine.stop();
+  }
+
+  @Test
+  void shouldReserveInMemoryAndFlushNetChange() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    authorizationEngine.start();
+
+    // when
+    AuthorizationDecision first = authorizationEngine.apply(
+        BalanceOperation.reserve(1L, 10L, new BigDecimal("300.00")));
+    AuthorizationDecision second = authorizationEngine.apply(
+        BalanceOperation.reserve(1L, 11L, new BigDecimal("200.00")));
+    authorizationEngine.flushJournals();
+
+    // then
+    assertThat(first.approved()).isTrue();
+    assertThat(second.availableBalance()).isEqualByComparingTo("500.00");
+    assertThat(second.reservedBalance()).isEqualByComparingTo("500.00");
+    verify(accountRepository, times(1)).findById(1L);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> flushed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), flushed.capture());
+    assertThat(flushed.getValue()).extracting(JournalEntry::transactionId)
+        .containsExactly(10L, 11L);
+  }
+
+  @Test
+  void shouldRejectReservationBeyondAvailableBalance() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("100.00", "0.00")));
+    authorizationEngine.start();
+
+    // when
+    AuthorizationDecision decision = authorizationEngine.apply(
+        BalanceOperation.reserve(1L, 10L, new BigDecimal("150.00")));
+    authorizationEngine.flushJournals();
+
+    // then
+    assertThat(decision.approved()).isFalse();
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("100.00");
+    verify(flusher, never()).flush(anyInt(), anyList());
+  }
+
+  @Test
+  void shouldReplayJournalEntriesPastCheckpointOnStartup() throws Exception {
+    // given - a journal left behind by a previous run
+    try (AuthorizationJournal journal = new AuthorizationJournal(
+        journalDir.resolve("shard-1.log"))) {
+      journal.append(new JournalEntry(1, 1L, 10L, new BigDecimal("-5.00"),
+          new BigDecimal("5.00")));
+      journal.append(new JournalEntry(2, 1L, 11L, new BigDecimal("-7.00"),
+          new BigDecimal("7.00")));
+      journal.sync();
+    }
+    when(flusher.lastFlushedSequence(0)).thenReturn(0L);
+    when(flusher.lastFlushedSequence(1)).thenReturn(1L);
+
+    // when
+    authorizationEngine.start();
+
+    // then
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> replayed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), replayed.capture());
+    assertThat(replayed.getValue()).extracting(JournalEntry::sequence).containsExactly(2L);
+  }
+
+  @Test
+  void shouldReplayPreparedEntriesWhateverTheCheckpoint() throws Exception {
+    // given - prepared groups 1 and 2 are settled by their markers, not by the checkpoint
+    try (AuthorizationJournal journal = new AuthorizationJournal(
+        journalDir.resolve("shard-1.log"))) {
+      journal.append(new JournalEntry(1, 1L, 10L, new BigDecimal("-5.00"),
+          new BigDecimal("5.00"), 1));
+      journal.append(new JournalEntry(2, 1L, 11L, new BigDecimal("-7.00"),
+          new BigDecimal("7.00"), 2));
+      journal.append(new JournalEntry(3, 1L, 12L, new BigDecimal("-9.00"),
+          new BigDecimal("9.00")));
+      journal.sync();
+    }
+    when(flusher.lastFlushedSequence(0)).thenReturn(0L);
+    when(flusher.lastFlushedSequence(1)).thenReturn(3L);
+
+    // when
+    authorizationEngine.start();
+
+    // then
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> replayed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), replayed.capture());
+    assertThat(replayed.getValue()).extracting(JournalEntry::sequence).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void shouldJournalTransactionalReservationAsPreparedBeforeCommit() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    authorizationEngine.start();
+    TransactionSynchronizationManager.initSynchronization();
+
+    // when - the reservation is visible in memory but not yet journaled
+    AuthorizationDecision decision = authorizationEngine.apply(
+        BalanceOperation.reserve(1L, 10L, new BigDecimal("300.00")));
+    authorizationEngine.flushJournals();
+
+    // then
+    assertThat(decision.approved()).isTrue();
+    assertThat(decision.sequence()).isZero();
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("700.00");
+    verify(flusher, never()).flush(anyInt(), anyList());
+
+    // when - prepared before the commit, but not flushed until it is known to have committed
+    beforeCommit();
+    authorizationEngine.flushJournals();
+
+    // then
+    verify(flusher).markPrepared(1, 1L);
+    verify(flusher, never()).flush(anyInt(), anyList());
+
+    // when
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("700.00");
+    authorizationEngine.flushJournals();
+
+    // then
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> flushed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), flushed.capture());
+    assertThat(flushed.getValue()).extracting(JournalEntry::transactionId).containsExactly(10L);
+    assertThat(flushed.getValue()).extracting(JournalEntry::prepareId).containsExactly(1L);
+  }
+
+  @Test
+  void shouldPrepareOneGroupPerShardForTransaction() {
+    // given - accounts 1 and 3 live on shard 1, account 2 on shard 0
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    when(accountRepository.findById(2L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    when(accountRepository.findById(3L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    authorizationEngine.start();
+    TransactionSynchronizationManager.initSynchronization();
+    authorizationEngine.apply(BalanceOperation.reserve(1L, 10L, new BigDecimal("100.00")));
+    authorizationEngine.apply(BalanceOperation.reserve(2L, 11L, new BigDecimal("100.00")));
+    authorizationEngine.apply(BalanceOperation.reserve(3L, 12L, new BigDecimal("100.00")));
+
+    // when
+    beforeCommit();
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    authorizationEngine.availableBalance(1L);
+    authorizationEngine.availableBalance(2L);
+    authorizationEngine.flushJournals();
+
+    // then
+    verify(flusher).markPrepared(0, 1L);
+    verify(flusher).markPrepared(1, 1L);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> flushed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), flushed.capture());
+    assertThat(flushed.getValue()).extracting(JournalEntry::transactionId)
+        .containsExactly(10L, 12L);
+    assertThat(flushed.getValue()).extracting(JournalEntry::prepareId).containsOnly(1L);
+  }
+
+  @Test
+  void shouldCompensatePreparedReservationWhenCommitFails() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    authorizationEngine.start();
+    TransactionSynchronizationManager.initSynchronization();
+    authorizationEngine.apply(BalanceOperation.reserve(1L, 10L, new BigDecimal("300.00")));
+    beforeCommit();
+
+    // when
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    authorizationEngine.flushJournals();
+
+    // then
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("1000.00");
+    verify(flusher, never()).flush(anyInt(), anyList());
+  }
+
+  @Test
+  void shouldUndoRolledBackReservationWithoutJournaling() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    authorizationEngine.start();
+    TransactionSynchronizationManager.initSynchronization();
+    authorizationEngine.apply(BalanceOperation.reserve(1L, 10L, new BigDecimal("300.00")));
+
+    // when
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    authorizationEngine.flushJournals();
+
+    // then
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("1000.00");
+    verify(flusher, never()).flush(anyInt(), anyList());
+  }
+
+  @Test
+  void shouldUndoChangeWhoseJournalSyncFailed() {
+    // given - the first sync of shard 1 fails
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    ReflectionTestUtils.setField(authorizationEngine, "journals",
+        (Function<Path, AuthorizationJournal>) path -> {
+          AuthorizationJournal journal = new AuthorizationJournal(path);
+          if (!path.endsWith("shard-1.log")) {
+            return journal;
+          }
+          AuthorizationJournal failing = spy(journal);
+          doThrow(new UncheckedIOException(new IOException("disk full"))).doCallRealMethod()
+              .when(failing).sync();
+          return failing;
+        });
+    authorizationEngine.start();
+
+    // when
+    assertThatThrownBy(() -> authorizationEngine.apply(
+        BalanceOperation.reserve(1L, 10L, new BigDecimal("300.00"))))
+        .isInstanceOf(UncheckedIOException.class);
+    authorizationEngine.flushJournals();
+
+    // then - the refused change is gone from memory and never reaches the database
+    assertThat(authorizationEngine.availableBalance(1L)).isEqualByComparingTo("1000.00");
+    verify(flusher, never()).flush(anyInt(), anyList());
+
+    // when
+    authorizationEngine.apply(BalanceOperation.reserve(1L, 11L, new BigDecimal("200.00")));
+    authorizationEngine.flushJournals();
+
+    // then
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<JournalEntry>> flushed = ArgumentCaptor.forClass(List.class);
+    verify(flusher).flush(eq(1), flushed.capture());
+    assertThat(flushed.getValue()).extracting(JournalEntry::transactionId).containsExactly(11L);
+    assertThat(flushed.getValue()).extracting(JournalEntry::sequence).containsExactly(1L);
+  }
+
+  @Test
+  void shouldEvictFlushedAccountsBeyondResidentLimit() {
+    // given - accounts 1 and 3 live on the same shard
+    ReflectionTestUtils.setField(authorizationEngine, "maxResidentAccounts", 1);
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account("1000.00", "0.00")));
+    when(accountRepository.findById(3L)).thenReturn(Optional.of(account("500.00", "0.00")));
+    authorizationEngine.start();
+    authorizationEngine.apply(BalanceOperation.reserve(1L, 10L, new BigDecimal("100.00")));
+
+    // when - account 1 is still unflushed, so it stays resident
+    authorizationEngine.availableBalance(3L);
+    authorizationEngine.availableBalance(1L);
+
+    // then
+    verify(accountRepository, times(1)).findById(1L);
+
+    // when - once flushed it can be evicted and reloaded from the database
+    authorizationEngine.flushJournals();
+    authorizationEngine.availableBalance(3L);
+    authorizationEngine.availableBalance(1L);
+
+    // then
+    verify(accountRepository, times(2)).findById(1L);
+  }
+
+  private void beforeCommit() {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.beforeCommit(false));
+  }
+
+  private void completeTransaction(int status) {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+  }
+
+  private Account account(String available, String reserved) {
+    return Account.builder().accountId(1L).availableBalance(Money.of(new BigDecimal(available)))
+        .reserved(Money.of(new BigDecimal(reserved))).build();
+  }
+}
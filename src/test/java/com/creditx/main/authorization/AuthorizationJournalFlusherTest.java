@@ -0,0 +1,95 @@
+package com.creditx.main.authorization;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.model.AuthorizationCheckpoint;
+import com.creditx.main.repository.AccountRepository;
+import com.creditx.main.repository.AuthorizationCheckpointRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorizationJournalFlusherTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  @Mock
+  private AuthorizationCheckpointRepository checkpointRepository;
+
+  @InjectMocks
+  private AuthorizationJournalFlusher flusher;
+
+  @Test
+  void shouldSkipEntriesAtOrBelowCheckpoint() {
+    // given
+    when(checkpointRepository.findById(0)).thenReturn(
+        Optional.of(AuthorizationCheckpoint.builder().shardId(0).lastSequence(2L).build()));
+    when(accountRepository.addToBalances(1L, new BigDecimal("-7.00"), new BigDecimal("7.00")))
+        .thenReturn(1);
+
+    // when
+    flusher.flush(0, List.of(entry(1, "5.00"), entry(2, "6.00"), entry(3, "7.00")));
+
+    // then - only sequence 3 is applied
+    verify(accountRepository, times(1)).addToBalances(1L, new BigDecimal("-7.00"),
+        new BigDecimal("7.00"));
+    verify(checkpointRepository, times(1)).save(any(AuthorizationCheckpoint.class));
+  }
+
+  @Test
+  void shouldIgnoreBatchAlreadyApplied() {
+    // given
+    when(checkpointRepository.findById(0)).thenReturn(
+        Optional.of(AuthorizationCheckpoint.builder().shardId(0).lastSequence(2L).build()));
+
+    // when
+    flusher.flush(0, List.of(entry(1, "5.00"), entry(2, "6.00")));
+
+    // then
+    verify(accountRepository, never()).addToBalances(anyLong(), any(), any());
+    verify(checkpointRepository, never()).save(any(AuthorizationCheckpoint.class));
+  }
+
+  @Test
+  void shouldApplyPreparedEntriesOnlyWhileTheirMarkerExists() {
+    // given - group 1 committed and is older than the checkpoint, group 2 rolled back
+    when(checkpointRepository.findById(0)).thenReturn(
+        Optional.of(AuthorizationCheckpoint.builder().shardId(0).lastSequence(5L).build()));
+    when(checkpointRepository.findPrepared(0, List.of(1L, 2L))).thenReturn(List.of(1L));
+    when(accountRepository.addToBalances(1L, new BigDecimal("-11.00"), new BigDecimal("11.00")))
+        .thenReturn(1);
+
+    // when
+    flusher.flush(0, List.of(prepared(1, 1, "5.00"), prepared(2, 1, "6.00"),
+        prepared(3, 2, "7.00")));
+
+    // then - the marker goes with the applied change, and the checkpoint stays where it was
+    verify(accountRepository, times(1)).addToBalances(1L, new BigDecimal("-11.00"),
+        new BigDecimal("11.00"));
+    verify(checkpointRepository).deletePrepared(0, Set.of(1L));
+    verify(checkpointRepository, never()).save(any(AuthorizationCheckpoint.class));
+  }
+
+  private JournalEntry prepared(long sequence, long prepareId, String amount) {
+    return new JournalEntry(sequence, 1L, 10L + sequence, new BigDecimal(amount).negate(),
+        new BigDecimal(amount), prepareId);
+  }
+
+  private JournalEntry entry(long sequence, String amount) {
+    return new JournalEntry(sequence, 1L, 10L + sequence, new BigDecimal(amount).negate(),
+        new BigDecimal(amount));
+  }
+}
@@ -0,0 +1,145 @@
+package com.creditx.main.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditx.main.authorization.AuthorizationEngine;
+import com.creditx.main.cache.AccountMetadataCache;
+import com.creditx.main.deadline.StatementDeadline;
+import com.creditx.main.dto.CommitTransactionRequest;
+import com.creditx.main.messaging.EventCodec;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.screening.DuplicateChargeDetector;
+import com.creditx.main.screening.VelocityLimiter;
+import com.creditx.main.service.impl.OutboxEventServiceImpl;
+import com.creditx.main.service.impl.TransactionServiceImpl;
+import com.creditx.main.tracing.TransactionSpanTagger;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.oracle.OracleContainer;
+
+/**
+ * Commit latency of the application-side posting path versus the CMS_POST_TRANSACTION procedure.
+ * Run with {@code -Dbenchmarks=true}.
+ */
+@Slf4j
+@Testcontainers
+@DataJpaTest
+@Import({TransactionServiceImpl.class, OutboxEventServiceImpl.class, EventCodec.class,
+    StatementDeadline.class})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CommitPostingBenchmarkTest {
+
+  private static final int WARMUP = 200;
+  private static final int COMMITS = 1_000;
+  private static final long ISSUER_ID = 1L;
+  private static final long MERCHANT_ID = 2L;
+
+  @SuppressWarnings("resource")
+  @Container
+  static final OracleContainer oracle = new OracleContainer(
+      "gvenzl/oracle-free:latest-faststart").withUsername("testuser").withPassword("testpassword");
+
+  @MockitoBean
+  private RestTemplate restTemplate;
+
+  @MockitoBean
+  private TransactionSpanTagger transactionSpanTagger;
+
+  @MockitoBean
+  private AccountMetadataCache accountMetadataCache;
+
+  @MockitoBean
+  private AuthorizationEngine authorizationEngine;
+
+  @MockitoBean
+  private DuplicateChargeDetector duplicateChargeDetector;
+
+  @MockitoBean
+  private VelocityLimiter velocityLimiter;
+
+  @Autowired
+  private TransactionServiceImpl transactionService;
+
+  @Autowired
+  private TransactionRepository transactionRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", oracle::getJdbcUrl);
+    registry.add("spring.datasource.username", oracle::getUsername);
+    registry.add("spring.datasource.password", oracle::getPassword);
+    registry.add("spring.datasource.driver-class-name", () -> "oracle.jdbc.OracleDriver");
+  }
+
+  @Test
+  void compareCommitLatency() {
+    // Seeded accounts 1 (issuer) and 2 (merchant); give the issuer room for every hold
+    jdbcTemplate.update(
+        "UPDATE CMS_ACCOUNTS SET AVAILABLE_BALANCE = 1e9, RESERVED = 1e9 WHERE ACCOUNT_ID = ?",
+        ISSUER_ID);
+
+    measure(false, WARMUP);
+    long[] applicationNanos = measure(false, COMMITS);
+    measure(true, WARMUP);
+    long[] routineNanos = measure(true, COMMITS);
+
+    log.info("Commit latency over {} commits - application path: p50 {} us, p99 {} us; "
+            + "database routine: p50 {} us, p99 {} us", COMMITS,
+        percentileMicros(applicationNanos, 50), percentileMicros(applicationNanos, 99),
+        percentileMicros(routineNanos, 50), percentileMicros(routineNanos, 99));
+  }
+
+  private long[] measure(boolean databaseRoutine, int commits) {
+    ReflectionTestUtils.setField(transactionService, "databasePostingEnabled", databaseRoutine);
+    long[] samples = new long[commits];
+    for (int i = 0; i < commits; i++) {
+      long holdId = 1_000_000L + (databaseRoutine ? 500_000L : 0L) + i;
+      Long transactionId = insertAuthorizedTransaction(holdId);
+      CommitTransactionRequest request = CommitTransactionRequest.builder()
+          .transactionId(transactionId).holdId(holdId).build();
+
+      long start = System.nanoTime();
+      var response = transactionService.commitTransaction(transactionId, request);
+      samples[i] = System.nanoTime() - start;
+      assertThat(response.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    }
+    return samples;
+  }
+
+  private Long insertAuthorizedTransaction(long holdId) {
+    jdbcTemplate.update("""
+        INSERT INTO CMS_TRANSACTIONS (TYPE, STATUS, ACCOUNT_ID, HOLD_ID, AMOUNT, CURRENCY, MERCHANT_ID)
+        VALUES ('INBOUND', 'AUTHORIZED', ?, ?, 10, 'USD', ?)
+        """, ISSUER_ID, holdId, MERCHANT_ID);
+    return transactionRepository.findByHoldId(holdId).orElseThrow().getTransactionId();
+  }
+
+  private static long percentileMicros(long[] nanos, int percentile) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+    return sorted[Math.max(index, 0)] / 1_000;
+  }
+}
@@ -0,0 +1,87 @@
+package com.creditx.main.benchmark;
+
+import com.creditx.main.model.Money;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares one commit posting (issuer debit and hold release, merchant credit, funds check) done
+ * with BigDecimal against the same steps in long minor units. Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.creditx.main.benchmark.MoneyArithmeticBenchmark}; the GC profiler
+ * reports the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+  private BigDecimal issuerAvailable = new BigDecimal("1000000.00");
+  private BigDecimal issuerReserved = new BigDecimal("2500.00");
+  private BigDecimal merchantAvailable = new BigDecimal("50000.00");
+  private BigDecimal amount = new BigDecimal("125.37");
+
+  private long issuerAvailableMinor = 100_000_000L;
+  private long issuerReservedMinor = 250_000L;
+  private long merchantAvailableMinor = 5_000_000L;
+  private long amountMinor = 12_537L;
+
+  @Benchmark
+  public BigDecimal bigDecimalPosting() {
+    if (issuerAvailable.compareTo(amount) < 0 || amount.compareTo(BigDecimal.ZERO) <= 0) {
+      throw new IllegalStateException();
+    }
+    BigDecimal available = issuerAvailable.subtract(amount);
+    BigDecimal reserved = issuerReserved.subtract(amount);
+    BigDecimal merchant = merchantAvailable.add(amount);
+    BigDecimal debit = amount.negate();
+    return available.add(reserved).add(merchant).add(debit);
+  }
+
+  @Benchmark
+  public long moneyPosting() {
+    Money amount = Money.ofMinor(amountMinor);
+    Money issuerAvailable = Money.ofMinor(issuerAvailableMinor);
+    if (issuerAvailable.isLessThan(amount) || !amount.isPositive()) {
+      throw new IllegalStateException();
+    }
+    Money available = issuerAvailable.minus(amount);
+    Money reserved = Money.ofMinor(issuerReservedMinor).minus(amount);
+    Money merchant = Money.ofMinor(merchantAvailableMinor).plus(amount);
+    Money debit = amount.negate();
+    return available.plus(reserved).plus(merchant).plus(debit).minorUnits();
+  }
+
+  @Benchmark
+  public BigDecimal moneyPostingWithBoundaryConversion() {
+    // Includes converting in from and out to the entity's BigDecimal columns
+    Money amount = Money.of(this.amount);
+    Money available = Money.of(issuerAvailable).minus(amount);
+    if (available.isNegative() || !amount.isPositive()) {
+      throw new IllegalStateException();
+    }
+    Money reserved = Money.of(issuerReserved).minus(amount);
+    Money merchant = Money.of(merchantAvailable).plus(amount);
+    return available.plus(reserved).plus(merchant).toBigDecimal();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MoneyArithmeticBenchmark.class.getSimpleName())
+        .addProfiler("gc").build()).run();
+  }
+}
@@ -0,0 +1,134 @@
+package com.creditx.main.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.oracle.OracleContainer;
+
+/**
+ * Concurrent insert throughput into CMS_OUTBOX_EVENTS with a reverse-key PK index (as left by
+ * the migrations) versus a conventional one. Run with {@code -Dbenchmarks=true}.
+ */
+@Slf4j
+@Testcontainers
+@JdbcTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PkIndexContentionBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int INSERTS_PER_THREAD = 2_000;
+  private static final int COMMIT_EVERY = 20;
+
+  @SuppressWarnings("resource")
+  @Container
+  static final OracleContainer oracle = new OracleContainer(
+      "gvenzl/oracle-free:latest-faststart").withUsername("testuser").withPassword("testpassword");
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void configureProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", oracle::getJdbcUrl);
+    registry.add("spring.datasource.username", oracle::getUsername);
+    registry.add("spring.datasource.password", oracle::getPassword);
+    registry.add("spring.datasource.driver-class-name", () -> "oracle.jdbc.OracleDriver");
+    registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 2);
+  }
+
+  @Test
+  void compareReverseKeyWithConventionalPkIndex() throws Exception {
+    String pkIndex = jdbcTemplate.queryForObject("""
+            SELECT INDEX_NAME FROM USER_CONSTRAINTS
+             WHERE TABLE_NAME = 'CMS_OUTBOX_EVENTS' AND CONSTRAINT_TYPE = 'P'
+        """, String.class);
+    assertThat(indexType(pkIndex)).isEqualTo("NORMAL/REV");
+
+    // Warm up so the first measured run does not pay for cursor parsing and extent allocation
+    runInserts();
+    long reverseMillis = runInserts();
+
+    jdbcTemplate.execute("ALTER INDEX \"" + pkIndex + "\" REBUILD NOREVERSE");
+    assertThat(indexType(pkIndex)).isEqualTo("NORMAL");
+    long conventionalMillis = runInserts();
+
+    jdbcTemplate.execute("ALTER INDEX \"" + pkIndex + "\" REBUILD REVERSE");
+
+    int rows = THREADS * INSERTS_PER_THREAD;
+    log.info("PK index contention, {} threads x {} inserts: reverse-key {} ms ({} rows/s), "
+            + "conventional {} ms ({} rows/s)", THREADS, INSERTS_PER_THREAD, reverseMillis,
+        rows * 1000L / Math.max(reverseMillis, 1), conventionalMillis,
+        rows * 1000L / Math.max(conventionalMillis, 1));
+  }
+
+  private String indexType(String indexName) {
+    return jdbcTemplate.queryForObject("SELECT INDEX_TYPE FROM USER_INDEXES WHERE INDEX_NAME = ?",
+        String.class, indexName);
+  }
+
+  private long runInserts() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          insertBatch();
+          return null;
+        }));
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      return (System.nanoTime() - begin) / 1_000_000;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void insertBatch() {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      connection.setAutoCommit(false);
+      try (var statement = connection.prepareStatement("""
+          INSERT INTO CMS_OUTBOX_EVENTS (EVENT_ID, EVENT_TYPE, AGGREGATE_ID, PAYLOAD, STATUS)
+          VALUES (CMS_OUTBOX_SEQ.NEXTVAL, 'benchmark', ?, '{}', 'PUBLISHED')
+          """)) {
+        for (int i = 1; i <= INSERTS_PER_THREAD; i++) {
+          statement.setLong(1, i);
+          statement.executeUpdate();
+          if (i % COMMIT_EVERY == 0) {
+            connection.commit();
+          }
+        }
+        connection.commit();
+      } finally {
+        connection.setAutoCommit(true);
+      }
+      return null;
+    });
+  }
+}
@@ -0,0 +1,120 @@
+package com.creditx.main.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Throughput of 1000 concurrent clients against a server handling requests on a pool of 200
+ * platform threads (Tomcat's default) versus one virtual thread per request. Each request spends
+ * most of its time blocked the way a transaction create does: a call to the hold service, then a
+ * short stretch holding one of a fixed number of database connections. Run with
+ * {@code -Dbenchmarks=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class VirtualThreadThroughputBenchmarkTest {
+
+  private static final int CLIENTS = 1_000;
+  private static final int REQUESTS_PER_CLIENT = 20;
+  private static final int PLATFORM_THREADS = 200;
+  private static final int CONNECTIONS = 50;
+  private static final long HOLD_CALL_MILLIS = 40;
+  private static final long JDBC_MILLIS = 2;
+
+  @Test
+  void comparePlatformWithVirtualThreads() throws Exception {
+    // Warm up so the first measured run does not pay for class loading and JIT
+    run(Executors.newFixedThreadPool(PLATFORM_THREADS));
+    long platformMillis = run(Executors.newFixedThreadPool(PLATFORM_THREADS));
+    long virtualMillis = run(Executors.newVirtualThreadPerTaskExecutor());
+
+    int requests = CLIENTS * REQUESTS_PER_CLIENT;
+    log.info("{} clients x {} requests: {} platform threads {} ms ({} req/s), "
+            + "virtual threads {} ms ({} req/s)", CLIENTS, REQUESTS_PER_CLIENT, PLATFORM_THREADS,
+        platformMillis, requests * 1000L / Math.max(platformMillis, 1), virtualMillis,
+        requests * 1000L / Math.max(virtualMillis, 1));
+    assertThat(virtualMillis).isLessThan(platformMillis);
+  }
+
+  private long run(ExecutorService serverExecutor) throws Exception {
+    Semaphore connections = new Semaphore(CONNECTIONS);
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CLIENTS);
+    server.createContext("/api/transactions", exchange -> {
+      try {
+        Thread.sleep(HOLD_CALL_MILLIS);
+        connections.acquire();
+        try {
+          Thread.sleep(JDBC_MILLIS);
+        } finally {
+          connections.release();
+        }
+        byte[] body = "{\"status\":\"AUTHORIZED\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(202, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        exchange.sendResponseHeaders(503, -1);
+      } finally {
+        exchange.close();
+      }
+    });
+    server.setExecutor(serverExecutor);
+    server.start();
+
+    URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort()
+        + "/api/transactions");
+    AtomicInteger failures = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30))
+            .build()) {
+      for (int c = 0; c < CLIENTS; c++) {
+        futures.add(clients.submit(() -> {
+          start.await();
+          for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()
+                != 202) {
+              failures.incrementAndGet();
+            }
+          }
+          return null;
+        }));
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      assertThat(failures).hasValue(0);
+      return (System.nanoTime() - begin) / 1_000_000;
+    } finally {
+      server.stop(0);
+      serverExecutor.shutdownNow();
+    }
+  }
+}
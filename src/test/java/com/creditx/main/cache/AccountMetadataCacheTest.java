@@ -0,0 +1,116 @@
+package com.creditx.main.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.model.Account;
+import com.creditx.main.model.AccountStatus;
+import com.creditx.main.model.AccountType;
+import com.creditx.main.model.Money;
+import com.creditx.main.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AccountMetadataCacheTest {
+
+  @Mock
+  private AccountRepository accountRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private AccountMetadataCache accountMetadataCache;
+
+  @BeforeEach
+  void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    accountMetadataCache = new AccountMetadataCache(accountRepository, meterRegistry);
+    ReflectionTestUtils.setField(accountMetadataCache, "maximumSize", 100L);
+    ReflectionTestUtils.setField(accountMetadataCache, "ttlSeconds", 300L);
+    ReflectionTestUtils.setField(accountMetadataCache, "negativeTtlSeconds", 30L);
+    accountMetadataCache.init();
+  }
+
+  @Test
+  void shouldServeRepeatedLookupsFromCache() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(
+        Optional.of(account(1L, AccountType.ISSUER, AccountStatus.ACTIVE)));
+
+    // when
+    accountMetadataCache.get(1L);
+    Optional<AccountMetadata> result = accountMetadataCache.get(1L);
+
+    // then
+    assertThat(result).hasValueSatisfying(m -> assertThat(m.isActive()).isTrue());
+    verify(accountRepository, times(1)).findById(1L);
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "accountMetadata")
+        .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldRejectUnknownAccountFromNegativeCache() {
+    // given
+    when(accountRepository.findById(9L)).thenReturn(Optional.empty());
+
+    // when & then
+    assertThatThrownBy(() -> accountMetadataCache.checkParties(9L, 2L, true))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("Issuer account not found");
+    assertThatThrownBy(() -> accountMetadataCache.checkParties(9L, 2L, true))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("Issuer account not found");
+    verify(accountRepository, times(1)).findById(9L);
+  }
+
+  @Test
+  void shouldRejectInactiveAccounts() {
+    // given
+    when(accountRepository.findById(1L)).thenReturn(
+        Optional.of(account(1L, AccountType.ISSUER, AccountStatus.ACTIVE)));
+    when(accountRepository.findById(2L)).thenReturn(
+        Optional.of(account(2L, AccountType.MERCHANT, AccountStatus.BLOCKED)));
+
+    // when & then
+    assertThatThrownBy(() -> accountMetadataCache.checkParties(1L, 2L, true))
+        .isInstanceOf(IllegalArgumentException.class).hasMessage("Accounts must be ACTIVE");
+  }
+
+  @Test
+  void shouldEvictOnlyWhenMetadataChanges() {
+    // given
+    Account account = account(1L, AccountType.ISSUER, AccountStatus.ACTIVE);
+    when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+    accountMetadataCache.get(1L);
+
+    // when - a balance-only update keeps the entry
+    account.setAvailableBalance(Money.of(new BigDecimal("10.00")));
+    accountMetadataCache.onAccountChanged(AccountMetadata.of(account));
+    accountMetadataCache.get(1L);
+
+    // then
+    verify(accountRepository, times(1)).findById(1L);
+
+    // when - a status change evicts it
+    account.setStatus(AccountStatus.BLOCKED);
+    accountMetadataCache.onAccountChanged(AccountMetadata.of(account));
+    Optional<AccountMetadata> result = accountMetadataCache.get(1L);
+
+    // then
+    verify(accountRepository, times(2)).findById(1L);
+    assertThat(result).hasValueSatisfying(m -> assertThat(m.isActive()).isFalse());
+  }
+
+  private Account account(Long id, AccountType type, AccountStatus status) {
+    return Account.builder().accountId(id).type(type).status(status)
+        .creditLimit(new BigDecimal("5000.00")).build();
+  }
+}
@@ -0,0 +1,75 @@
+package com.creditx.main.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AccountLockStripesTest {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private AccountLockStripes accountLockStripes;
+
+  @BeforeEach
+  void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    accountLockStripes = new AccountLockStripes(meterRegistry);
+    ReflectionTestUtils.setField(accountLockStripes, "stripeCount", 8);
+    ReflectionTestUtils.setField(accountLockStripes, "lockTimeoutMs", 200L);
+    accountLockStripes.init();
+  }
+
+  @Test
+  void shouldRunActionAndRecordWaitPerStripe() {
+    // when
+    String result = accountLockStripes.withLocks(List.of(1L, 2L), () -> "done");
+
+    // then
+    assertThat(result).isEqualTo("done");
+    assertThat(meterRegistry.get("creditx.account.lock.wait").tag("stripe", "1").timer().count())
+        .isEqualTo(1);
+    assertThat(meterRegistry.get("creditx.account.lock.wait").tag("stripe", "2").timer().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void shouldQueueRequestsForTheSameAccount() throws Exception {
+    // given
+    CountDownLatch holding = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> holder = CompletableFuture.runAsync(
+        () -> accountLockStripes.withLocks(List.of(1L), () -> {
+          holding.countDown();
+          await(release);
+          return null;
+        }));
+    assertThat(holding.await(1, TimeUnit.SECONDS)).isTrue();
+
+    // when & then - a second request for the account times out while the first holds it
+    assertThatThrownBy(() -> accountLockStripes.withLocks(List.of(1L, 3L), () -> null))
+        .isInstanceOf(IllegalStateException.class).hasMessage("Account is busy, please retry");
+
+    // and an unrelated account is not blocked
+    assertThat(accountLockStripes.withLocks(List.of(3L), () -> "free")).isEqualTo("free");
+
+    release.countDown();
+    holder.get(1, TimeUnit.SECONDS);
+    assertThat(accountLockStripes.withLocks(List.of(1L), () -> "after")).isEqualTo("after");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.creditx.main.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+  @Test
+  void shouldRejectBeyondCurrentLimit() {
+    // given
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10);
+
+    // when
+    boolean first = limiter.tryAcquire();
+    boolean second = limiter.tryAcquire();
+    boolean third = limiter.tryAcquire();
+
+    // then
+    assertThat(first).isTrue();
+    assertThat(second).isTrue();
+    assertThat(third).isFalse();
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldGrowWhileLatencyHoldsSteadyUnderLoad() {
+    // given
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+    // when
+    runSaturated(limiter, FAST, 50);
+
+    // then
+    assertThat(limiter.getLimit()).isGreaterThan(10);
+  }
+
+  @Test
+  void shouldShrinkWhenLatencyRisesAboveBaseline() {
+    // given
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+    runSaturated(limiter, FAST, 20);
+    int before = limiter.getLimit();
+
+    // when
+    runSaturated(limiter, SLOW, 20);
+
+    // then
+    assertThat(limiter.getLimit()).isLessThan(before);
+    assertThat(limiter.getLimit()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void shouldIgnoreSamplesFarBelowLimit() {
+    // given
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+
+    // when
+    for (int i = 0; i < 50; i++) {
+      limiter.tryAcquire();
+      limiter.release(i % 2 == 0 ? FAST : SLOW);
+    }
+
+    // then
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  // Fill the limit, then complete every request with the given latency
+  private static void runSaturated(AdaptiveConcurrencyLimiter limiter, long latency, int rounds) {
+    for (int round = 0; round < rounds; round++) {
+      int acquired = 0;
+      while (limiter.tryAcquire()) {
+        acquired++;
+      }
+      for (int i = 0; i < acquired; i++) {
+        limiter.release(latency);
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.creditx.main.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionPoolSizingAdvisorTest {
+
+  @Mock
+  private HikariDataSource dataSource;
+
+  @Mock
+  private HikariPoolMXBean pool;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ConnectionPoolSizingAdvisor advisor;
+
+  @BeforeEach
+  void setup() throws Exception {
+    lenient().when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+    lenient().when(dataSource.unwrap(HikariDataSource.class)).thenReturn(dataSource);
+    lenient().when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+    lenient().when(dataSource.getMaximumPoolSize()).thenReturn(10);
+    advisor = new ConnectionPoolSizingAdvisor(dataSource, meterRegistry);
+    ReflectionTestUtils.setField(advisor, "enabled", true);
+    ReflectionTestUtils.setField(advisor, "headroom", 1.2);
+    advisor.init();
+  }
+
+  @Test
+  void shouldSuggestObservedDemandWithHeadroom() {
+    // given
+    when(pool.getActiveConnections()).thenReturn(10);
+    when(pool.getThreadsAwaitingConnection()).thenReturn(15);
+
+    // when
+    advisor.sample();
+
+    // then
+    assertThat(advisor.getSuggestedSize()).isEqualTo(30);
+    assertThat(meterRegistry.get("creditx.db.pool.suggested-size").gauge().value())
+        .isEqualTo(30.0);
+    assertThat(meterRegistry.get("creditx.db.pool.demand").gauge().value()).isEqualTo(25.0);
+  }
+
+  @Test
+  void shouldKeepRecentPeakWhenDemandDrops() {
+    // given
+    when(pool.getActiveConnections()).thenReturn(10, 2);
+    when(pool.getThreadsAwaitingConnection()).thenReturn(10, 0);
+
+    // when
+    advisor.sample();
+    advisor.sample();
+
+    // then
+    assertThat(meterRegistry.get("creditx.db.pool.demand.peak").gauge().value())
+        .isEqualTo(20 * 0.99);
+    assertThat(advisor.getSuggestedSize()).isEqualTo(24);
+  }
+
+  @Test
+  void shouldCapSuggestionByDatabaseCores() {
+    // given
+    ReflectionTestUtils.setField(advisor, "databaseCores", 4);
+
+    // when
+    int suggested = advisor.suggest(40, 50);
+
+    // then
+    assertThat(suggested).isEqualTo(9);
+  }
+}
@@ -2,16 +2,25 @@ package com.creditx.main.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.creditx.main.deadline.Deadline;
+import com.creditx.main.deadline.DeadlineExceededException;
+import com.creditx.main.dto.CommitTransactionBatchResponse;
 import com.creditx.main.dto.CommitTransactionResponse;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
 import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.idempotency.IdempotencyGuard;
 import com.creditx.main.model.TransactionStatus;
 import com.creditx.main.service.TransactionService;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -28,6 +37,15 @@ class TransactionControllerTest {
   @MockitoBean
   TransactionService transactionService;
 
+  @MockitoBean
+  IdempotencyGuard idempotencyGuard;
+
+  @BeforeEach
+  void runRequestsThroughGuard() {
+    given(idempotencyGuard.execute(any(), any(), any(), any(), any())).willAnswer(
+        invocation -> invocation.<Supplier<?>>getArgument(4).get());
+  }
+
   @Test
   void createTransaction_success() throws Exception {
     given(transactionService.createInboundTransaction(any())).willReturn(
@@ -49,6 +67,101 @@ class TransactionControllerTest {
         .andExpect(jsonPath("$.status").value("PENDING"));
   }
 
+  @Test
+  void createTransaction_passesIdempotencyKeyToGuard() throws Exception {
+    given(transactionService.createInboundTransaction(any())).willReturn(
+        CreateTransactionResponse.builder().transactionId(999L).status(TransactionStatus.PENDING)
+            .build());
+
+    String requestBody = """
+        {
+            "issuerAccountId": 1,
+            "merchantAccountId": 2,
+            "amount": 100.00
+        }
+        """;
+
+    mockMvc.perform(post("/api/transactions").header("Idempotency-Key", "order-42")
+            .contentType(MediaType.APPLICATION_JSON).content(requestBody))
+        .andExpect(status().isAccepted()).andExpect(jsonPath("$.transactionId").value(999));
+
+    then(idempotencyGuard).should().execute(eq("order-42"), eq("transaction.create"), any(),
+        eq(CreateTransactionResponse.class), any());
+  }
+
+  @Test
+  void createTransactionBatch_success() throws Exception {
+    given(transactionService.createInboundTransactions(any())).willReturn(
+        CreateTransactionBatchResponse.builder().results(List.of(
+            CreateTransactionBatchResponse.Item.builder().index(0).transactionId(999L)
+                .status(TransactionStatus.AUTHORIZED).build(),
+            CreateTransactionBatchResponse.Item.builder().index(1)
+                .error("Insufficient available balance").build())).build());
+
+    String requestBody = """
+        {
+            "transactions": [
+                {"issuerAccountId": 1, "merchantAccountId": 2, "amount": 100.00},
+                {"issuerAccountId": 1, "merchantAccountId": 2, "amount": 5000.00}
+            ]
+        }
+        """;
+
+    mockMvc.perform(post("/api/transactions/batch").header("Idempotency-Key", "batch-7")
+            .contentType(MediaType.APPLICATION_JSON).content(requestBody))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.results[0].transactionId").value(999))
+        .andExpect(jsonPath("$.results[0].status").value("AUTHORIZED"))
+        .andExpect(jsonPath("$.results[1].error").value("Insufficient available balance"));
+
+    then(idempotencyGuard).should().execute(eq("batch-7"), eq("transaction.create-batch"),
+        any(), eq(CreateTransactionBatchResponse.class), any());
+  }
+
+  @Test
+  void commitTransactionBatch_success() throws Exception {
+    given(transactionService.commitTransactions(any())).willReturn(
+        CommitTransactionBatchResponse.builder().results(List.of(
+            CommitTransactionResponse.builder().transactionId(1L)
+                .status(TransactionStatus.SUCCESS).message("Transaction committed successfully")
+                .build(),
+            CommitTransactionResponse.builder().transactionId(2L).message("Hold ID mismatch")
+                .build())).build());
+
+    String requestBody = """
+        {
+            "commits": [
+                {"transactionId": 1, "holdId": 100},
+                {"transactionId": 2, "holdId": 999}
+            ]
+        }
+        """;
+
+    mockMvc.perform(post("/api/transactions/commit/batch").header("Idempotency-Key", "commit-7")
+            .contentType(MediaType.APPLICATION_JSON).content(requestBody))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.results[0].status").value("SUCCESS"))
+        .andExpect(jsonPath("$.results[1].message").value("Hold ID mismatch"));
+
+    then(idempotencyGuard).should().execute(eq("commit-7"), eq("transaction.commit-batch"),
+        any(), eq(CommitTransactionBatchResponse.class), any());
+  }
+
+  @Test
+  void createTransactionBatch_validationError_invalidItem() throws Exception {
+    String requestBody = """
+        {
+            "transactions": [
+                {"issuerAccountId": 1, "amount": 100.00}
+            ]
+        }
+        """;
+
+    mockMvc.perform(post("/api/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+            .content(requestBody))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void createTransaction_validationError_missingIssuerAccountId() throws Exception {
     String requestBody = """
@@ -259,6 +372,23 @@ class TransactionControllerTest {
         .andExpect(content().string("Transaction is not in AUTHORIZED status"));
   }
 
+  @Test
+  void commitTransaction_deadlineExceeded() throws Exception {
+    given(transactionService.commitTransaction(eq(999L), any())).willThrow(
+        new DeadlineExceededException("Request deadline of 50 ms exceeded before committing"));
+
+    String requestBody = """
+        {
+            "holdId": 12345
+        }
+        """;
+
+    mockMvc.perform(post("/api/transactions/999/commit").contentType(MediaType.APPLICATION_JSON)
+            .header(Deadline.HEADER, "50").content(requestBody))
+        .andExpect(status().isGatewayTimeout())
+        .andExpect(content().string("Request deadline exceeded"));
+  }
+
   @Test
   void commitTransaction_invalidPathVariable() throws Exception {
     String requestBody = """
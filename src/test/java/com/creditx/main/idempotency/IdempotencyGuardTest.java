@@ -0,0 +1,232 @@
+package com.creditx.main.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.dto.CreateTransactionBatchResponse;
+import com.creditx.main.dto.CreateTransactionRequest;
+import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.model.IdempotencyRecord;
+import com.creditx.main.model.IdempotencyStatus;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.repository.IdempotencyRecordRepository;
+import com.creditx.main.util.EventIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyGuardTest {
+
+  private static final String KEY = "transaction.create:order-42";
+
+  @Mock
+  private IdempotencyRecordRepository repository;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private IdempotencyGuard guard;
+
+  @BeforeEach
+  void setup() {
+    guard = new IdempotencyGuard(repository, objectMapper, new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(guard, "cacheSize", 100L);
+    ReflectionTestUtils.setField(guard, "retentionHours", 24L);
+    ReflectionTestUtils.setField(guard, "inProgressTimeoutMs", 5000L);
+    guard.init();
+  }
+
+  @Test
+  void shouldRunActionWithoutKey() {
+    // given
+    AtomicInteger runs = new AtomicInteger();
+
+    // when
+    guard.execute(null, "transaction.create", request("100.00"), CreateTransactionResponse.class,
+        () -> response(runs.incrementAndGet()));
+
+    // then
+    assertThat(runs).hasValue(1);
+    verify(repository, never()).claim(anyString(), anyString());
+  }
+
+  @Test
+  void shouldReplayCompletedResponseForRetry() {
+    // given
+    AtomicInteger runs = new AtomicInteger();
+
+    // when
+    CreateTransactionResponse first = execute("100.00", () -> response(runs.incrementAndGet()));
+    CreateTransactionResponse retry = execute("100.00", () -> response(runs.incrementAndGet()));
+
+    // then
+    assertThat(runs).hasValue(1);
+    assertThat(retry).isEqualTo(first);
+    verify(repository, times(1)).claim(eq(KEY), anyString());
+    verify(repository, times(1)).complete(eq(KEY), anyString());
+  }
+
+  @Test
+  void shouldReplayResponseStoredByAnotherInstance() throws Exception {
+    // given
+    String body = objectMapper.writeValueAsString(response(7L));
+    when(repository.claim(eq(KEY), anyString())).thenThrow(
+        new DataIntegrityViolationException("duplicate key"));
+    when(repository.findById(KEY)).thenAnswer(invocation -> Optional.of(
+        IdempotencyRecord.builder().idempotencyKey(KEY).requestHash(hashOf("100.00"))
+            .status(IdempotencyStatus.COMPLETED).responseBody(body).build()));
+
+    // when
+    CreateTransactionResponse response = execute("100.00", () -> {
+      throw new AssertionError("must not run");
+    });
+
+    // then
+    assertThat(response.getTransactionId()).isEqualTo(7L);
+  }
+
+  @Test
+  void shouldRejectKeyReusedForDifferentRequest() {
+    // given
+    execute("100.00", () -> response(1L));
+
+    // when & then
+    assertThatThrownBy(() -> execute("250.00", () -> response(2L)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Idempotency-Key was already used for a different request");
+  }
+
+  @Test
+  void shouldReleaseKeyWhenActionFails() {
+    // when & then
+    assertThatThrownBy(() -> execute("100.00", () -> {
+      throw new IllegalArgumentException("Insufficient available balance");
+    })).isInstanceOf(IllegalArgumentException.class);
+    verify(repository).release(KEY);
+    verify(repository, never()).complete(anyString(), anyString());
+  }
+
+  @Test
+  void shouldRetryCompletionAndReleaseKeyWhenItKeepsFailing() {
+    // given
+    AtomicInteger runs = new AtomicInteger();
+    when(repository.complete(eq(KEY), anyString()))
+        .thenThrow(new QueryTimeoutException("complete timed out"));
+
+    // when
+    CreateTransactionResponse response = execute("100.00", () -> response(runs.incrementAndGet()));
+    CreateTransactionResponse retry = execute("100.00", () -> response(runs.incrementAndGet()));
+
+    // then
+    assertThat(response.getTransactionId()).isEqualTo(1L);
+    assertThat(retry).isEqualTo(response);
+    assertThat(runs).hasValue(1);
+    verify(repository, times(2)).complete(eq(KEY), anyString());
+    verify(repository).release(KEY);
+  }
+
+  @Test
+  void shouldReplayStoredBatchResponse() throws Exception {
+    // given
+    CreateTransactionBatchResponse batch = CreateTransactionBatchResponse.builder()
+        .results(List.of(CreateTransactionBatchResponse.Item.builder().index(0)
+            .transactionId(1L).status(TransactionStatus.AUTHORIZED).build())).build();
+    String body = objectMapper.writeValueAsString(batch);
+    when(repository.claim(eq("transaction.create-batch:order-42"), anyString())).thenThrow(
+        new DataIntegrityViolationException("duplicate key"));
+    when(repository.findById("transaction.create-batch:order-42")).thenAnswer(
+        invocation -> Optional.of(IdempotencyRecord.builder()
+            .idempotencyKey("transaction.create-batch:order-42").requestHash(hashOf("100.00"))
+            .status(IdempotencyStatus.COMPLETED).responseBody(body).build()));
+
+    // when
+    CreateTransactionBatchResponse replayed = guard.execute("order-42",
+        "transaction.create-batch", request("100.00"), CreateTransactionBatchResponse.class,
+        () -> {
+          throw new AssertionError("must not run");
+        });
+
+    // then
+    assertThat(replayed).isEqualTo(batch);
+  }
+
+  @Test
+  void shouldLetConcurrentDuplicateWaitForInFlightRequest() throws Exception {
+    // given
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger runs = new AtomicInteger();
+    CompletableFuture<CreateTransactionResponse> first = CompletableFuture.supplyAsync(
+        () -> execute("100.00", () -> {
+          runs.incrementAndGet();
+          started.countDown();
+          await(release);
+          return response(1L);
+        }));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    CompletableFuture<CreateTransactionResponse> duplicate = CompletableFuture.supplyAsync(
+        () -> execute("100.00", () -> response(runs.incrementAndGet())));
+    Thread.sleep(50);
+    release.countDown();
+
+    // then
+    assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+    assertThat(runs).hasValue(1);
+    verify(repository, times(1)).claim(eq(KEY), anyString());
+  }
+
+  private CreateTransactionResponse execute(String amount,
+      Supplier<CreateTransactionResponse> action) {
+    return guard.execute("order-42", "transaction.create", request(amount),
+        CreateTransactionResponse.class, action);
+  }
+
+  private String hashOf(String amount) throws Exception {
+    return EventIdGenerator.generatePayloadHash(
+        objectMapper.writeValueAsBytes(request(amount)));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static CreateTransactionRequest request(String amount) {
+    CreateTransactionRequest request = new CreateTransactionRequest();
+    request.setIssuerAccountId(1L);
+    request.setMerchantAccountId(2L);
+    request.setAmount(new BigDecimal(amount));
+    return request;
+  }
+
+  private static CreateTransactionResponse response(long transactionId) {
+    return CreateTransactionResponse.builder().transactionId(transactionId)
+        .status(TransactionStatus.AUTHORIZED).build();
+  }
+}
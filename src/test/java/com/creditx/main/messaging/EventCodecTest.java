@@ -0,0 +1,95 @@
+package com.creditx.main.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditx.main.constants.EventContentTypes;
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.dto.TransactionPostedPayload;
+import com.creditx.main.model.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class EventCodecTest {
+
+  private final EventCodec eventCodec = new EventCodec(false);
+
+  @Test
+  void shouldWriteInstantsAsNumericTimestamps() throws Exception {
+    // given
+    var payload = new TransactionPostedPayload(1L, TransactionType.INBOUND, 10L, 20L,
+        new BigDecimal("12.50"), "USD", Instant.ofEpochSecond(1_700_000_000L));
+
+    // when
+    String json = eventCodec.write(payload);
+
+    // then
+    assertThat(json).startsWith("{\"transactionId\":1,\"type\":\"INBOUND\",\"issuerAccountId\":10,"
+        + "\"merchantAccountId\":20,\"amount\":12.50,\"currency\":\"USD\","
+        + "\"createdAt\":1700000000");
+    assertThat(eventCodec.writeBytes(payload)).isEqualTo(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void shouldProduceIdenticalOutputWithBlackbird() throws Exception {
+    // given
+    EventCodec blackbirdCodec = new EventCodec(true);
+    HoldCreatedEvent event = HoldCreatedEvent.builder().holdId(5L).transactionId(1L)
+        .issuerAccountId(10L).merchantAccountId(20L).amount(new BigDecimal("99.99"))
+        .currency("USD").status("AUTHORIZED").expiresAt(Instant.ofEpochSecond(1_700_000_000L))
+        .build();
+
+    // when
+    String json = blackbirdCodec.write(event);
+
+    // then
+    assertThat(json).isEqualTo(eventCodec.write(event));
+    assertThat(blackbirdCodec.read(json, HoldCreatedEvent.class)).isEqualTo(event);
+  }
+
+  @Test
+  void shouldRejectUnknownProperties() {
+    // when & then
+    assertThatThrownBy(() -> eventCodec.read("{\"transactionId\":1,\"unexpected\":true}",
+        HoldCreatedEvent.class)).isInstanceOf(JsonProcessingException.class);
+  }
+
+  @Test
+  void shouldEncodeOutboxPayloadsInBinaryWhenEnabled() throws Exception {
+    // given
+    ReflectionTestUtils.setField(eventCodec, "binaryOutbound", true);
+    var payload = new TransactionPostedPayload(1L, TransactionType.CASHBACK, 10L, 20L,
+        new BigDecimal("12.50"), "USD", Instant.ofEpochSecond(1_700_000_000L));
+
+    // when
+    EncodedEvent encoded = eventCodec.encode(payload);
+
+    // then
+    assertThat(encoded.isBinary()).isTrue();
+    assertThat(encoded.contentType().toString())
+        .isEqualTo("application/vnd.creditx.event+binary;v=1");
+    assertThat(eventCodec.decode(encoded.binary(), encoded.contentType().toString(),
+        TransactionPostedPayload.class)).isEqualTo(payload);
+  }
+
+  @Test
+  void shouldEncodeJsonByDefaultAndDecodeByContentType() throws Exception {
+    // given
+    var payload = new TransactionPostedPayload(1L, TransactionType.INBOUND, 10L, 20L,
+        new BigDecimal("12.50"), "USD", null);
+
+    // when
+    EncodedEvent encoded = eventCodec.encode(payload);
+
+    // then
+    assertThat(encoded.isBinary()).isFalse();
+    assertThat(eventCodec.decode(encoded.json().getBytes(StandardCharsets.UTF_8), null,
+        TransactionPostedPayload.class)).isEqualTo(payload);
+    assertThat(EventCodec.isBinary(EventContentTypes.JSON)).isFalse();
+    assertThat(EventCodec.isBinary("application/vnd.creditx.event+binary;v=2")).isTrue();
+  }
+}
@@ -0,0 +1,118 @@
+package com.creditx.main.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.dto.HoldVoidedEvent;
+import com.creditx.main.dto.TransactionPostedPayload;
+import com.creditx.main.model.TransactionType;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+
+class EventSchemasTest {
+
+  @Test
+  void shouldRoundTripHoldCreatedEvent() {
+    // given
+    HoldCreatedEvent event = HoldCreatedEvent.builder().holdId(456L).transactionId(123L)
+        .issuerAccountId(1L).merchantAccountId(-2L).amount(new BigDecimal("1234567.89"))
+        .currency("USD").status("AUTHORIZED").expiresAt(Instant.ofEpochSecond(1_700_000_000L, 5))
+        .build();
+
+    // when
+    HoldCreatedEvent decoded = EventSchemas.HOLD_CREATED.decode(
+        EventSchemas.HOLD_CREATED.encode(event));
+
+    // then
+    assertThat(decoded).isEqualTo(event);
+  }
+
+  @Test
+  void shouldKeepNullFieldsAbsent() {
+    // given
+    HoldVoidedEvent event = HoldVoidedEvent.builder().transactionId(123L)
+        .reason("Käufer storniert").build();
+
+    // when
+    HoldVoidedEvent decoded = EventSchemas.HOLD_VOIDED.decode(
+        EventSchemas.HOLD_VOIDED.encode(event));
+
+    // then
+    assertThat(decoded).isEqualTo(event);
+    assertThat(decoded.getHoldId()).isNull();
+  }
+
+  @Test
+  void shouldBeFarSmallerThanJson() throws Exception {
+    // given
+    var payload = new TransactionPostedPayload(1_000_123L, TransactionType.INBOUND, 1L, 2L,
+        new BigDecimal("125.37"), "USD", Instant.now());
+
+    // when
+    byte[] binary = EventSchemas.TRANSACTION_POSTED.encode(payload);
+    byte[] json = new EventCodec(false).write(payload).getBytes(StandardCharsets.UTF_8);
+
+    // then
+    assertThat(EventSchemas.TRANSACTION_POSTED.decode(binary)).isEqualTo(payload);
+    assertThat(binary.length * 3).isLessThan(json.length);
+  }
+
+  @Test
+  void shouldIgnoreFieldsAppendedByNewerWriter() {
+    // given a v2 writer that appended a field
+    EventSchema<WideHold> v2 = EventSchema.builder(WideHold.class, 2)
+        .int64("holdId", WideHold::getHoldId)
+        .int64("transactionId", WideHold::getTransactionId)
+        .string("channel", WideHold::getChannel)
+        .build(v -> new WideHold(v.int64("holdId"), v.int64("transactionId"),
+            v.string("channel")));
+    EventSchema<WideHold> v1 = EventSchema.builder(WideHold.class, 1)
+        .int64("holdId", WideHold::getHoldId)
+        .int64("transactionId", WideHold::getTransactionId)
+        .build(v -> new WideHold(v.int64("holdId"), v.int64("transactionId"), null));
+
+    // when
+    WideHold readByOldReader = v1.decode(v2.encode(new WideHold(1L, 2L, "web")));
+    WideHold readByNewReader = v2.decode(v1.encode(new WideHold(1L, 2L, "ignored")));
+
+    // then
+    assertThat(readByOldReader).isEqualTo(new WideHold(1L, 2L, null));
+    assertThat(readByNewReader).isEqualTo(new WideHold(1L, 2L, null));
+  }
+
+  @Test
+  void shouldRejectTruncatedPayload() {
+    // given
+    byte[] encoded = EventSchemas.HOLD_CREATED.encode(
+        HoldCreatedEvent.builder().holdId(1L).currency("USD").build());
+
+    // when & then
+    assertThatThrownBy(() -> EventSchemas.HOLD_CREATED.decode(
+        Arrays.copyOf(encoded, encoded.length - 2))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void shouldRegisterEveryPayloadTypeOnce() {
+    // when & then
+    assertThat(EventSchemas.all()).extracting(EventSchema::type).doesNotHaveDuplicates();
+    assertThat(EventSchemas.forType(HoldCreatedEvent.class)).isSameAs(EventSchemas.HOLD_CREATED);
+    assertThat(EventSchemas.forType(String.class)).isNull();
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class WideHold {
+
+    private Long holdId;
+    private Long transactionId;
+    private String channel;
+  }
+}
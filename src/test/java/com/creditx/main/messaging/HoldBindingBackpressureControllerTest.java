@@ -0,0 +1,114 @@
+package com.creditx.main.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.service.OutboxEventService;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.binding.BindingsLifecycleController;
+import org.springframework.cloud.stream.binding.BindingsLifecycleController.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class HoldBindingBackpressureControllerTest {
+
+  @Mock
+  private DataSource dataSource;
+
+  @Mock
+  private OutboxEventService outboxEventService;
+
+  @Mock
+  private BindingsLifecycleController bindingsLifecycleController;
+
+  @InjectMocks
+  private HoldBindingBackpressureController controller;
+
+  @BeforeEach
+  void setup() throws SQLException {
+    ReflectionTestUtils.setField(controller, "enabled", true);
+    ReflectionTestUtils.setField(controller, "bindings", List.of("holdCreated-in-0"));
+    ReflectionTestUtils.setField(controller, "pendingConnectionsPause", 5);
+    ReflectionTestUtils.setField(controller, "pendingConnectionsResume", 0);
+    ReflectionTestUtils.setField(controller, "latencyPauseMs", 2000L);
+    ReflectionTestUtils.setField(controller, "latencyResumeMs", 500L);
+    ReflectionTestUtils.setField(controller, "outboxBacklogPause", 5000L);
+    ReflectionTestUtils.setField(controller, "outboxBacklogResume", 1000L);
+    ReflectionTestUtils.setField(controller, "minPauseMs", 0L);
+    lenient().when(dataSource.isWrapperFor(any())).thenReturn(false);
+  }
+
+  @Test
+  void shouldPauseBindingsWhenOutboxBacklogSaturates() {
+    // given
+    when(outboxEventService.countPendingEvents()).thenReturn(6000L);
+
+    // when
+    controller.evaluate();
+
+    // then
+    verify(bindingsLifecycleController).changeState("holdCreated-in-0", State.PAUSED);
+    assertThat(controller.isPaused()).isTrue();
+  }
+
+  @Test
+  void shouldPauseBindingsWhenProcessingLatencyIsHigh() {
+    // given
+    when(outboxEventService.countPendingEvents()).thenReturn(0L);
+    controller.recordProcessingLatency(TimeUnit.SECONDS.toNanos(3));
+
+    // when
+    controller.evaluate();
+
+    // then
+    verify(bindingsLifecycleController).changeState("holdCreated-in-0", State.PAUSED);
+  }
+
+  @Test
+  void shouldResumeOnlyOnceBacklogDropsBelowResumeThreshold() {
+    // given
+    when(outboxEventService.countPendingEvents()).thenReturn(6000L, 3000L, 500L);
+
+    // when
+    controller.evaluate();
+    controller.evaluate();
+
+    // then - between the thresholds the bindings stay paused
+    assertThat(controller.isPaused()).isTrue();
+    verify(bindingsLifecycleController, never()).changeState(anyString(), eq(State.RESUMED));
+
+    // when
+    controller.evaluate();
+
+    // then
+    verify(bindingsLifecycleController).changeState("holdCreated-in-0", State.RESUMED);
+    assertThat(controller.isPaused()).isFalse();
+  }
+
+  @Test
+  void shouldDoNothingWhenDisabled() {
+    // given
+    ReflectionTestUtils.setField(controller, "enabled", false);
+
+    // when
+    controller.evaluate();
+
+    // then
+    verify(outboxEventService, never()).countPendingEvents();
+  }
+}
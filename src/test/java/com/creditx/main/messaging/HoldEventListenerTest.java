@@ -4,6 +4,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.creditx.main.constants.EventContentTypes;
 import com.creditx.main.constants.EventTypes;
 import com.creditx.main.dto.HoldCreatedEvent;
 import com.creditx.main.dto.HoldExpiredEvent;
@@ -11,7 +12,9 @@ import com.creditx.main.dto.HoldVoidedEvent;
 import com.creditx.main.service.HoldEventService;
 import com.creditx.main.tracing.TransactionSpanTagger;
 import com.creditx.main.util.EventValidationUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,9 +25,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 
 @ExtendWith(MockitoExtension.class)
 class HoldEventListenerTest {
@@ -32,18 +39,27 @@ class HoldEventListenerTest {
   @Mock
   private HoldEventService holdEventService;
 
-  @Mock
-  private ObjectMapper objectMapper;
+  @Spy
+  private EventCodec eventCodec = new EventCodec(false);
 
   @Mock
   private TransactionSpanTagger transactionSpanTagger;
 
+  @Mock
+  private KeyOrderedHoldEventDispatcher dispatcher;
+
+  @Mock
+  private HoldEventRetryRouter retryRouter;
+
+  @Mock
+  private HoldBindingBackpressureController backpressureController;
+
   @InjectMocks
   private HoldEventListener holdEventListener;
 
-  private Consumer<Message<String>> holdCreatedConsumer;
-  private Consumer<Message<String>> holdExpiredConsumer;
-  private Consumer<Message<String>> holdVoidedConsumer;
+  private Consumer<Message<byte[]>> holdCreatedConsumer;
+  private Consumer<Message<byte[]>> holdExpiredConsumer;
+  private Consumer<Message<byte[]>> holdVoidedConsumer;
 
   @BeforeEach
   void setup() {
@@ -55,9 +71,9 @@ class HoldEventListenerTest {
   @Test
   void shouldProcessValidHoldCreatedEvent() throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload)
+    Message<byte[]> message = MessageBuilder.withPayload(payload)
         .setHeader("eventType", EventTypes.HOLD_CREATED).build();
 
     HoldCreatedEvent event = new HoldCreatedEvent();
@@ -70,8 +86,30 @@ class HoldEventListenerTest {
               () -> EventValidationUtils.validateEventType(message, EventTypes.HOLD_CREATED))
           .thenReturn(true);
 
-      Mockito.lenient().when(objectMapper.readValue(payload, HoldCreatedEvent.class))
-          .thenReturn(event);
+      // when
+      holdCreatedConsumer.accept(message);
+
+      // then
+      verify(holdEventService, times(1)).processHoldCreated(event);
+    }
+  }
+
+  @Test
+  void shouldProcessBinaryHoldCreatedEvent() {
+    // given
+    HoldCreatedEvent event = HoldCreatedEvent.builder().holdId(456L).transactionId(123L)
+        .issuerAccountId(1L).merchantAccountId(2L).amount(new BigDecimal("100.00"))
+        .currency("USD").status("AUTHORIZED").build();
+
+    Message<byte[]> message = MessageBuilder.withPayload(EventSchemas.HOLD_CREATED.encode(event))
+        .setHeader("eventType", EventTypes.HOLD_CREATED)
+        .setHeader(MessageHeaders.CONTENT_TYPE, EventContentTypes.BINARY.toString()).build();
+
+    try (MockedStatic<EventValidationUtils> mockedUtils = Mockito.mockStatic(
+        EventValidationUtils.class)) {
+      mockedUtils.when(
+              () -> EventValidationUtils.validateEventType(message, EventTypes.HOLD_CREATED))
+          .thenReturn(true);
 
       // when
       holdCreatedConsumer.accept(message);
@@ -81,15 +119,77 @@ class HoldEventListenerTest {
     }
   }
 
+  @Test
+  void shouldRouteFailedHoldCreatedEventToRetryTier() {
+    // given
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
+
+    Message<byte[]> message = MessageBuilder.withPayload(payload)
+        .setHeader("eventType", EventTypes.HOLD_CREATED).build();
+    RuntimeException failure = new IllegalStateException("Insufficient available balance");
+
+    try (MockedStatic<EventValidationUtils> mockedUtils = Mockito.mockStatic(
+        EventValidationUtils.class)) {
+      mockedUtils.when(
+              () -> EventValidationUtils.validateEventType(message, EventTypes.HOLD_CREATED))
+          .thenReturn(true);
+      Mockito.doThrow(failure).when(holdEventService).processHoldCreated(Mockito.any());
+
+      // when
+      holdCreatedConsumer.accept(message);
+
+      // then
+      verify(retryRouter, times(1)).routeFailure(Mockito.eq(message), Mockito.any(),
+          Mockito.eq(false));
+    }
+  }
+
+  @Test
+  void shouldRedeliverRetryRecordThatIsNotDueYet() {
+    // given
+    Acknowledgment ack = Mockito.mock(Acknowledgment.class);
+    Message<byte[]> message = MessageBuilder.withPayload("{}".getBytes(StandardCharsets.UTF_8))
+        .setHeader("eventType", EventTypes.HOLD_CREATED)
+        .setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack).build();
+    Mockito.when(retryRouter.remainingDelay(message)).thenReturn(5000L);
+
+    // when
+    holdEventListener.holdRetry1().accept(message);
+
+    // then
+    verify(ack, times(1)).nack(Duration.ofMillis(5000L));
+    verify(ack, never()).acknowledge();
+    verify(holdEventService, never()).processHoldCreated(Mockito.any());
+  }
+
+  @Test
+  void shouldAcknowledgeRetryRecordOnceProcessed() {
+    // given
+    Acknowledgment ack = Mockito.mock(Acknowledgment.class);
+    Message<byte[]> message = MessageBuilder.withPayload(
+            "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8))
+        .setHeader("eventType", EventTypes.HOLD_CREATED)
+        .setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack).build();
+    Mockito.when(retryRouter.remainingDelay(message)).thenReturn(0L);
+
+    // when
+    holdEventListener.holdRetry1().accept(message);
+
+    // then
+    verify(holdEventService, times(1)).processHoldCreated(Mockito.any());
+    verify(ack, times(1)).acknowledge();
+    verify(ack, never()).nack(Mockito.any(Duration.class));
+  }
+
   @ParameterizedTest
   @ValueSource(strings = {EventTypes.TRANSACTION_AUTHORIZED, EventTypes.HOLD_EXPIRED,
       EventTypes.HOLD_VOIDED, EventTypes.TRANSACTION_FAILED, EventTypes.TRANSACTION_INITIATED,
       EventTypes.TRANSACTION_POSTED})
   void shouldNotProcessInvalidHoldCreatedEvent(String eventType) throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
+    Message<byte[]> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
         .build();
 
     HoldCreatedEvent event = new HoldCreatedEvent();
@@ -113,9 +213,9 @@ class HoldEventListenerTest {
   @Test
   void shouldProcessValidHoldExpiredEvent() throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload)
+    Message<byte[]> message = MessageBuilder.withPayload(payload)
         .setHeader("eventType", EventTypes.HOLD_EXPIRED).build();
 
     HoldExpiredEvent event = new HoldExpiredEvent();
@@ -128,9 +228,6 @@ class HoldEventListenerTest {
               () -> EventValidationUtils.validateEventType(message, EventTypes.HOLD_EXPIRED))
           .thenReturn(true);
 
-      Mockito.lenient().when(objectMapper.readValue(payload, HoldExpiredEvent.class))
-          .thenReturn(event);
-
       // when
       holdExpiredConsumer.accept(message);
 
@@ -145,9 +242,9 @@ class HoldEventListenerTest {
       EventTypes.TRANSACTION_POSTED})
   void shouldNotProcessInvalidHoldExpiredEvent(String eventType) throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
+    Message<byte[]> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
         .build();
 
     HoldExpiredEvent event = new HoldExpiredEvent();
@@ -171,9 +268,9 @@ class HoldEventListenerTest {
   @Test
   void shouldProcessValidHoldVoidedEvent() throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload)
+    Message<byte[]> message = MessageBuilder.withPayload(payload)
         .setHeader("eventType", EventTypes.HOLD_VOIDED).build();
 
     HoldVoidedEvent event = new HoldVoidedEvent();
@@ -186,9 +283,6 @@ class HoldEventListenerTest {
               () -> EventValidationUtils.validateEventType(message, EventTypes.HOLD_VOIDED))
           .thenReturn(true);
 
-      Mockito.lenient().when(objectMapper.readValue(payload, HoldVoidedEvent.class))
-          .thenReturn(event);
-
       // when
       holdVoidedConsumer.accept(message);
 
@@ -203,9 +297,9 @@ class HoldEventListenerTest {
       EventTypes.TRANSACTION_POSTED})
   void shouldNotProcessInvalidHoldVoidedEvent(String eventType) throws Exception {
     // given
-    String payload = "{\"transactionId\":123,\"holdId\":456}";
+    byte[] payload = "{\"transactionId\":123,\"holdId\":456}".getBytes(StandardCharsets.UTF_8);
 
-    Message<String> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
+    Message<byte[]> message = MessageBuilder.withPayload(payload).setHeader("eventType", eventType)
         .build();
 
     HoldVoidedEvent event = new HoldVoidedEvent();
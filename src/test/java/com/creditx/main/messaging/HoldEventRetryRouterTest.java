@@ -0,0 +1,121 @@
+package com.creditx.main.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.constants.EventTypes;
+import com.creditx.main.constants.RetryHeaders;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class HoldEventRetryRouterTest {
+
+  @Mock
+  private StreamBridge streamBridge;
+
+  @InjectMocks
+  private HoldEventRetryRouter retryRouter;
+
+  @BeforeEach
+  void setup() {
+    ReflectionTestUtils.setField(retryRouter, "holdsDestination", "holds");
+    ReflectionTestUtils.setField(retryRouter, "retryDelays", new long[]{1000L, 10000L, 60000L});
+  }
+
+  @Test
+  void shouldRouteFirstFailureToFirstRetryTier() {
+    // given
+    Message<String> message = MessageBuilder.withPayload("{\"transactionId\":123}")
+        .setHeader(EventTypes.EVENT_TYPE_HEADER, EventTypes.HOLD_CREATED)
+        .setHeader(KafkaHeaders.RECEIVED_TOPIC, "holds")
+        .setHeader(KafkaHeaders.RECEIVED_PARTITION, 2).setHeader(KafkaHeaders.OFFSET, 42L)
+        .build();
+    when(streamBridge.send(anyString(), any(Message.class))).thenReturn(true);
+
+    // when
+    retryRouter.routeFailure(message, new IllegalStateException("boom"), false);
+
+    // then
+    ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(streamBridge).send(eq("holds.retry-1"), captor.capture());
+    var headers = captor.getValue().getHeaders();
+    assertThat(headers.get(RetryHeaders.RETRY_ATTEMPT)).isEqualTo("1");
+    assertThat(headers.get(RetryHeaders.RETRY_DUE_AT)).isNotNull();
+    assertThat(headers.get(RetryHeaders.ORIGINAL_TOPIC)).isEqualTo("holds");
+    assertThat(headers.get(RetryHeaders.ORIGINAL_OFFSET)).isEqualTo("42");
+    assertThat(headers.get(RetryHeaders.EXCEPTION_FQCN))
+        .isEqualTo(IllegalStateException.class.getName());
+    assertThat(headers.get(EventTypes.EVENT_TYPE_HEADER)).isEqualTo(EventTypes.HOLD_CREATED);
+  }
+
+  @Test
+  void shouldRouteToDeadLetterTopicWhenTiersExhausted() {
+    // given
+    Message<String> message = MessageBuilder.withPayload("{\"transactionId\":123}")
+        .setHeader(RetryHeaders.RETRY_ATTEMPT, "3").build();
+    when(streamBridge.send(anyString(), any(Message.class))).thenReturn(true);
+
+    // when
+    retryRouter.routeFailure(message, new IllegalStateException("boom"), false);
+
+    // then
+    verify(streamBridge).send(eq("holds.dlt"), any(Message.class));
+  }
+
+  @Test
+  void shouldRouteTerminalFailureStraightToDeadLetterTopic() {
+    // given
+    Message<String> message = MessageBuilder.withPayload("not-json").build();
+    when(streamBridge.send(anyString(), any(Message.class))).thenReturn(true);
+
+    // when
+    retryRouter.routeFailure(message, new IllegalArgumentException("unparseable"), true);
+
+    // then
+    verify(streamBridge).send(eq("holds.dlt"), any(Message.class));
+  }
+
+  @Test
+  void shouldFailWhenForwardingIsRejected() {
+    // given
+    Message<String> message = MessageBuilder.withPayload("{\"transactionId\":123}").build();
+    when(streamBridge.send(anyString(), any(Message.class))).thenReturn(false);
+
+    // when & then
+    assertThatThrownBy(
+        () -> retryRouter.routeFailure(message, new RuntimeException("boom"), false)).isInstanceOf(
+        IllegalStateException.class);
+  }
+
+  @Test
+  void shouldReportRemainingDelayUntilRecordIsDue() {
+    // given
+    long dueAt = Instant.now().toEpochMilli() + 30_000;
+    Message<String> pending = MessageBuilder.withPayload("{}")
+        .setHeader(RetryHeaders.RETRY_DUE_AT, String.valueOf(dueAt)).build();
+    Message<String> due = MessageBuilder.withPayload("{}")
+        .setHeader(RetryHeaders.RETRY_DUE_AT, String.valueOf(dueAt - 60_000)).build();
+
+    // when & then
+    assertThat(retryRouter.remainingDelay(pending)).isBetween(1L, 30_000L);
+    assertThat(retryRouter.remainingDelay(due)).isZero();
+    assertThat(retryRouter.remainingDelay(MessageBuilder.withPayload("{}").build())).isZero();
+  }
+}
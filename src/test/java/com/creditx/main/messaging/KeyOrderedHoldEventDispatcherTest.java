@@ -0,0 +1,248 @@
+package com.creditx.main.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class KeyOrderedHoldEventDispatcherTest {
+
+  private KeyOrderedHoldEventDispatcher dispatcher;
+
+  @BeforeEach
+  void setup() {
+    dispatcher = new KeyOrderedHoldEventDispatcher();
+    ReflectionTestUtils.setField(dispatcher, "enabled", true);
+    ReflectionTestUtils.setField(dispatcher, "workers", 4);
+    ReflectionTestUtils.setField(dispatcher, "queueCapacity", 16);
+    dispatcher.start();
+  }
+
+  @AfterEach
+  void teardown() throws InterruptedException {
+    dispatcher.stop();
+  }
+
+  @Test
+  void shouldPreserveOrderPerKey() throws Exception {
+    // given
+    List<Integer> seen = new CopyOnWriteArrayList<>();
+    CountDownLatch done = new CountDownLatch(50);
+
+    // when
+    for (int i = 0; i < 50; i++) {
+      int sequence = i;
+      dispatcher.dispatch(123L, MessageBuilder.withPayload("{}").build(), () -> {
+        seen.add(sequence);
+        done.countDown();
+      });
+    }
+
+    // then
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(seen).isSorted().hasSize(50);
+  }
+
+  @Test
+  void shouldAcknowledgeOnlyContiguousCompletedOffsets() {
+    // given
+    var offsets = new KeyOrderedHoldEventDispatcher.PartitionOffsets();
+    Acknowledgment ack10 = mock(Acknowledgment.class);
+    Acknowledgment ack11 = mock(Acknowledgment.class);
+    Acknowledgment ack12 = mock(Acknowledgment.class);
+    var record10 = offsets.register(10, ack10);
+    var record11 = offsets.register(11, ack11);
+    var record12 = offsets.register(12, ack12);
+
+    // when - later offsets finish first
+    offsets.complete(record12);
+    offsets.complete(record11);
+
+    // then - nothing committed while offset 10 is in flight
+    verify(ack11, never()).acknowledge();
+    verify(ack12, never()).acknowledge();
+
+    // when
+    offsets.complete(record10);
+
+    // then - the whole contiguous range is committed through its highest record
+    verify(ack12, times(1)).acknowledge();
+    verify(ack10, never()).acknowledge();
+    assertThat(offsets.size()).isZero();
+  }
+
+  @Test
+  void shouldAcknowledgeSkippedRecords() {
+    // given
+    Acknowledgment ack = mock(Acknowledgment.class);
+    Message<String> message = MessageBuilder.withPayload("{}")
+        .setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack).setHeader(KafkaHeaders.RECEIVED_TOPIC, "holds")
+        .setHeader(KafkaHeaders.RECEIVED_PARTITION, 0).setHeader(KafkaHeaders.OFFSET, 5L).build();
+
+    // when
+    dispatcher.skip(message);
+
+    // then
+    verify(ack, times(1)).acknowledge();
+  }
+
+  @Test
+  void shouldNotCommitPastFailedRecord() {
+    // given
+    var offsets = new KeyOrderedHoldEventDispatcher.PartitionOffsets();
+    Acknowledgment ack10 = mock(Acknowledgment.class);
+    Acknowledgment ack11 = mock(Acknowledgment.class);
+    var record10 = offsets.register(10, ack10);
+    var record11 = offsets.register(11, ack11);
+
+    // when
+    offsets.fail(record10);
+    offsets.complete(record11);
+
+    // then
+    verify(ack10, never()).acknowledge();
+    verify(ack11, never()).acknowledge();
+
+    // when - the partition is rewound to the failed record
+    Long rewindTo = offsets.rewind();
+
+    // then - the stale tail is dropped until the failed record is redelivered
+    assertThat(rewindTo).isEqualTo(10L);
+    assertThat(offsets.size()).isZero();
+    assertThat(offsets.accept(11)).isFalse();
+    assertThat(offsets.accept(10)).isTrue();
+    assertThat(offsets.accept(11)).isTrue();
+  }
+
+  @Test
+  void shouldIgnoreCompletionOfRecordDroppedByRewind() {
+    // given
+    var offsets = new KeyOrderedHoldEventDispatcher.PartitionOffsets();
+    Acknowledgment staleAck = mock(Acknowledgment.class);
+    Acknowledgment redeliveredAck = mock(Acknowledgment.class);
+    var failed = offsets.register(10, mock(Acknowledgment.class));
+    var stale = offsets.register(11, staleAck);
+    offsets.fail(failed);
+    offsets.rewind();
+    offsets.register(10, redeliveredAck);
+
+    // when - the old run of offset 11 finishes after the rewind
+    offsets.complete(stale);
+
+    // then
+    verify(staleAck, never()).acknowledge();
+    assertThat(offsets.size()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldSeekBackToFailedRecordOnNextDelivery() throws Exception {
+    // given
+    Consumer<?, ?> consumer = mock(Consumer.class);
+    CountDownLatch dispatched = new CountDownLatch(1);
+    Acknowledgment ack5 = mock(Acknowledgment.class);
+    Acknowledgment ack6 = mock(Acknowledgment.class);
+    CountDownLatch laneDone = new CountDownLatch(1);
+    dispatcher.dispatch(1L, record(5L, ack5, consumer), failAfter(dispatched));
+    dispatcher.dispatch(1L, record(6L, ack6, consumer), laneDone::countDown);
+    dispatched.countDown();
+    assertThat(laneDone.await(5, TimeUnit.SECONDS)).isTrue();
+    AtomicBoolean ran = new AtomicBoolean();
+
+    // when - a record fetched before the rewind arrives
+    dispatcher.dispatch(2L, record(7L, mock(Acknowledgment.class), consumer),
+        () -> ran.set(true));
+
+    // then
+    verify(consumer).seek(new TopicPartition("holds", 0), 5L);
+    verify(ack5, never()).acknowledge();
+    verify(ack6, never()).acknowledge();
+    assertThat(ran).isFalse();
+  }
+
+  @Test
+  void shouldSeekBackToFailedRecordWhenIdle() throws Exception {
+    // given
+    Consumer<?, ?> consumer = mock(Consumer.class);
+    CountDownLatch dispatched = new CountDownLatch(1);
+    CountDownLatch laneDone = new CountDownLatch(1);
+    dispatcher.dispatch(1L, record(5L, mock(Acknowledgment.class), consumer),
+        failAfter(dispatched));
+    dispatcher.dispatch(1L, record(6L, mock(Acknowledgment.class), consumer),
+        laneDone::countDown);
+    dispatched.countDown();
+    assertThat(laneDone.await(5, TimeUnit.SECONDS)).isTrue();
+    TopicPartition partition = new TopicPartition("holds", 0);
+
+    // when
+    dispatcher.onIdle(new ListenerContainerIdleEvent(this, this, 1000L, "holds",
+        List.of(partition), consumer, false));
+
+    // then
+    verify(consumer).seek(partition, 5L);
+  }
+
+  @Test
+  void shouldForgetFailedRecordsOfRevokedPartitions() throws Exception {
+    // given
+    Consumer<?, ?> consumer = mock(Consumer.class);
+    CountDownLatch dispatched = new CountDownLatch(1);
+    CountDownLatch laneDone = new CountDownLatch(1);
+    dispatcher.dispatch(1L, record(5L, mock(Acknowledgment.class), consumer),
+        failAfter(dispatched));
+    dispatcher.dispatch(1L, record(6L, mock(Acknowledgment.class), consumer),
+        laneDone::countDown);
+    dispatched.countDown();
+    assertThat(laneDone.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    dispatcher.partitionsRevoked(List.of(new TopicPartition("holds", 0)));
+    Acknowledgment ack = mock(Acknowledgment.class);
+    dispatcher.skip(record(5L, ack, consumer));
+
+    // then
+    verify(consumer, never()).seek(any(TopicPartition.class), anyLong());
+    verify(ack, times(1)).acknowledge();
+  }
+
+  /**
+   * A task that fails only once the next record has been dispatched, so that record is not
+   * already dropped by the rewind.
+   */
+  private Runnable failAfter(CountDownLatch dispatched) {
+    return () -> {
+      try {
+        dispatched.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      throw new IllegalStateException("retry topic unavailable");
+    };
+  }
+
+  private Message<String> record(long offset, Acknowledgment ack, Consumer<?, ?> consumer) {
+    return MessageBuilder.withPayload("{}").setHeader(KafkaHeaders.ACKNOWLEDGMENT, ack)
+        .setHeader(KafkaHeaders.CONSUMER, consumer).setHeader(KafkaHeaders.RECEIVED_TOPIC, "holds")
+        .setHeader(KafkaHeaders.RECEIVED_PARTITION, 0).setHeader(KafkaHeaders.OFFSET, offset)
+        .build();
+  }
+}
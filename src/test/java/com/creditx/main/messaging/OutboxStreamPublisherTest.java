@@ -16,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +50,22 @@ class OutboxStreamPublisherTest {
     assertThat(sentMessage.getHeaders().get("eventType")).isEqualTo(eventType);
   }
 
+  @Test
+  void shouldPublishBinaryPayloadWithContentType() {
+    // given
+    byte[] payload = new byte[]{1, 7, 127};
+    String contentType = "application/vnd.creditx.event+binary;v=1";
+    ArgumentCaptor<Message<byte[]>> messageCaptor = ArgumentCaptor.forClass(Message.class);
+    // when
+    outboxStreamPublisher.publish("test-key", payload, "test.event", contentType);
+    // then
+    verify(streamBridge, times(1)).send(eq("test-binding"), messageCaptor.capture());
+    Message<byte[]> sentMessage = messageCaptor.getValue();
+    assertThat(sentMessage.getPayload()).isEqualTo(payload);
+    assertThat(sentMessage.getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(contentType);
+    assertThat(sentMessage.getHeaders().get("eventType")).isEqualTo("test.event");
+  }
+
   @Test
   void shouldNotPublishWithoutKey() {
     // given
@@ -0,0 +1,77 @@
+package com.creditx.main.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void shouldRoundTripThroughBigDecimalAtScaleTwo() {
+    // given
+    BigDecimal amount = new BigDecimal("1234.5");
+
+    // when
+    Money money = Money.of(amount);
+
+    // then
+    assertThat(money.minorUnits()).isEqualTo(123450L);
+    assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal("1234.50"));
+  }
+
+  @Test
+  void shouldRejectFractionsOfAMinorUnitInsteadOfRounding() {
+    // when & then
+    assertThatThrownBy(() -> Money.of(new BigDecimal("0.005")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Money.of(new BigDecimal("-10.001")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(Money.of(new BigDecimal("10.500")).minorUnits()).isEqualTo(1050L);
+  }
+
+  @Test
+  void shouldAddSubtractAndCompare() {
+    // given
+    Money balance = Money.of(new BigDecimal("100.00"));
+    Money amount = Money.of(new BigDecimal("150.25"));
+
+    // when
+    Money remaining = balance.minus(amount);
+
+    // then
+    assertThat(remaining.toBigDecimal()).isEqualTo(new BigDecimal("-50.25"));
+    assertThat(remaining.isNegative()).isTrue();
+    assertThat(balance.isLessThan(amount)).isTrue();
+    assertThat(remaining.plus(amount)).isEqualTo(balance);
+    assertThat(amount.negate().signum()).isEqualTo(-1);
+  }
+
+  @Test
+  void shouldThrowOnOverflow() {
+    // given
+    Money max = Money.ofMinor(Long.MAX_VALUE);
+
+    // when & then
+    assertThatThrownBy(() -> max.plus(Money.ofMinor(1L))).isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Money.ofMinor(Long.MIN_VALUE).negate())
+        .isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Money.of(new BigDecimal("1E+30")))
+        .isInstanceOf(ArithmeticException.class);
+  }
+
+  @Test
+  void shouldConvertBalanceColumnsOnlyAtTheEntityBoundary() {
+    // given
+    MoneyConverter converter = new MoneyConverter();
+
+    // when
+    Money balance = converter.convertToEntityAttribute(new BigDecimal("900.00"));
+
+    // then
+    assertThat(balance).isEqualTo(Money.ofMinor(90000L));
+    assertThat(converter.convertToDatabaseColumn(balance)).isEqualTo(new BigDecimal("900.00"));
+    assertThat(converter.convertToEntityAttribute(null)).isNull();
+  }
+}
@@ -0,0 +1,33 @@
+package com.creditx.main.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TransactionTransitionTest {
+
+  @Test
+  void shouldOnlyLeaveTerminalStatusesAlone() {
+    // when & then
+    for (TransactionTransition transition : TransactionTransition.values()) {
+      assertThat(transition.allowsFrom(TransactionStatus.SUCCESS)).isFalse();
+      assertThat(transition.allowsFrom(TransactionStatus.FAILED)).isFalse();
+    }
+  }
+
+  @Test
+  void shouldSettleAndReleaseOnlyAuthorizedTransactions() {
+    // when & then
+    assertThat(TransactionTransition.SETTLE.fromNames()).containsExactly("AUTHORIZED");
+    assertThat(TransactionTransition.RELEASE.fromNames()).containsExactly("AUTHORIZED");
+    assertThat(TransactionTransition.DECLINE.fromNames()).containsExactly("PENDING");
+  }
+
+  @Test
+  void shouldLetHoldCreatedFollowTheCreatePath() {
+    // when & then
+    assertThat(TransactionTransition.AUTHORIZE.allowsFrom(TransactionStatus.PENDING)).isTrue();
+    assertThat(TransactionTransition.AUTHORIZE.allowsFrom(TransactionStatus.AUTHORIZED)).isTrue();
+    assertThat(TransactionTransition.AUTHORIZE.to()).isEqualTo(TransactionStatus.AUTHORIZED);
+  }
+}
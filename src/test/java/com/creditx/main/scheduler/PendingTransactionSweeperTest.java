@@ -0,0 +1,115 @@
+package com.creditx.main.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.model.HoldStatus;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.service.HoldLookupService;
+import com.creditx.main.service.PendingTransactionRecoveryService;
+import com.creditx.main.service.PendingTransactionRecoveryService.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class PendingTransactionSweeperTest {
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private PendingTransactionRecoveryService recoveryService;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  // Local stand-in for CreditHoldServ: transaction 3 is unreachable, the rest as listed
+  private final Map<Long, CreateHoldResponse> holds = Map.of(
+      1L, new CreateHoldResponse(101L, HoldStatus.AUTHORIZED),
+      4L, new CreateHoldResponse(104L, HoldStatus.EXPIRED));
+  private final HoldLookupService holdLookupService = transactionId -> {
+    if (transactionId == 3L) {
+      throw new IllegalStateException("CreditHoldServ unavailable");
+    }
+    return Optional.ofNullable(holds.get(transactionId));
+  };
+
+  private PendingTransactionSweeper sweeper;
+
+  @BeforeEach
+  void setup() {
+    sweeper = new PendingTransactionSweeper(transactionRepository, holdLookupService,
+        recoveryService, meterRegistry);
+    ReflectionTestUtils.setField(sweeper, "enabled", true);
+    ReflectionTestUtils.setField(sweeper, "stuckAfterMs", 120_000L);
+    ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+    ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+    ReflectionTestUtils.setField(sweeper, "parallelism", 2);
+    ReflectionTestUtils.setField(sweeper, "lookupTimeoutMs", 5_000L);
+    sweeper.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    sweeper.stop();
+  }
+
+  @Test
+  void shouldResolveStuckTransactionsInParallelChunks() {
+    // given
+    when(transactionRepository.findIdsByStatusCreatedBefore(eq(TransactionStatus.PENDING),
+        any(), any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L, 4L));
+    when(transactionRepository.countByStatusAndCreatedAtBefore(eq(TransactionStatus.PENDING),
+        any())).thenReturn(1L);
+    when(recoveryService.resolve(1L, Optional.of(holds.get(1L)))).thenReturn(Outcome.AUTHORIZED);
+    when(recoveryService.resolve(2L, Optional.empty())).thenReturn(Outcome.FAILED);
+    when(recoveryService.resolve(4L, Optional.of(holds.get(4L)))).thenReturn(Outcome.FAILED);
+
+    // when
+    int swept = sweeper.sweepOnce();
+
+    // then
+    assertThat(swept).isEqualTo(4);
+    verify(recoveryService, never()).resolve(eq(3L), any());
+    assertThat(recovered("authorized")).isEqualTo(1.0);
+    assertThat(recovered("failed")).isEqualTo(2.0);
+    assertThat(meterRegistry.get("creditx.transactions.pending-sweep.errors").counter().count())
+        .isEqualTo(1.0);
+    assertThat(meterRegistry.get("creditx.transactions.pending-sweep.backlog").gauge().value())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldDoNothingWhenDisabled() {
+    // given
+    ReflectionTestUtils.setField(sweeper, "enabled", false);
+
+    // when
+    sweeper.sweep();
+
+    // then
+    verify(transactionRepository, never()).findIdsByStatusCreatedBefore(any(), any(), any());
+    verify(recoveryService, never()).resolve(anyLong(), any());
+  }
+
+  private double recovered(String outcome) {
+    return meterRegistry.get("creditx.transactions.pending-sweep.recovered")
+        .tag("outcome", outcome).counter().count();
+  }
+}
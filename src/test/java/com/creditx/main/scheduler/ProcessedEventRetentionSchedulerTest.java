@@ -0,0 +1,54 @@
+package com.creditx.main.scheduler;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.service.ProcessedEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedEventRetentionSchedulerTest {
+
+  @Mock
+  private ProcessedEventService processedEventService;
+
+  @InjectMocks
+  private ProcessedEventRetentionScheduler processedEventRetentionScheduler;
+
+  @BeforeEach
+  void setup() {
+    ReflectionTestUtils.setField(processedEventRetentionScheduler, "retentionDays", 7);
+  }
+
+  @Test
+  void shouldPurgePartitionsOutsideHorizon() {
+    // given
+    when(processedEventService.purgeExpiredEvents(7)).thenReturn(2);
+
+    // when
+    processedEventRetentionScheduler.purgeExpiredPartitions();
+
+    // then
+    verify(processedEventService, times(1)).purgeExpiredEvents(7);
+  }
+
+  @Test
+  void shouldSwallowPurgeFailures() {
+    // given
+    when(processedEventService.purgeExpiredEvents(7)).thenThrow(
+        new RuntimeException("ORA-14758"));
+
+    // when
+    processedEventRetentionScheduler.purgeExpiredPartitions();
+
+    // then
+    verify(processedEventService, times(1)).purgeExpiredEvents(7);
+  }
+}
@@ -0,0 +1,120 @@
+package com.creditx.main.screening;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DuplicateChargeDetectorTest {
+
+  private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+
+  @Test
+  void shouldFlagRepeatedChargeWithinWindow() {
+    // given
+    DuplicateChargeDetector detector = detector("flag", 100);
+
+    // when
+    boolean first = detector.check(1L, 2L, AMOUNT, "USD");
+    now.addAndGet(5_000L);
+    boolean repeat = detector.check(1L, 2L, new BigDecimal("100"), "USD");
+
+    // then
+    assertThat(first).isFalse();
+    assertThat(repeat).isTrue();
+    assertThat(detections("flagged")).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldNotFlagDifferentChargesOrChargesOutsideWindow() {
+    // given
+    DuplicateChargeDetector detector = detector("flag", 100);
+    detector.check(1L, 2L, AMOUNT, "USD");
+
+    // when
+    boolean otherAmount = detector.check(1L, 2L, new BigDecimal("100.01"), "USD");
+    boolean otherMerchant = detector.check(1L, 3L, AMOUNT, "USD");
+    now.addAndGet(11_000L);
+    boolean afterWindow = detector.check(1L, 2L, AMOUNT, "USD");
+
+    // then
+    assertThat(otherAmount).isFalse();
+    assertThat(otherMerchant).isFalse();
+    assertThat(afterWindow).isFalse();
+    assertThat(detections("flagged")).isZero();
+  }
+
+  @Test
+  void shouldRejectRepeatedChargeWhenPolicyIsReject() {
+    // given
+    DuplicateChargeDetector detector = detector("reject", 100);
+    detector.check(1L, 2L, AMOUNT, "USD");
+
+    // when & then
+    assertThatThrownBy(() -> detector.check(1L, 2L, AMOUNT, "USD"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageStartingWith("Duplicate charge");
+    assertThat(detections("rejected")).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldAcceptRetryOfForgottenCharge() {
+    // given
+    DuplicateChargeDetector detector = detector("reject", 100);
+    detector.check(1L, 2L, AMOUNT, "USD");
+    now.addAndGet(3_000L);
+    detector.check(1L, 3L, AMOUNT, "USD");
+
+    // when
+    detector.forget(1L, 2L, AMOUNT, "USD");
+    boolean retry = detector.check(1L, 2L, AMOUNT, "USD");
+
+    // then
+    assertThat(retry).isFalse();
+    assertThatThrownBy(() -> detector.check(1L, 3L, AMOUNT, "USD"))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void shouldStopTrackingWhenBucketIsFull() {
+    // given
+    DuplicateChargeDetector detector = detector("flag", 10);
+
+    // when
+    for (long merchant = 1; merchant <= 5; merchant++) {
+      detector.check(1L, merchant, AMOUNT, "USD");
+    }
+    boolean repeatOfUntracked = detector.check(1L, 5L, AMOUNT, "USD");
+
+    // then
+    assertThat(repeatOfUntracked).isFalse();
+    assertThat(meterRegistry.get("creditx.transactions.duplicates.tracked").gauge().value())
+        .isEqualTo(1.0);
+    assertThat(meterRegistry.get("creditx.transactions.duplicates.untracked").counter().count())
+        .isEqualTo(5.0);
+  }
+
+  private DuplicateChargeDetector detector(String policy, int maxEntries) {
+    DuplicateChargeDetector detector = new DuplicateChargeDetector(meterRegistry);
+    ReflectionTestUtils.setField(detector, "policyName", policy);
+    ReflectionTestUtils.setField(detector, "windowMs", 10_000L);
+    ReflectionTestUtils.setField(detector, "bucketCount", 10);
+    ReflectionTestUtils.setField(detector, "maxEntries", maxEntries);
+    ReflectionTestUtils.setField(detector, "clock", (LongSupplier) now::get);
+    detector.init();
+    return detector;
+  }
+
+  private double detections(String action) {
+    return meterRegistry.get("creditx.transactions.duplicates").tag("action", action).counter()
+        .count();
+  }
+}
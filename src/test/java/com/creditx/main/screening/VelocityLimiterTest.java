@@ -0,0 +1,171 @@
+package com.creditx.main.screening;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionType;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.repository.TransactionRepository.IssuerSpend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityLimiterTest {
+
+  private static final long ISSUER = 1L;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicLong now = new AtomicLong(3_600_000L);
+
+  @Test
+  void shouldRejectOnceCountLimitIsReachedWithinWindow() {
+    // given
+    VelocityLimiter limiter = limiter("count:2/1m");
+
+    // when
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+
+    // then
+    assertThatThrownBy(() -> limiter.reserve(ISSUER, new BigDecimal("10.00")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Velocity limit exceeded: count:2/1m");
+    assertThat(meterRegistry.get("creditx.transactions.velocity.rejected").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldAdmitAgainOnceOldTransactionsLeaveWindow() {
+    // given
+    VelocityLimiter limiter = limiter("count:2/1m");
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+
+    // when
+    now.addAndGet(61_000L);
+
+    // then
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+  }
+
+  @Test
+  void shouldEnforceAmountLimitAndFreeReleasedAmounts() {
+    // given
+    VelocityLimiter limiter = limiter("amount:100.00/1h");
+    VelocityLimiter.Reservation first = limiter.reserve(ISSUER, new BigDecimal("80.00"));
+
+    // when & then
+    assertThatThrownBy(() -> limiter.reserve(ISSUER, new BigDecimal("30.00")))
+        .isInstanceOf(IllegalArgumentException.class);
+    first.release();
+    first.release();
+    limiter.reserve(ISSUER, new BigDecimal("100.00"));
+    assertThatThrownBy(() -> limiter.reserve(ISSUER, new BigDecimal("0.01")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void shouldKeepIssuersSeparate() {
+    // given
+    VelocityLimiter limiter = limiter("count:1/1m");
+    limiter.reserve(ISSUER, new BigDecimal("10.00"));
+
+    // when & then
+    limiter.reserve(2L, new BigDecimal("10.00"));
+  }
+
+  @Test
+  void shouldRebuildCountersFromRecentTransactions() {
+    // given
+    IssuerSpend recent = spend(ISSUER, "60.00", Instant.ofEpochMilli(now.get() - 600_000L));
+    when(transactionRepository.findByTypeAndStatusNotAndCreatedAtGreaterThanEqual(
+        eq(TransactionType.INBOUND), eq(TransactionStatus.FAILED), any()))
+        .thenReturn(List.of(recent));
+
+    // when
+    VelocityLimiter limiter = limiter("amount:100.00/1h");
+
+    // then
+    assertThatThrownBy(() -> limiter.reserve(ISSUER, new BigDecimal("50.00")))
+        .isInstanceOf(IllegalArgumentException.class);
+    limiter.reserve(ISSUER, new BigDecimal("40.00"));
+  }
+
+  @Test
+  void shouldNeverAdmitPastLimitUnderConcurrency() throws Exception {
+    // given
+    VelocityLimiter limiter = limiter("count:50/1m");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger admitted = new AtomicInteger();
+
+    // when
+    for (int i = 0; i < 200; i++) {
+      executor.execute(() -> {
+        try {
+          start.await();
+          limiter.reserve(ISSUER, new BigDecimal("1.00"));
+          admitted.incrementAndGet();
+        } catch (IllegalArgumentException | InterruptedException e) {
+          // rejected
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    // then
+    assertThat(admitted.get()).isBetween(1, 50);
+  }
+
+  private VelocityLimiter limiter(String rules) {
+    VelocityLimiter limiter = new VelocityLimiter(transactionRepository, meterRegistry);
+    ReflectionTestUtils.setField(limiter, "ruleSpec", rules);
+    ReflectionTestUtils.setField(limiter, "slotCount", 60);
+    ReflectionTestUtils.setField(limiter, "maxIssuers", 1000L);
+    ReflectionTestUtils.setField(limiter, "clock", (LongSupplier) now::get);
+    limiter.init();
+    return limiter;
+  }
+
+  private static IssuerSpend spend(Long accountId, String amount, Instant createdAt) {
+    return new IssuerSpend() {
+      @Override
+      public Long getAccountId() {
+        return accountId;
+      }
+
+      @Override
+      public BigDecimal getAmount() {
+        return new BigDecimal(amount);
+      }
+
+      @Override
+      public Instant getCreatedAt() {
+        return createdAt;
+      }
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package com.creditx.main.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.concurrent.AccountLockStripes;
+import com.creditx.main.dto.CommitTransactionRequest;
+import com.creditx.main.dto.CommitTransactionResponse;
+import com.creditx.main.dto.CreateTransactionRequest;
+import com.creditx.main.model.Transaction;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.repository.TransactionRepository;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AccountSerializingTransactionServiceTest {
+
+  @Mock
+  private TransactionServiceImpl delegate;
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private AccountLockStripes accountLockStripes;
+
+  @InjectMocks
+  private AccountSerializingTransactionService service;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldCommitWhileHoldingBothAccountLocks() {
+    // given
+    Transaction transaction = new Transaction();
+    transaction.setTransactionId(1L);
+    transaction.setAccountId(10L);
+    transaction.setMerchantId(20L);
+    CommitTransactionRequest request = CommitTransactionRequest.builder().holdId(5L).build();
+    CommitTransactionResponse response = CommitTransactionResponse.builder().transactionId(1L)
+        .status(TransactionStatus.SUCCESS).build();
+    when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+    when(accountLockStripes.withLocks(any(), any())).thenAnswer(
+        invocation -> ((Supplier<Object>) invocation.getArgument(1)).get());
+    when(delegate.commitTransaction(transaction, request)).thenReturn(response);
+
+    // when
+    CommitTransactionResponse result = service.commitTransaction(1L, request);
+
+    // then
+    assertThat(result).isSameAs(response);
+    verify(accountLockStripes).withLocks(eq(Arrays.asList(10L, 20L)), any());
+    verify(transactionRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  void shouldNotLockForInboundTransactions() {
+    // given
+    CreateTransactionRequest request = new CreateTransactionRequest();
+
+    // when
+    service.createInboundTransaction(request);
+
+    // then
+    verify(delegate).createInboundTransaction(request);
+    verify(accountLockStripes, never()).withLocks(any(), any());
+  }
+}
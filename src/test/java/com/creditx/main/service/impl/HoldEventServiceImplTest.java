@@ -10,18 +10,24 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.creditx.main.authorization.AuthorizationEngine;
 import com.creditx.main.dto.HoldCreatedEvent;
 import com.creditx.main.dto.HoldExpiredEvent;
 import com.creditx.main.dto.HoldVoidedEvent;
+import com.creditx.main.messaging.EncodedEvent;
+import com.creditx.main.messaging.EventCodec;
 import com.creditx.main.model.Account;
+import com.creditx.main.model.Money;
 import com.creditx.main.model.Transaction;
 import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
 import com.creditx.main.repository.AccountRepository;
 import com.creditx.main.repository.TransactionRepository;
 import com.creditx.main.service.OutboxEventService;
 import com.creditx.main.service.ProcessedEventService;
 import com.creditx.main.util.EventIdGenerator;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +36,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +54,12 @@ class HoldEventServiceImplTest {
   @Mock
   private ProcessedEventService processedEventService;
 
+  @Mock
+  private AuthorizationEngine authorizationEngine;
+
+  @Spy
+  private EventCodec eventCodec = new EventCodec(false);
+
   @InjectMocks
   private HoldEventServiceImpl holdEventService;
 
@@ -67,11 +80,13 @@ class HoldEventServiceImplTest {
         EventIdGenerator.class)) {
       mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.created", 123L))
           .thenReturn(eventId);
-      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(anyString()))
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
           .thenReturn(payloadHash);
 
       when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
       when(processedEventService.isPayloadProcessed(payloadHash)).thenReturn(false);
+      when(transactionRepository.transition(123L, TransactionTransition.AUTHORIZE))
+          .thenReturn(true);
       when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
       when(transactionRepository.findById(123L)).thenReturn(Optional.of(transaction));
 
@@ -83,15 +98,15 @@ class HoldEventServiceImplTest {
       verify(processedEventService, times(1)).isPayloadProcessed(payloadHash);
       verify(accountRepository, times(1)).findById(1L);
       verify(accountRepository, times(1)).save(account);
-      verify(transactionRepository, times(1)).findById(123L);
-      verify(transactionRepository, times(1)).save(transaction);
-      verify(outboxEventService, times(1)).saveEvent(anyString(), eq(123L), anyString());
+      verify(transactionRepository, times(1)).transition(123L, TransactionTransition.AUTHORIZE);
+      verify(transactionRepository, never()).save(any());
+      verify(outboxEventService, times(1)).saveEvent(
+          anyString(), eq(123L), any(EncodedEvent.class));
       verify(processedEventService, times(1)).markEventAsProcessed(eventId, payloadHash, "SUCCESS");
 
-      assertThat(account.getAvailableBalance()).isEqualTo(new BigDecimal("900.00"));
-      assertThat(account.getReserved()).isEqualTo(
+      assertThat(account.getAvailableBalance().toBigDecimal()).isEqualTo(new BigDecimal("900.00"));
+      assertThat(account.getReserved().toBigDecimal()).isEqualTo(
           new BigDecimal("200.00")); // 100.00 initial + 100.00 hold amount
-      assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.AUTHORIZED);
     }
   }
 
@@ -132,7 +147,7 @@ class HoldEventServiceImplTest {
         EventIdGenerator.class)) {
       mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.created", 123L))
           .thenReturn(eventId);
-      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(anyString()))
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
           .thenReturn(payloadHash);
 
       when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
@@ -162,18 +177,20 @@ class HoldEventServiceImplTest {
         EventIdGenerator.class)) {
       mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.created", 123L))
           .thenReturn(eventId);
-      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(anyString()))
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
           .thenReturn(payloadHash);
 
       when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
       when(processedEventService.isPayloadProcessed(payloadHash)).thenReturn(false);
+      when(transactionRepository.transition(123L, TransactionTransition.AUTHORIZE))
+          .thenReturn(true);
       when(accountRepository.findById(1L)).thenReturn(Optional.empty());
 
       // when & then
       assertThatThrownBy(() -> holdEventService.processHoldCreated(event)).isInstanceOf(
           IllegalArgumentException.class).hasMessage("Account not found: 1");
 
-      verify(processedEventService, times(1)).markEventAsProcessed(eventId, "", "FAILED");
+      verify(processedEventService, times(1)).markEventAsFailed(eventId);
     }
   }
 
@@ -190,11 +207,13 @@ class HoldEventServiceImplTest {
         EventIdGenerator.class)) {
       mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.expired", 123L))
           .thenReturn(eventId);
-      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(anyString()))
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
           .thenReturn(payloadHash);
 
       when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
       when(processedEventService.isPayloadProcessed(payloadHash)).thenReturn(false);
+      when(transactionRepository.transition(123L, TransactionTransition.RELEASE))
+          .thenReturn(true);
       when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
       when(transactionRepository.findById(123L)).thenReturn(Optional.of(transaction));
 
@@ -203,7 +222,8 @@ class HoldEventServiceImplTest {
 
       // then
       verify(processedEventService, times(1)).markEventAsProcessed(eventId, payloadHash, "SUCCESS");
-      assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+      verify(transactionRepository, never()).save(any());
+      assertThat(account.getAvailableBalance().toBigDecimal()).isEqualTo(new BigDecimal("1100.00"));
     }
   }
 
@@ -220,11 +240,13 @@ class HoldEventServiceImplTest {
         EventIdGenerator.class)) {
       mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.voided", 123L))
           .thenReturn(eventId);
-      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(anyString()))
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
           .thenReturn(payloadHash);
 
       when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
       when(processedEventService.isPayloadProcessed(payloadHash)).thenReturn(false);
+      when(transactionRepository.transition(123L, TransactionTransition.RELEASE))
+          .thenReturn(true);
       when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
       when(transactionRepository.findById(123L)).thenReturn(Optional.of(transaction));
 
@@ -233,10 +255,94 @@ class HoldEventServiceImplTest {
 
       // then
       verify(processedEventService, times(1)).markEventAsProcessed(eventId, payloadHash, "SUCCESS");
-      assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+      verify(transactionRepository, never()).save(any());
+      assertThat(account.getAvailableBalance().toBigDecimal()).isEqualTo(new BigDecimal("1100.00"));
+    }
+  }
+
+  @Test
+  void shouldCoalesceBalanceUpdatesPerAccountInBatch() {
+    // given
+    HoldExpiredEvent first = createHoldExpiredEvent();
+    HoldExpiredEvent second = createHoldExpiredEvent();
+    second.setTransactionId(124L);
+    second.setHoldId(457L);
+    Transaction firstTransaction = createAuthorizedTransaction();
+    Transaction secondTransaction = createAuthorizedTransaction();
+    secondTransaction.setTransactionId(124L);
+
+    when(transactionRepository.findAllById(List.of(123L, 124L)))
+        .thenReturn(List.of(firstTransaction, secondTransaction));
+    when(transactionRepository.transition(any(), eq(TransactionTransition.RELEASE)))
+        .thenReturn(true);
+    when(accountRepository.applyBalanceDelta(eq(1L), any(BigDecimal.class),
+        any(BigDecimal.class))).thenReturn(1);
+
+    // when
+    holdEventService.processHoldEventBatch(List.of(first, second));
+
+    // then
+    verify(accountRepository, times(1)).applyBalanceDelta(1L, new BigDecimal("200.00"),
+        new BigDecimal("-200.00"));
+    verify(accountRepository, never()).save(any(Account.class));
+    verify(outboxEventService, times(2)).saveEvent(
+        eq("transaction.failed"), any(), any(EncodedEvent.class));
+    verify(processedEventService, times(2)).markEventAsProcessed(anyString(), anyString(),
+        eq("SUCCESS"));
+    verify(transactionRepository).transition(123L, TransactionTransition.RELEASE);
+    verify(transactionRepository).transition(124L, TransactionTransition.RELEASE);
+    verify(transactionRepository, never()).saveAll(any());
+  }
+
+  @Test
+  void shouldSkipReleaseOfTransactionNoLongerAuthorized() {
+    // given
+    HoldExpiredEvent event = createHoldExpiredEvent();
+    String eventId = "hold.expired-123";
+    String payloadHash = "hash123";
+    Transaction transaction = createAuthorizedTransaction();
+    transaction.setStatus(TransactionStatus.SUCCESS);
+
+    try (MockedStatic<EventIdGenerator> mockedGenerator = Mockito.mockStatic(
+        EventIdGenerator.class)) {
+      mockedGenerator.when(() -> EventIdGenerator.generateEventId("hold.expired", 123L))
+          .thenReturn(eventId);
+      mockedGenerator.when(() -> EventIdGenerator.generatePayloadHash(any(byte[].class)))
+          .thenReturn(payloadHash);
+
+      when(processedEventService.isEventProcessed(eventId)).thenReturn(false);
+      when(processedEventService.isPayloadProcessed(payloadHash)).thenReturn(false);
+      when(transactionRepository.transition(123L, TransactionTransition.RELEASE))
+          .thenReturn(false);
+      when(transactionRepository.findById(123L)).thenReturn(Optional.of(transaction));
+
+      // when
+      holdEventService.processHoldExpired(event);
+
+      // then
+      verify(processedEventService, times(1)).markEventAsProcessed(eventId, payloadHash, "SKIPPED");
+      verify(accountRepository, never()).findById(any());
+      verify(outboxEventService, never()).saveEvent(anyString(), any(), any(EncodedEvent.class));
     }
   }
 
+  @Test
+  void shouldRejectBatchWhenNetBalanceUpdateFails() {
+    // given
+    HoldCreatedEvent event = createHoldCreatedEvent();
+    Transaction transaction = createTransaction();
+    when(transactionRepository.findAllById(List.of(123L))).thenReturn(List.of(transaction));
+    when(transactionRepository.transition(123L, TransactionTransition.AUTHORIZE))
+        .thenReturn(true);
+    when(accountRepository.applyBalanceDelta(1L, new BigDecimal("-100.00"),
+        new BigDecimal("100.00"))).thenReturn(0);
+
+    // when & then
+    assertThatThrownBy(() -> holdEventService.processHoldEventBatch(List.of(event)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("account 1");
+  }
+
   private HoldCreatedEvent createHoldCreatedEvent() {
     HoldCreatedEvent event = new HoldCreatedEvent();
     event.setTransactionId(123L);
@@ -269,8 +375,8 @@ class HoldEventServiceImplTest {
   private Account createAccount() {
     Account account = new Account();
     account.setAccountId(1L);
-    account.setAvailableBalance(new BigDecimal("1000.00"));
-    account.setReserved(new BigDecimal("100.00")); // Set some reserved amount to subtract from
+    account.setAvailableBalance(Money.of(new BigDecimal("1000.00")));
+    account.setReserved(Money.of(new BigDecimal("100.00"))); // Set some reserved amount to subtract from
     return account;
   }
 
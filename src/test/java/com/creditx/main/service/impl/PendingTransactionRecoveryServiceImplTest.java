@@ -0,0 +1,127 @@
+package com.creditx.main.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.dto.HoldCreatedEvent;
+import com.creditx.main.messaging.EncodedEvent;
+import com.creditx.main.messaging.EventCodec;
+import com.creditx.main.model.HoldStatus;
+import com.creditx.main.model.Transaction;
+import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
+import com.creditx.main.model.TransactionType;
+import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.service.HoldEventService;
+import com.creditx.main.service.OutboxEventService;
+import com.creditx.main.service.PendingTransactionRecoveryService.Outcome;
+import java.math.BigDecimal;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PendingTransactionRecoveryServiceImplTest {
+
+  @Mock
+  private TransactionRepository transactionRepository;
+
+  @Mock
+  private HoldEventService holdEventService;
+
+  @Mock
+  private OutboxEventService outboxEventService;
+
+  @Spy
+  private EventCodec eventCodec = new EventCodec(false);
+
+  @InjectMocks
+  private PendingTransactionRecoveryServiceImpl recoveryService;
+
+  @Test
+  void shouldFailTransactionWithoutHold() {
+    // given
+    Transaction transaction = pendingTransaction();
+    when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
+    when(transactionRepository.transition(1L, TransactionTransition.DECLINE)).thenReturn(true);
+
+    // when
+    Outcome outcome = recoveryService.resolve(1L, Optional.empty());
+
+    // then
+    assertThat(outcome).isEqualTo(Outcome.FAILED);
+    verify(transactionRepository, never()).save(any());
+    verify(outboxEventService).saveEvent(eq("transaction.failed"), eq(1L),
+        any(EncodedEvent.class));
+  }
+
+  @Test
+  void shouldAuthorizeThroughHoldCreatedPath() {
+    // given
+    Transaction transaction = pendingTransaction();
+    when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
+
+    // when
+    Outcome outcome = recoveryService.resolve(1L,
+        Optional.of(new CreateHoldResponse(100L, HoldStatus.AUTHORIZED)));
+
+    // then
+    assertThat(outcome).isEqualTo(Outcome.AUTHORIZED);
+    ArgumentCaptor<HoldCreatedEvent> event = ArgumentCaptor.forClass(HoldCreatedEvent.class);
+    verify(holdEventService).processHoldCreated(event.capture());
+    assertThat(event.getValue().getHoldId()).isEqualTo(100L);
+    assertThat(event.getValue().getIssuerAccountId()).isEqualTo(10L);
+    verify(transactionRepository).transition(1L, TransactionTransition.AUTHORIZE, 100L);
+    verify(transactionRepository, never()).save(any());
+    verify(outboxEventService, never()).saveEvent(any(), any(), any(EncodedEvent.class));
+  }
+
+  @Test
+  void shouldSkipTransactionNoLongerPending() {
+    // given
+    Transaction transaction = pendingTransaction();
+    transaction.setStatus(TransactionStatus.AUTHORIZED);
+    when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
+
+    // when
+    Outcome outcome = recoveryService.resolve(1L, Optional.empty());
+
+    // then
+    assertThat(outcome).isEqualTo(Outcome.SKIPPED);
+    verify(transactionRepository, never()).save(any());
+    verify(holdEventService, never()).processHoldCreated(any());
+  }
+
+  @Test
+  void shouldSkipWhenDeclineDoesNotApply() {
+    // given
+    Transaction transaction = pendingTransaction();
+    when(transactionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(transaction));
+    when(transactionRepository.transition(1L, TransactionTransition.DECLINE, 104L))
+        .thenReturn(false);
+
+    // when
+    Outcome outcome = recoveryService.resolve(1L,
+        Optional.of(new CreateHoldResponse(104L, HoldStatus.EXPIRED)));
+
+    // then
+    assertThat(outcome).isEqualTo(Outcome.SKIPPED);
+    verify(outboxEventService, never()).saveEvent(any(), any(), any(EncodedEvent.class));
+  }
+
+  private static Transaction pendingTransaction() {
+    return Transaction.builder().transactionId(1L).type(TransactionType.INBOUND)
+        .status(TransactionStatus.PENDING).accountId(10L).merchantId(20L)
+        .amount(new BigDecimal("100.00")).currency("USD").build();
+  }
+}
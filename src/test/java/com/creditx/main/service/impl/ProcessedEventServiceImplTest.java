@@ -2,12 +2,14 @@ package com.creditx.main.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.creditx.main.model.ProcessedEvent;
 import com.creditx.main.repository.ProcessedEventRepository;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,28 +35,28 @@ class ProcessedEventServiceImplTest {
   void shouldReturnTrueWhenEventIsProcessed() {
     // given
     String eventId = "event-123";
-    when(processedEventRepository.existsByEventId(eventId)).thenReturn(true);
+    when(processedEventRepository.existsByEventIdAndStatusNot(eventId, "FAILED")).thenReturn(true);
 
     // when
     boolean result = processedEventServiceImpl.isEventProcessed(eventId);
 
     // then
     assertThat(result).isTrue();
-    verify(processedEventRepository, times(1)).existsByEventId(eventId);
+    verify(processedEventRepository, times(1)).existsByEventIdAndStatusNot(eventId, "FAILED");
   }
 
   @Test
   void shouldReturnFalseWhenEventIsNotProcessed() {
     // given
     String eventId = "event-456";
-    when(processedEventRepository.existsByEventId(eventId)).thenReturn(false);
+    when(processedEventRepository.existsByEventIdAndStatusNot(eventId, "FAILED")).thenReturn(false);
 
     // when
     boolean result = processedEventServiceImpl.isEventProcessed(eventId);
 
     // then
     assertThat(result).isFalse();
-    verify(processedEventRepository, times(1)).existsByEventId(eventId);
+    verify(processedEventRepository, times(1)).existsByEventIdAndStatusNot(eventId, "FAILED");
   }
 
   @Test
@@ -80,6 +82,50 @@ class ProcessedEventServiceImplTest {
     assertThat(capturedEvent.getStatus()).isEqualTo(status);
   }
 
+  @Test
+  void shouldRecordFirstFailedAttempt() {
+    // given
+    String eventId = "event-321";
+    when(processedEventRepository.findById(eventId)).thenReturn(Optional.empty());
+
+    // when
+    processedEventServiceImpl.markEventAsFailed(eventId);
+
+    // then
+    ArgumentCaptor<ProcessedEvent> eventCaptor = ArgumentCaptor.forClass(ProcessedEvent.class);
+    verify(processedEventRepository, times(1)).save(eventCaptor.capture());
+    assertThat(eventCaptor.getValue().getEventId()).isEqualTo(eventId);
+    assertThat(eventCaptor.getValue().getStatus()).isEqualTo("FAILED");
+  }
+
+  @Test
+  void shouldUpdateFailedRecordOnRepeatedFailure() {
+    // given
+    String eventId = "event-322";
+    ProcessedEvent previous = createProcessedEvent(eventId, null, "FAILED");
+    when(processedEventRepository.findById(eventId)).thenReturn(Optional.of(previous));
+
+    // when
+    processedEventServiceImpl.markEventAsFailed(eventId);
+
+    // then - the existing row is saved again rather than a second one inserted
+    verify(processedEventRepository, times(1)).save(previous);
+  }
+
+  @Test
+  void shouldNotOverwriteSuccessfulAttemptWithFailure() {
+    // given
+    String eventId = "event-323";
+    when(processedEventRepository.findById(eventId)).thenReturn(
+        Optional.of(createProcessedEvent(eventId, "hash", "SUCCESS")));
+
+    // when
+    processedEventServiceImpl.markEventAsFailed(eventId);
+
+    // then
+    verify(processedEventRepository, never()).save(any(ProcessedEvent.class));
+  }
+
   @Test
   void shouldReturnTrueWhenPayloadIsProcessed() {
     // given
@@ -108,6 +154,19 @@ class ProcessedEventServiceImplTest {
     verify(processedEventRepository, times(1)).existsByPayloadHash(payloadHash);
   }
 
+  @Test
+  void shouldPurgeExpiredPartitions() {
+    // given
+    when(processedEventRepository.purgeExpiredPartitions(7)).thenReturn(3);
+
+    // when
+    int dropped = processedEventServiceImpl.purgeExpiredEvents(7);
+
+    // then
+    assertThat(dropped).isEqualTo(3);
+    verify(processedEventRepository, times(1)).purgeExpiredPartitions(7);
+  }
+
   private ProcessedEvent createProcessedEvent(String eventId, String payloadHash, String status) {
     return ProcessedEvent.builder().eventId(eventId).payloadHash(payloadHash).status(status)
         .build();
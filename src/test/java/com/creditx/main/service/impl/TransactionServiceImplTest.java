@@ -3,41 +3,69 @@ package com.creditx.main.service.impl;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.creditx.main.authorization.AuthorizationEngine;
+import com.creditx.main.authorization.BalanceOperation;
+import com.creditx.main.cache.AccountMetadataCache;
+import com.creditx.main.deadline.Deadline;
+import com.creditx.main.deadline.DeadlineExceededException;
+import com.creditx.main.deadline.StatementDeadline;
+import com.creditx.main.dto.CommitTransactionBatchResponse;
 import com.creditx.main.dto.CommitTransactionRequest;
 import com.creditx.main.dto.CommitTransactionResponse;
 import com.creditx.main.dto.CreateHoldResponse;
+import com.creditx.main.dto.CreateTransactionBatchResponse;
 import com.creditx.main.dto.CreateTransactionRequest;
 import com.creditx.main.dto.CreateTransactionResponse;
+import com.creditx.main.messaging.EncodedEvent;
+import com.creditx.main.messaging.EventCodec;
 import com.creditx.main.model.Account;
 import com.creditx.main.model.AccountStatus;
 import com.creditx.main.model.AccountType;
 import com.creditx.main.model.HoldStatus;
+import com.creditx.main.model.Money;
 import com.creditx.main.model.Transaction;
 import com.creditx.main.model.TransactionStatus;
+import com.creditx.main.model.TransactionTransition;
 import com.creditx.main.model.TransactionType;
 import com.creditx.main.repository.AccountRepository;
 import com.creditx.main.repository.TransactionEntryRepository;
 import com.creditx.main.repository.TransactionRepository;
+import com.creditx.main.screening.DuplicateChargeDetector;
+import com.creditx.main.screening.VelocityLimiter;
 import com.creditx.main.service.OutboxEventService;
 import com.creditx.main.tracing.TransactionSpanTagger;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,6 +89,27 @@ class TransactionServiceImplTest {
   @Mock
   private TransactionSpanTagger transactionSpanTagger;
 
+  @Mock
+  private AccountMetadataCache accountMetadataCache;
+
+  @Mock
+  private AuthorizationEngine authorizationEngine;
+
+  @Spy
+  private EventCodec eventCodec = new EventCodec(false);
+
+  @Mock
+  private DuplicateChargeDetector duplicateChargeDetector;
+
+  @Mock
+  private VelocityLimiter velocityLimiter;
+
+  @Mock
+  private StatementDeadline statementDeadline;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   @InjectMocks
   private TransactionServiceImpl transactionService;
 
@@ -68,6 +117,10 @@ class TransactionServiceImplTest {
   void setup() {
     ReflectionTestUtils.setField(transactionService, "creditHoldServiceUrl",
         "http://localhost:8081");
+    ReflectionTestUtils.setField(transactionService, "transactionTemplate",
+        new TransactionTemplate(transactionManager));
+    lenient().when(velocityLimiter.reserve(any(), any()))
+        .thenReturn(VelocityLimiter.Reservation.NONE);
   }
 
   @Test
@@ -79,11 +132,12 @@ class TransactionServiceImplTest {
     Transaction savedTransaction = createTransaction(1L, TransactionStatus.PENDING);
     CreateHoldResponse holdResponse = createHoldResponse(100L, "AUTHORIZED");
 
-    when(accountRepository.findById(1L)).thenReturn(Optional.of(issuer));
-    when(accountRepository.findById(2L)).thenReturn(Optional.of(merchant));
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(issuer, merchant));
     when(transactionRepository.save(any(Transaction.class))).thenReturn(savedTransaction);
     when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
         eq(CreateHoldResponse.class))).thenReturn(ResponseEntity.ok(holdResponse));
+    when(transactionRepository.transition(1L, TransactionTransition.AUTHORIZE, 100L))
+        .thenReturn(true);
 
     // when
     CreateTransactionResponse response = transactionService.createInboundTransaction(request);
@@ -92,26 +146,100 @@ class TransactionServiceImplTest {
     assertThat(response.getTransactionId()).isEqualTo(1L);
     assertThat(response.getStatus()).isEqualTo(TransactionStatus.AUTHORIZED);
 
-    verify(accountRepository, times(1)).findById(1L);
-    verify(accountRepository, times(1)).findById(2L);
-    verify(transactionRepository, times(2)).save(any(Transaction.class));
-    verify(outboxEventService, times(1)).saveEvent(anyString(), eq(1L), anyString());
+    verify(accountRepository, times(1)).findAllById(List.of(1L, 2L));
+    verify(transactionRepository, times(1)).save(any(Transaction.class));
+    verify(outboxEventService, times(1)).saveEvent(anyString(), eq(1L), any(EncodedEvent.class));
     verify(restTemplate, times(1)).postForEntity(anyString(), any(HttpEntity.class),
         eq(CreateHoldResponse.class));
   }
 
+  @Test
+  void shouldCommitPendingTransactionBeforeRequestingHold() {
+    // given
+    VelocityLimiter.Reservation velocity = mock(VelocityLimiter.Reservation.class);
+    when(velocityLimiter.reserve(any(), any())).thenReturn(velocity);
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(
+        List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.save(any(Transaction.class))).thenReturn(
+        createTransaction(1L, TransactionStatus.PENDING));
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class))).thenThrow(new RuntimeException("Connection refused"));
+
+    // when
+    CreateTransactionResponse response = transactionService.createInboundTransaction(
+        createTransactionRequest());
+
+    // then
+    // The PENDING row stays committed for the sweeper and keeps its velocity count
+    assertThat(response.getTransactionId()).isEqualTo(1L);
+    assertThat(response.getStatus()).isEqualTo(TransactionStatus.PENDING);
+    InOrder inOrder = inOrder(transactionManager, statementDeadline, restTemplate);
+    inOrder.verify(transactionManager).getTransaction(any());
+    inOrder.verify(statementDeadline).apply("creating transaction");
+    inOrder.verify(transactionManager).commit(any());
+    inOrder.verify(restTemplate).postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class));
+    verify(transactionManager, never()).rollback(any());
+    verify(transactionRepository, times(1)).save(any(Transaction.class));
+    verify(velocity, never()).release();
+    verify(duplicateChargeDetector, never()).forget(any(), any(), any(), any());
+  }
+
+  @Test
+  void shouldReportStatusLeftByHoldEventWhenHoldResponseArrivesLate() {
+    // given
+    VelocityLimiter.Reservation velocity = mock(VelocityLimiter.Reservation.class);
+    when(velocityLimiter.reserve(any(), any())).thenReturn(velocity);
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(
+        List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.save(any(Transaction.class))).thenReturn(
+        createTransaction(1L, TransactionStatus.PENDING));
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class)))
+        .thenReturn(ResponseEntity.ok(createHoldResponse(100L, "AUTHORIZED")));
+    // hold.expired got there first
+    when(transactionRepository.transition(1L, TransactionTransition.AUTHORIZE, 100L))
+        .thenReturn(false);
+    when(transactionRepository.findById(1L)).thenReturn(
+        Optional.of(createTransaction(1L, TransactionStatus.FAILED)));
+
+    // when
+    CreateTransactionResponse response = transactionService.createInboundTransaction(
+        createTransactionRequest());
+
+    // then
+    assertThat(response.getStatus()).isEqualTo(TransactionStatus.FAILED);
+    verify(velocity).release();
+    verify(duplicateChargeDetector).forget(1L, 2L, new BigDecimal("100.00"), "USD");
+  }
+
   @Test
   void shouldThrowExceptionWhenIssuerAccountNotFound() {
     // given
     CreateTransactionRequest request = createTransactionRequest();
-    when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of());
 
     // when & then
     assertThatThrownBy(() -> transactionService.createInboundTransaction(request)).isInstanceOf(
         IllegalArgumentException.class).hasMessage("Issuer account not found");
 
-    verify(accountRepository, times(1)).findById(1L);
+    verify(accountRepository, times(1)).findAllById(List.of(1L, 2L));
     verify(transactionRepository, never()).save(any());
+    verify(duplicateChargeDetector).forget(1L, 2L, new BigDecimal("100.00"), "USD");
+  }
+
+  @Test
+  void shouldKeepEarlierFingerprintWhenRepeatedChargeFails() {
+    // given
+    CreateTransactionRequest request = createTransactionRequest();
+    when(duplicateChargeDetector.check(1L, 2L, new BigDecimal("100.00"), "USD"))
+        .thenReturn(true);
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of());
+
+    // when & then
+    assertThatThrownBy(() -> transactionService.createInboundTransaction(request)).isInstanceOf(
+        IllegalArgumentException.class).hasMessage("Issuer account not found");
+    verify(duplicateChargeDetector, never()).forget(any(), any(), any(), any());
   }
 
   @Test
@@ -119,18 +247,53 @@ class TransactionServiceImplTest {
     // given
     CreateTransactionRequest request = createTransactionRequest();
     Account issuer = createIssuerAccount();
-    when(accountRepository.findById(1L)).thenReturn(Optional.of(issuer));
-    when(accountRepository.findById(2L)).thenReturn(Optional.empty());
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(issuer));
 
     // when & then
     assertThatThrownBy(() -> transactionService.createInboundTransaction(request)).isInstanceOf(
         IllegalArgumentException.class).hasMessage("Merchant account not found");
 
-    verify(accountRepository, times(1)).findById(1L);
-    verify(accountRepository, times(1)).findById(2L);
+    verify(accountRepository, times(1)).findAllById(List.of(1L, 2L));
     verify(transactionRepository, never()).save(any());
   }
 
+  @Test
+  void shouldAbandonTransactionOnceDeadlineHasPassed() {
+    // given
+    CreateTransactionRequest request = createTransactionRequest();
+
+    // when & then
+    try (Deadline.Scope scope = Deadline.bind(Deadline.afterMillis(0))) {
+      assertThatThrownBy(() -> transactionService.createInboundTransaction(request))
+          .isInstanceOf(DeadlineExceededException.class)
+          .hasMessage("Request deadline of 0 ms exceeded before creating transaction");
+    }
+    verify(transactionRepository, never()).save(any());
+  }
+
+  @Test
+  void shouldReportPendingWhenDeadlinePassesBeforeHoldRequest() {
+    // given
+    CreateTransactionRequest request = createTransactionRequest();
+    when(accountRepository.findAllById(List.of(1L, 2L))).thenReturn(
+        List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+      Thread.sleep(100);
+      return createTransaction(1L, TransactionStatus.PENDING);
+    });
+
+    // when
+    CreateTransactionResponse response;
+    try (Deadline.Scope scope = Deadline.bind(Deadline.afterMillis(50))) {
+      response = transactionService.createInboundTransaction(request);
+    }
+
+    // then
+    assertThat(response.getStatus()).isEqualTo(TransactionStatus.PENDING);
+    verify(restTemplate, never()).postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class));
+  }
+
   @Test
   void shouldCommitTransactionSuccessfully() {
     // given
@@ -144,8 +307,10 @@ class TransactionServiceImplTest {
     Account merchant = createMerchantAccount();
 
     when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(transaction));
-    when(accountRepository.findById(1L)).thenReturn(Optional.of(issuer));
-    when(accountRepository.findById(2L)).thenReturn(Optional.of(merchant));
+    when(transactionRepository.transition(transactionId, TransactionTransition.SETTLE))
+        .thenReturn(true);
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(issuer, merchant));
 
     // when
     CommitTransactionResponse response = transactionService.commitTransaction(transactionId,
@@ -156,8 +321,32 @@ class TransactionServiceImplTest {
     assertThat(response.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
 
     verify(transactionRepository, times(1)).findById(transactionId);
-    verify(transactionRepository, times(1)).save(transaction);
-    verify(outboxEventService, times(1)).saveEvent(anyString(), eq(transactionId), anyString());
+    verify(transactionRepository, times(1)).transition(transactionId,
+        TransactionTransition.SETTLE);
+    verify(transactionRepository, never()).save(any());
+    verify(outboxEventService, times(1)).saveEvent(
+        anyString(), eq(transactionId), any(EncodedEvent.class));
+  }
+
+  @Test
+  void shouldCommitLoadedTransactionWithoutReadingItAgain() {
+    // given
+    Transaction transaction = createTransaction(1L, TransactionStatus.AUTHORIZED);
+    transaction.setHoldId(100L);
+    CommitTransactionRequest request = CommitTransactionRequest.builder()
+        .transactionId(1L).holdId(100L).build();
+    when(transactionRepository.transition(1L, TransactionTransition.SETTLE)).thenReturn(true);
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+
+    // when
+    CommitTransactionResponse response = transactionService.commitTransaction(transaction,
+        request);
+
+    // then
+    assertThat(response.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    verify(statementDeadline).apply("committing transaction");
+    verify(transactionRepository, never()).findById(any());
   }
 
   @Test
@@ -168,7 +357,10 @@ class TransactionServiceImplTest {
         .transactionId(transactionId).holdId(100L).build();
 
     Transaction transaction = createTransaction(transactionId, TransactionStatus.PENDING);
+    transaction.setHoldId(100L);
     when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(transaction));
+    when(transactionRepository.transition(transactionId, TransactionTransition.SETTLE))
+        .thenReturn(false);
 
     // when & then
     assertThatThrownBy(
@@ -180,6 +372,353 @@ class TransactionServiceImplTest {
     verify(transactionRepository, never()).save(any());
   }
 
+  @Test
+  void shouldCheckHoldIdBeforeSettlingTransaction() {
+    // given
+    Long transactionId = 1L;
+    CommitTransactionRequest request = CommitTransactionRequest.builder()
+        .transactionId(transactionId).holdId(999L).build();
+
+    Transaction transaction = createTransaction(transactionId, TransactionStatus.AUTHORIZED);
+    transaction.setHoldId(100L);
+    when(transactionRepository.findById(transactionId)).thenReturn(Optional.of(transaction));
+
+    // when & then
+    assertThatThrownBy(
+        () -> transactionService.commitTransaction(transactionId, request)).isInstanceOf(
+            IllegalArgumentException.class)
+        .hasMessage("Hold ID mismatch");
+
+    verify(transactionRepository, never()).transition(any(), any());
+    verify(accountRepository, never()).findAllForUpdate(any());
+  }
+
+  @Test
+  void shouldCommitThroughDatabaseRoutineWhenEnabled() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "databasePostingEnabled", true);
+    Long transactionId = 1L;
+    CommitTransactionRequest request = CommitTransactionRequest.builder()
+        .transactionId(transactionId).holdId(100L).build();
+    when(transactionRepository.postTransaction(transactionId, 100L)).thenReturn(0);
+
+    // when
+    CommitTransactionResponse response = transactionService.commitTransaction(transactionId,
+        request);
+
+    // then
+    assertThat(response.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    verify(transactionRepository, never()).findById(any());
+    verify(accountRepository, never()).save(any());
+    verify(outboxEventService, never()).saveEvent(anyString(), any(), any(EncodedEvent.class));
+  }
+
+  @Test
+  void shouldMapDatabaseRoutineRejectionToException() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "databasePostingEnabled", true);
+    Long transactionId = 1L;
+    CommitTransactionRequest request = CommitTransactionRequest.builder()
+        .transactionId(transactionId).holdId(999L).build();
+    when(transactionRepository.postTransaction(transactionId, 999L)).thenReturn(3);
+
+    // when & then
+    assertThatThrownBy(
+        () -> transactionService.commitTransaction(transactionId, request)).isInstanceOf(
+            IllegalArgumentException.class)
+        .hasMessageContaining("Hold ID mismatch");
+  }
+
+  @Test
+  void shouldCreateTransactionBatchWithPerItemResults() {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    ReflectionTestUtils.setField(transactionService, "holdRequestExecutor", executor);
+    CreateTransactionRequest first = createTransactionRequest();
+    CreateTransactionRequest unknownMerchant = createTransactionRequest();
+    unknownMerchant.setMerchantAccountId(3L);
+    CreateTransactionRequest second = createTransactionRequest();
+    second.setAmount(new BigDecimal("200.00"));
+    CreateTransactionRequest overdrawing = createTransactionRequest();
+    overdrawing.setAmount(new BigDecimal("800.00"));
+
+    AtomicLong ids = new AtomicLong(1L);
+    when(accountRepository.findAllById(List.of(1L, 2L, 3L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Transaction> transactions = invocation.getArgument(0);
+      transactions.stream().filter(t -> t.getTransactionId() == null)
+          .forEach(t -> t.setTransactionId(ids.getAndIncrement()));
+      return transactions;
+    });
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class)))
+        .thenReturn(ResponseEntity.ok(createHoldResponse(100L, "AUTHORIZED")));
+    when(transactionRepository.transition(any(), eq(TransactionTransition.AUTHORIZE), eq(100L)))
+        .thenReturn(true);
+
+    // when
+    CreateTransactionBatchResponse response = transactionService.createInboundTransactions(
+        List.of(first, unknownMerchant, second, overdrawing));
+    executor.shutdown();
+
+    // then
+    List<CreateTransactionBatchResponse.Item> results = response.getResults();
+    assertThat(results).hasSize(4);
+    assertThat(results.get(0).getTransactionId()).isEqualTo(1L);
+    assertThat(results.get(0).getStatus()).isEqualTo(TransactionStatus.AUTHORIZED);
+    assertThat(results.get(1).getTransactionId()).isNull();
+    assertThat(results.get(1).getError()).isEqualTo("Merchant account not found");
+    assertThat(results.get(2).getTransactionId()).isEqualTo(2L);
+    assertThat(results.get(2).getStatus()).isEqualTo(TransactionStatus.AUTHORIZED);
+    // 1000 available, 300 already claimed by earlier items of the batch
+    assertThat(results.get(3).getError()).isEqualTo("Insufficient available balance");
+
+    verify(accountRepository, times(1)).findAllById(List.of(1L, 2L, 3L));
+    verify(transactionRepository, times(1)).saveAll(anyList());
+    verify(transactionRepository).transition(1L, TransactionTransition.AUTHORIZE, 100L);
+    verify(transactionRepository).transition(2L, TransactionTransition.AUTHORIZE, 100L);
+    verify(transactionRepository, never()).save(any(Transaction.class));
+    verify(outboxEventService, times(2)).saveEvent(anyString(), any(), any(EncodedEvent.class));
+    verify(restTemplate, times(2)).postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class));
+  }
+
+  @Test
+  void shouldRequestBatchHoldsOnlyAfterPendingTransactionsAreCommitted() {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    ReflectionTestUtils.setField(transactionService, "holdRequestExecutor", executor);
+    when(accountRepository.findAllById(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Transaction> transactions = invocation.getArgument(0);
+      transactions.forEach(t -> t.setTransactionId(1L));
+      return transactions;
+    });
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class)))
+        .thenReturn(ResponseEntity.ok(createHoldResponse(100L, "AUTHORIZED")));
+    when(transactionRepository.transition(1L, TransactionTransition.AUTHORIZE, 100L))
+        .thenReturn(true);
+
+    // when
+    transactionService.createInboundTransactions(List.of(createTransactionRequest()));
+    executor.shutdown();
+
+    // then
+    InOrder inOrder = inOrder(transactionManager, restTemplate);
+    inOrder.verify(transactionManager).commit(any());
+    inOrder.verify(restTemplate).postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class));
+    inOrder.verify(transactionManager).commit(any());
+  }
+
+  @Test
+  void shouldReportBatchPendingWhenHoldOutcomesCannotBeRecorded() {
+    // given
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    ReflectionTestUtils.setField(transactionService, "holdRequestExecutor", executor);
+    VelocityLimiter.Reservation velocity = mock(VelocityLimiter.Reservation.class);
+    when(velocityLimiter.reserve(any(), any())).thenReturn(velocity);
+    when(accountRepository.findAllById(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<Transaction> transactions = invocation.getArgument(0);
+      transactions.forEach(t -> t.setTransactionId(1L));
+      return transactions;
+    });
+    when(restTemplate.postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class)))
+        .thenReturn(ResponseEntity.ok(createHoldResponse(100L, "AUTHORIZED")));
+    when(transactionRepository.transition(1L, TransactionTransition.AUTHORIZE, 100L))
+        .thenThrow(new QueryTimeoutException("update timed out"));
+
+    // when
+    CreateTransactionBatchResponse response = transactionService.createInboundTransactions(
+        List.of(createTransactionRequest()));
+    executor.shutdown();
+
+    // then
+    assertThat(response.getResults().get(0).getTransactionId()).isEqualTo(1L);
+    assertThat(response.getResults().get(0).getStatus()).isEqualTo(TransactionStatus.PENDING);
+    verify(velocity, never()).release();
+  }
+
+  @Test
+  void shouldScreenEachBatchItemLikeASingleTransaction() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    CreateTransactionRequest duplicate = createTransactionRequest();
+    CreateTransactionRequest inactive = createTransactionRequest();
+    inactive.setIssuerAccountId(5L);
+    when(duplicateChargeDetector.check(1L, 2L, new BigDecimal("100.00"), "USD"))
+        .thenThrow(new IllegalStateException("Duplicate charge"));
+    doThrow(new IllegalArgumentException("Accounts must be ACTIVE"))
+        .when(accountMetadataCache).checkParties(5L, 2L, true);
+
+    // when
+    CreateTransactionBatchResponse response = transactionService.createInboundTransactions(
+        List.of(duplicate, inactive));
+
+    // then
+    assertThat(response.getResults()).extracting(CreateTransactionBatchResponse.Item::getError)
+        .containsExactly("Duplicate charge", "Accounts must be ACTIVE");
+    verify(duplicateChargeDetector).forget(5L, 2L, new BigDecimal("100.00"), "USD");
+    verify(duplicateChargeDetector, never()).forget(eq(1L), any(), any(), any());
+    verify(accountRepository, never()).findAllById(any());
+    verify(transactionManager, never()).getTransaction(any());
+  }
+
+  @Test
+  void shouldReleaseBatchVelocityReservationsWhenPendingInsertFails() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    VelocityLimiter.Reservation velocity = mock(VelocityLimiter.Reservation.class);
+    when(velocityLimiter.reserve(any(), any())).thenReturn(velocity);
+    when(accountRepository.findAllById(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.saveAll(anyList()))
+        .thenThrow(new QueryTimeoutException("insert timed out"));
+    List<CreateTransactionRequest> requests = List.of(createTransactionRequest(),
+        createTransactionRequest());
+
+    // when & then
+    assertThatThrownBy(() -> transactionService.createInboundTransactions(requests))
+        .isInstanceOf(QueryTimeoutException.class);
+    verify(velocity, times(2)).release();
+    verify(duplicateChargeDetector, times(2)).forget(1L, 2L, new BigDecimal("100.00"), "USD");
+    verify(transactionManager).rollback(any());
+    verify(restTemplate, never()).postForEntity(anyString(), any(HttpEntity.class),
+        eq(CreateHoldResponse.class));
+  }
+
+  @Test
+  void shouldCommitTransactionBatchWithOneLockAndAggregatedBalances() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    Transaction first = createTransaction(1L, TransactionStatus.AUTHORIZED);
+    first.setHoldId(100L);
+    Transaction second = createTransaction(2L, TransactionStatus.AUTHORIZED);
+    second.setHoldId(200L);
+    Transaction mismatched = createTransaction(3L, TransactionStatus.AUTHORIZED);
+    mismatched.setHoldId(300L);
+    Account issuer = createIssuerAccount();
+    issuer.setReserved(Money.of(new BigDecimal("300.00")));
+    Account merchant = createMerchantAccount();
+
+    when(transactionRepository.findAllForUpdate(List.of(1L, 2L, 3L)))
+        .thenReturn(List.of(first, second, mismatched));
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(issuer, merchant));
+    when(transactionRepository.transitionAll(List.of(1L, 2L), TransactionTransition.SETTLE))
+        .thenReturn(2);
+
+    // when
+    CommitTransactionBatchResponse response = transactionService.commitTransactions(List.of(
+        CommitTransactionRequest.builder().transactionId(1L).holdId(100L).build(),
+        CommitTransactionRequest.builder().transactionId(2L).holdId(200L).build(),
+        CommitTransactionRequest.builder().transactionId(3L).holdId(999L).build()));
+
+    // then
+    List<CommitTransactionResponse> results = response.getResults();
+    assertThat(results.get(0).getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    assertThat(results.get(1).getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    assertThat(results.get(2).getStatus()).isNull();
+    assertThat(results.get(2).getMessage()).isEqualTo("Hold ID mismatch");
+
+    assertThat(issuer.getAvailableBalance().toBigDecimal()).isEqualByComparingTo("800.00");
+    assertThat(issuer.getReserved().toBigDecimal()).isEqualByComparingTo("100.00");
+    assertThat(merchant.getAvailableBalance().toBigDecimal()).isEqualByComparingTo("200.00");
+
+    verify(accountRepository, times(1)).findAllForUpdate(List.of(1L, 2L));
+    verify(accountRepository, times(1)).saveAll(List.of(issuer, merchant));
+    verify(transactionRepository, times(1)).transitionAll(List.of(1L, 2L),
+        TransactionTransition.SETTLE);
+    verify(transactionRepository, never()).transition(any(), any());
+    verify(transactionRepository, never()).saveAll(anyList());
+    verify(transactionEntryRepository, times(1)).saveAll(anyList());
+    verify(outboxEventService, times(2)).saveEvent(anyString(), any(), any(EncodedEvent.class));
+  }
+
+  @Test
+  void shouldLeaveStatusAloneWhenEngineRefusesSettlementInBatch() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    Transaction first = createTransaction(1L, TransactionStatus.AUTHORIZED);
+    first.setHoldId(100L);
+    Transaction refused = createTransaction(2L, TransactionStatus.AUTHORIZED);
+    refused.setHoldId(200L);
+    when(authorizationEngine.isEnabled()).thenReturn(true);
+    when(transactionRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(first, refused));
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(authorizationEngine.apply(any())).thenAnswer(invocation -> {
+      BalanceOperation operation = invocation.getArgument(0);
+      if (operation.transactionId().equals(2L)) {
+        throw new IllegalStateException("Settlement refused");
+      }
+      return null;
+    });
+    when(transactionRepository.transitionAll(List.of(1L), TransactionTransition.SETTLE))
+        .thenReturn(1);
+
+    // when
+    CommitTransactionBatchResponse response = transactionService.commitTransactions(List.of(
+        CommitTransactionRequest.builder().transactionId(1L).holdId(100L).build(),
+        CommitTransactionRequest.builder().transactionId(2L).holdId(200L).build()));
+
+    // then
+    assertThat(response.getResults().get(0).getStatus()).isEqualTo(TransactionStatus.SUCCESS);
+    assertThat(response.getResults().get(1).getMessage()).isEqualTo("Settlement refused");
+    verify(transactionRepository).transitionAll(List.of(1L), TransactionTransition.SETTLE);
+    verify(transactionRepository, never()).updateStatus(any(), anyList(), anyString());
+  }
+
+  @Test
+  void shouldRollBackTransactionBatchWhenStatusChangedWhileLocked() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 10);
+    Transaction first = createTransaction(1L, TransactionStatus.AUTHORIZED);
+    first.setHoldId(100L);
+    Transaction second = createTransaction(2L, TransactionStatus.AUTHORIZED);
+    second.setHoldId(200L);
+    when(transactionRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(first, second));
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(createIssuerAccount(), createMerchantAccount()));
+    when(transactionRepository.transitionAll(List.of(1L, 2L), TransactionTransition.SETTLE))
+        .thenReturn(1);
+    List<CommitTransactionRequest> requests = List.of(
+        CommitTransactionRequest.builder().transactionId(1L).holdId(100L).build(),
+        CommitTransactionRequest.builder().transactionId(2L).holdId(200L).build());
+
+    // when & then
+    assertThatThrownBy(() -> transactionService.commitTransactions(requests))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Only 1 of 2 transactions were still AUTHORIZED while locked");
+    verify(accountRepository, never()).saveAll(anyList());
+    verify(transactionEntryRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void shouldRejectTransactionBatchAboveMaximumSize() {
+    // given
+    ReflectionTestUtils.setField(transactionService, "maxBatchSize", 1);
+    List<CreateTransactionRequest> requests = List.of(createTransactionRequest(),
+        createTransactionRequest());
+
+    // when & then
+    assertThatThrownBy(() -> transactionService.createInboundTransactions(requests))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Batch of 2 transactions exceeds the maximum of 1");
+    verify(accountRepository, never()).findAllById(any());
+  }
+
   private CreateTransactionRequest createTransactionRequest() {
     CreateTransactionRequest request = new CreateTransactionRequest();
     request.setIssuerAccountId(1L);
@@ -194,8 +733,8 @@ class TransactionServiceImplTest {
     account.setAccountId(1L);
     account.setType(AccountType.ISSUER);
     account.setStatus(AccountStatus.ACTIVE);
-    account.setAvailableBalance(new BigDecimal("1000.00"));
-    account.setReserved(BigDecimal.ZERO);
+    account.setAvailableBalance(Money.of(new BigDecimal("1000.00")));
+    account.setReserved(Money.ZERO);
     return account;
   }
 
@@ -204,8 +743,8 @@ class TransactionServiceImplTest {
     account.setAccountId(2L);
     account.setType(AccountType.MERCHANT);
     account.setStatus(AccountStatus.ACTIVE);
-    account.setAvailableBalance(BigDecimal.ZERO);
-    account.setReserved(BigDecimal.ZERO);
+    account.setAvailableBalance(Money.ZERO);
+    account.setReserved(Money.ZERO);
     return account;
   }
 
@@ -235,8 +774,8 @@ class TransactionServiceImplTest {
     Transaction saved = createTransaction(10L, TransactionStatus.SUCCESS);
     saved.setType(TransactionType.CASHBACK);
 
-    when(accountRepository.findById(1L)).thenReturn(Optional.of(issuer));
-    when(accountRepository.findById(2L)).thenReturn(Optional.of(merchant));
+    when(accountRepository.findAllForUpdate(List.of(1L, 2L)))
+        .thenReturn(List.of(issuer, merchant));
     when(transactionRepository.save(any(Transaction.class))).thenReturn(saved);
 
     // when
@@ -245,7 +784,7 @@ class TransactionServiceImplTest {
     // then
     assertThat(response.getTransactionId()).isEqualTo(10L);
     assertThat(response.getStatus()).isEqualTo(TransactionStatus.SUCCESS);
-    verify(outboxEventService, times(1)).saveEvent(anyString(), eq(10L), anyString());
+    verify(outboxEventService, times(1)).saveEvent(anyString(), eq(10L), any(EncodedEvent.class));
     verify(transactionEntryRepository, times(2)).save(any());
   }
 
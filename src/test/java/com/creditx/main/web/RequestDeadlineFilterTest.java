@@ -0,0 +1,67 @@
+package com.creditx.main.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditx.main.deadline.Deadline;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RequestDeadlineFilterTest {
+
+  private RequestDeadlineFilter filter;
+
+  @BeforeEach
+  void setup() {
+    filter = new RequestDeadlineFilter();
+    ReflectionTestUtils.setField(filter, "enabled", true);
+    ReflectionTestUtils.setField(filter, "defaultMs", 10_000L);
+    ReflectionTestUtils.setField(filter, "batchMs", 30_000L);
+    ReflectionTestUtils.setField(filter, "maxMs", 60_000L);
+  }
+
+  @Test
+  void shouldBindClientBudgetForTheRequestOnly() throws Exception {
+    // given
+    MockHttpServletRequest request = post("/api/transactions");
+    request.addHeader(Deadline.HEADER, "2000");
+    AtomicReference<Deadline> seen = new AtomicReference<>();
+
+    // when
+    filter.doFilter(request, new MockHttpServletResponse(),
+        (req, res) -> seen.set(Deadline.current()));
+
+    // then
+    assertThat(seen.get().getBudgetMillis()).isEqualTo(2000L);
+    assertThat(Deadline.current()).isNull();
+  }
+
+  @Test
+  void shouldFallBackToEndpointDefaultAndCapClientBudget() {
+    assertThat(filter.budgetMillis(null, "/api/transactions")).isEqualTo(10_000L);
+    assertThat(filter.budgetMillis(null, "/api/transactions/commit/batch")).isEqualTo(30_000L);
+    assertThat(filter.budgetMillis("600000", "/api/transactions")).isEqualTo(60_000L);
+  }
+
+  @Test
+  void shouldRejectMalformedBudget() throws Exception {
+    // given
+    MockHttpServletRequest request = post("/api/transactions");
+    request.addHeader(Deadline.HEADER, "soon");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // when
+    filter.doFilter(request, response, new MockFilterChain());
+
+    // then
+    assertThat(response.getStatus()).isEqualTo(400);
+  }
+
+  private static MockHttpServletRequest post(String uri) {
+    return new MockHttpServletRequest("POST", uri);
+  }
+}
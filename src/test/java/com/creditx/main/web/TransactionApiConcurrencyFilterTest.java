@@ -0,0 +1,91 @@
+package com.creditx.main.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TransactionApiConcurrencyFilterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private TransactionApiConcurrencyFilter filter;
+
+  @BeforeEach
+  void setup() {
+    StaticListableBeanFactory beans = new StaticListableBeanFactory();
+    beans.addBean("meterRegistry", meterRegistry);
+    filter = new TransactionApiConcurrencyFilter(beans.getBeanProvider(MeterRegistry.class));
+    ReflectionTestUtils.setField(filter, "enabled", true);
+    ReflectionTestUtils.setField(filter, "minLimit", 1);
+    ReflectionTestUtils.setField(filter, "publicInitialLimit", 1);
+    ReflectionTestUtils.setField(filter, "publicMaxLimit", 1);
+    ReflectionTestUtils.setField(filter, "internalInitialLimit", 1);
+    ReflectionTestUtils.setField(filter, "internalMaxLimit", 1);
+    ReflectionTestUtils.setField(filter, "retryAfterSeconds", 2);
+    filter.init();
+  }
+
+  @Test
+  void shouldShedPublicRequestsBeyondLimitButKeepInternalLaneOpen() throws Exception {
+    // given
+    CountDownLatch inside = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FilterChain blocking = (request, response) -> {
+      inside.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+      try {
+        filter.doFilter(post("/api/transactions"), new MockHttpServletResponse(), blocking);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    MockHttpServletResponse shed = new MockHttpServletResponse();
+    filter.doFilter(post("/api/transactions"), shed, new MockFilterChain());
+    MockHttpServletResponse commit = new MockHttpServletResponse();
+    filter.doFilter(post("/api/transactions/7/commit"), commit, new MockFilterChain());
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+
+    // then
+    assertThat(shed.getStatus()).isEqualTo(503);
+    assertThat(shed.getHeader("Retry-After")).isEqualTo("2");
+    assertThat(commit.getStatus()).isEqualTo(200);
+    assertThat(meterRegistry.get("creditx.api.concurrency.rejected").tag("lane", "public")
+        .counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void shouldClassifyInternalEndpoints() {
+    assertThat(TransactionApiConcurrencyFilter.isInternal("/api/transactions/cashback")).isTrue();
+    assertThat(TransactionApiConcurrencyFilter.isInternal("/api/transactions/42/commit")).isTrue();
+    assertThat(TransactionApiConcurrencyFilter.isInternal("/api/transactions/commit/batch"))
+        .isTrue();
+    assertThat(TransactionApiConcurrencyFilter.isInternal("/api/transactions")).isFalse();
+    assertThat(TransactionApiConcurrencyFilter.isInternal("/api/transactions/batch")).isFalse();
+  }
+
+  private static MockHttpServletRequest post(String uri) {
+    return new MockHttpServletRequest("POST", uri);
+  }
+}